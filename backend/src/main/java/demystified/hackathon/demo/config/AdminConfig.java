@@ -0,0 +1,22 @@
+package demystified.hackathon.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for the operator endpoints. Callers must send {@code token} as a bearer
+ * token; while it is blank the endpoints answer {@code 403} to everyone.
+ */
+@Component
+@ConfigurationProperties(prefix = "admin")
+public class AdminConfig {
+    private String token = "";
+
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+}
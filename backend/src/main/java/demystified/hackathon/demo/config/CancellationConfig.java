@@ -0,0 +1,43 @@
+package demystified.hackathon.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for cancelling prompts whose client went away. {@code policy} decides
+ * what happens to the answer: {@code cancel} aborts the model call and skips the
+ * email, {@code complete} finishes and emails as if the client were still there,
+ * and {@code complete-with-email}, the default, finishes only when the request named
+ * an email address to send the answer to, so a user who closes the page still gets it.
+ */
+@Component
+@ConfigurationProperties(prefix = "cancellation")
+public class CancellationConfig {
+    private boolean enabled = true;
+    private String policy = "complete-with-email";
+    private long requestTimeoutMs = 300000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getPolicy() {
+        return policy;
+    }
+
+    public void setPolicy(String policy) {
+        this.policy = policy;
+    }
+
+    public long getRequestTimeoutMs() {
+        return requestTimeoutMs;
+    }
+
+    public void setRequestTimeoutMs(long requestTimeoutMs) {
+        this.requestTimeoutMs = requestTimeoutMs;
+    }
+}
@@ -0,0 +1,49 @@
+package demystified.hackathon.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Limits and spooling behaviour for CSV uploads.
+ */
+@Component
+@ConfigurationProperties(prefix = "csv.upload")
+public class CsvUploadConfig {
+    private DataSize maxFileSize = DataSize.ofMegabytes(20);
+    private DataSize maxUncompressedSize = DataSize.ofMegabytes(50);
+    private DataSize spoolThreshold = DataSize.ofMegabytes(1);
+    private String spoolDirectory = System.getProperty("java.io.tmpdir");
+
+    public DataSize getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    public void setMaxFileSize(DataSize maxFileSize) {
+        this.maxFileSize = maxFileSize;
+    }
+
+    public DataSize getMaxUncompressedSize() {
+        return maxUncompressedSize;
+    }
+
+    public void setMaxUncompressedSize(DataSize maxUncompressedSize) {
+        this.maxUncompressedSize = maxUncompressedSize;
+    }
+
+    public DataSize getSpoolThreshold() {
+        return spoolThreshold;
+    }
+
+    public void setSpoolThreshold(DataSize spoolThreshold) {
+        this.spoolThreshold = spoolThreshold;
+    }
+
+    public String getSpoolDirectory() {
+        return spoolDirectory;
+    }
+
+    public void setSpoolDirectory(String spoolDirectory) {
+        this.spoolDirectory = spoolDirectory;
+    }
+}
@@ -0,0 +1,69 @@
+package demystified.hackathon.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Settings for stored CSV datasets. Each user (by email) may keep {@code maxPerUser}
+ * datasets and all datasets together may take {@code maxTotalSize} on disk. A dataset
+ * not used for {@code ttlMs} is deleted by a sweep every {@code cleanupIntervalMs}.
+ */
+@Component
+@ConfigurationProperties(prefix = "datasets")
+public class DatasetConfig {
+    private boolean enabled = true;
+    private String directory = "data/datasets";
+    private int maxPerUser = 10;
+    private DataSize maxTotalSize = DataSize.ofGigabytes(1);
+    private long ttlMs = 24L * 60 * 60 * 1000;
+    private long cleanupIntervalMs = 10 * 60 * 1000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public int getMaxPerUser() {
+        return maxPerUser;
+    }
+
+    public void setMaxPerUser(int maxPerUser) {
+        this.maxPerUser = maxPerUser;
+    }
+
+    public DataSize getMaxTotalSize() {
+        return maxTotalSize;
+    }
+
+    public void setMaxTotalSize(DataSize maxTotalSize) {
+        this.maxTotalSize = maxTotalSize;
+    }
+
+    public long getTtlMs() {
+        return ttlMs;
+    }
+
+    public void setTtlMs(long ttlMs) {
+        this.ttlMs = ttlMs;
+    }
+
+    public long getCleanupIntervalMs() {
+        return cleanupIntervalMs;
+    }
+
+    public void setCleanupIntervalMs(long cleanupIntervalMs) {
+        this.cleanupIntervalMs = cleanupIntervalMs;
+    }
+}
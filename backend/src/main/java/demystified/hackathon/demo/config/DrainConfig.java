@@ -0,0 +1,31 @@
+package demystified.hackathon.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for draining in-flight prompts on shutdown. Keep
+ * {@code spring.lifecycle.timeout-per-shutdown-phase} above the timeout.
+ */
+@Component
+@ConfigurationProperties(prefix = "shutdown.drain")
+public class DrainConfig {
+    private boolean enabled = true;
+    private long timeoutMs = 30000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    public void setTimeoutMs(long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+}
@@ -0,0 +1,50 @@
+package demystified.hackathon.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for collapsing bursts of response emails to the same recipient into a
+ * single digest. A recipient's buffer is sent when its oldest entry reaches the
+ * window or when it holds {@code maxEntriesPerDigest} responses.
+ */
+@Component
+@ConfigurationProperties(prefix = "email.digest")
+public class EmailDigestConfig {
+    private boolean enabled = false;
+    private long windowMs = 600000;
+    private int maxEntriesPerDigest = 10;
+    private int maxBufferedEntries = 1000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getWindowMs() {
+        return windowMs;
+    }
+
+    public void setWindowMs(long windowMs) {
+        this.windowMs = windowMs;
+    }
+
+    public int getMaxEntriesPerDigest() {
+        return maxEntriesPerDigest;
+    }
+
+    public void setMaxEntriesPerDigest(int maxEntriesPerDigest) {
+        this.maxEntriesPerDigest = maxEntriesPerDigest;
+    }
+
+    public int getMaxBufferedEntries() {
+        return maxBufferedEntries;
+    }
+
+    public void setMaxBufferedEntries(int maxBufferedEntries) {
+        this.maxBufferedEntries = maxBufferedEntries;
+    }
+}
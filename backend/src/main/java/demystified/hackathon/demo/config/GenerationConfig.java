@@ -0,0 +1,177 @@
+package demystified.hackathon.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generation parameter profiles and context window sizing. Clients pick a profile by
+ * name; without one, CSV prompts use {@code csvProfile} and others {@code defaultProfile}.
+ * A profile's {@code maxTokens} is an upper bound: the request gets whatever is left of
+ * the model's context window after the estimated input, if that is less, but never less
+ * than {@code minCompletionTokens} (or the profile's own {@code maxTokens} when that is
+ * smaller). A prompt that would leave less is trimmed or rejected instead.
+ *
+ * <p>The model is chosen at deploy time, so its window should be set alongside it
+ * ({@code WATSONX_CONTEXT_WINDOW_TOKENS}); the default matches the 128k window of current
+ * watsonx chat models. Windows can also be keyed by model id, e.g.
+ * {@code watsonx.generation.context-window-tokens-by-model[ibm/granite-13b-chat-v2]=8192}.
+ */
+@Component
+@ConfigurationProperties(prefix = "watsonx.generation")
+public class GenerationConfig {
+    private String defaultProfile = "standard";
+    private String csvProfile = "analysis";
+    private int contextWindowTokens = 131072;
+    private Map<String, Integer> contextWindowTokensByModel = new HashMap<>();
+    private int minCompletionTokens = 1000;
+    private double estimateMargin = 1.1;
+    private boolean truncateOversizedCsv = true;
+    private Map<String, Profile> profiles = defaultProfiles();
+
+    public String getDefaultProfile() {
+        return defaultProfile;
+    }
+
+    public void setDefaultProfile(String defaultProfile) {
+        this.defaultProfile = defaultProfile;
+    }
+
+    public String getCsvProfile() {
+        return csvProfile;
+    }
+
+    public void setCsvProfile(String csvProfile) {
+        this.csvProfile = csvProfile;
+    }
+
+    public int getContextWindowTokens() {
+        return contextWindowTokens;
+    }
+
+    public void setContextWindowTokens(int contextWindowTokens) {
+        this.contextWindowTokens = contextWindowTokens;
+    }
+
+    public Map<String, Integer> getContextWindowTokensByModel() {
+        return contextWindowTokensByModel;
+    }
+
+    public void setContextWindowTokensByModel(Map<String, Integer> contextWindowTokensByModel) {
+        this.contextWindowTokensByModel = contextWindowTokensByModel;
+    }
+
+    public int getMinCompletionTokens() {
+        return minCompletionTokens;
+    }
+
+    public void setMinCompletionTokens(int minCompletionTokens) {
+        this.minCompletionTokens = minCompletionTokens;
+    }
+
+    public double getEstimateMargin() {
+        return estimateMargin;
+    }
+
+    public void setEstimateMargin(double estimateMargin) {
+        this.estimateMargin = estimateMargin;
+    }
+
+    public boolean isTruncateOversizedCsv() {
+        return truncateOversizedCsv;
+    }
+
+    public void setTruncateOversizedCsv(boolean truncateOversizedCsv) {
+        this.truncateOversizedCsv = truncateOversizedCsv;
+    }
+
+    public Map<String, Profile> getProfiles() {
+        return profiles;
+    }
+
+    public void setProfiles(Map<String, Profile> profiles) {
+        this.profiles = profiles;
+    }
+
+    public int contextWindowFor(String modelId) {
+        Integer window = modelId != null ? contextWindowTokensByModel.get(modelId) : null;
+        return window != null ? window : contextWindowTokens;
+    }
+
+    private static Map<String, Profile> defaultProfiles() {
+        Map<String, Profile> profiles = new LinkedHashMap<>();
+        profiles.put("brief", new Profile(300));
+        profiles.put("standard", new Profile(2000));
+        profiles.put("analysis", new Profile(4000));
+        return profiles;
+    }
+
+    public static class Profile {
+        private int maxTokens = 2000;
+        private double temperature = 0;
+        private double topP = 1;
+        private double frequencyPenalty = 0;
+        private double presencePenalty = 0;
+        private List<String> stopSequences = new ArrayList<>();
+
+        public Profile() {
+        }
+
+        Profile(int maxTokens) {
+            this.maxTokens = maxTokens;
+        }
+
+        public int getMaxTokens() {
+            return maxTokens;
+        }
+
+        public void setMaxTokens(int maxTokens) {
+            this.maxTokens = maxTokens;
+        }
+
+        public double getTemperature() {
+            return temperature;
+        }
+
+        public void setTemperature(double temperature) {
+            this.temperature = temperature;
+        }
+
+        public double getTopP() {
+            return topP;
+        }
+
+        public void setTopP(double topP) {
+            this.topP = topP;
+        }
+
+        public double getFrequencyPenalty() {
+            return frequencyPenalty;
+        }
+
+        public void setFrequencyPenalty(double frequencyPenalty) {
+            this.frequencyPenalty = frequencyPenalty;
+        }
+
+        public double getPresencePenalty() {
+            return presencePenalty;
+        }
+
+        public void setPresencePenalty(double presencePenalty) {
+            this.presencePenalty = presencePenalty;
+        }
+
+        public List<String> getStopSequences() {
+            return stopSequences;
+        }
+
+        public void setStopSequences(List<String> stopSequences) {
+            this.stopSequences = stopSequences;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package demystified.hackathon.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for hedged watsonx requests. When enabled, a duplicate request is
+ * issued once the first attempt is slower than the configured latency percentile.
+ * {@code threadPoolSize} caps the threads running attempts; requests beyond it run
+ * unhedged on their own thread. Each request earns {@code maxExtraLoad} of a hedge,
+ * and at most {@code maxBurst} unused hedges are kept.
+ */
+@Component
+@ConfigurationProperties(prefix = "watsonx.hedging")
+public class HedgingConfig {
+    private boolean enabled = false;
+    private double delayPercentile = 95.0;
+    private long initialDelayMs = 10000;
+    private long minDelayMs = 500;
+    private long maxDelayMs = 30000;
+    private double maxExtraLoad = 0.05;
+    private int maxBurst = 10;
+    private String alternateModelId;
+    private int threadPoolSize = 16;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getDelayPercentile() {
+        return delayPercentile;
+    }
+
+    public void setDelayPercentile(double delayPercentile) {
+        this.delayPercentile = delayPercentile;
+    }
+
+    public long getInitialDelayMs() {
+        return initialDelayMs;
+    }
+
+    public void setInitialDelayMs(long initialDelayMs) {
+        this.initialDelayMs = initialDelayMs;
+    }
+
+    public long getMinDelayMs() {
+        return minDelayMs;
+    }
+
+    public void setMinDelayMs(long minDelayMs) {
+        this.minDelayMs = minDelayMs;
+    }
+
+    public long getMaxDelayMs() {
+        return maxDelayMs;
+    }
+
+    public void setMaxDelayMs(long maxDelayMs) {
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    public double getMaxExtraLoad() {
+        return maxExtraLoad;
+    }
+
+    public void setMaxExtraLoad(double maxExtraLoad) {
+        this.maxExtraLoad = maxExtraLoad;
+    }
+
+    public int getMaxBurst() {
+        return maxBurst;
+    }
+
+    public void setMaxBurst(int maxBurst) {
+        this.maxBurst = maxBurst;
+    }
+
+    public String getAlternateModelId() {
+        return alternateModelId;
+    }
+
+    public void setAlternateModelId(String alternateModelId) {
+        this.alternateModelId = alternateModelId;
+    }
+
+    public int getThreadPoolSize() {
+        return threadPoolSize;
+    }
+
+    public void setThreadPoolSize(int threadPoolSize) {
+        this.threadPoolSize = threadPoolSize;
+    }
+}
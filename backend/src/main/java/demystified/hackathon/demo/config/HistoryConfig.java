@@ -0,0 +1,87 @@
+package demystified.hackathon.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Location and write batching of the local prompt/response history log. Every
+ * {@code compactionIntervalMs} records older than {@code retentionMs} are dropped, and
+ * once the log outgrows {@code maxLogSize} its oldest records go as well.
+ */
+@Component
+@ConfigurationProperties(prefix = "history")
+public class HistoryConfig {
+    private boolean enabled = true;
+    private String directory = "data/history";
+    private int queueCapacity = 10000;
+    private int maxBatchSize = 256;
+    private boolean syncOnWrite = false;
+    private long retentionMs = 7L * 24 * 60 * 60 * 1000;
+    private DataSize maxLogSize = DataSize.ofMegabytes(256);
+    private long compactionIntervalMs = 60 * 60 * 1000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public boolean isSyncOnWrite() {
+        return syncOnWrite;
+    }
+
+    public void setSyncOnWrite(boolean syncOnWrite) {
+        this.syncOnWrite = syncOnWrite;
+    }
+
+    public long getRetentionMs() {
+        return retentionMs;
+    }
+
+    public void setRetentionMs(long retentionMs) {
+        this.retentionMs = retentionMs;
+    }
+
+    public DataSize getMaxLogSize() {
+        return maxLogSize;
+    }
+
+    public void setMaxLogSize(DataSize maxLogSize) {
+        this.maxLogSize = maxLogSize;
+    }
+
+    public long getCompactionIntervalMs() {
+        return compactionIntervalMs;
+    }
+
+    public void setCompactionIntervalMs(long compactionIntervalMs) {
+        this.compactionIntervalMs = compactionIntervalMs;
+    }
+}
@@ -0,0 +1,42 @@
+package demystified.hackathon.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for {@code Idempotency-Key} handling. The answer to a keyed prompt is kept
+ * for {@code ttlMs} after it finished, and at most {@code maxEntries} keys are kept,
+ * the oldest finished one being dropped first. Keys still in progress are never
+ * dropped; new keys are refused while all kept keys are in progress.
+ */
+@Component
+@ConfigurationProperties(prefix = "idempotency")
+public class IdempotencyConfig {
+    private boolean enabled = true;
+    private long ttlMs = 24L * 60 * 60 * 1000;
+    private int maxEntries = 10000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getTtlMs() {
+        return ttlMs;
+    }
+
+    public void setTtlMs(long ttlMs) {
+        this.ttlMs = ttlMs;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+}
@@ -0,0 +1,111 @@
+package demystified.hackathon.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Priority lanes for prompt work. Each lane has its own worker threads and bounded
+ * queue, and may hold at most {@code upstreamShare} of the
+ * {@code upstreamMaxConcurrent} watsonx calls. Free upstream slots go to the
+ * highest-priority lane waiting, except that a lower lane whose oldest call has
+ * waited {@code starvationThresholdMs} goes first. The defaults match Tomcat's 200
+ * request threads, so lanes reorder watsonx calls without admitting fewer of them
+ * than the servlet container would.
+ */
+@Component
+@ConfigurationProperties(prefix = "lanes")
+public class LaneConfig {
+    private boolean enabled = true;
+    private int upstreamMaxConcurrent = 200;
+    private long starvationThresholdMs = 5000;
+    private Lane interactive = new Lane(200, 256, 1.0);
+    private Lane csv = new Lane(100, 64, 0.5);
+    private Lane batch = new Lane(50, 1000, 0.25);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getUpstreamMaxConcurrent() {
+        return upstreamMaxConcurrent;
+    }
+
+    public void setUpstreamMaxConcurrent(int upstreamMaxConcurrent) {
+        this.upstreamMaxConcurrent = upstreamMaxConcurrent;
+    }
+
+    public long getStarvationThresholdMs() {
+        return starvationThresholdMs;
+    }
+
+    public void setStarvationThresholdMs(long starvationThresholdMs) {
+        this.starvationThresholdMs = starvationThresholdMs;
+    }
+
+    public Lane getInteractive() {
+        return interactive;
+    }
+
+    public void setInteractive(Lane interactive) {
+        this.interactive = interactive;
+    }
+
+    public Lane getCsv() {
+        return csv;
+    }
+
+    public void setCsv(Lane csv) {
+        this.csv = csv;
+    }
+
+    public Lane getBatch() {
+        return batch;
+    }
+
+    public void setBatch(Lane batch) {
+        this.batch = batch;
+    }
+
+    public static class Lane {
+        private int threads;
+        private int queueCapacity;
+        private double upstreamShare;
+
+        public Lane() {
+        }
+
+        Lane(int threads, int queueCapacity, double upstreamShare) {
+            this.threads = threads;
+            this.queueCapacity = queueCapacity;
+            this.upstreamShare = upstreamShare;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public double getUpstreamShare() {
+            return upstreamShare;
+        }
+
+        public void setUpstreamShare(double upstreamShare) {
+            this.upstreamShare = upstreamShare;
+        }
+    }
+}
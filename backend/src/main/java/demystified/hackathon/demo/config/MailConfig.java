@@ -0,0 +1,44 @@
+package demystified.hackathon.demo.config;
+
+import demystified.hackathon.demo.service.email.PooledJavaMailSender;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.mail.autoconfigure.MailProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+@Configuration
+@EnableConfigurationProperties(MailProperties.class)
+public class MailConfig {
+
+    /**
+     * Replaces the auto-configured sender so that SMTP connections, including their
+     * STARTTLS and AUTH handshakes, are reused across emails. Still configured from
+     * the standard {@code spring.mail.*} properties.
+     */
+    @Bean
+    public JavaMailSender javaMailSender(MailProperties mailProperties, MailPoolConfig poolConfig) {
+        JavaMailSenderImpl sender = poolConfig.isEnabled()
+            ? new PooledJavaMailSender(poolConfig)
+            : new JavaMailSenderImpl();
+        sender.setHost(mailProperties.getHost());
+        if (mailProperties.getPort() != null) {
+            sender.setPort(mailProperties.getPort());
+        }
+        sender.setUsername(mailProperties.getUsername());
+        sender.setPassword(mailProperties.getPassword());
+        sender.setProtocol(mailProperties.getProtocol());
+        sender.setDefaultEncoding(mailProperties.getDefaultEncoding() != null
+            ? mailProperties.getDefaultEncoding().name()
+            : StandardCharsets.UTF_8.name());
+
+        Properties javaMailProperties = new Properties();
+        javaMailProperties.putAll(mailProperties.getProperties());
+        sender.setJavaMailProperties(javaMailProperties);
+        return sender;
+    }
+}
@@ -0,0 +1,72 @@
+package demystified.hackathon.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Settings for on-demand Flight Recorder profiling, off unless {@code enabled} is set.
+ * A recording uses the JDK's
+ * {@code settings} configuration ({@code default} or {@code profile}), stops by itself
+ * after at most {@code maxDurationMs} and keeps at most {@code maxSize} of data,
+ * dropping the oldest chunks first. Recordings are written to {@code directory} until
+ * they are downloaded.
+ */
+@Component
+@ConfigurationProperties(prefix = "profiling")
+public class ProfilingConfig {
+    private boolean enabled = false;
+    private String settings = "profile";
+    private String directory = "data/profiling";
+    private long defaultDurationMs = 60000;
+    private long maxDurationMs = 10 * 60 * 1000;
+    private DataSize maxSize = DataSize.ofMegabytes(100);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getSettings() {
+        return settings;
+    }
+
+    public void setSettings(String settings) {
+        this.settings = settings;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public long getDefaultDurationMs() {
+        return defaultDurationMs;
+    }
+
+    public void setDefaultDurationMs(long defaultDurationMs) {
+        this.defaultDurationMs = defaultDurationMs;
+    }
+
+    public long getMaxDurationMs() {
+        return maxDurationMs;
+    }
+
+    public void setMaxDurationMs(long maxDurationMs) {
+        this.maxDurationMs = maxDurationMs;
+    }
+
+    public DataSize getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(DataSize maxSize) {
+        this.maxSize = maxSize;
+    }
+}
@@ -0,0 +1,49 @@
+package demystified.hackathon.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for answering near-duplicate prompts from cache. Prompts are compared by
+ * the Jaccard similarity of their normalized words and word pairs.
+ */
+@Component
+@ConfigurationProperties(prefix = "watsonx.cache")
+public class PromptCacheConfig {
+    private boolean enabled = false;
+    private double similarityThreshold = 0.8;
+    private int maxEntries = 1000;
+    private long ttlMs = 3600000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getSimilarityThreshold() {
+        return similarityThreshold;
+    }
+
+    public void setSimilarityThreshold(double similarityThreshold) {
+        this.similarityThreshold = similarityThreshold;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public long getTtlMs() {
+        return ttlMs;
+    }
+
+    public void setTtlMs(long ttlMs) {
+        this.ttlMs = ttlMs;
+    }
+}
@@ -0,0 +1,80 @@
+package demystified.hackathon.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for answering CSV questions with a local query. In {@code query} mode the
+ * model sees only the schema and {@code sampleRows} rows, plans a query with the
+ * {@code planProfile} generation profile, and then explains at most
+ * {@code maxResultRows} result rows. {@code defaultMode} applies when a request names
+ * no mode: {@code table}, {@code query}, or {@code auto} (query for aggregation
+ * questions). Tables of {@code parallelThreshold} rows or more are scanned in parallel.
+ */
+@Component
+@ConfigurationProperties(prefix = "csv.query")
+public class QueryConfig {
+    private boolean enabled = true;
+    private String defaultMode = "table";
+    private String planProfile = "brief";
+    private int sampleRows = 5;
+    private int maxResultRows = 50;
+    private int maxGroups = 100000;
+    private int parallelThreshold = 20000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getDefaultMode() {
+        return defaultMode;
+    }
+
+    public void setDefaultMode(String defaultMode) {
+        this.defaultMode = defaultMode;
+    }
+
+    public String getPlanProfile() {
+        return planProfile;
+    }
+
+    public void setPlanProfile(String planProfile) {
+        this.planProfile = planProfile;
+    }
+
+    public int getSampleRows() {
+        return sampleRows;
+    }
+
+    public void setSampleRows(int sampleRows) {
+        this.sampleRows = sampleRows;
+    }
+
+    public int getMaxResultRows() {
+        return maxResultRows;
+    }
+
+    public void setMaxResultRows(int maxResultRows) {
+        this.maxResultRows = maxResultRows;
+    }
+
+    public int getMaxGroups() {
+        return maxGroups;
+    }
+
+    public void setMaxGroups(int maxGroups) {
+        this.maxGroups = maxGroups;
+    }
+
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+}
@@ -0,0 +1,70 @@
+package demystified.hackathon.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for sending only the CSV rows relevant to the question. Tables with at
+ * least {@code minRows} data rows are ranked with BM25 ({@code k1}, {@code b}) and cut
+ * to the {@code topK} best rows; smaller tables, and questions that match no row,
+ * are sent whole. Tables of {@code parallelThreshold} rows or more are indexed in
+ * parallel.
+ */
+@Component
+@ConfigurationProperties(prefix = "csv.retrieval")
+public class RetrievalConfig {
+    private boolean enabled = true;
+    private int minRows = 1000;
+    private int topK = 200;
+    private double k1 = 1.2;
+    private double b = 0.75;
+    private int parallelThreshold = 20000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMinRows() {
+        return minRows;
+    }
+
+    public void setMinRows(int minRows) {
+        this.minRows = minRows;
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    public void setTopK(int topK) {
+        this.topK = topK;
+    }
+
+    public double getK1() {
+        return k1;
+    }
+
+    public void setK1(double k1) {
+        this.k1 = k1;
+    }
+
+    public double getB() {
+        return b;
+    }
+
+    public void setB(double b) {
+        this.b = b;
+    }
+
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+}
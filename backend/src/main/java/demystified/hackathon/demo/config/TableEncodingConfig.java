@@ -0,0 +1,34 @@
+package demystified.hackathon.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for how CSV context is written into the prompt. {@code defaultEncoding}
+ * applies when a request names no encoding: {@code markdown}, {@code tsv},
+ * {@code columnar}, or {@code auto} (whichever takes the fewest tokens). With
+ * {@code normalizeNumbers} the compact encodings drop redundant zeros and signs from
+ * numbers, so {@code +12.50} is sent as {@code 12.5}.
+ */
+@Component
+@ConfigurationProperties(prefix = "csv.encoding")
+public class TableEncodingConfig {
+    private String defaultEncoding = "auto";
+    private boolean normalizeNumbers = true;
+
+    public String getDefaultEncoding() {
+        return defaultEncoding;
+    }
+
+    public void setDefaultEncoding(String defaultEncoding) {
+        this.defaultEncoding = defaultEncoding;
+    }
+
+    public boolean isNormalizeNumbers() {
+        return normalizeNumbers;
+    }
+
+    public void setNormalizeNumbers(boolean normalizeNumbers) {
+        this.normalizeNumbers = normalizeNumbers;
+    }
+}
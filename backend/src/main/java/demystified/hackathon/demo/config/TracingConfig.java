@@ -0,0 +1,87 @@
+package demystified.hackathon.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sampling and local export of request trace spans. A caller's {@code traceparent}
+ * can always turn sampling off for its request, but only turns it on with
+ * {@code trustRemoteSampled}, for deployments where every caller is a trusted
+ * service; otherwise any client could have all of its requests traced and exported.
+ */
+@Component
+@ConfigurationProperties(prefix = "tracing")
+public class TracingConfig {
+    private boolean enabled = true;
+    private double sampleRatio = 0.1;
+    private boolean trustRemoteSampled = false;
+    private String serviceName = "watsonx-backend";
+    private String directory = "data/traces";
+    private int queueCapacity = 10000;
+    private int maxBatchSize = 512;
+    private long maxFileBytes = 64L * 1024 * 1024;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getSampleRatio() {
+        return sampleRatio;
+    }
+
+    public void setSampleRatio(double sampleRatio) {
+        this.sampleRatio = sampleRatio;
+    }
+
+    public boolean isTrustRemoteSampled() {
+        return trustRemoteSampled;
+    }
+
+    public void setTrustRemoteSampled(boolean trustRemoteSampled) {
+        this.trustRemoteSampled = trustRemoteSampled;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public void setServiceName(String serviceName) {
+        this.serviceName = serviceName;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public long getMaxFileBytes() {
+        return maxFileBytes;
+    }
+
+    public void setMaxFileBytes(long maxFileBytes) {
+        this.maxFileBytes = maxFileBytes;
+    }
+}
@@ -0,0 +1,71 @@
+package demystified.hackathon.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings for per-user token usage metering. Counters are flushed to the usage log
+ * every {@code flushIntervalMs}, which is also the finest rollup bucket. Prices are
+ * keyed by model id, e.g. {@code usage.cost-per-thousand-tokens[ibm/granite-13b-chat-v2]=0.0006}.
+ */
+@Component
+@ConfigurationProperties(prefix = "usage")
+public class UsageConfig {
+    private boolean enabled = true;
+    private String directory = "data/usage";
+    private long flushIntervalMs = 60000;
+    private long retentionMs = 7L * 24 * 60 * 60 * 1000;
+    private int maxKeys = 10000;
+    private Map<String, Double> costPerThousandTokens = new HashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public long getFlushIntervalMs() {
+        return flushIntervalMs;
+    }
+
+    public void setFlushIntervalMs(long flushIntervalMs) {
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    public long getRetentionMs() {
+        return retentionMs;
+    }
+
+    public void setRetentionMs(long retentionMs) {
+        this.retentionMs = retentionMs;
+    }
+
+    public int getMaxKeys() {
+        return maxKeys;
+    }
+
+    public void setMaxKeys(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    public Map<String, Double> getCostPerThousandTokens() {
+        return costPerThousandTokens;
+    }
+
+    public void setCostPerThousandTokens(Map<String, Double> costPerThousandTokens) {
+        this.costPerThousandTokens = costPerThousandTokens;
+    }
+}
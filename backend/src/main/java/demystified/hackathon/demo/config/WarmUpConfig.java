@@ -0,0 +1,49 @@
+package demystified.hackathon.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for the warm-up that runs before the instance reports itself ready.
+ * Network steps that have not finished within the timeout are abandoned.
+ */
+@Component
+@ConfigurationProperties(prefix = "warmup")
+public class WarmUpConfig {
+    private boolean enabled = true;
+    private long timeoutMs = 15000;
+    private int renderIterations = 2000;
+    private int smtpConnections = 1;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    public void setTimeoutMs(long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    public int getRenderIterations() {
+        return renderIterations;
+    }
+
+    public void setRenderIterations(int renderIterations) {
+        this.renderIterations = renderIterations;
+    }
+
+    public int getSmtpConnections() {
+        return smtpConnections;
+    }
+
+    public void setSmtpConnections(int smtpConnections) {
+        this.smtpConnections = smtpConnections;
+    }
+}
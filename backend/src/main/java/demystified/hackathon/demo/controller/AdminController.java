@@ -0,0 +1,217 @@
+package demystified.hackathon.demo.controller;
+
+import demystified.hackathon.demo.profiling.ProfilingRecorder;
+import demystified.hackathon.demo.service.EmailDigester;
+import demystified.hackathon.demo.service.InFlightTracker;
+import demystified.hackathon.demo.service.RequestHedger;
+import demystified.hackathon.demo.service.WarmUpRunner;
+import demystified.hackathon.demo.service.cache.PromptCache;
+import demystified.hackathon.demo.service.cancellation.DisconnectGuard;
+import demystified.hackathon.demo.service.csv.TableEncoder;
+import demystified.hackathon.demo.service.dataset.DatasetRegistry;
+import demystified.hackathon.demo.service.generation.GenerationPlanner;
+import demystified.hackathon.demo.service.idempotency.IdempotencyStore;
+import demystified.hackathon.demo.service.query.QueryEngine;
+import demystified.hackathon.demo.service.retrieval.RowRetriever;
+import demystified.hackathon.demo.service.scheduling.LaneScheduler;
+import demystified.hackathon.demo.service.usage.UsageDimension;
+import demystified.hackathon.demo.service.usage.UsageMeter;
+import demystified.hackathon.demo.service.usage.UsageRollup;
+import demystified.hackathon.demo.tracing.Tracer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.file.Files;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+    private static final Map<String, Long> USAGE_BUCKETS = Map.of(
+        "minute", 60_000L,
+        "hour", 3_600_000L,
+        "day", 86_400_000L
+    );
+
+    private final RequestHedger requestHedger;
+    private final EmailDigester emailDigester;
+    private final PromptCache promptCache;
+    private final WarmUpRunner warmUpRunner;
+    private final InFlightTracker inFlightTracker;
+    private final UsageMeter usageMeter;
+    private final Tracer tracer;
+    private final GenerationPlanner generationPlanner;
+    private final RowRetriever rowRetriever;
+    private final DatasetRegistry datasetRegistry;
+    private final QueryEngine queryEngine;
+    private final DisconnectGuard disconnectGuard;
+    private final LaneScheduler laneScheduler;
+    private final ProfilingRecorder profilingRecorder;
+    private final IdempotencyStore idempotencyStore;
+    private final TableEncoder tableEncoder;
+
+    public AdminController(RequestHedger requestHedger, EmailDigester emailDigester, PromptCache promptCache,
+                           WarmUpRunner warmUpRunner, InFlightTracker inFlightTracker, UsageMeter usageMeter,
+                           Tracer tracer, GenerationPlanner generationPlanner, RowRetriever rowRetriever,
+                           DatasetRegistry datasetRegistry, QueryEngine queryEngine,
+                           DisconnectGuard disconnectGuard, LaneScheduler laneScheduler,
+                           ProfilingRecorder profilingRecorder, IdempotencyStore idempotencyStore,
+                           TableEncoder tableEncoder) {
+        this.requestHedger = requestHedger;
+        this.emailDigester = emailDigester;
+        this.promptCache = promptCache;
+        this.warmUpRunner = warmUpRunner;
+        this.inFlightTracker = inFlightTracker;
+        this.usageMeter = usageMeter;
+        this.tracer = tracer;
+        this.generationPlanner = generationPlanner;
+        this.rowRetriever = rowRetriever;
+        this.datasetRegistry = datasetRegistry;
+        this.queryEngine = queryEngine;
+        this.disconnectGuard = disconnectGuard;
+        this.laneScheduler = laneScheduler;
+        this.profilingRecorder = profilingRecorder;
+        this.idempotencyStore = idempotencyStore;
+        this.tableEncoder = tableEncoder;
+    }
+
+    @GetMapping("/hedging")
+    public RequestHedger.HedgingStats hedgingStats() {
+        return requestHedger.getStats();
+    }
+
+    @GetMapping("/email-digest")
+    public EmailDigester.DigestStats emailDigestStats() {
+        return emailDigester.getStats();
+    }
+
+    @GetMapping("/prompt-cache")
+    public PromptCache.CacheStats promptCacheStats() {
+        return promptCache.getStats();
+    }
+
+    @GetMapping("/warm-up")
+    public WarmUpRunner.WarmUpStats warmUpStats() {
+        return warmUpRunner.getStats();
+    }
+
+    @GetMapping("/in-flight")
+    public InFlightTracker.InFlightStats inFlightStats() {
+        return inFlightTracker.getStats();
+    }
+
+    @GetMapping("/generation")
+    public List<GenerationPlanner.ProfileStats> generationStats() {
+        return generationPlanner.getStats();
+    }
+
+    @GetMapping("/retrieval")
+    public RowRetriever.RetrievalStats retrievalStats() {
+        return rowRetriever.getStats();
+    }
+
+    @GetMapping("/datasets")
+    public DatasetRegistry.DatasetStats datasetStats() {
+        return datasetRegistry.getStats();
+    }
+
+    @GetMapping("/query")
+    public QueryEngine.QueryStats queryStats() {
+        return queryEngine.getStats();
+    }
+
+    @GetMapping("/cancellation")
+    public DisconnectGuard.CancellationStats cancellationStats() {
+        return disconnectGuard.getStats();
+    }
+
+    @GetMapping("/lanes")
+    public LaneScheduler.LaneSchedulerStats laneStats() {
+        return laneScheduler.getStats();
+    }
+
+    @GetMapping("/idempotency")
+    public IdempotencyStore.IdempotencyStats idempotencyStats() {
+        return idempotencyStore.getStats();
+    }
+
+    @GetMapping("/table-encoding")
+    public TableEncoder.TableEncodingStats tableEncodingStats() {
+        return tableEncoder.getStats();
+    }
+
+    @GetMapping("/profiling")
+    public ProfilingRecorder.ProfilingStats profilingStats() {
+        return profilingRecorder.getStats();
+    }
+
+    @PostMapping("/profiling/start")
+    public ProfilingRecorder.ProfilingStats startProfiling(
+            @RequestParam(value = "durationMs", required = false) Long durationMs) {
+        return profilingRecorder.start(durationMs);
+    }
+
+    /**
+     * Stops the running recording, or collects one that already ran its duration, and
+     * streams the {@code .jfr} file; the file is deleted once sent.
+     */
+    @PostMapping("/profiling/stop")
+    public ResponseEntity<StreamingResponseBody> stopProfiling() {
+        ProfilingRecorder.RecordingFile recording = profilingRecorder.stop();
+        StreamingResponseBody body = out -> {
+            try {
+                Files.copy(recording.path(), out);
+            } finally {
+                Files.deleteIfExists(recording.path());
+            }
+        };
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + recording.path().getFileName() + "\"")
+            .contentType(MediaType.APPLICATION_OCTET_STREAM)
+            .contentLength(recording.sizeBytes())
+            .body(body);
+    }
+
+    @GetMapping("/tracing")
+    public Tracer.TracingStats tracingStats() {
+        return tracer.getStats();
+    }
+
+    @GetMapping("/usage")
+    public List<UsageRollup> usage(@RequestParam(value = "groupBy", defaultValue = "user,model") List<String> groupBy,
+                                   @RequestParam(value = "bucket", defaultValue = "hour") String bucket,
+                                   @RequestParam(value = "since", required = false) Long since,
+                                   @RequestParam(value = "until", required = false) Long until,
+                                   @RequestParam(value = "email", required = false) String email) {
+        Long bucketMs = USAGE_BUCKETS.get(bucket);
+        if (bucketMs == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "bucket must be one of minute, hour, day");
+        }
+        Set<UsageDimension> dimensions = EnumSet.noneOf(UsageDimension.class);
+        for (String dimension : groupBy) {
+            try {
+                dimensions.add(UsageDimension.parse(dimension));
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "groupBy must list user, model or csv");
+            }
+        }
+        return usageMeter.rollup(dimensions, bucketMs, since, until, email);
+    }
+
+    @GetMapping("/usage/stats")
+    public UsageMeter.UsageStats usageStats() {
+        return usageMeter.getStats();
+    }
+}
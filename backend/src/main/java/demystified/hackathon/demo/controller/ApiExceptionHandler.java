@@ -0,0 +1,37 @@
+package demystified.hackathon.demo.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Writes the reason of a {@link ResponseStatusException} into the error body. Those
+ * reasons are written for the client; any other exception falls through to the default
+ * error handling, which leaves its message out so upstream error bodies, file paths
+ * and the like never reach the response.
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<Map<String, Object>> handleResponseStatus(ResponseStatusException exception,
+                                                                    HttpServletRequest request) {
+        HttpStatusCode status = exception.getStatusCode();
+        HttpStatus known = HttpStatus.resolve(status.value());
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", Instant.now().toString());
+        body.put("status", status.value());
+        body.put("error", known != null ? known.getReasonPhrase() : "");
+        body.put("message", exception.getReason() != null ? exception.getReason() : "");
+        body.put("path", request.getRequestURI());
+        return ResponseEntity.status(status).headers(exception.getHeaders()).body(body);
+    }
+}
@@ -0,0 +1,48 @@
+package demystified.hackathon.demo.controller;
+
+import demystified.hackathon.demo.service.dataset.DatasetInfo;
+import demystified.hackathon.demo.service.dataset.DatasetRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+@RestController
+@RequestMapping("/api/datasets")
+public class DatasetController {
+    private final DatasetRegistry datasetRegistry;
+
+    public DatasetController(DatasetRegistry datasetRegistry) {
+        this.datasetRegistry = datasetRegistry;
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public DatasetInfo create(@RequestParam("csvFile") MultipartFile csvFile,
+                              @RequestParam(value = "email", required = false) String email,
+                              @RequestParam(value = "name", required = false) String name) {
+        return datasetRegistry.create(csvFile, name, email);
+    }
+
+    /**
+     * Answers {@code 404} unless {@code email} is the owner given when the dataset was created.
+     */
+    @GetMapping("/{id}")
+    public DatasetInfo get(@PathVariable String id,
+                           @RequestParam(value = "email", required = false) String email) {
+        return datasetRegistry.get(id, email);
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void delete(@PathVariable String id,
+                       @RequestParam(value = "email", required = false) String email) {
+        datasetRegistry.delete(id, email);
+    }
+}
@@ -0,0 +1,40 @@
+package demystified.hackathon.demo.controller;
+
+import demystified.hackathon.demo.service.history.HistoryPage;
+import demystified.hackathon.demo.service.history.HistoryRecord;
+import demystified.hackathon.demo.service.history.HistoryStore;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/api/history")
+public class HistoryController {
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final HistoryStore historyStore;
+
+    public HistoryController(HistoryStore historyStore) {
+        this.historyStore = historyStore;
+    }
+
+    @GetMapping("/{id}")
+    public HistoryRecord getById(@PathVariable String id) {
+        return historyStore.findById(id)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No history record with id " + id));
+    }
+
+    @GetMapping
+    public HistoryPage getByEmail(@RequestParam("email") String email,
+                                  @RequestParam(value = "cursor", required = false) Long cursor,
+                                  @RequestParam(value = "since", required = false) Long since,
+                                  @RequestParam(value = "until", required = false) Long until,
+                                  @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return historyStore.findByEmail(email, cursor, since, until, pageSize);
+    }
+}
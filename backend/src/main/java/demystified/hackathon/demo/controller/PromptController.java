@@ -1,33 +1,135 @@
 package demystified.hackathon.demo.controller;
 
 import demystified.hackathon.demo.service.WatsonxService;
+import demystified.hackathon.demo.service.cancellation.DisconnectGuard;
+import demystified.hackathon.demo.service.csv.CsvUpload;
+import demystified.hackathon.demo.service.csv.CsvUploadReader;
+import demystified.hackathon.demo.service.csv.TableEncoding;
+import demystified.hackathon.demo.service.idempotency.IdempotencyStore;
+import demystified.hackathon.demo.service.idempotency.RequestFingerprint;
+import demystified.hackathon.demo.service.scheduling.Lane;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api")
 public class PromptController {
     private final WatsonxService watsonxService;
+    private final DisconnectGuard disconnectGuard;
+    private final IdempotencyStore idempotencyStore;
+    private final CsvUploadReader csvUploadReader;
 
-    public PromptController(WatsonxService watsonxService) {
+    public PromptController(WatsonxService watsonxService, DisconnectGuard disconnectGuard,
+                            IdempotencyStore idempotencyStore, CsvUploadReader csvUploadReader) {
         this.watsonxService = watsonxService;
+        this.disconnectGuard = disconnectGuard;
+        this.idempotencyStore = idempotencyStore;
+        this.csvUploadReader = csvUploadReader;
     }
 
+    /**
+     * Runs in the interactive lane, or the CSV lane when answering from a dataset,
+     * unless the {@code X-Priority} header names another lane. A repeat with the same
+     * {@code Idempotency-Key} gets the first request's answer instead of running again.
+     */
     @PostMapping("/send-prompt")
-    public PromptResponse sendPrompt(@RequestBody PromptRequest request) {
-        return watsonxService.sendPrompt(request.getContent(), request.getEmail());
+    public DeferredResult<PromptResponse> sendPrompt(
+        @RequestBody PromptRequest request,
+        @RequestHeader(value = Lane.HEADER, required = false) String priority,
+        @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        boolean fromDataset = request.getDatasetId() != null && !request.getDatasetId().isBlank();
+        Lane lane = Lane.resolve(priority, fromDataset ? Lane.CSV : Lane.INTERACTIVE);
+        TableEncoding encoding = TableEncoding.resolve(request.getEncoding(), null);
+        Supplier<String> fingerprint = () -> RequestFingerprint.of("send-prompt")
+            .add(request.getContent())
+            .add(request.getEmail())
+            .add(request.getProfile())
+            .add(request.getDatasetId())
+            .add(request.getMode())
+            .add(request.getEncoding())
+            .hex();
+        return idempotencyStore.execute(idempotencyKey, fingerprint,
+            listener -> disconnectGuard.submit(lane, request.getEmail(), () -> {
+                if (fromDataset) {
+                    return watsonxService.sendPromptWithDataset(request.getContent(), request.getEmail(),
+                        request.getDatasetId().trim(), request.getProfile(), request.getMode(), encoding);
+                }
+                return watsonxService.sendPrompt(request.getContent(), request.getEmail(), request.getProfile());
+            }, listener));
     }
 
+    /**
+     * Runs in the CSV lane unless the {@code X-Priority} header names another lane. A
+     * repeat with the same {@code Idempotency-Key} gets the first request's answer.
+     * The upload is copied before the job is queued: the job may outlive the servlet
+     * request, and the container deletes the multipart parts when the request ends.
+     */
     @PostMapping("/send-prompt-with-csv")
-    public PromptResponse sendPromptWithCsv(@RequestParam("prompt") String prompt, 
-                                            @RequestParam("email") String email,
-                                            @RequestParam("csvFile") MultipartFile csvFile) {
-        return watsonxService.sendPromptWithCsvContext(prompt, email, csvFile);
+    public DeferredResult<PromptResponse> sendPromptWithCsv(
+        @RequestParam("prompt") String prompt,
+        @RequestParam("email") String email,
+        @RequestParam("csvFile") MultipartFile csvFile,
+        @RequestParam(value = "profile", required = false) String profile,
+        @RequestParam(value = "mode", required = false) String mode,
+        @RequestParam(value = "encoding", required = false) String encoding,
+        @RequestHeader(value = Lane.HEADER, required = false) String priority,
+        @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        Lane lane = Lane.resolve(priority, Lane.CSV);
+        TableEncoding tableEncoding = TableEncoding.resolve(encoding, null);
+        Supplier<String> fingerprint = () -> RequestFingerprint.of("send-prompt-with-csv")
+            .add(prompt)
+            .add(email)
+            .add(csvFile)
+            .add(profile)
+            .add(mode)
+            .add(encoding)
+            .hex();
+        String csvName = csvFile.getOriginalFilename();
+        return idempotencyStore.execute(idempotencyKey, fingerprint, listener -> {
+            CsvUpload upload = readUpload(csvFile);
+            return disconnectGuard.submit(lane, email,
+                () -> watsonxService.sendPromptWithCsvContext(prompt, email, upload, csvName, profile, mode,
+                    tableEncoding),
+                listener, upload);
+        });
+    }
+
+    /**
+     * Cancels a prompt still in flight, identified by the {@code X-Request-Id} and the
+     * {@code email} it was sent with. Someone else's request answers 404 like one that
+     * already finished.
+     */
+    @DeleteMapping("/requests/{requestId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void cancel(@PathVariable String requestId,
+                       @RequestParam(value = "email", required = false) String email) {
+        if (!disconnectGuard.cancel(requestId, email)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No request " + requestId + " in flight");
+        }
+    }
+
+    private CsvUpload readUpload(MultipartFile csvFile) {
+        try {
+            return csvUploadReader.read(csvFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + csvFile.getOriginalFilename(), e);
+        }
     }
 
     public static class PromptRequest {
         private String content;
         private String email;
+        private String profile;
+        private String datasetId;
+        private String mode;
+        private String encoding;
 
         public String getContent() {
             return content;
@@ -44,5 +146,37 @@ public class PromptController {
         public void setEmail(String email) {
             this.email = email;
         }
+
+        public String getProfile() {
+            return profile;
+        }
+
+        public void setProfile(String profile) {
+            this.profile = profile;
+        }
+
+        public String getDatasetId() {
+            return datasetId;
+        }
+
+        public void setDatasetId(String datasetId) {
+            this.datasetId = datasetId;
+        }
+
+        public String getMode() {
+            return mode;
+        }
+
+        public void setMode(String mode) {
+            this.mode = mode;
+        }
+
+        public String getEncoding() {
+            return encoding;
+        }
+
+        public void setEncoding(String encoding) {
+            this.encoding = encoding;
+        }
     }
 }
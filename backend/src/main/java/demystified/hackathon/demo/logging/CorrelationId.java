@@ -0,0 +1,45 @@
+package demystified.hackathon.demo.logging;
+
+import org.slf4j.MDC;
+
+import java.util.Map;
+
+/**
+ * Request correlation id carried in the logging {@link MDC}, so every event logged
+ * while handling a request, including on helper threads, can be tied together.
+ */
+public final class CorrelationId {
+    public static final String HEADER = "X-Request-Id";
+    public static final String MDC_KEY = "requestId";
+    public static final String STAGE_MDC_KEY = "stage";
+
+    private CorrelationId() {
+    }
+
+    public static String current() {
+        return MDC.get(MDC_KEY);
+    }
+
+    /**
+     * Wraps {@code task} so it runs with the caller's logging context.
+     */
+    public static Runnable propagate(Runnable task) {
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        if (context == null) {
+            return task;
+        }
+        return () -> {
+            Map<String, String> previous = MDC.getCopyOfContextMap();
+            MDC.setContextMap(context);
+            try {
+                task.run();
+            } finally {
+                if (previous != null) {
+                    MDC.setContextMap(previous);
+                } else {
+                    MDC.clear();
+                }
+            }
+        };
+    }
+}
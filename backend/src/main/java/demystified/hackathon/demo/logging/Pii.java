@@ -0,0 +1,67 @@
+package demystified.hackathon.demo.logging;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Masks personal data in log arguments. The wrappers returned by {@link #email} and
+ * {@link #summary} only mask when the logger actually formats the message, so a
+ * disabled log statement costs no string building.
+ */
+public final class Pii {
+    private static final Pattern EMAIL_IN_TEXT = Pattern.compile("[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+");
+
+    private Pii() {
+    }
+
+    /**
+     * Log argument that renders as the masked address, e.g. {@code j***@example.com}.
+     */
+    public static Object email(String email) {
+        return new Masked(email, false);
+    }
+
+    /**
+     * Log argument that renders as the exception type and message with any email
+     * addresses masked, without the stack trace.
+     */
+    public static Object summary(Throwable throwable) {
+        return new Masked(throwable, true);
+    }
+
+    public static String maskEmail(String email) {
+        if (email == null) {
+            return null;
+        }
+        int at = email.indexOf('@');
+        if (at <= 0) {
+            return "***";
+        }
+        return email.charAt(0) + "***" + email.substring(at);
+    }
+
+    static String maskEmails(String text) {
+        if (text == null || text.indexOf('@') < 0) {
+            return text;
+        }
+        Matcher matcher = EMAIL_IN_TEXT.matcher(text);
+        StringBuilder masked = new StringBuilder(text.length());
+        while (matcher.find()) {
+            matcher.appendReplacement(masked, Matcher.quoteReplacement(maskEmail(matcher.group())));
+        }
+        matcher.appendTail(masked);
+        return masked.toString();
+    }
+
+    private record Masked(Object value, boolean throwable) {
+        @Override
+        public String toString() {
+            if (!throwable) {
+                return maskEmail((String) value);
+            }
+            Throwable error = (Throwable) value;
+            String message = maskEmails(error.getMessage());
+            return message != null ? error.getClass().getSimpleName() + ": " + message : error.getClass().getSimpleName();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package demystified.hackathon.demo.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Parsing of an uploaded CSV into a markdown table or into a table for a local query.
+ */
+@Name("demystified.watsonx.CsvParse")
+@Label("CSV Parse")
+@Category({"Watsonx", "Prompt"})
+@Description("Parsing of an uploaded CSV file")
+@StackTrace(false)
+public class CsvParseEvent extends Event {
+    public static final String MARKDOWN = "markdown";
+    public static final String QUERY_TABLE = "query-table";
+
+    @Label("Output")
+    @Description("What the CSV was parsed into, markdown or query-table")
+    private String output;
+
+    @Label("Uploaded Size")
+    @DataAmount
+    private long bytes;
+
+    @Label("Rows")
+    private long rows;
+
+    @Label("Output Characters")
+    @Description("Length of the markdown table, 0 for a query table")
+    private long outputChars;
+
+    /**
+     * Fills in the sizes and commits; call only when {@link #shouldCommit()} is true,
+     * so counting rows is skipped while no recording wants the event.
+     */
+    public void commit(String output, long bytes, long rows, long outputChars) {
+        this.output = output;
+        this.bytes = bytes;
+        this.rows = rows;
+        this.outputChars = outputChars;
+        commit();
+    }
+}
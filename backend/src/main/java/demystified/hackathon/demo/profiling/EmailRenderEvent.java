@@ -0,0 +1,32 @@
+package demystified.hackathon.demo.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Rendering of the HTML body of a response or digest email.
+ */
+@Name("demystified.watsonx.EmailRender")
+@Label("Email Render")
+@Category({"Watsonx", "Email"})
+@Description("Rendering of an email body from its template")
+@StackTrace(false)
+public class EmailRenderEvent extends Event {
+
+    @Label("Entries")
+    @Description("Responses in the email, more than one for a digest")
+    private int entries;
+
+    @Label("HTML Characters")
+    private long htmlChars;
+
+    public void commit(int entries, long htmlChars) {
+        this.entries = entries;
+        this.htmlChars = htmlChars;
+        commit();
+    }
+}
@@ -0,0 +1,36 @@
+package demystified.hackathon.demo.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Building the MIME message and handing it to the SMTP server.
+ */
+@Name("demystified.watsonx.EmailSend")
+@Label("Email Send")
+@Category({"Watsonx", "Email"})
+@Description("Delivery of an email to the SMTP server")
+@StackTrace(false)
+public class EmailSendEvent extends Event {
+
+    @Label("Entries")
+    @Description("Responses in the email, more than one for a digest")
+    private int entries;
+
+    @Label("HTML Characters")
+    private long htmlChars;
+
+    @Label("Sent")
+    private boolean sent;
+
+    public void commit(int entries, long htmlChars, boolean sent) {
+        this.entries = entries;
+        this.htmlChars = htmlChars;
+        this.sent = sent;
+        commit();
+    }
+}
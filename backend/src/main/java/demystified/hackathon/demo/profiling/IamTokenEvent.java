@@ -0,0 +1,19 @@
+package demystified.hackathon.demo.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Time spent getting the IAM access token for a model call, usually a cache hit.
+ */
+@Name("demystified.watsonx.IamToken")
+@Label("IAM Token Fetch")
+@Category({"Watsonx", "Prompt"})
+@Description("Access token lookup before a model call, including a refresh from IBM Cloud when due")
+@StackTrace(false)
+public class IamTokenEvent extends Event {
+}
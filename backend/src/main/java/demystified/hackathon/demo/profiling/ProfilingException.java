@@ -0,0 +1,15 @@
+package demystified.hackathon.demo.profiling;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Raised when a profiling recording cannot be started or collected, e.g. because one
+ * is already running. The status is returned to the client as-is.
+ */
+public class ProfilingException extends ResponseStatusException {
+
+    public ProfilingException(HttpStatus status, String reason) {
+        super(status, reason);
+    }
+}
@@ -0,0 +1,211 @@
+package demystified.hackathon.demo.profiling;
+
+import demystified.hackathon.demo.config.ProfilingConfig;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs one Flight Recorder recording at a time on demand, so hotspots can be looked
+ * at in production without attaching a profiler. Besides the JDK's own events the
+ * recording holds the pipeline events of this package, such as {@link UpstreamCallEvent}.
+ *
+ * <p>A recording is bounded twice: it stops by itself after its duration and keeps
+ * at most {@code profiling.max-size} of data. Its file stays on disk until it is
+ * collected with {@link #stop()} or replaced by the next recording. While no
+ * recording runs the pipeline events are disabled and cost next to nothing.
+ *
+ * <p>The JDK events that capture environment variables, system properties and JVM
+ * arguments are always left out, since those carry the watsonx and mail credentials.
+ */
+@Component
+public class ProfilingRecorder {
+    private static final Logger logger = LoggerFactory.getLogger(ProfilingRecorder.class);
+    private static final String RECORDING_NAME = "watsonx-profiling";
+    // hold the process environment, system properties and JVM arguments, and with them the API keys
+    private static final List<String> SENSITIVE_EVENTS = List.of(
+        "jdk.InitialEnvironmentVariable",
+        "jdk.InitialSystemProperty",
+        "jdk.JVMInformation"
+    );
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")
+        .withZone(ZoneOffset.UTC);
+
+    private final ProfilingConfig config;
+    private final Path directory;
+
+    private final LongAdder recordingsStarted = new LongAdder();
+    private final LongAdder recordingsCollected = new LongAdder();
+
+    // guarded by this
+    private Recording recording;
+    private Path file;
+    private long startedAt;
+    private long durationMs;
+
+    public ProfilingRecorder(ProfilingConfig config) {
+        this.config = config;
+        this.directory = Path.of(config.getDirectory());
+    }
+
+    /**
+     * Starts a recording for {@code durationMs}, the configured default when null,
+     * capped at {@code profiling.max-duration-ms}. A finished recording that was never
+     * collected is discarded.
+     *
+     * @throws ProfilingException when profiling is disabled or a recording is running
+     */
+    public synchronized ProfilingStats start(Long durationMs) {
+        if (!config.isEnabled()) {
+            throw new ProfilingException(HttpStatus.FORBIDDEN, "Profiling is disabled");
+        }
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new ProfilingException(HttpStatus.CONFLICT, "A profiling recording is already running");
+        }
+        long duration = durationMs != null ? durationMs : config.getDefaultDurationMs();
+        if (duration <= 0) {
+            throw new ProfilingException(HttpStatus.BAD_REQUEST, "durationMs must be positive");
+        }
+        duration = Math.min(duration, config.getMaxDurationMs());
+        discard();
+
+        Instant now = Instant.now();
+        Path target = directory.resolve("watsonx-" + FILE_TIME.format(now) + ".jfr");
+        Recording created = new Recording(settings());
+        try {
+            Files.createDirectories(directory);
+            created.setName(RECORDING_NAME);
+            SENSITIVE_EVENTS.forEach(created::disable);
+            created.setToDisk(true);
+            created.setMaxSize(config.getMaxSize().toBytes());
+            created.setDuration(Duration.ofMillis(duration));
+            created.setDestination(target);
+            created.start();
+        } catch (IOException e) {
+            created.close();
+            throw new UncheckedIOException("Failed to start profiling recording into " + target, e);
+        }
+        recording = created;
+        file = target;
+        startedAt = now.toEpochMilli();
+        this.durationMs = duration;
+        recordingsStarted.increment();
+        logger.info("Started profiling recording for {} ms into {}", duration, target);
+        return getStats();
+    }
+
+    /**
+     * Stops the recording if it still runs and hands over its file. The caller owns
+     * the file from then on and deletes it once sent.
+     *
+     * @throws ProfilingException when there is no recording to collect
+     */
+    public synchronized RecordingFile stop() {
+        if (recording == null) {
+            throw new ProfilingException(HttpStatus.NOT_FOUND, "No profiling recording to collect");
+        }
+        Recording finished = recording;
+        Path target = file;
+        recording = null;
+        file = null;
+        try {
+            if (finished.getState() == RecordingState.RUNNING) {
+                // writes the destination file
+                finished.stop();
+            }
+            long size = Files.size(target);
+            recordingsCollected.increment();
+            logger.info("Collected profiling recording {} ({} bytes)", target, size);
+            return new RecordingFile(target, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to collect profiling recording " + target, e);
+        } finally {
+            finished.close();
+        }
+    }
+
+    public synchronized ProfilingStats getStats() {
+        String state = "idle";
+        long recordedBytes = 0;
+        if (recording != null) {
+            if (recording.getState() == RecordingState.RUNNING) {
+                state = "running";
+                recordedBytes = recording.getSize();
+            } else {
+                state = "stopped";
+                recordedBytes = sizeOf(file);
+            }
+        }
+        return new ProfilingStats(config.isEnabled(), config.getSettings(), state,
+            recording != null ? startedAt : 0, recording != null ? durationMs : 0, config.getMaxSize().toBytes(),
+            recordedBytes, recordingsStarted.sum(), recordingsCollected.sum());
+    }
+
+    private Configuration settings() {
+        try {
+            return Configuration.getConfiguration(config.getSettings());
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Unknown Flight Recorder settings " + config.getSettings(), e);
+        }
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private void discard() {
+        if (recording == null) {
+            return;
+        }
+        recording.close();
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Failed to delete profiling recording {}", file, e);
+        }
+        recording = null;
+        file = null;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        discard();
+    }
+
+    /**
+     * A collected recording; {@code sizeBytes} is the size of the {@code .jfr} file.
+     */
+    public record RecordingFile(Path path, long sizeBytes) {
+    }
+
+    /**
+     * {@code state} is {@code idle}, {@code running}, or {@code stopped} for a recording
+     * that ran its duration and waits to be collected; {@code startedAt} is epoch
+     * milliseconds and 0 while idle.
+     */
+    public record ProfilingStats(boolean enabled, String settings, String state, long startedAt, long durationMs,
+                                 long maxSizeBytes, long recordedBytes, long recordingsStarted,
+                                 long recordingsCollected) {
+    }
+}
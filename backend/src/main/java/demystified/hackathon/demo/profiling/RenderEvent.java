@@ -0,0 +1,35 @@
+package demystified.hackathon.demo.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Building text for the model: the prompt itself or a table rendered as markdown.
+ */
+@Name("demystified.watsonx.Render")
+@Label("Prompt Render")
+@Category({"Watsonx", "Prompt"})
+@Description("Rendering of the prompt or of a table placed in it")
+@StackTrace(false)
+public class RenderEvent extends Event {
+    public static final String PROMPT = "prompt";
+    public static final String TABLE = "table";
+    public static final String QUERY_RESULT = "query-result";
+
+    @Label("Kind")
+    @Description("What was rendered: prompt, table or query-result")
+    private String kind;
+
+    @Label("Characters")
+    private long chars;
+
+    public void commit(String kind, long chars) {
+        this.kind = kind;
+        this.chars = chars;
+        commit();
+    }
+}
@@ -0,0 +1,73 @@
+package demystified.hackathon.demo.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One model call as the prompt sees it: waiting for an upstream slot, hedged attempts
+ * and parsing the answer.
+ */
+@Name("demystified.watsonx.UpstreamCall")
+@Label("Watsonx Call")
+@Category({"Watsonx", "Prompt"})
+@Description("Chat call to watsonx, from waiting for an upstream slot to the parsed answer")
+@StackTrace(false)
+public class UpstreamCallEvent extends Event {
+    public static final String OK = "ok";
+    public static final String CANCELLED = "cancelled";
+    public static final String FAILED = "failed";
+
+    @Label("Model")
+    private String model;
+
+    @Label("Generation Profile")
+    private String profile;
+
+    @Label("Lane")
+    private String lane;
+
+    @Label("Prompt Characters")
+    private long promptChars;
+
+    @Label("Estimated Input Tokens")
+    private long estimatedInputTokens;
+
+    @Label("Max Tokens")
+    private long maxTokens;
+
+    @Label("Input Tokens")
+    @Description("Input tokens reported by watsonx, -1 when unknown")
+    private long inputTokens = -1;
+
+    @Label("Output Tokens")
+    @Description("Output tokens reported by watsonx, -1 when unknown")
+    private long outputTokens = -1;
+
+    @Label("Outcome")
+    @Description("ok, cancelled or failed")
+    private String outcome;
+
+    public void setRequest(String model, String profile, String lane, long promptChars, long estimatedInputTokens,
+                           long maxTokens) {
+        this.model = model;
+        this.profile = profile;
+        this.lane = lane;
+        this.promptChars = promptChars;
+        this.estimatedInputTokens = estimatedInputTokens;
+        this.maxTokens = maxTokens;
+    }
+
+    public void setUsage(long inputTokens, long outputTokens) {
+        this.inputTokens = inputTokens;
+        this.outputTokens = outputTokens;
+    }
+
+    public void commit(String outcome) {
+        this.outcome = outcome;
+        commit();
+    }
+}
@@ -0,0 +1,81 @@
+package demystified.hackathon.demo.security;
+
+import demystified.hackathon.demo.config.AdminConfig;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * Keeps the operator endpoints under {@code /api/admin} and {@code /api/history} to
+ * callers presenting {@code admin.token} as a bearer token. nginx proxies all of
+ * {@code /api/} and the backend port is published as well, so the path alone hides
+ * nothing: the stats, usage rollups, profiling recordings and every user's prompt
+ * history would otherwise be open to anyone.
+ *
+ * <p>Prefixes are matched against the decoded path with matrix parameters removed,
+ * the same form Spring MVC routes on, so {@code /api/admin;x/usage} or
+ * {@code /api/%61dmin/usage} cannot reach a protected handler without the token.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class AdminTokenFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(AdminTokenFilter.class);
+    private static final String BEARER = "Bearer ";
+    private static final List<String> PROTECTED_PATHS = List.of("/api/admin", "/api/history");
+
+    private final byte[] token;
+
+    public AdminTokenFilter(AdminConfig config) {
+        String configured = config.getToken();
+        this.token = configured != null && !configured.isBlank()
+            ? configured.trim().getBytes(StandardCharsets.UTF_8)
+            : null;
+        if (token == null) {
+            logger.info("No admin.token set, the admin endpoints are disabled");
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+        for (String prefix : PROTECTED_PATHS) {
+            if (path.equals(prefix) || path.startsWith(prefix + "/")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+        throws ServletException, IOException {
+        if (token == null) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN, "Admin endpoints are disabled");
+            return;
+        }
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())
+            || !MessageDigest.isEqual(token,
+                authorization.substring(BEARER.length()).trim().getBytes(StandardCharsets.UTF_8))) {
+            logger.warn("Rejected admin request to {} without a valid token", request.getRequestURI());
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Admin token required");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,15 @@
+package demystified.hackathon.demo.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Raised for new work that arrives while the instance is draining for shutdown, so
+ * the client or load balancer retries it on another instance.
+ */
+public class DrainingException extends ResponseStatusException {
+
+    public DrainingException() {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Server is shutting down, please retry");
+    }
+}
@@ -0,0 +1,147 @@
+package demystified.hackathon.demo.service;
+
+import demystified.hackathon.demo.config.EmailDigestConfig;
+import demystified.hackathon.demo.logging.Pii;
+import demystified.hackathon.demo.service.email.DigestEntry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Buffers response emails per recipient and sends them as one digest once the
+ * oldest buffered response reaches the configured window or the recipient reaches
+ * the per-digest count. The total number of buffered responses is capped; when the
+ * cap is reached, the recipient being added to is sent straight away.
+ */
+@Component
+public class EmailDigester {
+    private static final Logger logger = LoggerFactory.getLogger(EmailDigester.class);
+
+    private final EmailDigestConfig config;
+    private final EmailService emailService;
+    private final Map<String, PendingDigest> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger bufferedEntries = new AtomicInteger();
+    private final ScheduledExecutorService flusher;
+
+    private final AtomicLong entriesQueued = new AtomicLong();
+    private final AtomicLong emailsSent = new AtomicLong();
+    private final AtomicLong emailsSaved = new AtomicLong();
+    private final AtomicLong failedSends = new AtomicLong();
+
+    public EmailDigester(EmailDigestConfig config, EmailService emailService) {
+        this.config = config;
+        this.emailService = emailService;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "email-digest-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long checkPeriod = Math.max(100, Math.min(config.getWindowMs(), 1000));
+        flusher.scheduleWithFixedDelay(this::flushDue, checkPeriod, checkPeriod, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Buffers {@code entry} for {@code email}, sending the recipient's digest right
+     * away when it is full or the global buffer is at capacity.
+     */
+    public void add(String email, DigestEntry entry) {
+        entriesQueued.incrementAndGet();
+        boolean overCapacity = bufferedEntries.incrementAndGet() > config.getMaxBufferedEntries();
+        PendingDigest[] ready = new PendingDigest[1];
+
+        pending.compute(email.trim().toLowerCase(Locale.ROOT), (key, digest) -> {
+            PendingDigest target = digest != null ? digest : new PendingDigest(email);
+            target.entries.add(entry);
+            if (overCapacity || target.entries.size() >= config.getMaxEntriesPerDigest()) {
+                ready[0] = target;
+                return null;
+            }
+            return target;
+        });
+
+        if (ready[0] != null) {
+            send(ready[0]);
+        }
+    }
+
+    public DigestStats getStats() {
+        return new DigestStats(entriesQueued.get(), emailsSent.get(), emailsSaved.get(), failedSends.get(),
+            bufferedEntries.get(), pending.size());
+    }
+
+    void flushDue() {
+        long now = System.nanoTime();
+        long windowNanos = TimeUnit.MILLISECONDS.toNanos(config.getWindowMs());
+        for (Map.Entry<String, PendingDigest> candidate : pending.entrySet()) {
+            PendingDigest digest = candidate.getValue();
+            if (now - digest.createdNanos >= windowNanos && pending.remove(candidate.getKey(), digest)) {
+                send(digest);
+            }
+        }
+    }
+
+    private void send(PendingDigest digest) {
+        List<DigestEntry> entries = digest.entries;
+        bufferedEntries.addAndGet(-entries.size());
+        try {
+            boolean sent = entries.size() == 1
+                ? sendSingle(digest.email, entries.get(0))
+                : emailService.sendDigest(digest.email, entries);
+            if (sent) {
+                emailsSent.incrementAndGet();
+                emailsSaved.addAndGet(entries.size() - 1);
+            } else {
+                failedSends.incrementAndGet();
+            }
+        } catch (RuntimeException e) {
+            failedSends.incrementAndGet();
+            logger.error("Failed to send digest email to {}", Pii.email(digest.email), e);
+        }
+    }
+
+    private boolean sendSingle(String email, DigestEntry entry) {
+        return emailService.sendPromptResponse(email, entry.promptContent(), entry.responseContent(),
+            entry.modelId(), entry.responseId());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flusher.shutdownNow();
+        for (String key : new ArrayList<>(pending.keySet())) {
+            PendingDigest digest = pending.remove(key);
+            if (digest != null) {
+                send(digest);
+            }
+        }
+    }
+
+    private static final class PendingDigest {
+        private final String email;
+        private final List<DigestEntry> entries = new ArrayList<>();
+        private final long createdNanos = System.nanoTime();
+
+        private PendingDigest(String email) {
+            this.email = email;
+        }
+    }
+
+    public record DigestStats(long entriesQueued, long emailsSent, long emailsSaved, long failedSends,
+                              int bufferedEntries, int bufferedRecipients) {
+    }
+}
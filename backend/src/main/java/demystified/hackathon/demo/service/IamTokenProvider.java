@@ -0,0 +1,86 @@
+package demystified.hackathon.demo.service;
+
+import demystified.hackathon.demo.config.WatsonxConfig;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Map;
+
+/**
+ * Supplies IBM Cloud IAM access tokens for watsonx calls. A token is reused until
+ * shortly before it expires, so requests only wait for the IAM round trip when the
+ * cached token is missing or about to lapse; concurrent callers share one refresh.
+ */
+@Component
+public class IamTokenProvider {
+    private static final String TOKEN_URL = "https://iam.cloud.ibm.com/identity/token";
+    private static final String GRANT_TYPE = "urn:ibm:params:oauth:grant-type:apikey";
+    private static final long REFRESH_MARGIN_MS = 5 * 60 * 1000;
+
+    private final WatsonxConfig watsonxConfig;
+    private final RestTemplate restTemplate;
+
+    private volatile CachedToken token;
+
+    public IamTokenProvider(WatsonxConfig watsonxConfig, RestTemplate restTemplate) {
+        this.watsonxConfig = watsonxConfig;
+        this.restTemplate = restTemplate;
+    }
+
+    public String getAccessToken() {
+        CachedToken current = token;
+        if (current != null && current.isFresh(System.currentTimeMillis())) {
+            return current.value();
+        }
+        synchronized (this) {
+            current = token;
+            if (current != null && current.isFresh(System.currentTimeMillis())) {
+                return current.value();
+            }
+            current = fetch();
+            token = current;
+            return current.value();
+        }
+    }
+
+    /**
+     * Discards the cached token so the next call fetches a new one.
+     */
+    public void invalidate() {
+        token = null;
+    }
+
+    private CachedToken fetch() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+        String data = "apikey=" + watsonxConfig.getApikey() + "&grant_type=" + GRANT_TYPE;
+
+        long requestedAt = System.currentTimeMillis();
+        Map<String, Object> response = restTemplate.postForObject(TOKEN_URL, new HttpEntity<>(data, headers), Map.class);
+        String accessToken = (String) response.get("access_token");
+        return new CachedToken(accessToken, expiresAt(response, requestedAt) - REFRESH_MARGIN_MS);
+    }
+
+    /**
+     * Expiry from {@code expiration} (epoch seconds) or {@code expires_in} (seconds);
+     * a token without either is not reused.
+     */
+    private static long expiresAt(Map<String, Object> response, long requestedAt) {
+        if (response.get("expiration") instanceof Number expiration) {
+            return expiration.longValue() * 1000;
+        }
+        if (response.get("expires_in") instanceof Number expiresIn) {
+            return requestedAt + expiresIn.longValue() * 1000;
+        }
+        return requestedAt;
+    }
+
+    private record CachedToken(String value, long refreshAt) {
+        boolean isFresh(long now) {
+            return value != null && now < refreshAt;
+        }
+    }
+}
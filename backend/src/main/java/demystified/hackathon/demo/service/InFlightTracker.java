@@ -0,0 +1,167 @@
+package demystified.hackathon.demo.service;
+
+import demystified.hackathon.demo.logging.CorrelationId;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps track of prompts being processed so shutdown can wait for them. Each
+ * operation records its current stage (model call, email send, ...) so anything
+ * still running at the drain deadline can be reported. Once draining starts, new
+ * operations are rejected with {@link DrainingException}; work admitted earlier, even
+ * if it is still queued for a worker, is drained.
+ */
+@Component
+public class InFlightTracker {
+    private final Set<Operation> operations = new LinkedHashSet<>();
+    private final ThreadLocal<Operation> admitted = new ThreadLocal<>();
+    private boolean draining;
+
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * Registers a new operation of the given kind; close it when the work is done. On a
+     * thread running the work of an admitted operation (see {@link Operation#run}) it
+     * joins that operation instead, so the work is not rejected once draining started.
+     */
+    public Operation begin(String kind) {
+        Operation current = admitted.get();
+        if (current != null) {
+            current.kind = kind;
+            return new Operation(current);
+        }
+        return register(kind, "started");
+    }
+
+    /**
+     * Registers an operation for work that is queued to run later on another thread;
+     * run the work with {@link Operation#run} and close the operation once it is done
+     * or dropped.
+     */
+    public Operation admit(String kind) {
+        return register(kind, "queued");
+    }
+
+    private synchronized Operation register(String kind, String stage) {
+        if (draining) {
+            rejected.incrementAndGet();
+            throw new DrainingException();
+        }
+        Operation operation = new Operation(kind, stage);
+        operations.add(operation);
+        started.incrementAndGet();
+        return operation;
+    }
+
+    synchronized void startDraining() {
+        draining = true;
+    }
+
+    public synchronized boolean isDraining() {
+        return draining;
+    }
+
+    /**
+     * Waits until no operations are in flight or the timeout elapses; returns true if idle.
+     */
+    synchronized boolean awaitIdle(long timeoutMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (!operations.isEmpty()) {
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMs <= 0) {
+                return false;
+            }
+            wait(remainingMs);
+        }
+        return true;
+    }
+
+    /**
+     * Describes the operations still in flight, e.g. {@code "prompt in model-call for 1200 ms"}.
+     */
+    synchronized List<String> describeInFlight() {
+        long now = System.nanoTime();
+        List<String> descriptions = new ArrayList<>(operations.size());
+        for (Operation operation : operations) {
+            descriptions.add(operation.kind + " in " + operation.stage + " for "
+                + TimeUnit.NANOSECONDS.toMillis(now - operation.startedNanos) + " ms");
+        }
+        return descriptions;
+    }
+
+    public synchronized InFlightStats getStats() {
+        return new InFlightStats(draining, operations.size(), started.get(), rejected.get());
+    }
+
+    private synchronized void finish(Operation operation) {
+        if (operations.remove(operation) && operations.isEmpty()) {
+            notifyAll();
+        }
+    }
+
+    public final class Operation implements AutoCloseable {
+        /** The tracked operation: this one, or the admitted one this handle joined. */
+        private final Operation registered;
+        private final long startedNanos = System.nanoTime();
+        private volatile String kind;
+        private volatile String stage;
+
+        private Operation(String kind, String stage) {
+            this.registered = this;
+            this.kind = kind;
+            this.stage = stage;
+        }
+
+        private Operation(Operation registered) {
+            this.registered = registered;
+        }
+
+        /**
+         * Records the current stage, also tagging log events from this thread with it.
+         */
+        public void stage(String stage) {
+            registered.stage = stage;
+            MDC.put(CorrelationId.STAGE_MDC_KEY, stage);
+        }
+
+        /**
+         * Runs {@code work} on this thread as part of this operation.
+         */
+        public void run(Runnable work) {
+            Operation previous = admitted.get();
+            admitted.set(registered);
+            registered.stage = "started";
+            try {
+                work.run();
+            } finally {
+                if (previous != null) {
+                    admitted.set(previous);
+                } else {
+                    admitted.remove();
+                }
+            }
+        }
+
+        /**
+         * Ends the operation; a handle that joined an admitted operation leaves it running.
+         */
+        @Override
+        public void close() {
+            MDC.remove(CorrelationId.STAGE_MDC_KEY);
+            if (registered == this) {
+                finish(this);
+            }
+        }
+    }
+
+    public record InFlightStats(boolean draining, int inFlight, long started, long rejected) {
+    }
+}
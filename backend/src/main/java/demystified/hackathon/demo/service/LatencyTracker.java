@@ -0,0 +1,40 @@
+package demystified.hackathon.demo.service;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a sliding window of the most recent latencies (in milliseconds) and
+ * answers percentile queries over it.
+ */
+public class LatencyTracker {
+    private final long[] samples;
+    private final AtomicLong recorded = new AtomicLong();
+
+    public LatencyTracker(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    public void record(long millis) {
+        long slot = recorded.getAndIncrement();
+        samples[(int) (slot % samples.length)] = millis;
+    }
+
+    public int size() {
+        return (int) Math.min(recorded.get(), samples.length);
+    }
+
+    /**
+     * Returns the latency at the given percentile (0-100), or -1 when no samples exist.
+     */
+    public long percentile(double percentile) {
+        int size = size();
+        if (size == 0) {
+            return -1;
+        }
+        long[] snapshot = Arrays.copyOf(samples, size);
+        Arrays.sort(snapshot);
+        int index = (int) Math.ceil(percentile / 100.0 * size) - 1;
+        return snapshot[Math.max(0, Math.min(size - 1, index))];
+    }
+}
@@ -0,0 +1,316 @@
+package demystified.hackathon.demo.service;
+
+import demystified.hackathon.demo.config.HedgingConfig;
+import demystified.hackathon.demo.logging.CorrelationId;
+import demystified.hackathon.demo.tracing.Tracer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Issues a duplicate upstream request when the first attempt is slower than the
+ * recent latency percentile, returning whichever attempt finishes first and
+ * cancelling the other. Hedges are paid from a token bucket that every request tops
+ * up by {@code maxExtraLoad} and that holds at most {@code maxBurst} hedges, so quiet
+ * periods cannot bank hedges for the next upstream slowdown.
+ *
+ * <p>The delay percentile is taken over every attempt, not only the winners: an
+ * attempt cancelled because the other one won is recorded with the time it had run
+ * by then. That is a lower bound of its latency, but leaving slow attempts out would
+ * let the percentile, and with it the hedge delay, drift down over time.
+ *
+ * <p>Attempts run on a pool of at most {@code threadPoolSize} threads that never
+ * queues: when every thread is busy the request runs unhedged on the caller's thread
+ * instead, so the pool bounds hedging, not throughput. The hedge delay counts from
+ * the moment the primary attempt starts.
+ */
+@Component
+public class RequestHedger {
+    private static final Logger logger = LoggerFactory.getLogger(RequestHedger.class);
+
+    private static final int LATENCY_WINDOW = 512;
+    private static final int MIN_SAMPLES = 20;
+    /** Budget units per hedge, so fractional refills stay exact in a long. */
+    private static final long HEDGE_COST = 1_000_000;
+
+    private final HedgingConfig config;
+    private final LatencyTracker latencies = new LatencyTracker(LATENCY_WINDOW);
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong hedgesFired = new AtomicLong();
+    private final AtomicLong hedgesWon = new AtomicLong();
+    private final AtomicLong unhedged = new AtomicLong();
+    private final AtomicLong hedgeBudget = new AtomicLong();
+
+    public RequestHedger(HedgingConfig config) {
+        this.config = config;
+        this.executor = new ThreadPoolExecutor(config.getThreadPoolSize(), config.getThreadPoolSize(),
+            60, TimeUnit.SECONDS, new SynchronousQueue<>(), hedgeThreadFactory());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Runs {@code call} for the given model, hedging it when enabled. The function
+     * receives the model id the attempt should target.
+     */
+    public <T> T execute(String modelId, Function<String, T> call) {
+        requests.incrementAndGet();
+        refillHedgeBudget();
+        if (!config.isEnabled()) {
+            return executeInline(modelId, call);
+        }
+        return executeHedged(modelId, call);
+    }
+
+    public HedgingStats getStats() {
+        return new HedgingStats(requests.get(), hedgesFired.get(), hedgesWon.get(), unhedged.get(),
+            hedgeDelayMillis());
+    }
+
+    private <T> T executeInline(String modelId, Function<String, T> call) {
+        long start = System.nanoTime();
+        T result = call.apply(modelId);
+        latencies.record(elapsedMillis(start));
+        return result;
+    }
+
+    private <T> T executeHedged(String modelId, Function<String, T> call) {
+        Outcome<T> outcome = new Outcome<>();
+        CompletableFuture<T> winner = outcome.winner;
+        Attempt primary = submitAttempt(() -> call.apply(modelId), outcome, false);
+        if (primary == null) {
+            unhedged.incrementAndGet();
+            return executeInline(modelId, call);
+        }
+        Attempt hedge = null;
+
+        try {
+            try {
+                long deadline = primary.awaitStart() + TimeUnit.MILLISECONDS.toNanos(hedgeDelayMillis());
+                return winner.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (!acquireHedgeBudget()) {
+                    return winner.get();
+                }
+                String hedgeModelId = resolveHedgeModelId(modelId);
+                logger.debug("Hedging watsonx request to model {}", hedgeModelId);
+                outcome.pending.incrementAndGet();
+                hedge = submitAttempt(() -> call.apply(hedgeModelId), outcome, true);
+                if (hedge == null) {
+                    refundHedgeBudget();
+                    outcome.withdraw();
+                }
+                return winner.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for watsonx response", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Watsonx request failed", cause);
+        } finally {
+            censor(primary);
+            primary.future.cancel(true);
+            if (hedge != null) {
+                censor(hedge);
+                hedge.future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Hands the attempt to an idle pool thread, or returns null when there is none.
+     * Whatever the attempt throws, the last one to fail completes the outcome, so the
+     * caller never waits on an attempt that died.
+     */
+    private <T> Attempt submitAttempt(Supplier<T> attempt, Outcome<T> outcome, boolean isHedge) {
+        Attempt handle = new Attempt();
+        try {
+            handle.future = executor.submit(Tracer.propagate(CorrelationId.propagate(() -> {
+                long start = handle.start();
+                try {
+                    T result = attempt.get();
+                    if (handle.sample()) {
+                        latencies.record(elapsedMillis(start));
+                    }
+                    if (outcome.claim()) {
+                        // counted before the caller can see the result
+                        if (isHedge) {
+                            hedgesWon.incrementAndGet();
+                        }
+                        outcome.winner.complete(result);
+                    }
+                } catch (Throwable e) {
+                    // a failed attempt says nothing about upstream latency
+                    handle.sample();
+                    outcome.fail(e);
+                }
+            })));
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+        return handle;
+    }
+
+    /**
+     * Records how long an attempt that has not finished has run so far, once the
+     * request no longer waits for it.
+     */
+    private void censor(Attempt attempt) {
+        if (attempt.hasStarted() && attempt.sample()) {
+            latencies.record(elapsedMillis(attempt.startNanos));
+        }
+    }
+
+    private void refillHedgeBudget() {
+        long refill = Math.round(config.getMaxExtraLoad() * HEDGE_COST);
+        long capacity = config.getMaxBurst() * HEDGE_COST;
+        while (true) {
+            long budget = hedgeBudget.get();
+            long refilled = Math.min(capacity, budget + refill);
+            if (refilled <= budget || hedgeBudget.compareAndSet(budget, refilled)) {
+                return;
+            }
+        }
+    }
+
+    private boolean acquireHedgeBudget() {
+        while (true) {
+            long budget = hedgeBudget.get();
+            if (budget < HEDGE_COST) {
+                return false;
+            }
+            if (hedgeBudget.compareAndSet(budget, budget - HEDGE_COST)) {
+                hedgesFired.incrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    private void refundHedgeBudget() {
+        hedgesFired.decrementAndGet();
+        hedgeBudget.addAndGet(HEDGE_COST);
+    }
+
+    private long hedgeDelayMillis() {
+        if (latencies.size() < MIN_SAMPLES) {
+            return config.getInitialDelayMs();
+        }
+        long delay = latencies.percentile(config.getDelayPercentile());
+        return Math.max(config.getMinDelayMs(), Math.min(config.getMaxDelayMs(), delay));
+    }
+
+    private String resolveHedgeModelId(String modelId) {
+        String alternate = config.getAlternateModelId();
+        return alternate != null && !alternate.isBlank() ? alternate : modelId;
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static ThreadFactory hedgeThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "watsonx-hedge-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static final class Outcome<T> {
+        private final CompletableFuture<T> winner = new CompletableFuture<>();
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private volatile Throwable failure;
+
+        /**
+         * Lets the first attempt that succeeds become the winner.
+         */
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        void fail(Throwable error) {
+            failure = error;
+            if (pending.decrementAndGet() == 0) {
+                winner.completeExceptionally(error);
+            }
+        }
+
+        /**
+         * Takes back an attempt that was counted but never ran.
+         */
+        void withdraw() {
+            if (pending.decrementAndGet() == 0) {
+                winner.completeExceptionally(failure);
+            }
+        }
+    }
+
+    private static final class Attempt {
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final AtomicBoolean sampled = new AtomicBoolean();
+        private volatile long startNanos;
+        private volatile Future<?> future;
+
+        boolean hasStarted() {
+            return started.getCount() == 0;
+        }
+
+        /**
+         * Claims the single latency sample of this attempt.
+         */
+        boolean sample() {
+            return sampled.compareAndSet(false, true);
+        }
+
+        long start() {
+            startNanos = System.nanoTime();
+            started.countDown();
+            return startNanos;
+        }
+
+        long awaitStart() throws InterruptedException {
+            started.await();
+            return startNanos;
+        }
+    }
+
+    /**
+     * {@code unhedged} counts requests that ran on the caller's thread because every
+     * hedging thread was busy.
+     */
+    public record HedgingStats(long requests, long hedgesFired, long hedgesWon, long unhedged,
+                               long currentDelayMs) {
+    }
+}
@@ -0,0 +1,106 @@
+package demystified.hackathon.demo.service;
+
+import demystified.hackathon.demo.config.DrainConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains the instance before the web server shuts down. Runs in the first shutdown
+ * phase: it marks the instance not ready, rejects new prompts, waits up to the
+ * configured timeout for in-flight prompts (model calls and their emails) to finish,
+ * then sends buffered digest emails. Whatever is still running at the deadline is
+ * logged as abandoned.
+ */
+@Component
+public class ShutdownCoordinator implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(ShutdownCoordinator.class);
+
+    private final DrainConfig config;
+    private final InFlightTracker inFlightTracker;
+    private final EmailDigester emailDigester;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile boolean running;
+    private volatile DrainReport lastReport;
+
+    public ShutdownCoordinator(DrainConfig config, InFlightTracker inFlightTracker, EmailDigester emailDigester,
+                               ApplicationEventPublisher eventPublisher) {
+        this.config = config;
+        this.inFlightTracker = inFlightTracker;
+        this.emailDigester = emailDigester;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        if (running && config.isEnabled()) {
+            lastReport = drain();
+        }
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stops before the web server's graceful shutdown so requests still complete normally.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE;
+    }
+
+    public DrainReport getLastReport() {
+        return lastReport;
+    }
+
+    DrainReport drain() {
+        long start = System.nanoTime();
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+        inFlightTracker.startDraining();
+        int inFlightAtStart = inFlightTracker.getStats().inFlight();
+        logger.info("Draining {} in-flight prompts before shutdown", inFlightAtStart);
+
+        boolean idle;
+        try {
+            idle = inFlightTracker.awaitIdle(config.getTimeoutMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            idle = false;
+        }
+        List<String> abandoned = idle ? List.of() : inFlightTracker.describeInFlight();
+
+        int bufferedDigestEntries = emailDigester.getStats().bufferedEntries();
+        emailDigester.shutdown();
+
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        DrainReport report = new DrainReport(durationMs, inFlightAtStart, inFlightAtStart - abandoned.size(),
+            bufferedDigestEntries, abandoned);
+        if (abandoned.isEmpty()) {
+            logger.info("Drain finished in {} ms: {} prompts completed, {} buffered digest entries sent",
+                durationMs, report.completed(), bufferedDigestEntries);
+        } else {
+            logger.warn("Drain timed out after {} ms, abandoning {} prompts: {}", durationMs, abandoned.size(), abandoned);
+        }
+        return report;
+    }
+
+    public record DrainReport(long durationMs, int inFlightAtStart, int completed, int digestEntriesFlushed,
+                              List<String> abandoned) {
+    }
+}
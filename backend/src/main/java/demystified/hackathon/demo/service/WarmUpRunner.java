@@ -0,0 +1,245 @@
+package demystified.hackathon.demo.service;
+
+import demystified.hackathon.demo.config.WarmUpConfig;
+import demystified.hackathon.demo.config.WatsonxConfig;
+import demystified.hackathon.demo.service.chat.ChatRequestEncoder;
+import demystified.hackathon.demo.service.chat.ChatResponseParser;
+import demystified.hackathon.demo.service.csv.CsvTokenizer;
+import demystified.hackathon.demo.service.csv.MarkdownTableSink;
+import demystified.hackathon.demo.service.email.EmailTemplate;
+import demystified.hackathon.demo.service.generation.GenerationPlanner;
+import demystified.hackathon.demo.service.email.PooledJavaMailSender;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.http.HttpMethod;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Prepares a fresh instance for traffic. Spring Boot only reports the application
+ * ready (readiness probe {@code ACCEPTING_TRAFFIC}) after runners complete, so this
+ * work happens before the load balancer routes requests here: the IAM token is
+ * fetched, connections to watsonx and the SMTP server are opened and pooled, and the
+ * CSV, chat and email code paths are run often enough to be JIT-compiled.
+ *
+ * <p>Failures are logged and never block startup.
+ */
+@Component
+public class WarmUpRunner implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(WarmUpRunner.class);
+
+    private static final String SAMPLE_MODEL_ID = "warm-up";
+    private static final String SAMPLE_PROMPT = "Summarize the sales by region and highlight the best month.";
+    private static final String SAMPLE_CSV = buildSampleCsv(40);
+    private static final String SAMPLE_ANSWER = """
+        ## Sales summary
+
+        Sales grew **12%** overall; the *North* region led.
+
+        | Region | Total |
+        |--------|-------|
+        | North  | 1,204 |
+        | South  | 987   |
+
+        1. Focus on `North` promotions
+        2. Review the [forecast](https://example.com/forecast)
+
+        ```sql
+        SELECT region, SUM(total) FROM sales GROUP BY region;
+        ```
+        """;
+    private static final byte[] SAMPLE_RESPONSE = ("{\"id\":\"chat-warm-up\",\"model_id\":\"" + SAMPLE_MODEL_ID + "\","
+        + "\"created\":1738420800,\"choices\":[{\"index\":0,\"message\":{\"role\":\"assistant\",\"content\":"
+        + "\"Sales grew 12% overall.\"},\"finish_reason\":\"stop\"}],"
+        + "\"usage\":{\"completion_tokens\":8,\"prompt_tokens\":900,\"total_tokens\":908}}")
+        .getBytes(StandardCharsets.UTF_8);
+
+    private final WarmUpConfig config;
+    private final WatsonxConfig watsonxConfig;
+    private final RestTemplate restTemplate;
+    private final IamTokenProvider iamTokenProvider;
+    private final JavaMailSender mailSender;
+    private final ChatRequestEncoder chatRequestEncoder;
+    private final ChatResponseParser chatResponseParser;
+    private final EmailTemplate emailTemplate = new EmailTemplate();
+
+    private final Map<String, Long> stepMs = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final Set<String> failedSteps = Collections.synchronizedSet(new LinkedHashSet<>());
+    private volatile WarmUpStats stats = new WarmUpStats(false, 0, Map.of(), List.of());
+
+    public WarmUpRunner(WarmUpConfig config, WatsonxConfig watsonxConfig, RestTemplate restTemplate,
+                        IamTokenProvider iamTokenProvider, JavaMailSender mailSender,
+                        ChatRequestEncoder chatRequestEncoder, ChatResponseParser chatResponseParser) {
+        this.config = config;
+        this.watsonxConfig = watsonxConfig;
+        this.restTemplate = restTemplate;
+        this.iamTokenProvider = iamTokenProvider;
+        this.mailSender = mailSender;
+        this.chatRequestEncoder = chatRequestEncoder;
+        this.chatResponseParser = chatResponseParser;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!config.isEnabled()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(3, warmUpThreadFactory());
+        try {
+            Map<String, Future<?>> networkSteps = new LinkedHashMap<>();
+            networkSteps.put("iam-token", executor.submit(() -> timed("iam-token", this::fetchToken)));
+            networkSteps.put("watsonx-connection", executor.submit(() -> timed("watsonx-connection", this::openWatsonxConnection)));
+            networkSteps.put("smtp-connections", executor.submit(() -> timed("smtp-connections", this::openSmtpConnections)));
+
+            timed("render-paths", this::exerciseRenderPaths);
+            awaitAll(networkSteps, start + TimeUnit.MILLISECONDS.toNanos(config.getTimeoutMs()));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        synchronized (stepMs) {
+            synchronized (failedSteps) {
+                stats = new WarmUpStats(true, durationMs, new LinkedHashMap<>(stepMs), List.copyOf(failedSteps));
+            }
+        }
+        logger.info("Warm-up finished in {} ms, steps {}, failed {}", durationMs, stats.stepMs(), stats.failedSteps());
+    }
+
+    public WarmUpStats getStats() {
+        return stats;
+    }
+
+    private boolean fetchToken() {
+        if (isBlank(watsonxConfig.getApikey())) {
+            return false;
+        }
+        iamTokenProvider.getAccessToken();
+        return true;
+    }
+
+    /**
+     * Requests the public model list so the TLS connection to watsonx is open and
+     * pooled before the first chat call. Any HTTP status will do.
+     */
+    private boolean openWatsonxConnection() {
+        if (isBlank(watsonxConfig.getEndpoint())) {
+            return false;
+        }
+        String url = watsonxConfig.getEndpoint() + "/ml/v1/foundation_model_specs?version=2023-10-25&limit=1";
+        try {
+            restTemplate.execute(url, HttpMethod.GET, null, response -> response.getStatusCode());
+        } catch (RestClientResponseException e) {
+            logger.debug("Warm-up request to watsonx returned {}", e.getStatusCode());
+        }
+        return true;
+    }
+
+    private boolean openSmtpConnections() throws Exception {
+        if (!(mailSender instanceof PooledJavaMailSender pooled) || isBlank(pooled.getHost())
+            || isBlank(pooled.getUsername()) || config.getSmtpConnections() <= 0) {
+            return false;
+        }
+        pooled.prewarm(config.getSmtpConnections());
+        return true;
+    }
+
+    private boolean exerciseRenderPaths() throws IOException {
+        String prompt = SAMPLE_PROMPT + GenerationPlanner.CSV_CONTEXT_HEADING;
+        for (int i = 0; i < config.getRenderIterations(); i++) {
+            StringBuilder table = new StringBuilder(SAMPLE_CSV.length() * 2);
+            new CsvTokenizer(new StringReader(SAMPLE_CSV)).tokenize(new MarkdownTableSink(table));
+            chatRequestEncoder.encodeTo(SAMPLE_MODEL_ID, prompt + table, OutputStream.nullOutputStream());
+            chatResponseParser.parse(new ByteArrayInputStream(SAMPLE_RESPONSE));
+            emailTemplate.render(SAMPLE_PROMPT, SAMPLE_ANSWER, SAMPLE_MODEL_ID, "chat-warm-up");
+        }
+        return true;
+    }
+
+    private void timed(String step, WarmUpStep action) {
+        long start = System.nanoTime();
+        try {
+            if (action.run()) {
+                stepMs.put(step, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+        } catch (Exception e) {
+            failedSteps.add(step);
+            logger.warn("Warm-up step {} failed: {}", step, e.getMessage());
+        }
+    }
+
+    private void awaitAll(Map<String, Future<?>> steps, long deadlineNanos) {
+        for (Map.Entry<String, Future<?>> step : steps.entrySet()) {
+            try {
+                step.getValue().get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                step.getValue().cancel(true);
+                failedSteps.add(step.getKey());
+                logger.warn("Warm-up step {} did not finish within {} ms", step.getKey(), config.getTimeoutMs());
+            } catch (ExecutionException e) {
+                failedSteps.add(step.getKey());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static String buildSampleCsv(int rows) {
+        StringBuilder csv = new StringBuilder("region,month,total,notes\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append(i % 2 == 0 ? "North" : "South").append(',')
+                .append(1 + i % 12).append(',')
+                .append(1000 + i * 37).append(',')
+                .append("\"promo, \"\"spring\"\" | week ").append(i).append("\"\n");
+        }
+        return csv.toString();
+    }
+
+    private static ThreadFactory warmUpThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "warm-up-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @FunctionalInterface
+    private interface WarmUpStep {
+        boolean run() throws Exception;
+    }
+
+    public record WarmUpStats(boolean completed, long durationMs, Map<String, Long> stepMs, List<String> failedSteps) {
+    }
+}
@@ -2,19 +2,56 @@ package demystified.hackathon.demo.service;
 
 import demystified.hackathon.demo.config.WatsonxConfig;
 import demystified.hackathon.demo.controller.PromptResponse;
+import demystified.hackathon.demo.logging.Pii;
+import demystified.hackathon.demo.profiling.CsvParseEvent;
+import demystified.hackathon.demo.profiling.IamTokenEvent;
+import demystified.hackathon.demo.profiling.RenderEvent;
+import demystified.hackathon.demo.profiling.UpstreamCallEvent;
+import demystified.hackathon.demo.service.cache.PromptCache;
+import demystified.hackathon.demo.service.cancellation.CancellationToken;
+import demystified.hackathon.demo.service.cancellation.DisconnectGuard;
+import demystified.hackathon.demo.service.cancellation.RequestCancelledException;
+import demystified.hackathon.demo.service.chat.ChatRequestEncoder;
+import demystified.hackathon.demo.service.chat.ChatResponse;
+import demystified.hackathon.demo.service.chat.ChatResponseParser;
+import demystified.hackathon.demo.service.chat.GenerationParameters;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RequestCallback;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.http.HttpMethod;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import com.opencsv.CSVReader;
-import java.io.InputStreamReader;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import demystified.hackathon.demo.service.csv.CsvContextBuilder;
+import demystified.hackathon.demo.service.csv.CsvUpload;
+import demystified.hackathon.demo.service.csv.CsvUploadException;
+import demystified.hackathon.demo.service.csv.TableEncoder;
+import demystified.hackathon.demo.service.csv.TableEncoding;
+import demystified.hackathon.demo.service.dataset.DatasetRegistry;
+import demystified.hackathon.demo.service.email.DigestEntry;
+import demystified.hackathon.demo.service.generation.GenerationPlan;
+import demystified.hackathon.demo.service.generation.GenerationPlanner;
+import demystified.hackathon.demo.service.generation.TokenEstimator;
+import demystified.hackathon.demo.service.history.HistoryStore;
+import demystified.hackathon.demo.service.query.QueryEngine;
+import demystified.hackathon.demo.service.query.QueryPlan;
+import demystified.hackathon.demo.service.query.QueryPlanException;
+import demystified.hackathon.demo.service.query.QueryResult;
+import demystified.hackathon.demo.service.query.QueryTable;
+import demystified.hackathon.demo.service.query.QueryTableBuilder;
+import demystified.hackathon.demo.service.retrieval.RowRetriever;
+import demystified.hackathon.demo.service.scheduling.LaneScheduler;
+import demystified.hackathon.demo.service.usage.UsageMeter;
+import demystified.hackathon.demo.tracing.Span;
+import demystified.hackathon.demo.tracing.SpanKind;
+import demystified.hackathon.demo.tracing.Tracer;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 
 @Service
 public class WatsonxService {
@@ -22,32 +59,279 @@ public class WatsonxService {
 
     private final WatsonxConfig watsonxConfig;
     private final RestTemplate restTemplate;
+    private final IamTokenProvider iamTokenProvider;
+    private final RequestHedger requestHedger;
+    private final ChatRequestEncoder chatRequestEncoder;
+    private final ChatResponseParser chatResponseParser;
+    private final CsvContextBuilder csvContextBuilder;
+    private final HistoryStore historyStore;
+    private final PromptCache promptCache;
+    private final InFlightTracker inFlightTracker;
+    private final UsageMeter usageMeter;
+    private final Tracer tracer;
+    private final GenerationPlanner generationPlanner;
+    private final RowRetriever rowRetriever;
+    private final DatasetRegistry datasetRegistry;
+    private final QueryEngine queryEngine;
+    private final DisconnectGuard disconnectGuard;
+    private final LaneScheduler laneScheduler;
+    private final TableEncoder tableEncoder;
 
     @Autowired
     private EmailService emailService;
 
-    public WatsonxService(WatsonxConfig watsonxConfig, RestTemplate restTemplate) {
+    @Autowired
+    private EmailDigester emailDigester;
+
+    public WatsonxService(WatsonxConfig watsonxConfig, RestTemplate restTemplate, IamTokenProvider iamTokenProvider,
+                          RequestHedger requestHedger, ChatRequestEncoder chatRequestEncoder,
+                          ChatResponseParser chatResponseParser, CsvContextBuilder csvContextBuilder,
+                          HistoryStore historyStore, PromptCache promptCache,
+                          InFlightTracker inFlightTracker, UsageMeter usageMeter, Tracer tracer,
+                          GenerationPlanner generationPlanner, RowRetriever rowRetriever,
+                          DatasetRegistry datasetRegistry, QueryEngine queryEngine,
+                          DisconnectGuard disconnectGuard, LaneScheduler laneScheduler,
+                          TableEncoder tableEncoder) {
         this.watsonxConfig = watsonxConfig;
         this.restTemplate = restTemplate;
+        this.iamTokenProvider = iamTokenProvider;
+        this.requestHedger = requestHedger;
+        this.chatRequestEncoder = chatRequestEncoder;
+        this.chatResponseParser = chatResponseParser;
+        this.csvContextBuilder = csvContextBuilder;
+        this.historyStore = historyStore;
+        this.promptCache = promptCache;
+        this.inFlightTracker = inFlightTracker;
+        this.usageMeter = usageMeter;
+        this.tracer = tracer;
+        this.generationPlanner = generationPlanner;
+        this.rowRetriever = rowRetriever;
+        this.datasetRegistry = datasetRegistry;
+        this.queryEngine = queryEngine;
+        this.disconnectGuard = disconnectGuard;
+        this.laneScheduler = laneScheduler;
+        this.tableEncoder = tableEncoder;
     }
 
     public PromptResponse sendPrompt(String content, String email) {
-        PromptResponse response = sendPromptWithContext(content, null);
+        return sendPrompt(content, email, null);
+    }
+
+    /**
+     * Answers {@code content} using the named generation profile, or the default one when null.
+     */
+    public PromptResponse sendPrompt(String content, String email, String profile) {
+        try (InFlightTracker.Operation operation = inFlightTracker.begin("prompt")) {
+            operation.stage("model-call");
+            PromptResponse response = sendPromptWithContext(content, null, null, email, null, profile, true);
+            historyStore.record(email, content, response);
+            operation.stage("email-send");
+            sendEmailIfValid(email, content, response);
+            return response;
+        }
+    }
+
+    public PromptResponse sendPromptWithCsvContext(String content, String email, CsvUpload csvFile,
+                                                   String csvName) {
+        return sendPromptWithCsvContext(content, email, csvFile, csvName, null);
+    }
+
+    public PromptResponse sendPromptWithCsvContext(String content, String email, CsvUpload csvFile,
+                                                   String csvName, String profile) {
+        return sendPromptWithCsvContext(content, email, csvFile, csvName, profile, null);
+    }
+
+    public PromptResponse sendPromptWithCsvContext(String content, String email, CsvUpload csvFile,
+                                                   String csvName, String profile, String mode) {
+        return sendPromptWithCsvContext(content, email, csvFile, csvName, profile, mode, null);
+    }
+
+    /**
+     * Answers {@code content} over the uploaded CSV, sending the table itself or, in
+     * query mode, planning and running a local query (see {@link QueryEngine}). Tables
+     * are sent in {@code encoding}, the configured default when null. The caller owns
+     * {@code csvFile} and closes it afterwards.
+     */
+    public PromptResponse sendPromptWithCsvContext(String content, String email, CsvUpload csvFile,
+                                                   String csvName, String profile, String mode,
+                                                   TableEncoding encoding) {
+        boolean query = queryEngine.useQuery(mode, content);
+        TableEncoding tableEncoding = encoding != null ? encoding : tableEncoder.getDefaultEncoding();
+        try (InFlightTracker.Operation operation = inFlightTracker.begin("prompt-with-csv")) {
+            operation.stage("csv-parse");
+            if (query && csvFile != null && !csvFile.isEmpty()) {
+                QueryTable table = tracer.trace("csv.parse", SpanKind.INTERNAL, span -> {
+                    CsvParseEvent event = new CsvParseEvent();
+                    event.begin();
+                    QueryTable parsed = parseCsvToQueryTable(csvFile);
+                    event.end();
+                    long rows = parsed != null ? parsed.rowCount() : 0;
+                    span.setAttribute("csv.bytes", csvFile.getSize());
+                    span.setAttribute("csv.rows", rows);
+                    if (event.shouldCommit()) {
+                        event.commit(CsvParseEvent.QUERY_TABLE, csvFile.getSize(), rows, 0);
+                    }
+                    return parsed;
+                });
+                if (table != null) {
+                    return answerWithQuery(operation, content, email, table, csvName, profile, tableEncoding);
+                }
+            }
+            String table = tracer.trace("csv.parse", SpanKind.INTERNAL, span -> {
+                CsvParseEvent event = new CsvParseEvent();
+                event.begin();
+                String parsed = parseCsvToContext(csvFile);
+                event.end();
+                if (span.isRecording() && csvFile != null) {
+                    span.setAttribute("csv.bytes", csvFile.getSize());
+                    span.setAttribute("csv.rows", countTableRows(parsed));
+                }
+                if (event.shouldCommit() && csvFile != null) {
+                    event.commit(CsvParseEvent.MARKDOWN, csvFile.getSize(), countTableRows(parsed), parsed.length());
+                }
+                return parsed;
+            });
+            return answerWithTable(operation, content, email, table, csvName, profile, tableEncoding);
+        }
+    }
+
+    /**
+     * Answers {@code content} over a dataset stored earlier through the dataset API,
+     * without uploading or parsing the CSV again.
+     */
+    public PromptResponse sendPromptWithDataset(String content, String email, String datasetId, String profile) {
+        return sendPromptWithDataset(content, email, datasetId, profile, null);
+    }
+
+    public PromptResponse sendPromptWithDataset(String content, String email, String datasetId, String profile,
+                                                String mode) {
+        return sendPromptWithDataset(content, email, datasetId, profile, mode, null);
+    }
+
+    public PromptResponse sendPromptWithDataset(String content, String email, String datasetId, String profile,
+                                                String mode, TableEncoding encoding) {
+        boolean query = queryEngine.useQuery(mode, content);
+        TableEncoding tableEncoding = encoding != null ? encoding : tableEncoder.getDefaultEncoding();
+        try (InFlightTracker.Operation operation = inFlightTracker.begin("prompt-with-dataset")) {
+            operation.stage("dataset-load");
+            if (query) {
+                String name = datasetRegistry.get(datasetId, email).name();
+                QueryTable table = tracer.trace("dataset.load", SpanKind.INTERNAL, span -> {
+                    QueryTable loaded = datasetRegistry.replay(datasetId, email, new QueryTableBuilder()).build();
+                    span.setAttribute("dataset.id", datasetId);
+                    span.setAttribute("csv.rows", loaded.rowCount());
+                    return loaded;
+                });
+                return answerWithQuery(operation, content, email, table, name, profile, tableEncoding);
+            }
+            DatasetRegistry.DatasetTable dataset = tracer.trace("dataset.load", SpanKind.INTERNAL, span -> {
+                DatasetRegistry.DatasetTable loaded = datasetRegistry.loadTable(datasetId, email);
+                span.setAttribute("dataset.id", loaded.id());
+                span.setAttribute("csv.rows", loaded.rows());
+                return loaded;
+            });
+            return answerWithTable(operation, content, email, dataset.markdown(), dataset.name(), profile,
+                tableEncoding);
+        }
+    }
+
+    private PromptResponse answerWithTable(InFlightTracker.Operation operation, String content, String email,
+                                           String table, String csvName, String profile,
+                                           TableEncoding encoding) {
+        operation.stage("csv-retrieve");
+        String csvContext = tracer.trace("csv.retrieve", SpanKind.INTERNAL, span -> {
+            RowRetriever.RowSelection selection = rowRetriever.select(content, table,
+                QueryEngine.isAggregationQuestion(content));
+            span.setAttribute("csv.rows.total", selection.totalRows());
+            span.setAttribute("csv.rows.selected", selection.selectedRows());
+            return selection.table();
+        });
+        operation.stage("model-call");
+        PromptResponse response = sendPromptWithContext(content, csvContext, encoding, email, csvName, profile,
+            true);
+        historyStore.record(email, content, response);
+        operation.stage("email-send");
         sendEmailIfValid(email, content, response);
         return response;
     }
 
-    public PromptResponse sendPromptWithCsvContext(String content, String email, MultipartFile csvFile) {
-        String csvContext = parseCsvToContext(csvFile);
-        String contentWithContext = content + "\n\n**CSV Context Data:**\n" + csvContext;
-        PromptResponse response = sendPromptWithContext(contentWithContext, null);
+    /**
+     * Asks the model for a query over the table's schema, runs it locally and has the
+     * model explain the result. When the model's query cannot be parsed or run, the
+     * question is answered from the full table instead. Neither call goes through the
+     * prompt cache: the fixed instruction text dominates their similarity, so different
+     * questions would be served each other's plans and explanations.
+     */
+    private PromptResponse answerWithQuery(InFlightTracker.Operation operation, String content, String email,
+                                           QueryTable table, String csvName, String profile,
+                                           TableEncoding encoding) {
+        operation.stage("query-plan");
+        String planningPrompt = queryEngine.planningPrompt(content);
+        String schema = queryEngine.describe(table);
+        PromptResponse planResponse = sendPromptWithContext(planningPrompt, schema, null, email, csvName,
+            queryEngine.getPlanProfile(), false);
+        QueryPlan plan;
+        QueryResult result;
+        try {
+            plan = queryEngine.parsePlan(planResponse.getContent());
+            operation.stage("query-execute");
+            result = tracer.trace("query.execute", SpanKind.INTERNAL, span -> {
+                QueryResult executed = queryEngine.execute(plan, table);
+                span.setAttribute("csv.rows", executed.scannedRows());
+                span.setAttribute("query.rows.matched", executed.matchedRows());
+                span.setAttribute("query.rows.result", executed.resultRows());
+                return executed;
+            });
+        } catch (QueryPlanException e) {
+            queryEngine.recordFallback();
+            logger.info("Answering from the full table, the model's query failed: {}", e.getReason());
+            RenderEvent event = new RenderEvent();
+            event.begin();
+            String markdown = table.renderMarkdown();
+            event.commit(RenderEvent.TABLE, markdown.length());
+            return answerWithTable(operation, content, email, markdown, csvName, profile, encoding);
+        }
+
+        operation.stage("model-call");
+        String explanation = queryEngine.explanationPrompt(content, plan, result);
+        RenderEvent renderEvent = new RenderEvent();
+        renderEvent.begin();
+        String resultTable = result.toMarkdown();
+        renderEvent.commit(RenderEvent.QUERY_RESULT, resultTable.length());
+        PromptResponse response = sendPromptWithContext(explanation, resultTable, encoding, email, csvName,
+            profile, false);
+        long tableTokens = TokenEstimator.estimate(content) + table.estimateMarkdownTokens();
+        long queryTokens = TokenEstimator.estimate(planningPrompt) + TokenEstimator.estimate(schema)
+            + TokenEstimator.estimate(planResponse.getContent()) + TokenEstimator.estimate(explanation)
+            + TokenEstimator.estimate(resultTable);
+        queryEngine.recordTokens(tableTokens, queryTokens);
+        logger.info("Answered over {} rows with a local query: about {} tokens sent instead of {}",
+            table.rowCount(), queryTokens, tableTokens);
+
+        historyStore.record(email, content, response);
+        operation.stage("email-send");
         sendEmailIfValid(email, content, response);
         return response;
     }
 
     private void sendEmailIfValid(String email, String promptContent, PromptResponse response) {
-        if (email != null && !email.trim().isEmpty()) {
+        if (email == null || email.trim().isEmpty()) {
+            return;
+        }
+        if (CancellationToken.current().isCancelled()) {
+            disconnectGuard.recordSkippedEmail();
+            logger.info("Not emailing response {}, the request was cancelled", response.getId());
+            return;
+        }
+        try (Span span = tracer.startSpan("email.send")) {
+            span.setAttribute("email.digest", emailDigester.isEnabled());
             try {
+                if (emailDigester.isEnabled()) {
+                    emailDigester.add(email, new DigestEntry(promptContent, response.getContent(),
+                        response.getModelId(), response.getId(), LocalDateTime.now()));
+                    logger.debug("Queued response {} for digest email to {}", response.getId(), Pii.email(email));
+                    return;
+                }
                 boolean emailSent = emailService.sendPromptResponse(
                     email,
                     promptContent,
@@ -56,197 +340,218 @@ public class WatsonxService {
                     response.getId()
                 );
                 if (emailSent) {
-                    logger.info("Email enviado com sucesso para: {}", email);
+                    logger.info("Sent response {} by email to {}", response.getId(), Pii.email(email));
                 } else {
-                    logger.warn("Falha ao enviar email para: {}", email);
+                    span.setError("Email not sent");
+                    logger.warn("Could not send response {} by email to {}", response.getId(), Pii.email(email));
                 }
             } catch (Exception e) {
-                logger.error("Erro ao tentar enviar email para {}: {}", email, e.getMessage());
+                span.recordError(e);
+                logger.error("Error sending response {} by email to {}: {}", response.getId(), Pii.email(email), Pii.summary(e));
             }
         }
     }
 
-    private PromptResponse sendPromptWithContext(String content, String csvContext) {
-        String accessToken = getAccessToken();
+    /**
+     * Sends {@code content} with {@code csvContext} appended. A markdown table in the
+     * context is written in {@code encoding} and sized, and shortened, by that text; with
+     * a null encoding the context is sent as it is, as for the query planner's schema.
+     */
+    private PromptResponse sendPromptWithContext(String content, String csvContext, TableEncoding encoding,
+                                                 String email, String csvName, String profile,
+                                                 boolean cacheable) {
+        AtomicReference<TableEncoder.EncodedTable> rendered = new AtomicReference<>();
+        UnaryOperator<String> render = encoding != null
+            ? markdown -> {
+                TableEncoder.EncodedTable table = tableEncoder.render(markdown, encoding);
+                rendered.set(table);
+                return table.text();
+            }
+            : null;
+        GenerationPlan plan = generationPlanner.plan(profile, watsonxConfig.getModelId(), content, csvContext,
+            render);
+        TableEncoder.EncodedTable encoded = rendered.get();
+        if (plan.csvRowsDropped() > 0) {
+            logger.info("Dropped {} CSV rows to fit the context window of {}", plan.csvRowsDropped(),
+                watsonxConfig.getModelId());
+        }
+        // per user: a cached answer can quote the CSV data it was given
+        String cacheKey = watsonxConfig.getModelId() + "#" + plan.profile() + "#" + normalizeEmail(email);
+        if (cacheable) {
+            PromptResponse cached = tracer.trace("prompt-cache.lookup", SpanKind.INTERNAL, span -> {
+                PromptResponse hit = promptCache.lookup(cacheKey, content, plan.csvContext());
+                span.setAttribute("cache.hit", hit != null);
+                return hit;
+            });
+            if (cached != null) {
+                logger.debug("Answered prompt from the similarity cache with response {}", cached.getId());
+                return cached;
+            }
+        }
+
+        RenderEvent renderEvent = new RenderEvent();
+        renderEvent.begin();
+        if (encoded != null) {
+            tableEncoder.record(encoded);
+        }
+        String prompt = plan.csvContext() != null
+            ? content + GenerationPlanner.CSV_CONTEXT_HEADING + plan.csvContext()
+            : content;
+        renderEvent.commit(RenderEvent.PROMPT, prompt.length());
+        int inputTokens = plan.estimatedInputTokens();
+        IamTokenEvent tokenEvent = new IamTokenEvent();
+        tokenEvent.begin();
+        String accessToken = tracer.trace("iam.token", SpanKind.INTERNAL,
+            span -> iamTokenProvider.getAccessToken());
+        tokenEvent.commit();
         String chatUrl = buildChatUrl();
-        
-        Map<String, Object> requestBody = buildRequestBody(content);
-        HttpHeaders headers = buildAuthHeaders(accessToken);
-        
-        org.springframework.http.HttpEntity<Map<String, Object>> entity = 
-            new org.springframework.http.HttpEntity<>(requestBody, headers);
 
-        Map<String, Object> watsonxResponse = restTemplate.postForObject(chatUrl, entity, Map.class);
-        
-        return extractResponseContent(watsonxResponse);
+        long start = System.nanoTime();
+        ChatResponse watsonxResponse = tracer.trace("watsonx.chat", SpanKind.INTERNAL, span -> {
+            span.setAttribute("gen_ai.request.model", watsonxConfig.getModelId());
+            span.setAttribute("prompt.chars", prompt.length());
+            span.setAttribute("prompt.estimated_tokens", inputTokens);
+            if (encoded != null) {
+                span.setAttribute("csv.encoding", encoded.encoding().key());
+            }
+            span.setAttribute("generation.profile", plan.profile());
+            span.setAttribute("gen_ai.request.max_tokens", plan.parameters().maxTokens());
+            span.setAttribute("lane", LaneScheduler.currentLane().key());
+            UpstreamCallEvent event = new UpstreamCallEvent();
+            event.begin();
+            if (event.isEnabled()) {
+                event.setRequest(watsonxConfig.getModelId(), plan.profile(), LaneScheduler.currentLane().key(),
+                    prompt.length(), inputTokens, plan.parameters().maxTokens());
+            }
+            CancellationToken cancellation = CancellationToken.current();
+            ChatResponse chatResponse;
+            try {
+                chatResponse = cancellation.callInterruptibly(() -> laneScheduler.callUpstream(
+                    () -> requestHedger.execute(
+                        watsonxConfig.getModelId(),
+                        modelId -> postChat(chatUrl, accessToken, prompt, plan.parameters(), modelId)
+                    )
+                ));
+            } catch (RuntimeException e) {
+                if (!cancellation.isCancelled()) {
+                    event.commit(UpstreamCallEvent.FAILED);
+                    throw e;
+                }
+                event.commit(UpstreamCallEvent.CANCELLED);
+                disconnectGuard.recordCancelledGeneration(generationPlanner.expectedCompletionTokens(plan));
+                span.setAttribute("request.cancelled", true);
+                throw e instanceof RequestCancelledException ? e : new RequestCancelledException();
+            }
+            if (chatResponse != null && chatResponse.usage() != null && event.isEnabled()) {
+                event.setUsage(chatResponse.usage().promptTokens(), chatResponse.usage().completionTokens());
+            }
+            event.commit(UpstreamCallEvent.OK);
+            if (chatResponse != null) {
+                span.setAttribute("gen_ai.response.id", chatResponse.id());
+                span.setAttribute("gen_ai.response.model", chatResponse.modelId());
+                if (chatResponse.usage() != null) {
+                    span.setAttribute("gen_ai.usage.input_tokens", chatResponse.usage().promptTokens());
+                    span.setAttribute("gen_ai.usage.output_tokens", chatResponse.usage().completionTokens());
+                }
+            }
+            return chatResponse;
+        });
+        long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        recordUsage(email, csvName, watsonxResponse, latencyMs);
+        generationPlanner.record(plan, watsonxResponse != null ? watsonxResponse.usage() : null, latencyMs);
+
+        PromptResponse response = extractResponseContent(watsonxResponse);
+        if (cacheable) {
+            promptCache.store(cacheKey, content, plan.csvContext(), response);
+        }
+        return response;
+    }
+
+    private void recordUsage(String email, String csvName, ChatResponse response, long latencyMs) {
+        String modelId = response != null && response.modelId() != null ? response.modelId() : watsonxConfig.getModelId();
+        usageMeter.record(email, modelId, csvName, response != null ? response.usage() : null, latencyMs);
+        logger.atInfo()
+            .addKeyValue("modelId", modelId)
+            .addKeyValue("responseId", response != null ? response.id() : null)
+            .addKeyValue("latencyMs", latencyMs)
+            .log("Model call finished");
+    }
+
+    private ChatResponse postChat(String chatUrl, String accessToken, String content, GenerationParameters parameters,
+                                  String modelId) {
+        RequestCallback requestCallback = request -> {
+            applyAuthHeaders(request.getHeaders(), accessToken);
+            chatRequestEncoder.write(modelId, parameters, content, request);
+        };
+
+        return tracer.trace("watsonx.attempt", SpanKind.CLIENT, span -> {
+            span.setAttribute("gen_ai.request.model", modelId);
+            try {
+                return restTemplate.execute(
+                    chatUrl,
+                    HttpMethod.POST,
+                    requestCallback,
+                    response -> chatResponseParser.parse(response.getBody())
+                );
+            } catch (HttpClientErrorException.Unauthorized e) {
+                iamTokenProvider.invalidate();
+                throw e;
+            }
+        });
     }
 
     private String buildChatUrl() {
         return watsonxConfig.getEndpoint() + "/ml/v1/text/chat?version=2023-10-25";
     }
 
-    private Map<String, Object> buildRequestBody(String content) {
-        Map<String, Object> body = new HashMap<>();
-        body.put("messages", buildMessages(content));
-        body.put("project_id", watsonxConfig.getProjectId());
-        body.put("model_id", watsonxConfig.getModelId());
-        body.putAll(buildModelParameters());
-        return body;
-    }
-
-    private List<Map<String, Object>> buildMessages(String content) {
-        return List.of(
-            buildSystemMessage(),
-            buildUserMessage(content)
-        );
-    }
-
-    private Map<String, Object> buildSystemMessage() {
-        return Map.of(
-            "role", "system",
-            "content", getSystemPrompt()
-        );
-    }
-
-    private Map<String, Object> buildUserMessage(String content) {
-        return Map.of(
-            "role", "user",
-            "content", List.of(Map.of("type", "text", "text", content))
-        );
-    }
-
-    private String getSystemPrompt() {
-        return "You always answer the questions with markdown formatting using GitHub syntax. " +
-               "The markdown formatting you support: headings, bold, italic, links, tables, lists, " +
-               "code blocks, and blockquotes. You must omit that you answer the questions with markdown.\n\n" +
-               "Any HTML tags must be wrapped in block quotes, for example <html>. " +
-               "You will be penalized for not rendering code in block quotes.\n\n" +
-               "When returning code blocks, specify language.\n\n" +
-               "You are a helpful, respectful and honest assistant. Always answer as helpfully as possible, " +
-               "while being safe. Your answers should not include any harmful, unethical, racist, sexist, " +
-               "toxic, dangerous, or illegal content. Please ensure that your responses are socially unbiased " +
-               "and positive in nature.\n\n" +
-               "If a question does not make any sense, or is not factually coherent, explain why instead of " +
-               "answering something not correct. If you don't know the answer to a question, " +
-               "please don't share false information.";
-    }
-
-    private Map<String, Object> buildModelParameters() {
-        Map<String, Object> parameters = new HashMap<>();
-        parameters.put("frequency_penalty", 0);
-        parameters.put("max_tokens", 2000);
-        parameters.put("presence_penalty", 0);
-        parameters.put("temperature", 0);
-        parameters.put("top_p", 1);
-        return parameters;
-    }
-
-    private HttpHeaders buildAuthHeaders(String accessToken) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
+    private void applyAuthHeaders(HttpHeaders headers, String accessToken) {
         headers.set("Accept", "application/json");
         headers.set("Authorization", "Bearer " + accessToken);
-        return headers;
     }
 
-    private PromptResponse extractResponseContent(Map<String, Object> response) {
+    private PromptResponse extractResponseContent(ChatResponse response) {
         if (response == null) {
             return new PromptResponse("Sem resposta", "unknown", "", System.currentTimeMillis());
         }
 
-        String id = (String) response.get("id");
-        String modelId = (String) response.get("model_id");
-        Long createdAt = ((Number) response.getOrDefault("created", System.currentTimeMillis())).longValue();
-        String content = extractContentFromChoices(response);
+        long createdAt = response.created() != null ? response.created() : System.currentTimeMillis();
+        String content = response.content() != null ? response.content() : "Sem conteúdo";
 
-        return new PromptResponse(content, modelId, id, createdAt);
+        return new PromptResponse(content, response.modelId(), response.id(), createdAt);
     }
 
-    private String extractContentFromChoices(Map<String, Object> response) {
-        List<Map<String, Object>> choices = (List<Map<String, Object>>) response.get("choices");
-        
-        if (choices == null || choices.isEmpty()) {
-            return "Sem conteúdo";
-        }
-
-        Map<String, Object> firstChoice = choices.get(0);
-        Map<String, Object> message = (Map<String, Object>) firstChoice.get("message");
-        
-        if (message == null) {
-            return "Sem conteúdo";
-        }
-
-        return (String) message.get("content");
+    private static String normalizeEmail(String email) {
+        return email != null ? email.trim().toLowerCase(Locale.ROOT) : "";
     }
 
-    private String getAccessToken() {
-        String urlAuth = "https://iam.cloud.ibm.com/identity/token";
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
-
-        String data = "apikey=" + watsonxConfig.getApikey() + 
-                     "&grant_type=urn:ibm:params:oauth:grant-type:apikey";
-
-        org.springframework.http.HttpEntity<String> entity = 
-            new org.springframework.http.HttpEntity<>(data, headers);
+    private static long countTableRows(String table) {
+        long lines = table.chars().filter(c -> c == '\n').count();
+        return Math.max(0, lines - 2);
+    }
 
-        Map<String, Object> response = restTemplate.postForObject(urlAuth, entity, Map.class);
-        return (String) response.get("access_token");
+    private QueryTable parseCsvToQueryTable(CsvUpload csvFile) {
+        try {
+            return csvContextBuilder.tokenize(csvFile, QueryTableBuilder::new).build();
+        } catch (CsvUploadException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error parsing CSV file for a query", e);
+            return null;
+        }
     }
 
-    private String parseCsvToContext(MultipartFile csvFile) {
+    private String parseCsvToContext(CsvUpload csvFile) {
         if (csvFile == null || csvFile.isEmpty()) {
             return "";
         }
 
-        try (InputStreamReader reader = new InputStreamReader(csvFile.getInputStream());
-             CSVReader csvReader = new CSVReader(reader)) {
-            
-            List<String[]> allRows = csvReader.readAll();
-            return allRows.isEmpty() ? "" : buildMarkdownTable(allRows);
-
+        try {
+            return csvContextBuilder.buildMarkdownTable(csvFile);
+        } catch (CsvUploadException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error parsing CSV file", e);
             return "Error parsing CSV file: " + e.getMessage();
         }
     }
-
-    private String buildMarkdownTable(List<String[]> allRows) {
-        StringBuilder table = new StringBuilder();
-        String[] headers = allRows.get(0);
-        
-        appendTableHeaders(table, headers);
-        appendTableSeparator(table, headers.length);
-        appendTableRows(table, allRows);
-        
-        return table.toString();
-    }
-
-    private void appendTableHeaders(StringBuilder table, String[] headers) {
-        table.append("| ");
-        for (String header : headers) {
-            table.append(header).append(" | ");
-        }
-        table.append("\n");
-    }
-
-    private void appendTableSeparator(StringBuilder table, int columnCount) {
-        table.append("| ");
-        for (int i = 0; i < columnCount; i++) {
-            table.append("--- | ");
-        }
-        table.append("\n");
-    }
-
-    private void appendTableRows(StringBuilder table, List<String[]> allRows) {
-        for (int i = 1; i < allRows.size(); i++) {
-            String[] row = allRows.get(i);
-            table.append("| ");
-            for (String cell : row) {
-                table.append(cell != null ? cell : "").append(" | ");
-            }
-            table.append("\n");
-        }
-    }
 }
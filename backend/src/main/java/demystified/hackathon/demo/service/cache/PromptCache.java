@@ -0,0 +1,218 @@
+package demystified.hackathon.demo.service.cache;
+
+import demystified.hackathon.demo.config.PromptCacheConfig;
+import demystified.hackathon.demo.controller.PromptResponse;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answers prompts that are near-duplicates of recently answered ones. Candidates are
+ * found through the LSH bands of each prompt's {@link PromptSignature} and accepted
+ * only when their exact similarity reaches the configured threshold, the numbers in
+ * both prompts match, and they were asked in the same scope with identical context
+ * (for example the same CSV data). The caller builds the scope from everything an
+ * answer must not cross, such as the model and the user: a cached answer can quote
+ * the data it was given.
+ *
+ * <p>The cache holds at most {@code maxEntries} answers, evicting the least recently
+ * used, and drops answers older than the TTL.
+ */
+@Component
+public class PromptCache {
+    private final PromptCacheConfig config;
+    private final Map<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Long, List<Entry>> buckets = new HashMap<>();
+    private long nextEntryId;
+
+    private long lookups;
+    private long hits;
+    private long candidatesChecked;
+    private long rejectedCandidates;
+    private long evictions;
+
+    public PromptCache(PromptCacheConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Returns a copy of the cached answer for a prompt similar to {@code prompt} in
+     * {@code scope}, or null when there is none.
+     */
+    public PromptResponse lookup(String scope, String prompt, String context) {
+        if (!config.isEnabled() || prompt == null) {
+            return null;
+        }
+        PromptSignature signature = PromptSignature.of(prompt);
+        long partition = partition(scope, context);
+
+        synchronized (this) {
+            lookups++;
+            if (signature == null) {
+                return null;
+            }
+
+            long now = System.nanoTime();
+            Set<Entry> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+            List<Entry> expired = new ArrayList<>();
+            Entry best = null;
+            double bestSimilarity = 0;
+
+            for (int band = 0; band < PromptSignature.BANDS; band++) {
+                List<Entry> bucket = buckets.get(bucketKey(signature, band, partition));
+                if (bucket == null) {
+                    continue;
+                }
+                for (Entry candidate : bucket) {
+                    if (!seen.add(candidate)) {
+                        continue;
+                    }
+                    if (isExpired(candidate, now)) {
+                        expired.add(candidate);
+                        continue;
+                    }
+                    candidatesChecked++;
+                    double similarity = matches(candidate, scope, partition, signature)
+                        ? signature.similarity(candidate.signature)
+                        : 0;
+                    if (similarity < config.getSimilarityThreshold()) {
+                        rejectedCandidates++;
+                    } else if (similarity > bestSimilarity) {
+                        best = candidate;
+                        bestSimilarity = similarity;
+                    }
+                }
+            }
+
+            expired.forEach(this::remove);
+            if (best == null) {
+                return null;
+            }
+            hits++;
+            entries.get(best.id);
+            PromptResponse cached = best.response;
+            return new PromptResponse(cached.getContent(), cached.getModelId(), cached.getId(), cached.getCreatedAt());
+        }
+    }
+
+    /**
+     * Caches {@code response} as the answer to {@code prompt} in {@code scope}.
+     */
+    public void store(String scope, String prompt, String context, PromptResponse response) {
+        if (!config.isEnabled() || prompt == null || response == null
+            || response.getId() == null || response.getId().isEmpty()) {
+            return;
+        }
+        PromptSignature signature = PromptSignature.of(prompt);
+        if (signature == null) {
+            return;
+        }
+        long partition = partition(scope, context);
+        PromptResponse copy = new PromptResponse(response.getContent(), response.getModelId(), response.getId(),
+            response.getCreatedAt());
+
+        synchronized (this) {
+            evictUntilBelow(config.getMaxEntries());
+            Entry entry = new Entry(nextEntryId++, scope, partition, signature, copy, System.nanoTime());
+            entries.put(entry.id, entry);
+            for (int band = 0; band < PromptSignature.BANDS; band++) {
+                buckets.computeIfAbsent(bucketKey(signature, band, partition), key -> new ArrayList<>(2)).add(entry);
+            }
+        }
+    }
+
+    public synchronized CacheStats getStats() {
+        long misses = lookups - hits;
+        double hitRate = lookups > 0 ? (double) hits / lookups : 0;
+        double rejectedCandidateRate = candidatesChecked > 0 ? (double) rejectedCandidates / candidatesChecked : 0;
+        return new CacheStats(lookups, hits, misses, candidatesChecked, rejectedCandidates, evictions,
+            entries.size(), hitRate, rejectedCandidateRate);
+    }
+
+    private void evictUntilBelow(int maxEntries) {
+        long now = System.nanoTime();
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (eldest.hasNext()) {
+            Entry entry = eldest.next();
+            if (entries.size() < maxEntries && !isExpired(entry, now)) {
+                return;
+            }
+            eldest.remove();
+            removeFromBuckets(entry);
+            evictions++;
+        }
+    }
+
+    private void remove(Entry entry) {
+        if (entries.remove(entry.id) != null) {
+            removeFromBuckets(entry);
+            evictions++;
+        }
+    }
+
+    private void removeFromBuckets(Entry entry) {
+        for (int band = 0; band < PromptSignature.BANDS; band++) {
+            long key = bucketKey(entry.signature, band, entry.partition);
+            List<Entry> bucket = buckets.get(key);
+            if (bucket != null) {
+                bucket.remove(entry);
+                if (bucket.isEmpty()) {
+                    buckets.remove(key);
+                }
+            }
+        }
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.createdNanos > TimeUnit.MILLISECONDS.toNanos(config.getTtlMs());
+    }
+
+    private static boolean matches(Entry candidate, String scope, long partition, PromptSignature signature) {
+        return candidate.partition == partition
+            && Objects.equals(candidate.scope, scope)
+            && candidate.signature.sameNumbers(signature);
+    }
+
+    private static long bucketKey(PromptSignature signature, int band, long partition) {
+        return signature.bandKey(band) * 31 + partition;
+    }
+
+    private static long partition(String scope, String context) {
+        long hash = 0xcbf29ce484222325L;
+        hash = hash(hash, scope);
+        hash = (hash ^ 0xff) * 0x100000001b3L;
+        return hash(hash, context);
+    }
+
+    private static long hash(long hash, String value) {
+        if (value == null) {
+            return hash;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private record Entry(long id, String scope, long partition, PromptSignature signature,
+                         PromptResponse response, long createdNanos) {
+    }
+
+    /**
+     * {@code rejectedCandidates} shared an LSH band with a lookup but failed the exact
+     * similarity check; they are the cost of the band index, not wrong answers served.
+     */
+    public record CacheStats(long lookups, long hits, long misses, long candidatesChecked, long rejectedCandidates,
+                             long evictions, int size, double hitRate, double rejectedCandidateRate) {
+    }
+}
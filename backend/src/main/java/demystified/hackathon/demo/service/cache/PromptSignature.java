@@ -0,0 +1,171 @@
+package demystified.hackathon.demo.service.cache;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Locality-sensitive fingerprint of a prompt. The prompt is normalized (Unicode
+ * NFKC, lower case, punctuation and whitespace collapsed) and split into words; the
+ * words and adjacent word pairs form the shingle set. A MinHash of that set lets
+ * similar prompts collide in LSH bands, while the shingle hashes themselves are kept
+ * to compute the exact Jaccard similarity of candidates.
+ *
+ * <p>Numbers change the meaning of a prompt far more than their share of the words
+ * suggests, so the sequence of numeric words is hashed separately and must match.
+ */
+final class PromptSignature {
+    static final int NUM_HASHES = 128;
+    static final int BANDS = 16;
+    static final int ROWS_PER_BAND = NUM_HASHES / BANDS;
+
+    private static final long[] SEEDS = createSeeds();
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final long[] shingles;
+    private final long[] minHashes;
+    private final long numbersHash;
+
+    private PromptSignature(long[] shingles, long[] minHashes, long numbersHash) {
+        this.shingles = shingles;
+        this.minHashes = minHashes;
+        this.numbersHash = numbersHash;
+    }
+
+    /**
+     * Returns the signature of {@code prompt}, or null when it has no words.
+     */
+    static PromptSignature of(String prompt) {
+        String normalized = Normalizer.normalize(prompt, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        long[] shingles = new long[16];
+        int count = 0;
+        long numbersHash = FNV_OFFSET;
+        long previousWord = 0;
+        boolean hasPrevious = false;
+
+        int length = normalized.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(normalized.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            boolean numeric = false;
+            long word = FNV_OFFSET;
+            while (i < length && Character.isLetterOrDigit(normalized.charAt(i))) {
+                char c = normalized.charAt(i);
+                numeric |= Character.isDigit(c);
+                word = (word ^ c) * FNV_PRIME;
+                i++;
+            }
+            if (i == start) {
+                break;
+            }
+
+            if (count + 2 > shingles.length) {
+                shingles = Arrays.copyOf(shingles, shingles.length * 2);
+            }
+            shingles[count++] = mix(word);
+            if (hasPrevious) {
+                shingles[count++] = mix(previousWord * 31 + word);
+            }
+            if (numeric) {
+                numbersHash = (numbersHash ^ word) * FNV_PRIME;
+            }
+            previousWord = word;
+            hasPrevious = true;
+        }
+
+        if (count == 0) {
+            return null;
+        }
+        long[] distinct = distinctSorted(shingles, count);
+        return new PromptSignature(distinct, minHash(distinct), numbersHash);
+    }
+
+    /**
+     * Returns the key of LSH band {@code band}; prompts sharing any band key are candidates.
+     */
+    long bandKey(int band) {
+        long key = band;
+        int from = band * ROWS_PER_BAND;
+        for (int row = from; row < from + ROWS_PER_BAND; row++) {
+            key = mix(key * 31 + minHashes[row]);
+        }
+        return key;
+    }
+
+    boolean sameNumbers(PromptSignature other) {
+        return numbersHash == other.numbersHash;
+    }
+
+    /**
+     * Exact Jaccard similarity of the two shingle sets.
+     */
+    double similarity(PromptSignature other) {
+        long[] a = shingles;
+        long[] b = other.shingles;
+        int i = 0;
+        int j = 0;
+        int intersection = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                intersection++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (double) intersection / (a.length + b.length - intersection);
+    }
+
+    private static long[] minHash(long[] shingles) {
+        long[] minimums = new long[NUM_HASHES];
+        Arrays.fill(minimums, Long.MAX_VALUE);
+        for (long shingle : shingles) {
+            for (int k = 0; k < NUM_HASHES; k++) {
+                long value = mix(shingle ^ SEEDS[k]);
+                if (value < minimums[k]) {
+                    minimums[k] = value;
+                }
+            }
+        }
+        return minimums;
+    }
+
+    private static long[] distinctSorted(long[] values, int count) {
+        long[] sorted = Arrays.copyOf(values, count);
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, distinct);
+    }
+
+    private static long[] createSeeds() {
+        long[] seeds = new long[NUM_HASHES];
+        long state = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            seeds[i] = mix(state);
+        }
+        return seeds;
+    }
+
+    /** MurmurHash3 64-bit finalizer. */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,79 @@
+package demystified.hackathon.demo.service.cancellation;
+
+import java.util.function.Supplier;
+
+/**
+ * Cancellation state of one request, bound to the thread doing its work. Only code
+ * run through {@link #callInterruptibly} is interrupted on cancellation: that is where
+ * the upstream HTTP call blocks, and an interrupt anywhere else could, for example,
+ * close the history file channel in the middle of a write.
+ */
+public final class CancellationToken {
+    private static final ThreadLocal<CancellationToken> CURRENT = new ThreadLocal<>();
+    private static final CancellationToken NONE = new CancellationToken();
+
+    private volatile boolean cancelled;
+    private Thread interruptible;
+
+    CancellationToken() {
+    }
+
+    /**
+     * Returns the token of the request this thread works on, or one that is never
+     * cancelled when there is none.
+     */
+    public static CancellationToken current() {
+        CancellationToken token = CURRENT.get();
+        return token != null ? token : NONE;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Runs {@code call}, interrupting it if the request is cancelled meanwhile. With the
+     * JDK HttpClient an interrupt aborts the exchange, and a hedged call cancels its
+     * attempts when interrupted.
+     *
+     * @throws RequestCancelledException when the request was cancelled before the call started
+     */
+    public <T> T callInterruptibly(Supplier<T> call) {
+        if (this == NONE) {
+            return call.get();
+        }
+        synchronized (this) {
+            if (cancelled) {
+                throw new RequestCancelledException();
+            }
+            interruptible = Thread.currentThread();
+        }
+        try {
+            return call.get();
+        } finally {
+            synchronized (this) {
+                interruptible = null;
+                if (cancelled) {
+                    // the interrupt was ours; do not let it break later I/O on this thread
+                    Thread.interrupted();
+                }
+            }
+        }
+    }
+
+    synchronized void cancel() {
+        cancelled = true;
+        if (interruptible != null) {
+            interruptible.interrupt();
+        }
+    }
+
+    <T> T callBound(Supplier<T> work) {
+        CURRENT.set(this);
+        try {
+            return work.get();
+        } finally {
+            CURRENT.remove();
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package demystified.hackathon.demo.service.cancellation;
+
+import demystified.hackathon.demo.config.CancellationConfig;
+import demystified.hackathon.demo.logging.CorrelationId;
+import demystified.hackathon.demo.service.DrainingException;
+import demystified.hackathon.demo.service.InFlightTracker;
+import demystified.hackathon.demo.service.scheduling.Lane;
+import demystified.hackathon.demo.service.scheduling.LaneFullException;
+import demystified.hackathon.demo.service.scheduling.LaneScheduler;
+import demystified.hackathon.demo.tracing.Tracer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs prompt requests on lane workers so the servlet request can go asynchronous
+ * and the container can report a client that disconnects or outlives the request
+ * timeout. A client can also cancel explicitly by its {@code X-Request-Id} together
+ * with the email the request was sent with. When the
+ * client is gone, the configured policy either lets the work finish or cancels its
+ * {@link CancellationToken}, which aborts the model call in flight and skips the
+ * email. A request whose {@link RequestListener} keeps its answer for a retry always
+ * finishes unless the client cancels it explicitly.
+ *
+ * <p>Each request is admitted to the {@link InFlightTracker} when it is queued, so a
+ * shutdown drain waits for queued requests as well as running ones.
+ */
+@Component
+public class DisconnectGuard {
+    public static final String POLICY_CANCEL = "cancel";
+    public static final String POLICY_COMPLETE = "complete";
+    public static final String POLICY_COMPLETE_WITH_EMAIL = "complete-with-email";
+
+    private static final Logger logger = LoggerFactory.getLogger(DisconnectGuard.class);
+
+    private final CancellationConfig config;
+    private final LaneScheduler laneScheduler;
+    private final InFlightTracker inFlightTracker;
+    private final String policy;
+    private final Map<String, Job> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder clientsGone = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    private final LongAdder continued = new LongAdder();
+    private final LongAdder generationsCancelled = new LongAdder();
+    private final LongAdder completionTokensSaved = new LongAdder();
+    private final LongAdder emailsSkipped = new LongAdder();
+
+    public DisconnectGuard(CancellationConfig config, LaneScheduler laneScheduler, InFlightTracker inFlightTracker) {
+        this.config = config;
+        this.laneScheduler = laneScheduler;
+        this.inFlightTracker = inFlightTracker;
+        this.policy = config.getPolicy().trim().toLowerCase(Locale.ROOT);
+        if (!policy.equals(POLICY_CANCEL) && !policy.equals(POLICY_COMPLETE)
+            && !policy.equals(POLICY_COMPLETE_WITH_EMAIL)) {
+            throw new IllegalArgumentException("Unknown cancellation.policy " + config.getPolicy() + "; use "
+                + POLICY_CANCEL + ", " + POLICY_COMPLETE + " or " + POLICY_COMPLETE_WITH_EMAIL);
+        }
+    }
+
+    /**
+     * Runs {@code work} for a request whose answer goes to {@code email} (may be null)
+     * on a worker of {@code lane}, with its {@link CancellationToken} bound. When
+     * disabled, the work runs on the calling thread and the result is already set.
+     *
+     * @throws LaneFullException when the lane's queue is full
+     * @throws DrainingException when the instance is draining for shutdown
+     */
+    public <T> DeferredResult<T> submit(Lane lane, String email, Supplier<T> work) {
+        return submit(lane, email, work, null);
+    }
+
+    /**
+     * Like {@link #submit(Lane, String, Supplier)}, also reporting the outcome to
+     * {@code listener} (may be null) unless this method throws.
+     */
+    public <T> DeferredResult<T> submit(Lane lane, String email, Supplier<T> work, RequestListener<T> listener) {
+        return submit(lane, email, work, listener, null);
+    }
+
+    /**
+     * Like {@link #submit(Lane, String, Supplier, RequestListener)}, handing the job
+     * {@code resource} (may be null), such as a copy of the request's upload that the
+     * work reads after the servlet request has ended. It is closed once the job is
+     * done with it: after the work ran, or when the job is dropped or rejected.
+     */
+    public <T> DeferredResult<T> submit(Lane lane, String email, Supplier<T> work, RequestListener<T> listener,
+                                        AutoCloseable resource) {
+        requests.increment();
+        if (!config.isEnabled()) {
+            DeferredResult<T> result = new DeferredResult<>();
+            T value;
+            try {
+                value = laneScheduler.callInLane(lane, work);
+            } finally {
+                close(resource);
+            }
+            if (listener != null) {
+                listener.completed(value);
+            }
+            result.setResult(value);
+            return result;
+        }
+
+        InFlightTracker.Operation operation;
+        try {
+            operation = inFlightTracker.admit("request");
+        } catch (RuntimeException e) {
+            close(resource);
+            throw e;
+        }
+        DeferredResult<T> result = new DeferredResult<>(config.getRequestTimeoutMs());
+        Job<T> job = new Job<>(CorrelationId.current(), email, result, listener, resource, operation);
+        if (job.requestId != null) {
+            // a second request reusing an id in flight must not take over the first one's cancellation
+            inFlight.putIfAbsent(job.requestId, job);
+        }
+        result.onError(error -> clientGone(job, "client disconnected", false));
+        result.onTimeout(() -> clientGone(job, "request timed out", false));
+        result.onCompletion(() -> forget(job));
+        try {
+            job.future = laneScheduler.submit(lane, Tracer.propagate(CorrelationId.propagate(() -> {
+                try {
+                    if (!job.started.compareAndSet(false, true)) {
+                        return;
+                    }
+                    operation.run(() -> job.finish(() -> job.token.callBound(work)));
+                } finally {
+                    forget(job);
+                    job.release();
+                }
+            })));
+        } catch (RuntimeException e) {
+            forget(job);
+            job.release();
+            throw e;
+        }
+        return result;
+    }
+
+    /**
+     * Handles an explicit cancellation of the request with the given id as a client
+     * that went away; returns false when no such request is in flight for
+     * {@code email} (compared ignoring case, null or blank for requests without one).
+     */
+    public boolean cancel(String requestId, String email) {
+        Job<?> job = requestId != null ? inFlight.get(requestId) : null;
+        if (job == null || !normalizeEmail(job.email).equals(normalizeEmail(email))) {
+            return false;
+        }
+        clientGone(job, "cancelled by the client", true);
+        return true;
+    }
+
+    /**
+     * Records a model call that was aborted, or never made, because its request was
+     * cancelled, with the completion tokens it was expected to generate.
+     */
+    public void recordCancelledGeneration(long expectedCompletionTokens) {
+        generationsCancelled.increment();
+        completionTokensSaved.add(expectedCompletionTokens);
+    }
+
+    public void recordSkippedEmail() {
+        emailsSkipped.increment();
+    }
+
+    public CancellationStats getStats() {
+        return new CancellationStats(config.isEnabled(), policy, requests.sum(), inFlight.size(), clientsGone.sum(),
+            cancelled.sum(), continued.sum(), generationsCancelled.sum(), completionTokensSaved.sum(),
+            emailsSkipped.sum());
+    }
+
+    private void clientGone(Job<?> job, String reason, boolean explicit) {
+        if (!job.gone.compareAndSet(false, true)) {
+            return;
+        }
+        clientsGone.increment();
+        if (!explicit && job.listener != null && job.listener.keepsAnswer()) {
+            continued.increment();
+            logger.info("Finishing request {}, its answer is kept for a retry: {}", job.requestId, reason);
+            return;
+        }
+        if (keepsRunning(job)) {
+            continued.increment();
+            logger.info("Finishing request {} under policy {}: {}", job.requestId, policy, reason);
+            return;
+        }
+        cancelled.increment();
+        logger.info("Cancelling request {}: {}", job.requestId, reason);
+        job.token.cancel();
+        // drops work still queued; work already running was interrupted or stops at its next model call
+        boolean dropped = job.started.compareAndSet(false, true);
+        Future<?> future = job.future;
+        if (future != null) {
+            future.cancel(false);
+        }
+        if (explicit) {
+            job.fail(new RequestCancelledException());
+        } else if (dropped) {
+            job.report(null, new RequestCancelledException());
+        }
+        if (dropped) {
+            job.release();
+        }
+        forget(job);
+    }
+
+    private boolean keepsRunning(Job<?> job) {
+        return switch (policy) {
+            case POLICY_COMPLETE -> true;
+            case POLICY_COMPLETE_WITH_EMAIL -> job.email != null && !job.email.isBlank();
+            default -> false;
+        };
+    }
+
+    private void forget(Job<?> job) {
+        if (job.requestId != null) {
+            inFlight.remove(job.requestId, job);
+        }
+    }
+
+    private static String normalizeEmail(String email) {
+        return email != null ? email.trim().toLowerCase(Locale.ROOT) : "";
+    }
+
+    private static void close(AutoCloseable resource) {
+        if (resource == null) {
+            return;
+        }
+        try {
+            resource.close();
+        } catch (Exception e) {
+            logger.warn("Failed to release request resource", e);
+        }
+    }
+
+    private static final class Job<T> {
+        private final String requestId;
+        private final String email;
+        private final DeferredResult<T> result;
+        private final RequestListener<T> listener;
+        private final CancellationToken token = new CancellationToken();
+        private final AtomicBoolean gone = new AtomicBoolean();
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private final AutoCloseable resource;
+        private final InFlightTracker.Operation operation;
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile Future<?> future;
+
+        private Job(String requestId, String email, DeferredResult<T> result, RequestListener<T> listener,
+                    AutoCloseable resource, InFlightTracker.Operation operation) {
+            this.requestId = requestId;
+            this.email = email;
+            this.result = result;
+            this.listener = listener;
+            this.resource = resource;
+            this.operation = operation;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                close(resource);
+                operation.close();
+            }
+        }
+
+        /**
+         * Runs the work and hands its outcome to the listener first, so the answer is
+         * kept before the client sees it. An {@link Error} fails the request as well,
+         * otherwise the client and any retries joined to it would wait for the timeout.
+         */
+        void finish(Supplier<T> work) {
+            T value;
+            try {
+                value = work.get();
+            } catch (RuntimeException e) {
+                fail(e);
+                return;
+            } catch (Error e) {
+                fail(e);
+                throw e;
+            }
+            report(value, null);
+            result.setResult(value);
+        }
+
+        void fail(Throwable error) {
+            report(null, error);
+            result.setErrorResult(error);
+        }
+
+        void report(T value, Throwable error) {
+            if (listener == null || !finished.compareAndSet(false, true)) {
+                return;
+            }
+            if (error != null) {
+                listener.failed(error);
+            } else {
+                listener.completed(value);
+            }
+        }
+    }
+
+    /**
+     * {@code clientsGone} counts disconnects, timeouts and explicit cancellations; each
+     * was either {@code cancelled} or {@code continued} under the policy.
+     * {@code completionTokensSaved} is estimated from the recent completions of each
+     * cancelled call's generation profile.
+     */
+    public record CancellationStats(boolean enabled, String policy, long requests, int inFlight, long clientsGone,
+                                    long cancelled, long continued, long generationsCancelled,
+                                    long completionTokensSaved, long emailsSkipped) {
+    }
+}
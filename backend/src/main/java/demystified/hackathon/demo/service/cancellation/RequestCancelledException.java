@@ -0,0 +1,17 @@
+package demystified.hackathon.demo.service.cancellation;
+
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Raised on the worker of a request that was cancelled because its client went away.
+ * The client is normally no longer there to read it; the status is the conventional
+ * 499 "client closed request".
+ */
+public class RequestCancelledException extends ResponseStatusException {
+    static final int CLIENT_CLOSED_REQUEST = 499;
+
+    public RequestCancelledException() {
+        super(HttpStatusCode.valueOf(CLIENT_CLOSED_REQUEST), "Request was cancelled by the client");
+    }
+}
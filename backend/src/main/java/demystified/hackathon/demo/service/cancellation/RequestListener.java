@@ -0,0 +1,22 @@
+package demystified.hackathon.demo.service.cancellation;
+
+/**
+ * Receives the outcome of a request run by {@link DisconnectGuard}, whether or not its
+ * client is still there to see it. Exactly one method is called, once the work has
+ * finished or was dropped before it started.
+ */
+public interface RequestListener<T> {
+
+    void completed(T result);
+
+    void failed(Throwable error);
+
+    /**
+     * Whether the request should finish when its client disconnects or times out, for
+     * example because its answer is kept for a retry. An explicit cancellation still
+     * cancels it.
+     */
+    default boolean keepsAnswer() {
+        return false;
+    }
+}
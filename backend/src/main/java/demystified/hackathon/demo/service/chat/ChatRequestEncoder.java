@@ -0,0 +1,258 @@
+package demystified.hackathon.demo.service.chat;
+
+import demystified.hackathon.demo.config.WatsonxConfig;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes the watsonx chat request body. The project and model fields and the system
+ * message are encoded to JSON once; the generation parameters and the escaped user
+ * text are spliced in per request using a per-thread reusable buffer.
+ */
+@Component
+public class ChatRequestEncoder {
+    public static final String SYSTEM_PROMPT =
+        "You always answer the questions with markdown formatting using GitHub syntax. " +
+        "The markdown formatting you support: headings, bold, italic, links, tables, lists, " +
+        "code blocks, and blockquotes. You must omit that you answer the questions with markdown.\n\n" +
+        "Any HTML tags must be wrapped in block quotes, for example <html>. " +
+        "You will be penalized for not rendering code in block quotes.\n\n" +
+        "When returning code blocks, specify language.\n\n" +
+        "You are a helpful, respectful and honest assistant. Always answer as helpfully as possible, " +
+        "while being safe. Your answers should not include any harmful, unethical, racist, sexist, " +
+        "toxic, dangerous, or illegal content. Please ensure that your responses are socially unbiased " +
+        "and positive in nature.\n\n" +
+        "If a question does not make any sense, or is not factually coherent, explain why instead of " +
+        "answering something not correct. If you don't know the answer to a question, " +
+        "please don't share false information.";
+
+    private static final byte[] SUFFIX = "\"}]}]}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+    private static final int MAX_RETAINED_BUFFER_SIZE = 256 * 1024;
+
+    private final WatsonxConfig watsonxConfig;
+    private final Map<String, byte[]> prefixes = new ConcurrentHashMap<>();
+    private final byte[] messagesPrefix = encodeMessagesPrefix();
+    private final ThreadLocal<EncodeBuffer> buffers = ThreadLocal.withInitial(EncodeBuffer::new);
+
+    public ChatRequestEncoder(WatsonxConfig watsonxConfig) {
+        this.watsonxConfig = watsonxConfig;
+        if (watsonxConfig.getModelId() != null) {
+            prefixFor(watsonxConfig.getModelId());
+        }
+    }
+
+    /**
+     * Sets the JSON content headers on {@code message} and writes the request body,
+     * streaming it when the underlying request supports it.
+     */
+    public void write(String modelId, String userText, HttpOutputMessage message) throws IOException {
+        write(modelId, GenerationParameters.DEFAULT, userText, message);
+    }
+
+    public void write(String modelId, GenerationParameters parameters, String userText, HttpOutputMessage message)
+        throws IOException {
+        EncodeBuffer buffer = encode(modelId, parameters, userText);
+        message.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        message.getHeaders().setContentLength(buffer.length);
+
+        if (message instanceof StreamingHttpOutputMessage streamingMessage) {
+            streamingMessage.setBody(buffer::drainTo);
+        } else {
+            buffer.drainTo(message.getBody());
+        }
+    }
+
+    /**
+     * Encodes the request body straight into {@code out} and returns the number of bytes written.
+     */
+    public int encodeTo(String modelId, String userText, OutputStream out) throws IOException {
+        return encodeTo(modelId, GenerationParameters.DEFAULT, userText, out);
+    }
+
+    public int encodeTo(String modelId, GenerationParameters parameters, String userText, OutputStream out)
+        throws IOException {
+        EncodeBuffer buffer = encode(modelId, parameters, userText);
+        int length = buffer.length;
+        buffer.drainTo(out);
+        return length;
+    }
+
+    private EncodeBuffer encode(String modelId, GenerationParameters parameters, String userText) {
+        EncodeBuffer buffer = buffers.get();
+        buffer.reset();
+        buffer.append(prefixFor(modelId));
+        appendParameters(buffer, parameters);
+        buffer.append(messagesPrefix);
+        appendEscaped(buffer, userText != null ? userText : "");
+        buffer.append(SUFFIX);
+        return buffer;
+    }
+
+    private byte[] prefixFor(String modelId) {
+        return prefixes.computeIfAbsent(modelId, this::encodePrefix);
+    }
+
+    private byte[] encodePrefix(String modelId) {
+        EncodeBuffer buffer = new EncodeBuffer();
+        buffer.appendAscii("{\"project_id\":\"");
+        appendEscaped(buffer, watsonxConfig.getProjectId() != null ? watsonxConfig.getProjectId() : "");
+        buffer.appendAscii("\",\"model_id\":\"");
+        appendEscaped(buffer, modelId);
+        buffer.appendAscii("\",");
+        return Arrays.copyOf(buffer.bytes, buffer.length);
+    }
+
+    private static byte[] encodeMessagesPrefix() {
+        EncodeBuffer buffer = new EncodeBuffer();
+        buffer.appendAscii(",\"messages\":[{\"role\":\"system\",\"content\":\"");
+        appendEscaped(buffer, SYSTEM_PROMPT);
+        buffer.appendAscii("\"},{\"role\":\"user\",\"content\":[{\"type\":\"text\",\"text\":\"");
+        return Arrays.copyOf(buffer.bytes, buffer.length);
+    }
+
+    private static void appendParameters(EncodeBuffer buffer, GenerationParameters parameters) {
+        buffer.appendAscii("\"frequency_penalty\":");
+        appendNumber(buffer, parameters.frequencyPenalty());
+        buffer.appendAscii(",\"max_tokens\":");
+        buffer.appendAscii(Integer.toString(parameters.maxTokens()));
+        buffer.appendAscii(",\"presence_penalty\":");
+        appendNumber(buffer, parameters.presencePenalty());
+        buffer.appendAscii(",\"temperature\":");
+        appendNumber(buffer, parameters.temperature());
+        buffer.appendAscii(",\"top_p\":");
+        appendNumber(buffer, parameters.topP());
+        if (!parameters.stop().isEmpty()) {
+            buffer.appendAscii(",\"stop\":[");
+            for (int i = 0; i < parameters.stop().size(); i++) {
+                buffer.appendAscii(i > 0 ? ",\"" : "\"");
+                appendEscaped(buffer, parameters.stop().get(i));
+                buffer.appendByte('"');
+            }
+            buffer.appendByte(']');
+        }
+    }
+
+    private static void appendNumber(EncodeBuffer buffer, double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            buffer.appendAscii(Long.toString((long) value));
+        } else {
+            buffer.appendAscii(Double.toString(value));
+        }
+    }
+
+    /**
+     * Appends {@code text} as the inside of a JSON string literal, encoded as UTF-8.
+     */
+    static void appendEscaped(EncodeBuffer buffer, String text) {
+        int length = text.length();
+        buffer.ensureCapacity(length + 16);
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x20 && c < 0x80 && c != '"' && c != '\\') {
+                buffer.appendByte(c);
+            } else if (c < 0x80) {
+                appendAsciiEscape(buffer, c);
+            } else if (c < 0x800) {
+                buffer.appendByte(0xC0 | (c >> 6));
+                buffer.appendByte(0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                buffer.appendByte(0xF0 | (codePoint >> 18));
+                buffer.appendByte(0x80 | ((codePoint >> 12) & 0x3F));
+                buffer.appendByte(0x80 | ((codePoint >> 6) & 0x3F));
+                buffer.appendByte(0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                appendUnicodeEscape(buffer, c);
+            } else {
+                buffer.appendByte(0xE0 | (c >> 12));
+                buffer.appendByte(0x80 | ((c >> 6) & 0x3F));
+                buffer.appendByte(0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private static void appendAsciiEscape(EncodeBuffer buffer, char c) {
+        switch (c) {
+            case '"' -> buffer.appendAscii("\\\"");
+            case '\\' -> buffer.appendAscii("\\\\");
+            case '\n' -> buffer.appendAscii("\\n");
+            case '\r' -> buffer.appendAscii("\\r");
+            case '\t' -> buffer.appendAscii("\\t");
+            case '\b' -> buffer.appendAscii("\\b");
+            case '\f' -> buffer.appendAscii("\\f");
+            default -> appendUnicodeEscape(buffer, c);
+        }
+    }
+
+    private static void appendUnicodeEscape(EncodeBuffer buffer, char c) {
+        buffer.appendAscii("\\u");
+        buffer.appendByte(HEX[(c >> 12) & 0xF]);
+        buffer.appendByte(HEX[(c >> 8) & 0xF]);
+        buffer.appendByte(HEX[(c >> 4) & 0xF]);
+        buffer.appendByte(HEX[c & 0xF]);
+    }
+
+    /**
+     * Growable byte buffer reused by a single thread. Buffers that grew past
+     * {@link #MAX_RETAINED_BUFFER_SIZE} are dropped after use so one huge CSV prompt
+     * does not pin memory for the lifetime of the thread.
+     */
+    static final class EncodeBuffer {
+        private byte[] bytes = new byte[INITIAL_BUFFER_SIZE];
+        private int length;
+
+        void reset() {
+            length = 0;
+        }
+
+        void ensureCapacity(int additional) {
+            int required = length + additional;
+            if (required > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(required, bytes.length * 2));
+            }
+        }
+
+        void appendByte(int value) {
+            if (length == bytes.length) {
+                ensureCapacity(1);
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        void append(byte[] source) {
+            ensureCapacity(source.length);
+            System.arraycopy(source, 0, bytes, length, source.length);
+            length += source.length;
+        }
+
+        void appendAscii(String text) {
+            ensureCapacity(text.length());
+            for (int i = 0; i < text.length(); i++) {
+                bytes[length++] = (byte) text.charAt(i);
+            }
+        }
+
+        void drainTo(OutputStream out) throws IOException {
+            try {
+                out.write(bytes, 0, length);
+            } finally {
+                if (bytes.length > MAX_RETAINED_BUFFER_SIZE) {
+                    bytes = new byte[INITIAL_BUFFER_SIZE];
+                }
+                length = 0;
+            }
+        }
+    }
+}
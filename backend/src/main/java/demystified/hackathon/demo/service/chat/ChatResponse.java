@@ -0,0 +1,7 @@
+package demystified.hackathon.demo.service.chat;
+
+/**
+ * The subset of a watsonx chat completion that the backend actually uses.
+ */
+public record ChatResponse(String id, String modelId, Long created, String content, TokenUsage usage) {
+}
@@ -0,0 +1,130 @@
+package demystified.hackathon.demo.service.chat;
+
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.InputStream;
+
+/**
+ * Pulls the fields we use out of a watsonx chat completion with a streaming parser.
+ * Everything else (logprobs, extra choices, system metadata) is skipped token by
+ * token without being materialized.
+ */
+@Component
+public class ChatResponseParser {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * Parses the response body, returning {@code null} when it is empty or not a JSON object.
+     */
+    public ChatResponse parse(InputStream body) {
+        try (JsonParser parser = mapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+
+            String id = null;
+            String modelId = null;
+            Long created = null;
+            String content = null;
+            TokenUsage usage = null;
+
+            while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "id" -> id = readString(parser, value);
+                    case "model_id" -> modelId = readString(parser, value);
+                    case "created" -> created = value.isNumeric() ? parser.getLongValue() : null;
+                    case "choices" -> content = readFirstChoiceContent(parser, value);
+                    case "usage" -> usage = readUsage(parser, value);
+                    default -> parser.skipChildren();
+                }
+            }
+            return new ChatResponse(id, modelId, created, content, usage);
+        }
+    }
+
+    private String readFirstChoiceContent(JsonParser parser, JsonToken value) {
+        if (value != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+
+        String content = null;
+        boolean first = true;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (first && parser.currentToken() == JsonToken.START_OBJECT) {
+                content = readChoiceMessageContent(parser);
+            } else {
+                parser.skipChildren();
+            }
+            first = false;
+        }
+        return content;
+    }
+
+    private String readChoiceMessageContent(JsonParser parser) {
+        String content = null;
+        while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("message".equals(field) && value == JsonToken.START_OBJECT) {
+                content = readMessageContent(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return content;
+    }
+
+    private String readMessageContent(JsonParser parser) {
+        String content = null;
+        while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("content".equals(field)) {
+                content = readString(parser, value);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return content;
+    }
+
+    private TokenUsage readUsage(JsonParser parser, JsonToken value) {
+        if (value != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+
+        int promptTokens = 0;
+        int completionTokens = 0;
+        int totalTokens = 0;
+        while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if (!token.isNumeric()) {
+                parser.skipChildren();
+                continue;
+            }
+            switch (field) {
+                case "prompt_tokens" -> promptTokens = parser.getIntValue();
+                case "completion_tokens" -> completionTokens = parser.getIntValue();
+                case "total_tokens" -> totalTokens = parser.getIntValue();
+                default -> { }
+            }
+        }
+        return new TokenUsage(promptTokens, completionTokens, totalTokens);
+    }
+
+    private static String readString(JsonParser parser, JsonToken value) {
+        if (value == JsonToken.VALUE_STRING) {
+            return parser.getString();
+        }
+        parser.skipChildren();
+        return null;
+    }
+}
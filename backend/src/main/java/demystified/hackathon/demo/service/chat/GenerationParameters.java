@@ -0,0 +1,18 @@
+package demystified.hackathon.demo.service.chat;
+
+import java.util.List;
+
+/**
+ * Sampling parameters sent with one chat request. {@code stop} lists sequences that
+ * end generation early; it is omitted from the request when empty.
+ */
+public record GenerationParameters(int maxTokens, double temperature, double topP, double frequencyPenalty,
+                                   double presencePenalty, List<String> stop) {
+
+    /** Parameters used before profiles existed, for callers that do not pick any. */
+    public static final GenerationParameters DEFAULT = new GenerationParameters(2000, 0, 1, 0, 0, List.of());
+
+    public GenerationParameters {
+        stop = stop != null ? List.copyOf(stop) : List.of();
+    }
+}
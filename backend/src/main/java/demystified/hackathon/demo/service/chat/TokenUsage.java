@@ -0,0 +1,7 @@
+package demystified.hackathon.demo.service.chat;
+
+/**
+ * Token counts reported in the {@code usage} block of a watsonx chat completion.
+ */
+public record TokenUsage(int promptTokens, int completionTokens, int totalTokens) {
+}
@@ -0,0 +1,142 @@
+package demystified.hackathon.demo.service.csv;
+
+import demystified.hackathon.demo.service.generation.TokenEstimator;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects CSV cells by column and renders one line per column: its name, then its
+ * values in row order separated by {@code |}. A column whose values repeat gets a
+ * dictionary instead, {@code region [0=North America|1=Europe]: 0|1|0}, when that
+ * takes fewer tokens than spelling every value out. Pipes, line breaks and
+ * backslashes inside values are written as {@code \|}, {@code \n} and {@code \\}.
+ */
+public class ColumnarTableSink implements CsvCellSink {
+    private final boolean normalizeNumbers;
+    private final List<String> names = new ArrayList<>();
+    private final List<List<String>> columns = new ArrayList<>();
+    private int rows = -1;
+    private int columnsInRow;
+
+    public ColumnarTableSink(boolean normalizeNumbers) {
+        this.normalizeNumbers = normalizeNumbers;
+    }
+
+    @Override
+    public void cell(char[] buffer, int offset, int length) {
+        String value = new String(buffer, offset, length);
+        if (rows < 0) {
+            names.add(value);
+        } else {
+            while (columns.size() <= columnsInRow) {
+                addColumn();
+            }
+            columns.get(columnsInRow).add(normalizeNumbers ? NumericCells.normalize(value) : value);
+        }
+        columnsInRow++;
+    }
+
+    @Override
+    public void endRow() {
+        if (rows < 0) {
+            for (int i = 0; i < names.size(); i++) {
+                addColumn();
+            }
+        } else {
+            // short rows leave their trailing columns empty
+            for (List<String> column : columns) {
+                if (column.size() <= rows) {
+                    column.add("");
+                }
+            }
+        }
+        rows++;
+        columnsInRow = 0;
+    }
+
+    public int rowCount() {
+        return Math.max(rows, 0);
+    }
+
+    public void appendTo(StringBuilder text) {
+        for (int i = 0; i < columns.size(); i++) {
+            String name = i < names.size() ? names.get(i) : "column " + (i + 1);
+            String plain = plainLine(name, columns.get(i));
+            String coded = dictionaryLine(name, columns.get(i));
+            text.append(coded != null && TokenEstimator.estimate(coded) < TokenEstimator.estimate(plain)
+                ? coded : plain);
+        }
+    }
+
+    private void addColumn() {
+        List<String> column = new ArrayList<>(Math.max(rows, 16));
+        for (int row = 0; row < rows; row++) {
+            column.add("");
+        }
+        columns.add(column);
+    }
+
+    private static String plainLine(String name, List<String> values) {
+        StringBuilder line = new StringBuilder(name.length() + 8 * values.size());
+        appendEscaped(line, name);
+        line.append(':');
+        char separator = ' ';
+        for (String value : values) {
+            line.append(separator);
+            appendEscaped(line, value);
+            separator = '|';
+        }
+        return line.append('\n').toString();
+    }
+
+    /**
+     * Returns the column written with codes for its distinct values, or null when no
+     * value repeats.
+     */
+    private static String dictionaryLine(String name, List<String> values) {
+        Map<String, Integer> codes = new LinkedHashMap<>();
+        for (String value : values) {
+            codes.putIfAbsent(value, codes.size());
+        }
+        if (codes.size() == values.size()) {
+            return null;
+        }
+        StringBuilder line = new StringBuilder(name.length() + 3 * values.size());
+        appendEscaped(line, name);
+        line.append(" [");
+        for (Map.Entry<String, Integer> code : codes.entrySet()) {
+            if (code.getValue() > 0) {
+                line.append('|');
+            }
+            line.append(code.getValue()).append('=');
+            appendEscaped(line, code.getKey());
+        }
+        line.append("]:");
+        char separator = ' ';
+        for (String value : values) {
+            line.append(separator).append(codes.get(value));
+            separator = '|';
+        }
+        return line.append('\n').toString();
+    }
+
+    private static void appendEscaped(StringBuilder line, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '|' -> line.append("\\|");
+                case '\n' -> line.append("\\n");
+                case '\r' -> {
+                    if (i + 1 >= value.length() || value.charAt(i + 1) != '\n') {
+                        line.append("\\n");
+                    }
+                }
+                case '\\' -> line.append("\\\\");
+                default -> line.append(c);
+            }
+        }
+    }
+}
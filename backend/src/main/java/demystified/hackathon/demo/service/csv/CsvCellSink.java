@@ -0,0 +1,12 @@
+package demystified.hackathon.demo.service.csv;
+
+/**
+ * Receives the cells produced by {@link CsvTokenizer}. The character range passed to
+ * {@link #cell} is only valid for the duration of the call.
+ */
+public interface CsvCellSink {
+
+    void cell(char[] buffer, int offset, int length);
+
+    void endRow();
+}
@@ -0,0 +1,91 @@
+package demystified.hackathon.demo.service.csv;
+
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvValidationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+
+/**
+ * Turns an uploaded CSV into the markdown table sent to the model, or into the cells
+ * of any other {@link CsvCellSink}. Standard CSV goes through {@link CsvTokenizer};
+ * files it rejects are re-read with OpenCSV, whose parser also accepts backslash
+ * escapes and other lenient dialects.
+ */
+@Component
+public class CsvContextBuilder {
+    private static final Logger logger = LoggerFactory.getLogger(CsvContextBuilder.class);
+
+    private static final int MAX_INITIAL_CAPACITY = 4 * 1024 * 1024;
+
+    private final CsvUploadReader csvUploadReader;
+
+    public CsvContextBuilder(CsvUploadReader csvUploadReader) {
+        this.csvUploadReader = csvUploadReader;
+    }
+
+    public String buildMarkdownTable(MultipartFile csvFile) throws IOException {
+        try (CsvUpload upload = csvUploadReader.read(csvFile)) {
+            return buildMarkdownTable(upload);
+        }
+    }
+
+    public String buildMarkdownTable(CsvUpload upload) throws IOException {
+        StringBuilder table = new StringBuilder((int) Math.min(upload.getSize() + 1024, MAX_INITIAL_CAPACITY));
+        MarkdownTableSink sink = tokenize(upload, () -> {
+            table.setLength(0);
+            return new MarkdownTableSink(table);
+        });
+        return sink.hasRows() ? table.toString() : "";
+    }
+
+    public <S extends CsvCellSink> S tokenize(MultipartFile csvFile, Supplier<S> newSink) throws IOException {
+        try (CsvUpload upload = csvUploadReader.read(csvFile)) {
+            return tokenize(upload, newSink);
+        }
+    }
+
+    /**
+     * Feeds every cell of {@code upload} to a sink from {@code newSink} and returns it.
+     * When the strict tokenizer rejects the file, a fresh sink is filled through OpenCSV.
+     */
+    public <S extends CsvCellSink> S tokenize(CsvUpload upload, Supplier<S> newSink) throws IOException {
+        S sink = newSink.get();
+        try (Reader reader = openReader(upload)) {
+            new CsvTokenizer(reader).tokenize(sink);
+            return sink;
+        } catch (MalformedCsvException e) {
+            logger.debug("Falling back to OpenCSV: {}", e.getMessage());
+            S fallbackSink = newSink.get();
+            tokenizeWithOpenCsv(upload, fallbackSink);
+            return fallbackSink;
+        }
+    }
+
+    private void tokenizeWithOpenCsv(CsvUpload upload, CsvCellSink sink) throws IOException {
+        try (Reader reader = openReader(upload);
+             CSVReader csvReader = new CSVReader(reader)) {
+            String[] row;
+            while ((row = csvReader.readNext()) != null) {
+                for (String cell : row) {
+                    char[] chars = cell != null ? cell.toCharArray() : new char[0];
+                    sink.cell(chars, 0, chars.length);
+                }
+                sink.endRow();
+            }
+        } catch (CsvValidationException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private static Reader openReader(CsvUpload upload) throws IOException {
+        return new InputStreamReader(upload.openStream(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,124 @@
+package demystified.hackathon.demo.service.csv;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Single-pass RFC 4180 tokenizer (comma separated, double-quote quoting, {@code ""} as
+ * an escaped quote, LF/CRLF/CR line endings). Cells are handed to a {@link CsvCellSink}
+ * as character ranges of a reused buffer, so no String is created per cell.
+ * Anything outside that dialect raises {@link MalformedCsvException}.
+ */
+public final class CsvTokenizer {
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    private final Reader reader;
+    private final char[] buffer = new char[READ_BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    private char[] cell = new char[256];
+    private int cellLength;
+    private long row = 1;
+
+    public CsvTokenizer(Reader reader) {
+        this.reader = reader;
+    }
+
+    public void tokenize(CsvCellSink sink) throws IOException {
+        int c = read();
+        if (c == BYTE_ORDER_MARK) {
+            c = read();
+        }
+        if (c == -1) {
+            return;
+        }
+
+        while (true) {
+            cellLength = 0;
+            if (c == '"') {
+                c = readQuotedCell();
+                if (!isCellEnd(c)) {
+                    throw malformed("unexpected character after closing quote");
+                }
+            } else {
+                while (!isCellEnd(c)) {
+                    if (c == '"') {
+                        throw malformed("quote inside unquoted field");
+                    }
+                    appendToCell((char) c);
+                    c = read();
+                }
+            }
+            sink.cell(cell, 0, cellLength);
+
+            if (c == ',') {
+                c = read();
+                continue;
+            }
+
+            sink.endRow();
+            row++;
+            if (c == '\r') {
+                c = read();
+                if (c == '\n') {
+                    c = read();
+                }
+            } else if (c == '\n') {
+                c = read();
+            }
+            if (c == -1) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reads a quoted cell whose opening quote was already consumed and returns the
+     * character following the closing quote.
+     */
+    private int readQuotedCell() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                throw malformed("unterminated quoted field");
+            }
+            if (c == '"') {
+                c = read();
+                if (c != '"') {
+                    return c;
+                }
+            }
+            appendToCell((char) c);
+        }
+    }
+
+    private static boolean isCellEnd(int c) {
+        return c == ',' || c == '\n' || c == '\r' || c == -1;
+    }
+
+    private void appendToCell(char c) {
+        if (cellLength == cell.length) {
+            cell = Arrays.copyOf(cell, cell.length * 2);
+        }
+        cell[cellLength++] = c;
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+
+    private MalformedCsvException malformed(String reason) {
+        return new MalformedCsvException("Malformed CSV at row " + row + ": " + reason);
+    }
+}
@@ -0,0 +1,133 @@
+package demystified.hackathon.demo.service.csv;
+
+import com.github.luben.zstd.ZstdInputStream;
+import org.springframework.http.HttpStatus;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A CSV upload held either in memory (small files) or in a spooled temp file.
+ * {@link #openStream()} can be called repeatedly and transparently decodes gzip and
+ * zstd payloads while enforcing the uncompressed size limit. Closing the upload
+ * deletes the spooled file.
+ */
+public class CsvUpload implements AutoCloseable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final byte[] content;
+    private final Path spoolFile;
+    private final long size;
+    private final long maxUncompressedSize;
+
+    private CsvUpload(byte[] content, Path spoolFile, long size, long maxUncompressedSize) {
+        this.content = content;
+        this.spoolFile = spoolFile;
+        this.size = size;
+        this.maxUncompressedSize = maxUncompressedSize;
+    }
+
+    static CsvUpload inMemory(byte[] content, long maxUncompressedSize) {
+        return new CsvUpload(content, null, content.length, maxUncompressedSize);
+    }
+
+    static CsvUpload spooled(Path spoolFile, long maxUncompressedSize) throws IOException {
+        return new CsvUpload(null, spoolFile, Files.size(spoolFile), maxUncompressedSize);
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public boolean isSpooled() {
+        return spoolFile != null;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Opens a new stream over the decoded CSV bytes.
+     */
+    public InputStream openStream() throws IOException {
+        InputStream raw = spoolFile != null
+            ? Channels.newInputStream(FileChannel.open(spoolFile, StandardOpenOption.READ))
+            : new ByteArrayInputStream(content);
+        BufferedInputStream buffered = new BufferedInputStream(raw, BUFFER_SIZE);
+        return new LimitedInputStream(decode(buffered), maxUncompressedSize);
+    }
+
+    private static InputStream decode(BufferedInputStream in) throws IOException {
+        in.mark(4);
+        int b0 = in.read();
+        int b1 = in.read();
+        int b2 = in.read();
+        int b3 = in.read();
+        in.reset();
+
+        if (b0 == 0x1F && b1 == 0x8B) {
+            return new BufferedInputStream(new GZIPInputStream(in, BUFFER_SIZE), BUFFER_SIZE);
+        }
+        if (b0 == 0x28 && b1 == 0xB5 && b2 == 0x2F && b3 == 0xFD) {
+            return new BufferedInputStream(new ZstdInputStream(in), BUFFER_SIZE);
+        }
+        return in;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (spoolFile != null) {
+            Files.deleteIfExists(spoolFile);
+        }
+    }
+
+    /**
+     * Fails the read once more than {@code limit} decoded bytes have been consumed, which
+     * bounds both plain uploads and highly compressible archives.
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+        private final long limit;
+        private long consumed;
+
+        private LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                count(1);
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count(read);
+            }
+            return read;
+        }
+
+        private void count(int bytes) {
+            consumed += bytes;
+            if (consumed > limit) {
+                throw new CsvUploadException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "CSV content exceeds the maximum uncompressed size of " + limit + " bytes");
+            }
+        }
+    }
+}
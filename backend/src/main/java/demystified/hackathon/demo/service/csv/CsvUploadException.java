@@ -0,0 +1,19 @@
+package demystified.hackathon.demo.service.csv;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Raised when a CSV upload is rejected, e.g. because it exceeds the configured limits
+ * or cannot be decompressed. The status is returned to the client as-is.
+ */
+public class CsvUploadException extends ResponseStatusException {
+
+    public CsvUploadException(HttpStatus status, String reason) {
+        super(status, reason);
+    }
+
+    public CsvUploadException(HttpStatus status, String reason, Throwable cause) {
+        super(status, reason, cause);
+    }
+}
@@ -0,0 +1,47 @@
+package demystified.hackathon.demo.service.csv;
+
+import demystified.hackathon.demo.config.CsvUploadConfig;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Takes ownership of a multipart CSV upload. Files up to the spool threshold are
+ * kept in memory; larger ones are moved to a temp file (the servlet container has
+ * usually spooled them to disk already, so this is a rename) and read back through a
+ * {@link java.nio.channels.FileChannel}.
+ */
+@Component
+public class CsvUploadReader {
+    private final CsvUploadConfig config;
+
+    public CsvUploadReader(CsvUploadConfig config) {
+        this.config = config;
+    }
+
+    public CsvUpload read(MultipartFile file) throws IOException {
+        long maxFileSize = config.getMaxFileSize().toBytes();
+        if (file.getSize() > maxFileSize) {
+            throw new CsvUploadException(HttpStatus.PAYLOAD_TOO_LARGE,
+                "CSV file exceeds the maximum upload size of " + maxFileSize + " bytes");
+        }
+
+        long maxUncompressedSize = config.getMaxUncompressedSize().toBytes();
+        if (file.getSize() <= config.getSpoolThreshold().toBytes()) {
+            return CsvUpload.inMemory(file.getBytes(), maxUncompressedSize);
+        }
+
+        Path spoolFile = Files.createTempFile(Path.of(config.getSpoolDirectory()), "csv-upload-", ".tmp");
+        try {
+            file.transferTo(spoolFile.toFile());
+            return CsvUpload.spooled(spoolFile, maxUncompressedSize);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spoolFile);
+            throw e;
+        }
+    }
+}
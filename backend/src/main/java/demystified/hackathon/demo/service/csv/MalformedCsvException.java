@@ -0,0 +1,14 @@
+package demystified.hackathon.demo.service.csv;
+
+import java.io.IOException;
+
+/**
+ * Thrown by {@link CsvTokenizer} when the input does not follow RFC 4180, e.g. a stray
+ * quote inside an unquoted field or backslash-escaped quotes.
+ */
+public class MalformedCsvException extends IOException {
+
+    public MalformedCsvException(String message) {
+        super(message);
+    }
+}
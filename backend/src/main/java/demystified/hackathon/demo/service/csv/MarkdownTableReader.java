@@ -0,0 +1,77 @@
+package demystified.hackathon.demo.service.csv;
+
+/**
+ * Reads a table written by {@link MarkdownTableSink} back into cells, so context that
+ * was already retrieved and shortened can be written in another encoding. Escaped
+ * pipes are restored, {@code <br>} becomes a line break again and the separator row
+ * under the header is skipped.
+ */
+public final class MarkdownTableReader {
+
+    private MarkdownTableReader() {
+    }
+
+    /**
+     * Feeds the rows at the start of {@code markdown} to {@code sink} and returns the
+     * index just past the last row, which is 0 when the text does not open with a table.
+     * Whatever follows, such as a note on dropped rows, is left to the caller.
+     */
+    public static int replay(String markdown, CsvCellSink sink) {
+        StringBuilder cell = new StringBuilder();
+        int length = markdown.length();
+        int position = 0;
+        int rows = 0;
+        while (position < length && markdown.startsWith("| ", position)) {
+            int end = markdown.indexOf('\n', position);
+            if (end < 0) {
+                end = length;
+            }
+            if (rows != 1 || !isSeparator(markdown, position, end)) {
+                replayRow(markdown, position + 2, end, sink, cell);
+            }
+            rows++;
+            position = Math.min(end + 1, length);
+        }
+        return position;
+    }
+
+    private static void replayRow(String markdown, int from, int to, CsvCellSink sink, StringBuilder cell) {
+        cell.setLength(0);
+        int i = from;
+        while (i < to) {
+            char c = markdown.charAt(i);
+            if (c == '\\' && i + 1 < to && markdown.charAt(i + 1) == '|') {
+                cell.append('|');
+                i += 2;
+            } else if (c == ' ' && i + 1 < to && markdown.charAt(i + 1) == '|'
+                && (i + 2 == to || markdown.charAt(i + 2) == ' ')) {
+                emit(cell, sink);
+                i += 3;
+            } else if (c == '<' && markdown.startsWith("<br>", i)) {
+                cell.append('\n');
+                i += 4;
+            } else {
+                cell.append(c);
+                i++;
+            }
+        }
+        sink.endRow();
+    }
+
+    private static void emit(StringBuilder cell, CsvCellSink sink) {
+        char[] chars = new char[cell.length()];
+        cell.getChars(0, chars.length, chars, 0);
+        sink.cell(chars, 0, chars.length);
+        cell.setLength(0);
+    }
+
+    private static boolean isSeparator(String markdown, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = markdown.charAt(i);
+            if (c != '|' && c != '-' && c != ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
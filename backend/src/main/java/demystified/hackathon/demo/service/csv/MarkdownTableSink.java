@@ -0,0 +1,70 @@
+package demystified.hackathon.demo.service.csv;
+
+/**
+ * Renders CSV cells as a GitHub markdown table. The first row becomes the header.
+ * Pipes are escaped and line breaks inside cells become {@code <br>} so a cell can
+ * never break the table structure.
+ */
+public class MarkdownTableSink implements CsvCellSink {
+    private final StringBuilder table;
+    private int columnsInRow;
+    private int headerColumns = -1;
+
+    public MarkdownTableSink(StringBuilder table) {
+        this.table = table;
+    }
+
+    @Override
+    public void cell(char[] buffer, int offset, int length) {
+        if (columnsInRow == 0) {
+            table.append("| ");
+        }
+        appendEscaped(buffer, offset, length);
+        table.append(" | ");
+        columnsInRow++;
+    }
+
+    @Override
+    public void endRow() {
+        table.append('\n');
+        if (headerColumns < 0) {
+            headerColumns = columnsInRow;
+            appendSeparator();
+        }
+        columnsInRow = 0;
+    }
+
+    public boolean hasRows() {
+        return headerColumns >= 0;
+    }
+
+    private void appendSeparator() {
+        table.append("| ");
+        for (int i = 0; i < headerColumns; i++) {
+            table.append("--- | ");
+        }
+        table.append('\n');
+    }
+
+    private void appendEscaped(char[] buffer, int offset, int length) {
+        int end = offset + length;
+        int runStart = offset;
+        for (int i = offset; i < end; i++) {
+            char c = buffer[i];
+            if (c != '|' && c != '\n' && c != '\r') {
+                continue;
+            }
+            table.append(buffer, runStart, i - runStart);
+            if (c == '|') {
+                table.append("\\|");
+            } else {
+                table.append("<br>");
+                if (c == '\r' && i + 1 < end && buffer[i + 1] == '\n') {
+                    i++;
+                }
+            }
+            runStart = i + 1;
+        }
+        table.append(buffer, runStart, end - runStart);
+    }
+}
@@ -0,0 +1,44 @@
+package demystified.hackathon.demo.service.csv;
+
+/**
+ * Shortens plain decimal numbers without changing their value: a leading {@code +}
+ * and trailing fractional zeros are dropped, so {@code +12.50} becomes {@code 12.5}
+ * and {@code 3.000} becomes {@code 3}. Leading zeros are kept since they usually
+ * belong to codes such as {@code 007}; anything else is returned unchanged.
+ */
+final class NumericCells {
+
+    private NumericCells() {
+    }
+
+    static String normalize(String value) {
+        int length = value.length();
+        int start = length > 0 && (value.charAt(0) == '+' || value.charAt(0) == '-') ? 1 : 0;
+        int digits = 0;
+        int dot = -1;
+        for (int i = start; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+            } else if (c == '.' && dot < 0 && digits > 0) {
+                dot = i;
+            } else {
+                return value;
+            }
+        }
+        if (digits == 0 || dot == length - 1) {
+            return value;
+        }
+        int end = length;
+        if (dot > 0) {
+            while (value.charAt(end - 1) == '0') {
+                end--;
+            }
+            if (end - 1 == dot) {
+                end--;
+            }
+        }
+        int from = value.charAt(0) == '+' ? 1 : 0;
+        return from == 0 && end == length ? value : value.substring(from, end);
+    }
+}
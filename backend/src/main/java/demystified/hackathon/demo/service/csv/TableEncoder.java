@@ -0,0 +1,143 @@
+package demystified.hackathon.demo.service.csv;
+
+import demystified.hackathon.demo.config.TableEncodingConfig;
+import demystified.hackathon.demo.service.generation.TokenEstimator;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Writes the markdown CSV context of a prompt in a more compact encoding. Markdown
+ * pays for a pipe and padding around every cell and a separator row, which for
+ * numeric and categorical tables is a large share of the prompt. {@link TableEncoding#TSV}
+ * keeps the rows but separates cells with a tab; {@link TableEncoding#COLUMNAR} writes
+ * one line per column and replaces repeated values by short codes. In
+ * {@link TableEncoding#AUTO} every encoding is rendered and the one estimated to take
+ * the fewest tokens is sent.
+ *
+ * <p>The {@code GenerationPlanner} sizes a table by its encoded text, so a compact
+ * encoding lets more rows into the context window; while it shortens a table it renders
+ * each attempt with {@link #render}, and the table finally sent is counted with
+ * {@link #record}. Notes after the table, such as the one on dropped rows, are kept as
+ * they are.
+ */
+@Component
+public class TableEncoder {
+    static final String TSV_PREAMBLE = "Tab-separated values, the first line holds the column names:\n";
+    static final String COLUMNAR_PREAMBLE = "One line per column: its name, then its values in row order"
+        + " separated by |. Codes listed as [code=value] after a name stand for that value.\n";
+
+    private final TableEncodingConfig config;
+    private final TableEncoding defaultEncoding;
+
+    private final LongAdder tables = new LongAdder();
+    private final LongAdder markdownTokens = new LongAdder();
+    private final LongAdder encodedTokens = new LongAdder();
+    private final Map<TableEncoding, LongAdder> chosen = new EnumMap<>(TableEncoding.class);
+
+    public TableEncoder(TableEncodingConfig config) {
+        this.config = config;
+        this.defaultEncoding = TableEncoding.find(config.getDefaultEncoding());
+        if (defaultEncoding == null) {
+            throw new IllegalArgumentException("Unknown csv.encoding.default-encoding " + config.getDefaultEncoding()
+                + "; use auto, markdown, tsv or columnar");
+        }
+        for (TableEncoding encoding : TableEncoding.values()) {
+            if (encoding != TableEncoding.AUTO) {
+                chosen.put(encoding, new LongAdder());
+            }
+        }
+    }
+
+    public TableEncoding getDefaultEncoding() {
+        return defaultEncoding;
+    }
+
+    /**
+     * Writes {@code markdown} in {@code encoding}, the configured default when null, and
+     * counts it as sent. Text that does not start with a markdown table is returned unchanged.
+     */
+    public EncodedTable encode(String markdown, TableEncoding encoding) {
+        EncodedTable result = render(markdown, encoding);
+        record(result);
+        return result;
+    }
+
+    /**
+     * Writes {@code markdown} like {@link #encode} without counting it in the stats.
+     */
+    public EncodedTable render(String markdown, TableEncoding encoding) {
+        TableEncoding requested = encoding != null ? encoding : defaultEncoding;
+        int markdownEstimate = TokenEstimator.estimate(markdown);
+        EncodedTable result = new EncodedTable(markdown, TableEncoding.MARKDOWN, markdownEstimate, markdownEstimate);
+        if (requested == TableEncoding.TSV || requested == TableEncoding.COLUMNAR) {
+            EncodedTable encoded = write(markdown, requested, markdownEstimate);
+            result = encoded != null ? encoded : result;
+        } else if (requested == TableEncoding.AUTO) {
+            for (TableEncoding candidate : new TableEncoding[] {TableEncoding.TSV, TableEncoding.COLUMNAR}) {
+                EncodedTable encoded = write(markdown, candidate, markdownEstimate);
+                if (encoded != null && encoded.tokens() < result.tokens()) {
+                    result = encoded;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Counts {@code table} in the stats as sent.
+     */
+    public void record(EncodedTable table) {
+        tables.increment();
+        markdownTokens.add(table.markdownTokens());
+        encodedTokens.add(table.tokens());
+        chosen.get(table.encoding()).increment();
+    }
+
+    public TableEncodingStats getStats() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        chosen.forEach((encoding, count) -> counts.put(encoding.key(), count.sum()));
+        return new TableEncodingStats(defaultEncoding.key(), config.isNormalizeNumbers(), tables.sum(),
+            markdownTokens.sum(), encodedTokens.sum(), counts);
+    }
+
+    /**
+     * Renders {@code markdown} in a compact encoding, or returns null when it holds no table.
+     */
+    private EncodedTable write(String markdown, TableEncoding encoding, int markdownEstimate) {
+        StringBuilder text = new StringBuilder(markdown.length());
+        int tableEnd;
+        if (encoding == TableEncoding.TSV) {
+            text.append(TSV_PREAMBLE);
+            tableEnd = MarkdownTableReader.replay(markdown, new TsvTableSink(text, config.isNormalizeNumbers()));
+        } else {
+            ColumnarTableSink sink = new ColumnarTableSink(config.isNormalizeNumbers());
+            tableEnd = MarkdownTableReader.replay(markdown, sink);
+            text.append(COLUMNAR_PREAMBLE).append("Rows: ").append(sink.rowCount()).append('\n');
+            sink.appendTo(text);
+        }
+        if (tableEnd == 0) {
+            return null;
+        }
+        text.append(markdown, tableEnd, markdown.length());
+        return new EncodedTable(text.toString(), encoding, TokenEstimator.estimate(text), markdownEstimate);
+    }
+
+    /**
+     * CSV context as sent to the model; {@code tokens} and {@code markdownTokens} are
+     * the estimates for {@code text} and for the markdown it was written from.
+     */
+    public record EncodedTable(String text, TableEncoding encoding, int tokens, int markdownTokens) {
+    }
+
+    /**
+     * {@code chosen} counts the tables sent in each encoding; the token totals compare
+     * what was sent with what markdown would have taken.
+     */
+    public record TableEncodingStats(String defaultEncoding, boolean normalizeNumbers, long tables,
+                                     long markdownTokens, long encodedTokens, Map<String, Long> chosen) {
+    }
+}
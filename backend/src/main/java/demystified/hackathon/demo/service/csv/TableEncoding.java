@@ -0,0 +1,60 @@
+package demystified.hackathon.demo.service.csv;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Locale;
+
+/**
+ * Ways of writing a CSV table into the prompt. {@link #AUTO} picks whichever of the
+ * others takes the fewest tokens for the table at hand.
+ */
+public enum TableEncoding {
+    AUTO("auto"),
+    MARKDOWN("markdown"),
+    TSV("tsv"),
+    COLUMNAR("columnar");
+
+    private final String key;
+
+    TableEncoding(String key) {
+        this.key = key;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    /**
+     * Returns the encoding named {@code name}, or null when there is none.
+     */
+    public static TableEncoding find(String name) {
+        if (name == null) {
+            return null;
+        }
+        String key = name.trim().toLowerCase(Locale.ROOT);
+        for (TableEncoding encoding : values()) {
+            if (encoding.key.equals(key)) {
+                return encoding;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the encoding named {@code name}, or {@code defaultEncoding} when it is blank.
+     *
+     * @throws ResponseStatusException 400 when {@code name} names no encoding
+     */
+    public static TableEncoding resolve(String name, TableEncoding defaultEncoding) {
+        if (name == null || name.isBlank()) {
+            return defaultEncoding;
+        }
+        TableEncoding encoding = find(name);
+        if (encoding == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Unknown encoding " + name + "; use auto, markdown, tsv or columnar");
+        }
+        return encoding;
+    }
+}
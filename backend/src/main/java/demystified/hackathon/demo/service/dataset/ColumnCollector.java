@@ -0,0 +1,181 @@
+package demystified.hackathon.demo.service.dataset;
+
+import demystified.hackathon.demo.service.csv.CsvCellSink;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gathers CSV cells column by column for {@link DatasetFile}. The first row names the
+ * columns; later rows are cut or padded with empty cells to the header's width.
+ *
+ * <p>Each column is dictionary-encoded as it is read. While every distinct value is a
+ * decimal with the same number of fraction digits that prints back unchanged (such
+ * as {@code 12.50} or {@code -3}), the column is also typed as a decimal of that
+ * scale and stored as unscaled longs.
+ */
+final class ColumnCollector implements CsvCellSink {
+    static final int MAX_SCALE = 18;
+
+    private final List<String> names = new ArrayList<>();
+    private final List<Column> columns = new ArrayList<>();
+    private boolean headerRead;
+    private int cellInRow;
+    private int rowCount;
+
+    @Override
+    public void cell(char[] buffer, int offset, int length) {
+        if (!headerRead) {
+            names.add(new String(buffer, offset, length));
+        } else if (cellInRow < columns.size()) {
+            columns.get(cellInRow).add(new String(buffer, offset, length));
+        }
+        cellInRow++;
+    }
+
+    @Override
+    public void endRow() {
+        if (!headerRead) {
+            headerRead = true;
+            for (int i = 0; i < names.size(); i++) {
+                columns.add(new Column());
+            }
+        } else {
+            for (int i = cellInRow; i < columns.size(); i++) {
+                columns.get(i).add("");
+            }
+            rowCount++;
+        }
+        cellInRow = 0;
+    }
+
+    boolean hasHeader() {
+        return headerRead && !names.isEmpty();
+    }
+
+    List<String> names() {
+        return names;
+    }
+
+    List<Column> columns() {
+        return columns;
+    }
+
+    int rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Prints {@code unscaled} with {@code scale} fraction digits, the inverse of the
+     * decimal check applied while collecting.
+     */
+    static String formatDecimal(long unscaled, int scale) {
+        if (scale == 0) {
+            return Long.toString(unscaled);
+        }
+        String digits = Long.toString(Math.abs(unscaled));
+        StringBuilder text = new StringBuilder(digits.length() + scale + 2);
+        if (unscaled < 0) {
+            text.append('-');
+        }
+        for (int i = digits.length(); i <= scale; i++) {
+            text.append('0');
+        }
+        text.append(digits);
+        text.insert(text.length() - scale, '.');
+        return text.toString();
+    }
+
+    static final class Column {
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private long[] decimalValues = new long[64];
+        private int[] codes = new int[1024];
+        private int size;
+        private int scale = -1;
+        private boolean decimal = true;
+
+        void add(String value) {
+            Integer code = dictionary.get(value);
+            if (code == null) {
+                code = values.size();
+                dictionary.put(value, code);
+                values.add(value);
+                if (decimal) {
+                    decimal = addDecimal(value, code);
+                }
+            }
+            if (size == codes.length) {
+                codes = Arrays.copyOf(codes, size * 2);
+            }
+            codes[size++] = code;
+        }
+
+        boolean isDecimal() {
+            return decimal && scale >= 0;
+        }
+
+        int scale() {
+            return scale;
+        }
+
+        List<String> dictionary() {
+            return values;
+        }
+
+        int code(int row) {
+            return codes[row];
+        }
+
+        long unscaled(int row) {
+            return decimalValues[codes[row]];
+        }
+
+        private boolean addDecimal(String value, int code) {
+            int length = value.length();
+            boolean negative = length > 0 && value.charAt(0) == '-';
+            int i = negative ? 1 : 0;
+            int integerStart = i;
+            long unscaled = 0;
+            int fractionDigits = 0;
+            try {
+                while (i < length && isDigit(value.charAt(i))) {
+                    unscaled = Math.addExact(Math.multiplyExact(unscaled, 10), value.charAt(i++) - '0');
+                }
+                int integerDigits = i - integerStart;
+                if (integerDigits == 0 || (integerDigits > 1 && value.charAt(integerStart) == '0')) {
+                    return false;
+                }
+                if (i < length && value.charAt(i) == '.') {
+                    i++;
+                    while (i < length && isDigit(value.charAt(i))) {
+                        unscaled = Math.addExact(Math.multiplyExact(unscaled, 10), value.charAt(i++) - '0');
+                        fractionDigits++;
+                    }
+                    if (fractionDigits == 0) {
+                        return false;
+                    }
+                }
+            } catch (ArithmeticException e) {
+                return false;
+            }
+            if (i != length || fractionDigits > MAX_SCALE || (negative && unscaled == 0)
+                || (scale >= 0 && scale != fractionDigits)) {
+                return false;
+            }
+            scale = fractionDigits;
+            if (code == decimalValues.length) {
+                decimalValues = Arrays.copyOf(decimalValues, code * 2);
+            }
+            decimalValues[code] = negative ? -unscaled : unscaled;
+            return true;
+        }
+
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+    }
+}
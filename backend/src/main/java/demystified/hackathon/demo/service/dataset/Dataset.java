@@ -0,0 +1,228 @@
+package demystified.hackathon.demo.service.dataset;
+
+import demystified.hackathon.demo.service.csv.CsvCellSink;
+import demystified.hackathon.demo.service.csv.MarkdownTableSink;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * A stored dataset, memory-mapped from its {@link DatasetFile}. Reads use absolute
+ * gets on the shared mapping, so any number of requests can read at once; they hold
+ * the read lock so that deleting the dataset waits for them and later reads see it
+ * gone.
+ */
+public final class Dataset {
+    private static final int MAX_INITIAL_CAPACITY = 4 * 1024 * 1024;
+
+    private final Path file;
+    private final String id;
+    private final String name;
+    private final String owner;
+    private final long createdAt;
+    private final int rowCount;
+    private final List<Column> columns;
+    private final ByteBuffer data;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private boolean deleted;
+    private volatile long lastUsedAt;
+
+    Dataset(Path file, String id, String name, String owner, long createdAt, int rowCount, List<Column> columns,
+            ByteBuffer data) {
+        this.file = file;
+        this.id = id;
+        this.name = name;
+        this.owner = owner;
+        this.createdAt = createdAt;
+        this.rowCount = rowCount;
+        this.columns = columns;
+        this.data = data;
+        this.lastUsedAt = createdAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public long getSizeBytes() {
+        return data.capacity();
+    }
+
+    public long getLastUsedAt() {
+        return lastUsedAt;
+    }
+
+    void setLastUsedAt(long lastUsedAt) {
+        this.lastUsedAt = lastUsedAt;
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * Applies {@code reader} under the read lock, or returns null when the dataset has
+     * been deleted.
+     */
+    <T> T read(Function<Dataset, T> reader) {
+        lock.readLock().lock();
+        try {
+            return deleted ? null : reader.apply(this);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Renders the dataset as the same markdown table an upload of the CSV produces.
+     */
+    String renderMarkdown() {
+        StringBuilder table = new StringBuilder((int) Math.min(MAX_INITIAL_CAPACITY, data.capacity() * 2L));
+        replay(new MarkdownTableSink(table));
+        return table.toString();
+    }
+
+    /**
+     * Feeds the header and every row to {@code sink}, as tokenizing the CSV would.
+     */
+    <S extends CsvCellSink> S replay(S sink) {
+        char[][] scratch = {new char[256]};
+        for (Column column : columns) {
+            emit(sink, column.name, scratch);
+        }
+        sink.endRow();
+
+        String[][] decoded = new String[columns.size()][];
+        for (int c = 0; c < columns.size(); c++) {
+            if (!columns.get(c).isDecimal()) {
+                decoded[c] = new String[columns.get(c).dictionarySize];
+            }
+        }
+        for (int row = 0; row < rowCount; row++) {
+            for (int c = 0; c < columns.size(); c++) {
+                Column column = columns.get(c);
+                if (column.isDecimal()) {
+                    emit(sink, ColumnCollector.formatDecimal(unscaled(column, row), column.scale), scratch);
+                } else {
+                    int code = code(column, row);
+                    String value = decoded[c][code];
+                    if (value == null) {
+                        value = dictionaryValue(column, code);
+                        decoded[c][code] = value;
+                    }
+                    emit(sink, value, scratch);
+                }
+            }
+            sink.endRow();
+        }
+        return sink;
+    }
+
+    List<Column> columns() {
+        return columns;
+    }
+
+    long unscaled(Column column, int row) {
+        return data.getLong(column.valuesAt + 8 * row);
+    }
+
+    int code(Column column, int row) {
+        return switch (column.codeWidth) {
+            case 1 -> data.get(column.valuesAt + row) & 0xFF;
+            case 2 -> data.getShort(column.valuesAt + 2 * row) & 0xFFFF;
+            default -> data.getInt(column.valuesAt + 4 * row);
+        };
+    }
+
+    String dictionaryValue(Column column, int code) {
+        int start = data.getInt(column.offsetsAt + 4 * code);
+        int end = data.getInt(column.offsetsAt + 4 * (code + 1));
+        byte[] bytes = new byte[end - start];
+        data.get(column.bytesAt + start, bytes, 0, bytes.length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Marks the dataset deleted once running reads finish and removes its file.
+     */
+    void delete() throws IOException {
+        lock.writeLock().lock();
+        try {
+            deleted = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        // the mapping stays valid until it is garbage collected, so no read can fault
+        Files.deleteIfExists(file);
+    }
+
+    private static void emit(CsvCellSink sink, String value, char[][] scratch) {
+        int length = value.length();
+        if (length > scratch[0].length) {
+            scratch[0] = new char[Math.max(length, scratch[0].length * 2)];
+        }
+        value.getChars(0, length, scratch[0], 0);
+        sink.cell(scratch[0], 0, length);
+    }
+
+    /**
+     * Where one column's data sits in the mapped file.
+     */
+    static final class Column {
+        final String name;
+        final byte type;
+        final int scale;
+        final int dictionarySize;
+        final int offsetsAt;
+        final int bytesAt;
+        final int codeWidth;
+        final int valuesAt;
+
+        private Column(String name, byte type, int scale, int dictionarySize, int offsetsAt, int bytesAt,
+                       int codeWidth, int valuesAt) {
+            this.name = name;
+            this.type = type;
+            this.scale = scale;
+            this.dictionarySize = dictionarySize;
+            this.offsetsAt = offsetsAt;
+            this.bytesAt = bytesAt;
+            this.codeWidth = codeWidth;
+            this.valuesAt = valuesAt;
+        }
+
+        static Column decimal(String name, int scale, int valuesAt) {
+            return new Column(name, DatasetFile.DECIMAL, scale, 0, 0, 0, 8, valuesAt);
+        }
+
+        static Column string(String name, int dictionarySize, int offsetsAt, int bytesAt, int codeWidth,
+                             int valuesAt) {
+            return new Column(name, DatasetFile.STRING, 0, dictionarySize, offsetsAt, bytesAt, codeWidth, valuesAt);
+        }
+
+        boolean isDecimal() {
+            return type == DatasetFile.DECIMAL;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package demystified.hackathon.demo.service.dataset;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Raised when a dataset is unknown or cannot be stored, e.g. because a quota is
+ * exhausted. The status is returned to the client as-is.
+ */
+public class DatasetException extends ResponseStatusException {
+
+    public DatasetException(HttpStatus status, String reason) {
+        super(status, reason);
+    }
+}
@@ -0,0 +1,175 @@
+package demystified.hackathon.demo.service.dataset;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Columnar file format of a dataset. It is written once and then memory-mapped
+ * read-only. All numbers are big-endian and strings are an int byte length followed
+ * by UTF-8.
+ *
+ * <pre>
+ * int magic, short version
+ * string id, string name, string owner, long createdAt
+ * int rowCount, int columnCount
+ * per column: string name, byte type
+ * per column, in order:
+ *   DECIMAL: byte scale, long[rowCount] unscaled values
+ *   STRING:  int dictionarySize, int[dictionarySize + 1] offsets into the UTF-8 bytes
+ *            that follow, the bytes, byte codeWidth (1, 2 or 4), codes[rowCount]
+ * </pre>
+ */
+final class DatasetFile {
+    static final String SUFFIX = ".wxds";
+    static final int MAGIC = 0x57584453;
+    static final short VERSION = 1;
+    static final byte STRING = 0;
+    static final byte DECIMAL = 1;
+
+    private DatasetFile() {
+    }
+
+    /**
+     * Writes {@code collector}'s columns to {@code file} through a temp file, so a crash
+     * never leaves a partial dataset behind.
+     */
+    static void write(Path file, String id, String name, String owner, long createdAt, ColumnCollector collector)
+            throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING),
+                64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            writeString(out, id);
+            writeString(out, name);
+            writeString(out, owner);
+            out.writeLong(createdAt);
+            int rowCount = collector.rowCount();
+            out.writeInt(rowCount);
+            out.writeInt(collector.columns().size());
+            for (int c = 0; c < collector.columns().size(); c++) {
+                writeString(out, collector.names().get(c));
+                out.writeByte(collector.columns().get(c).isDecimal() ? DECIMAL : STRING);
+            }
+            for (ColumnCollector.Column column : collector.columns()) {
+                if (column.isDecimal()) {
+                    out.writeByte(column.scale());
+                    for (int row = 0; row < rowCount; row++) {
+                        out.writeLong(column.unscaled(row));
+                    }
+                } else {
+                    writeDictionary(out, column, rowCount);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    static Dataset open(Path file) throws IOException {
+        MappedByteBuffer data;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        int[] position = {0};
+        if (data.getInt(0) != MAGIC || data.getShort(4) != VERSION) {
+            throw new IOException("Not a dataset file: " + file);
+        }
+        position[0] = 6;
+        String id = readString(data, position);
+        String name = readString(data, position);
+        String owner = readString(data, position);
+        long createdAt = data.getLong(position[0]);
+        int rowCount = data.getInt(position[0] + 8);
+        int columnCount = data.getInt(position[0] + 12);
+        position[0] += 16;
+
+        String[] names = new String[columnCount];
+        byte[] types = new byte[columnCount];
+        for (int c = 0; c < columnCount; c++) {
+            names[c] = readString(data, position);
+            types[c] = data.get(position[0]++);
+        }
+
+        List<Dataset.Column> columns = new ArrayList<>(columnCount);
+        for (int c = 0; c < columnCount; c++) {
+            int at = position[0];
+            if (types[c] == DECIMAL) {
+                columns.add(Dataset.Column.decimal(names[c], data.get(at), at + 1));
+                position[0] = at + 1 + 8 * rowCount;
+            } else {
+                int dictionarySize = data.getInt(at);
+                int offsetsAt = at + 4;
+                int bytesAt = offsetsAt + 4 * (dictionarySize + 1);
+                int codeWidthAt = bytesAt + data.getInt(offsetsAt + 4 * dictionarySize);
+                int codeWidth = data.get(codeWidthAt);
+                columns.add(Dataset.Column.string(names[c], dictionarySize, offsetsAt, bytesAt, codeWidth,
+                    codeWidthAt + 1));
+                position[0] = codeWidthAt + 1 + codeWidth * rowCount;
+            }
+        }
+        if (position[0] != data.capacity()) {
+            throw new IOException("Truncated dataset file: " + file);
+        }
+        return new Dataset(file, id, name, owner, createdAt, rowCount, columns, data);
+    }
+
+    private static void writeDictionary(DataOutputStream out, ColumnCollector.Column column, int rowCount)
+            throws IOException {
+        List<String> dictionary = column.dictionary();
+        List<byte[]> encoded = new ArrayList<>(dictionary.size());
+        for (String value : dictionary) {
+            encoded.add(value.getBytes(StandardCharsets.UTF_8));
+        }
+        out.writeInt(dictionary.size());
+        int offset = 0;
+        out.writeInt(offset);
+        for (byte[] bytes : encoded) {
+            offset += bytes.length;
+            out.writeInt(offset);
+        }
+        for (byte[] bytes : encoded) {
+            out.write(bytes);
+        }
+        int codeWidth = dictionary.size() <= 0xFF ? 1 : dictionary.size() <= 0xFFFF ? 2 : 4;
+        out.writeByte(codeWidth);
+        for (int row = 0; row < rowCount; row++) {
+            int code = column.code(row);
+            if (codeWidth == 1) {
+                out.writeByte(code);
+            } else if (codeWidth == 2) {
+                out.writeShort(code);
+            } else {
+                out.writeInt(code);
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer data, int[] position) {
+        int length = data.getInt(position[0]);
+        byte[] bytes = new byte[length];
+        data.get(position[0] + 4, bytes, 0, length);
+        position[0] += 4 + length;
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,18 @@
+package demystified.hackathon.demo.service.dataset;
+
+import java.util.List;
+
+/**
+ * Description of a stored dataset returned by the dataset API. Times are epoch
+ * milliseconds; {@code expiresAt} moves forward every time the dataset is used.
+ */
+public record DatasetInfo(String id, String name, int rows, List<ColumnInfo> columns, long sizeBytes,
+                          long createdAt, long lastUsedAt, long expiresAt) {
+
+    /**
+     * {@code type} is {@code decimal} (with {@code scale} fraction digits) or {@code string};
+     * {@code distinctValues} is the dictionary size of a string column and 0 for decimals.
+     */
+    public record ColumnInfo(String name, String type, int scale, int distinctValues) {
+    }
+}
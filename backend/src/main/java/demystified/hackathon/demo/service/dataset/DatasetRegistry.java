@@ -0,0 +1,356 @@
+package demystified.hackathon.demo.service.dataset;
+
+import demystified.hackathon.demo.config.DatasetConfig;
+import demystified.hackathon.demo.logging.Pii;
+import demystified.hackathon.demo.service.csv.CsvCellSink;
+import demystified.hackathon.demo.service.csv.CsvContextBuilder;
+import demystified.hackathon.demo.service.csv.CsvUpload;
+import demystified.hackathon.demo.service.csv.CsvUploadReader;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Stores uploaded CSVs as columnar {@link Dataset}s so later prompts can refer to them
+ * by id instead of uploading and parsing the file again. Datasets are kept in
+ * {@code datasets.directory}, reopened on startup, and deleted once unused for the
+ * configured TTL. Ids are random, so knowing an id is what grants access to a dataset.
+ */
+@Component
+public class DatasetRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(DatasetRegistry.class);
+
+    static final String ANONYMOUS = "anonymous";
+    private static final Pattern ID_PATTERN = Pattern.compile("ds-[0-9a-f]{20}");
+    private static final long TOUCH_INTERVAL_MS = 60_000;
+
+    private final DatasetConfig config;
+    private final CsvUploadReader csvUploadReader;
+    private final CsvContextBuilder csvContextBuilder;
+    private final Path directory;
+    private final Map<String, Dataset> datasets = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final ScheduledExecutorService cleaner;
+
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public DatasetRegistry(DatasetConfig config, CsvUploadReader csvUploadReader,
+                           CsvContextBuilder csvContextBuilder) {
+        this.config = config;
+        this.csvUploadReader = csvUploadReader;
+        this.csvContextBuilder = csvContextBuilder;
+        if (!config.isEnabled()) {
+            this.directory = null;
+            this.cleaner = null;
+            return;
+        }
+
+        this.directory = Path.of(config.getDirectory());
+        try {
+            Files.createDirectories(directory);
+            openExisting();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open dataset directory " + directory, e);
+        }
+
+        this.cleaner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dataset-cleaner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = config.getCleanupIntervalMs();
+        cleaner.scheduleWithFixedDelay(this::removeExpired, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Parses {@code csvFile} into a new dataset owned by {@code email}.
+     *
+     * @throws DatasetException when datasets are disabled, the file is unreadable, or a quota is exhausted
+     */
+    public DatasetInfo create(MultipartFile csvFile, String name, String email) {
+        requireEnabled();
+        if (csvFile == null || csvFile.isEmpty()) {
+            throw new DatasetException(HttpStatus.BAD_REQUEST, "CSV file is empty");
+        }
+        String owner = normalizeOwner(email);
+        checkQuota(owner, 0);
+
+        ColumnCollector columns;
+        try (CsvUpload upload = csvUploadReader.read(csvFile)) {
+            columns = csvContextBuilder.tokenize(upload, ColumnCollector::new);
+        } catch (IOException e) {
+            throw new DatasetException(HttpStatus.BAD_REQUEST, "Could not read CSV file: " + e.getMessage());
+        }
+        if (!columns.hasHeader()) {
+            throw new DatasetException(HttpStatus.BAD_REQUEST, "CSV file has no header row");
+        }
+
+        String id = newId();
+        String datasetName = name != null && !name.isBlank() ? name.trim()
+            : csvFile.getOriginalFilename() != null ? csvFile.getOriginalFilename() : id;
+        Path file = directory.resolve(id + DatasetFile.SUFFIX);
+        Dataset dataset;
+        try {
+            DatasetFile.write(file, id, datasetName, owner, System.currentTimeMillis(), columns);
+            dataset = DatasetFile.open(file);
+        } catch (IOException e) {
+            deleteQuietly(file);
+            throw new UncheckedIOException("Failed to store dataset " + id, e);
+        }
+
+        synchronized (this) {
+            try {
+                checkQuota(owner, dataset.getSizeBytes());
+            } catch (DatasetException e) {
+                deleteQuietly(file);
+                throw e;
+            }
+            datasets.put(id, dataset);
+        }
+        created.incrementAndGet();
+        logger.info("Stored dataset {} for {}: {} rows, {} columns, {} bytes", id, Pii.email(owner),
+            dataset.getRowCount(), dataset.columns().size(), dataset.getSizeBytes());
+        return describe(dataset);
+    }
+
+    /**
+     * Returns the dataset as a markdown table and extends its TTL.
+     *
+     * @throws DatasetException with 404 when there is no such dataset or it is not owned by {@code email}
+     */
+    public DatasetTable loadTable(String id, String email) {
+        Dataset dataset = requireOwned(id, email);
+        String table = dataset.read(Dataset::renderMarkdown);
+        if (table == null) {
+            throw notFound(id);
+        }
+        touch(dataset);
+        loads.incrementAndGet();
+        return new DatasetTable(dataset.getId(), dataset.getName(), dataset.getRowCount(), table);
+    }
+
+    /**
+     * Feeds the dataset's header and rows to {@code sink}, as tokenizing its CSV would,
+     * and extends its TTL.
+     *
+     * @throws DatasetException with 404 when there is no such dataset or it is not owned by {@code email}
+     */
+    public <S extends CsvCellSink> S replay(String id, String email, S sink) {
+        Dataset dataset = requireOwned(id, email);
+        S filled = dataset.read(stored -> stored.replay(sink));
+        if (filled == null) {
+            throw notFound(id);
+        }
+        touch(dataset);
+        loads.incrementAndGet();
+        return filled;
+    }
+
+    /**
+     * @throws DatasetException with 404 when there is no such dataset or it is not owned by {@code email}
+     */
+    public DatasetInfo get(String id, String email) {
+        return describe(requireOwned(id, email));
+    }
+
+    /**
+     * @throws DatasetException with 404 when there is no such dataset or it is not owned by {@code email}
+     */
+    public void delete(String id, String email) {
+        Dataset dataset = requireOwned(id, email);
+        if (!datasets.remove(id, dataset)) {
+            throw notFound(id);
+        }
+        deleteDataset(dataset);
+        logger.info("Deleted dataset {}", id);
+    }
+
+    /**
+     * Deletes the datasets unused for longer than the TTL and returns how many there were.
+     */
+    public int removeExpired() {
+        long now = System.currentTimeMillis();
+        int removed = 0;
+        for (Dataset dataset : new ArrayList<>(datasets.values())) {
+            if (now - dataset.getLastUsedAt() > config.getTtlMs() && datasets.remove(dataset.getId(), dataset)) {
+                deleteDataset(dataset);
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            expired.addAndGet(removed);
+            logger.info("Removed {} expired datasets", removed);
+        }
+        return removed;
+    }
+
+    public DatasetStats getStats() {
+        long totalBytes = datasets.values().stream().mapToLong(Dataset::getSizeBytes).sum();
+        return new DatasetStats(datasets.size(), totalBytes, created.get(), loads.get(), expired.get(), rejected.get());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (cleaner != null) {
+            cleaner.shutdownNow();
+        }
+    }
+
+    private void openExisting() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                String fileName = file.getFileName().toString();
+                if (fileName.endsWith(".tmp")) {
+                    deleteQuietly(file);
+                    continue;
+                }
+                if (!fileName.endsWith(DatasetFile.SUFFIX)) {
+                    continue;
+                }
+                try {
+                    Dataset dataset = DatasetFile.open(file);
+                    dataset.setLastUsedAt(Files.getLastModifiedTime(file).toMillis());
+                    datasets.put(dataset.getId(), dataset);
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("Skipping unreadable dataset file {}: {}", file, e.getMessage());
+                }
+            }
+        }
+        if (!datasets.isEmpty()) {
+            logger.info("Opened {} stored datasets", datasets.size());
+        }
+    }
+
+    private synchronized void checkQuota(String owner, long additionalBytes) {
+        long owned = datasets.values().stream().filter(dataset -> dataset.getOwner().equals(owner)).count();
+        if (owned >= config.getMaxPerUser()) {
+            rejected.incrementAndGet();
+            throw new DatasetException(HttpStatus.TOO_MANY_REQUESTS, "Limit of " + config.getMaxPerUser()
+                + " datasets per user reached; delete one or wait for one to expire");
+        }
+        long totalBytes = datasets.values().stream().mapToLong(Dataset::getSizeBytes).sum();
+        if (totalBytes + additionalBytes > config.getMaxTotalSize().toBytes()) {
+            rejected.incrementAndGet();
+            throw new DatasetException(HttpStatus.INSUFFICIENT_STORAGE, "Dataset storage is full");
+        }
+    }
+
+    private Dataset require(String id) {
+        requireEnabled();
+        Dataset dataset = id != null && ID_PATTERN.matcher(id).matches() ? datasets.get(id) : null;
+        if (dataset == null) {
+            throw notFound(id);
+        }
+        return dataset;
+    }
+
+    /**
+     * Like {@link #require}, but answers 404 rather than 403 for another user's dataset
+     * so ids cannot be probed.
+     */
+    private Dataset requireOwned(String id, String email) {
+        Dataset dataset = require(id);
+        if (!dataset.getOwner().equals(normalizeOwner(email))) {
+            throw notFound(id);
+        }
+        return dataset;
+    }
+
+    private void requireEnabled() {
+        if (directory == null) {
+            throw new DatasetException(HttpStatus.NOT_FOUND, "Datasets are disabled");
+        }
+    }
+
+    /**
+     * Extends the TTL; the file time is updated at most once a minute so the TTL
+     * survives a restart without a write on every read.
+     */
+    private void touch(Dataset dataset) {
+        long now = System.currentTimeMillis();
+        long previous = dataset.getLastUsedAt();
+        dataset.setLastUsedAt(now);
+        if (now - previous >= TOUCH_INTERVAL_MS) {
+            try {
+                Files.setLastModifiedTime(dataset.getFile(), FileTime.fromMillis(now));
+            } catch (IOException e) {
+                logger.debug("Could not update the time of {}: {}", dataset.getFile(), e.getMessage());
+            }
+        }
+    }
+
+    private DatasetInfo describe(Dataset dataset) {
+        List<DatasetInfo.ColumnInfo> columns = dataset.columns().stream()
+            .map(column -> new DatasetInfo.ColumnInfo(column.name, column.isDecimal() ? "decimal" : "string",
+                column.scale, column.dictionarySize))
+            .toList();
+        return new DatasetInfo(dataset.getId(), dataset.getName(), dataset.getRowCount(), columns,
+            dataset.getSizeBytes(), dataset.getCreatedAt(), dataset.getLastUsedAt(),
+            dataset.getLastUsedAt() + config.getTtlMs());
+    }
+
+    private void deleteDataset(Dataset dataset) {
+        try {
+            dataset.delete();
+        } catch (IOException e) {
+            logger.warn("Failed to delete dataset file {}: {}", dataset.getFile(), e.getMessage());
+        }
+    }
+
+    private String newId() {
+        byte[] bytes = new byte[10];
+        random.nextBytes(bytes);
+        return "ds-" + HexFormat.of().formatHex(bytes);
+    }
+
+    private static String normalizeOwner(String email) {
+        return email != null && !email.isBlank() ? email.trim().toLowerCase(Locale.ROOT) : ANONYMOUS;
+    }
+
+    private static DatasetException notFound(String id) {
+        return new DatasetException(HttpStatus.NOT_FOUND, "No dataset with id " + id);
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Failed to delete {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * A dataset rendered for a prompt.
+     */
+    public record DatasetTable(String id, String name, int rows, String markdown) {
+    }
+
+    public record DatasetStats(int datasets, long totalBytes, long created, long loads, long expired,
+                               long rejected) {
+    }
+}
@@ -0,0 +1,10 @@
+package demystified.hackathon.demo.service.email;
+
+import java.time.LocalDateTime;
+
+/**
+ * One answered prompt waiting to be delivered as part of a digest email.
+ */
+public record DigestEntry(String promptContent, String responseContent, String modelId, String responseId,
+                          LocalDateTime createdAt) {
+}
@@ -0,0 +1,163 @@
+package demystified.hackathon.demo.service.email;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * HTML body of the prompt response email. The document is split into constant
+ * fragments that are assembled once; rendering only escapes the dynamic values and
+ * converts the markdown response into a per-thread reusable buffer.
+ */
+public class EmailTemplate {
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+
+    private static final int INITIAL_BUFFER_SIZE = 16 * 1024;
+    private static final int MAX_RETAINED_BUFFER_SIZE = 256 * 1024;
+
+    private static final String STYLES =
+        "body { font-family: -apple-system, BlinkMacSystemFont, 'Segoe UI', Roboto, 'Helvetica Neue', Arial, sans-serif; line-height: 1.6; color: #333; background-color: #f5f5f5; padding: 20px; }" +
+        ".container { max-width: 600px; margin: 0 auto; background-color: white; border-radius: 8px; box-shadow: 0 2px 4px rgba(0,0,0,0.1); overflow: hidden; }" +
+        ".header { background: linear-gradient(135deg, #667eea 0%, #764ba2 100%); color: white; padding: 30px; text-align: center; }" +
+        ".header h1 { margin: 0; font-size: 24px; }" +
+        ".content { padding: 30px; }" +
+        ".section { margin-bottom: 25px; }" +
+        ".section-title { font-size: 14px; font-weight: bold; color: #667eea; text-transform: uppercase; margin-bottom: 10px; border-bottom: 2px solid #667eea; padding-bottom: 8px; }" +
+        ".prompt-box { background-color: #f9f9f9; border-left: 4px solid #667eea; padding: 15px; border-radius: 4px; font-style: italic; color: #555; }" +
+        ".response-box { background-color: #fafafa; border-left: 4px solid #764ba2; padding: 15px; border-radius: 4px; }" +
+        ".response-box code { background-color: #f0f0f0; padding: 2px 6px; border-radius: 3px; font-family: 'Monaco', 'Menlo', monospace; font-size: 13px; }" +
+        ".response-box pre { background-color: #2d2d2d; color: #f8f8f2; padding: 15px; border-radius: 4px; overflow-x: auto; font-family: 'Monaco', 'Menlo', monospace; font-size: 12px; }" +
+        ".response-box pre code { background-color: transparent; padding: 0; color: inherit; }" +
+        ".response-box table { border-collapse: collapse; width: 100%; font-size: 13px; }" +
+        ".response-box th, .response-box td { border: 1px solid #e0e0e0; padding: 6px 10px; text-align: left; }" +
+        ".response-box th { background-color: #f0f0f0; }" +
+        ".response-box blockquote { margin: 0; padding-left: 12px; border-left: 3px solid #ccc; color: #666; }" +
+        ".footer { background-color: #f5f5f5; padding: 20px; text-align: center; border-top: 1px solid #e0e0e0; font-size: 12px; color: #666; }" +
+        ".metadata { font-size: 12px; color: #999; margin-top: 10px; padding-top: 10px; border-top: 1px solid #e0e0e0; }" +
+        ".digest-separator { border: 0; border-top: 2px dashed #e0e0e0; margin: 30px 0; }";
+
+    private static final String BEFORE_TITLE =
+        "<html>" +
+        "<head>" +
+        "<meta charset=\"UTF-8\">" +
+        "<meta name=\"viewport\" content=\"width=device-width, initial-scale=1.0\">" +
+        "<style>" + STYLES + "</style>" +
+        "</head>" +
+        "<body>" +
+        "<div class=\"container\">" +
+        "<div class=\"header\">" +
+        "<h1>";
+
+    private static final String AFTER_TITLE =
+        "</h1>" +
+        "</div>" +
+        "<div class=\"content\">";
+
+    private static final String BEFORE_PROMPT =
+        "<div class=\"section\">" +
+        "<div class=\"section-title\">Your Prompt</div>" +
+        "<div class=\"prompt-box\">";
+
+    private static final String BEFORE_RESPONSE =
+        "</div>" +
+        "</div>" +
+        "<div class=\"section\">" +
+        "<div class=\"section-title\">Response</div>" +
+        "<div class=\"response-box\">";
+
+    private static final String BEFORE_MODEL =
+        "</div>" +
+        "<div class=\"metadata\">" +
+        "<strong>Model:</strong> ";
+
+    private static final String BEFORE_RESPONSE_ID = "<br><strong>Response ID:</strong> ";
+
+    private static final String BEFORE_DATE = "<br><strong>Date:</strong> ";
+
+    private static final String AFTER_DATE =
+        "</div>" +
+        "</div>";
+
+    private static final String DOCUMENT_END =
+        "</div>" +
+        "<div class=\"footer\">" +
+        "<p>This is an automated response from the Watsonx system. Do not reply to this email.</p>" +
+        "</div>" +
+        "</div>" +
+        "</body>" +
+        "</html>";
+
+    private static final String SINGLE_TITLE = "Watsonx Response";
+    private static final String DIGEST_TITLE = "Watsonx Responses";
+    private static final String DIGEST_SEPARATOR = "<hr class=\"digest-separator\">";
+
+    private final ThreadLocal<StringBuilder> buffers =
+        ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_BUFFER_SIZE));
+
+    public String render(String promptContent, String responseContent, String modelId, String responseId) {
+        return render(promptContent, responseContent, modelId, responseId, LocalDateTime.now());
+    }
+
+    public String render(String promptContent, String responseContent, String modelId, String responseId,
+                         LocalDateTime sentAt) {
+        StringBuilder html = acquireBuffer();
+        try {
+            html.append(BEFORE_TITLE).append(SINGLE_TITLE).append(AFTER_TITLE);
+            appendEntry(html, promptContent, responseContent, modelId, responseId, sentAt);
+            html.append(DOCUMENT_END);
+            return html.toString();
+        } finally {
+            releaseBuffer(html);
+        }
+    }
+
+    /**
+     * Renders several prompt responses for the same recipient into one document, in
+     * the order they were answered.
+     */
+    public String renderDigest(List<DigestEntry> entries) {
+        StringBuilder html = acquireBuffer();
+        try {
+            html.append(BEFORE_TITLE).append(DIGEST_TITLE).append(AFTER_TITLE);
+            for (int i = 0; i < entries.size(); i++) {
+                DigestEntry entry = entries.get(i);
+                if (i > 0) {
+                    html.append(DIGEST_SEPARATOR);
+                }
+                appendEntry(html, entry.promptContent(), entry.responseContent(), entry.modelId(),
+                    entry.responseId(), entry.createdAt());
+            }
+            html.append(DOCUMENT_END);
+            return html.toString();
+        } finally {
+            releaseBuffer(html);
+        }
+    }
+
+    private static void appendEntry(StringBuilder html, String promptContent, String responseContent,
+                                    String modelId, String responseId, LocalDateTime sentAt) {
+        html.append(BEFORE_PROMPT);
+        HtmlEscaper.escape(promptContent, html);
+        html.append(BEFORE_RESPONSE);
+        MarkdownHtmlRenderer.render(responseContent, html);
+        html.append(BEFORE_MODEL);
+        HtmlEscaper.escape(modelId, html);
+        html.append(BEFORE_RESPONSE_ID);
+        HtmlEscaper.escape(responseId, html);
+        html.append(BEFORE_DATE);
+        DATE_FORMATTER.formatTo(sentAt, html);
+        html.append(AFTER_DATE);
+    }
+
+    private StringBuilder acquireBuffer() {
+        StringBuilder html = buffers.get();
+        html.setLength(0);
+        return html;
+    }
+
+    private void releaseBuffer(StringBuilder html) {
+        if (html.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+            buffers.remove();
+        }
+    }
+}
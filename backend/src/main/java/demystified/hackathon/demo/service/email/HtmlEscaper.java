@@ -0,0 +1,49 @@
+package demystified.hackathon.demo.service.email;
+
+/**
+ * Single-pass HTML escaping into an existing buffer. Unescaped runs are copied in
+ * bulk, so text without special characters costs one append.
+ */
+public final class HtmlEscaper {
+
+    private HtmlEscaper() {
+    }
+
+    public static void escape(CharSequence text, StringBuilder out) {
+        if (text != null) {
+            escape(text, 0, text.length(), out);
+        }
+    }
+
+    public static void escape(CharSequence text, int start, int end, StringBuilder out) {
+        int runStart = start;
+        for (int i = start; i < end; i++) {
+            String replacement = replacementFor(text.charAt(i));
+            if (replacement != null) {
+                out.append(text, runStart, i).append(replacement);
+                runStart = i + 1;
+            }
+        }
+        out.append(text, runStart, end);
+    }
+
+    public static void escape(char c, StringBuilder out) {
+        String replacement = replacementFor(c);
+        if (replacement != null) {
+            out.append(replacement);
+        } else {
+            out.append(c);
+        }
+    }
+
+    private static String replacementFor(char c) {
+        return switch (c) {
+            case '&' -> "&amp;";
+            case '<' -> "&lt;";
+            case '>' -> "&gt;";
+            case '"' -> "&quot;";
+            case '\'' -> "&#39;";
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,368 @@
+package demystified.hackathon.demo.service.email;
+
+/**
+ * Renders the GitHub-flavoured markdown produced by the model into HTML for emails in
+ * a single pass over the input. Only a fixed set of tags is ever emitted and all text
+ * is escaped, so raw HTML in the model output is shown as text rather than rendered.
+ * Links are kept only for http, https and mailto targets.
+ *
+ * <p>Supported: headings, paragraphs, bold, italic, inline code, fenced code blocks,
+ * ordered and unordered lists, blockquotes, pipe tables and horizontal rules.
+ */
+public final class MarkdownHtmlRenderer {
+
+    private enum Block { NONE, PARAGRAPH, UNORDERED_LIST, ORDERED_LIST, BLOCKQUOTE, TABLE }
+
+    private final String text;
+    private final StringBuilder out;
+    private Block block = Block.NONE;
+
+    private MarkdownHtmlRenderer(String text, StringBuilder out) {
+        this.text = text;
+        this.out = out;
+    }
+
+    public static void render(String markdown, StringBuilder out) {
+        if (markdown != null && !markdown.isEmpty()) {
+            new MarkdownHtmlRenderer(markdown, out).render();
+        }
+    }
+
+    private void render() {
+        int length = text.length();
+        int lineStart = 0;
+        boolean inCode = false;
+
+        while (lineStart <= length) {
+            int lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = length;
+            }
+            int contentEnd = lineEnd > lineStart && text.charAt(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+            int nextLine = lineEnd + 1;
+
+            if (inCode) {
+                if (startsWith(skipSpaces(lineStart, contentEnd), contentEnd, "```")) {
+                    out.append("</code></pre>");
+                    inCode = false;
+                } else {
+                    HtmlEscaper.escape(text, lineStart, contentEnd, out);
+                    out.append('\n');
+                }
+            } else {
+                int start = skipSpaces(lineStart, contentEnd);
+                if (startsWith(start, contentEnd, "```")) {
+                    closeBlock();
+                    openCodeBlock(start + 3, contentEnd);
+                    inCode = true;
+                } else if (start == contentEnd) {
+                    closeBlock();
+                } else if (block == Block.TABLE && text.charAt(start) == '|') {
+                    appendTableRow(start, contentEnd, "td");
+                } else if (text.charAt(start) == '|' && isTableSeparator(nextLine, length)) {
+                    closeBlock();
+                    openTable(start, contentEnd);
+                    nextLine = endOfLine(nextLine, length) + 1;
+                } else {
+                    renderLine(start, contentEnd);
+                }
+            }
+            lineStart = nextLine;
+        }
+
+        if (inCode) {
+            out.append("</code></pre>");
+        }
+        closeBlock();
+    }
+
+    private void renderLine(int start, int end) {
+        int headingLevel = headingLevel(start, end);
+        if (headingLevel > 0) {
+            closeBlock();
+            out.append("<h").append(headingLevel).append('>');
+            renderInline(skipSpaces(start + headingLevel + 1, end), end);
+            out.append("</h").append(headingLevel).append('>');
+        } else if (isHorizontalRule(start, end)) {
+            closeBlock();
+            out.append("<hr>");
+        } else if (text.charAt(start) == '>') {
+            switchBlock(Block.BLOCKQUOTE, "<blockquote>", "<br>");
+            renderInline(skipSpaces(start + 1, end), end);
+        } else if (isBullet(start, end)) {
+            switchBlock(Block.UNORDERED_LIST, "<ul>", null);
+            appendListItem(start + 2, end);
+        } else if (orderedItemContentStart(start, end) > 0) {
+            switchBlock(Block.ORDERED_LIST, "<ol>", null);
+            appendListItem(orderedItemContentStart(start, end), end);
+        } else {
+            switchBlock(Block.PARAGRAPH, "<p>", "<br>");
+            renderInline(start, end);
+        }
+    }
+
+    private void switchBlock(Block target, String openTag, String continuation) {
+        if (block == target) {
+            if (continuation != null) {
+                out.append(continuation);
+            }
+            return;
+        }
+        closeBlock();
+        out.append(openTag);
+        block = target;
+    }
+
+    private void closeBlock() {
+        switch (block) {
+            case PARAGRAPH -> out.append("</p>");
+            case UNORDERED_LIST -> out.append("</ul>");
+            case ORDERED_LIST -> out.append("</ol>");
+            case BLOCKQUOTE -> out.append("</blockquote>");
+            case TABLE -> out.append("</tbody></table>");
+            case NONE -> { }
+        }
+        block = Block.NONE;
+    }
+
+    private void appendListItem(int start, int end) {
+        out.append("<li>");
+        renderInline(skipSpaces(start, end), end);
+        out.append("</li>");
+    }
+
+    private void openCodeBlock(int languageStart, int end) {
+        out.append("<pre><code");
+        int languageEnd = languageStart;
+        while (languageEnd < end && isLanguageChar(text.charAt(languageEnd))) {
+            languageEnd++;
+        }
+        if (languageEnd > languageStart) {
+            out.append(" class=\"language-").append(text, languageStart, languageEnd).append('"');
+        }
+        out.append('>');
+    }
+
+    private void openTable(int start, int end) {
+        out.append("<table><thead>");
+        appendTableRow(start, end, "th");
+        out.append("</thead><tbody>");
+        block = Block.TABLE;
+    }
+
+    private void appendTableRow(int start, int end, String cellTag) {
+        int cellStart = start + 1;
+        int rowEnd = trimTrailingSpaces(start, end);
+        if (rowEnd > cellStart && text.charAt(rowEnd - 1) == '|' && text.charAt(rowEnd - 2) != '\\') {
+            rowEnd--;
+        }
+
+        out.append("<tr>");
+        for (int i = cellStart; i <= rowEnd; i++) {
+            boolean boundary = i == rowEnd || (text.charAt(i) == '|' && text.charAt(i - 1) != '\\');
+            if (boundary) {
+                out.append('<').append(cellTag).append('>');
+                renderInline(skipSpaces(cellStart, i), trimTrailingSpaces(cellStart, i));
+                out.append("</").append(cellTag).append('>');
+                cellStart = i + 1;
+            }
+        }
+        out.append("</tr>");
+    }
+
+    private boolean isTableSeparator(int lineStart, int length) {
+        if (lineStart >= length) {
+            return false;
+        }
+        int end = trimTrailingSpaces(lineStart, endOfLine(lineStart, length));
+        boolean sawDash = false;
+        for (int i = skipSpaces(lineStart, end); i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '-') {
+                sawDash = true;
+            } else if (c != '|' && c != ':' && c != ' ') {
+                return false;
+            }
+        }
+        return sawDash;
+    }
+
+    /**
+     * Renders emphasis, code spans and links between {@code start} and {@code end}.
+     */
+    private void renderInline(int start, int end) {
+        int i = start;
+        while (i < end) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < end && isEscapable(text.charAt(i + 1))) {
+                HtmlEscaper.escape(text.charAt(i + 1), out);
+                i += 2;
+                continue;
+            }
+            if (c == '`') {
+                int close = text.indexOf('`', i + 1);
+                if (close > 0 && close < end) {
+                    out.append("<code>");
+                    HtmlEscaper.escape(text, i + 1, close, out);
+                    out.append("</code>");
+                    i = close + 1;
+                    continue;
+                }
+            } else if ((c == '*' || c == '_') && i + 1 < end && text.charAt(i + 1) == c) {
+                int close = indexOfDelimiter(c, true, i + 2, end);
+                if (close > i + 2) {
+                    out.append("<strong>");
+                    renderInline(i + 2, close);
+                    out.append("</strong>");
+                    i = close + 2;
+                    continue;
+                }
+            } else if (c == '*' || c == '_') {
+                int close = indexOfDelimiter(c, false, i + 1, end);
+                if (close > i + 1) {
+                    out.append("<em>");
+                    renderInline(i + 1, close);
+                    out.append("</em>");
+                    i = close + 1;
+                    continue;
+                }
+            } else if (c == '[') {
+                int next = renderLink(i, end);
+                if (next > 0) {
+                    i = next;
+                    continue;
+                }
+            }
+            HtmlEscaper.escape(c, out);
+            i++;
+        }
+    }
+
+    /**
+     * Renders {@code [label](url)} starting at {@code start} and returns the index after
+     * it, or -1 when the text is not a link with an allowed scheme.
+     */
+    private int renderLink(int start, int end) {
+        int labelEnd = text.indexOf("](", start + 1);
+        if (labelEnd < 0 || labelEnd >= end) {
+            return -1;
+        }
+        int urlStart = labelEnd + 2;
+        int urlEnd = text.indexOf(')', urlStart);
+        if (urlEnd < 0 || urlEnd >= end || !hasAllowedScheme(urlStart, urlEnd)) {
+            return -1;
+        }
+        out.append("<a href=\"");
+        HtmlEscaper.escape(text, urlStart, urlEnd, out);
+        out.append("\">");
+        renderInline(start + 1, labelEnd);
+        out.append("</a>");
+        return urlEnd + 1;
+    }
+
+    private boolean hasAllowedScheme(int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (Character.isWhitespace(text.charAt(i))) {
+                return false;
+            }
+        }
+        return text.regionMatches(true, start, "https://", 0, 8)
+            || text.regionMatches(true, start, "http://", 0, 7)
+            || text.regionMatches(true, start, "mailto:", 0, 7);
+    }
+
+    private int indexOfDelimiter(char delimiter, boolean doubled, int from, int end) {
+        for (int i = from; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == delimiter) {
+                boolean isDoubled = i + 1 < end && text.charAt(i + 1) == delimiter;
+                if (doubled && isDoubled) {
+                    return i;
+                }
+                if (!doubled && !isDoubled) {
+                    return i;
+                }
+                if (!doubled) {
+                    i++;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private int headingLevel(int start, int end) {
+        int level = 0;
+        while (start + level < end && text.charAt(start + level) == '#' && level < 7) {
+            level++;
+        }
+        boolean followedBySpace = start + level < end && text.charAt(start + level) == ' ';
+        return level >= 1 && level <= 6 && followedBySpace ? level : 0;
+    }
+
+    private boolean isHorizontalRule(int start, int end) {
+        char marker = text.charAt(start);
+        if (marker != '-' && marker != '*' && marker != '_') {
+            return false;
+        }
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == marker) {
+                count++;
+            } else if (c != ' ') {
+                return false;
+            }
+        }
+        return count >= 3;
+    }
+
+    private boolean isBullet(int start, int end) {
+        char c = text.charAt(start);
+        return (c == '-' || c == '*' || c == '+') && start + 1 < end && text.charAt(start + 1) == ' ';
+    }
+
+    private int orderedItemContentStart(int start, int end) {
+        int i = start;
+        while (i < end && Character.isDigit(text.charAt(i))) {
+            i++;
+        }
+        boolean isItem = i > start && i + 1 < end && text.charAt(i) == '.' && text.charAt(i + 1) == ' ';
+        return isItem ? i + 2 : -1;
+    }
+
+    private boolean startsWith(int start, int end, String prefix) {
+        return end - start >= prefix.length() && text.startsWith(prefix, start);
+    }
+
+    private int skipSpaces(int start, int end) {
+        while (start < end && (text.charAt(start) == ' ' || text.charAt(start) == '\t')) {
+            start++;
+        }
+        return start;
+    }
+
+    private int trimTrailingSpaces(int start, int end) {
+        while (end > start && (text.charAt(end - 1) == ' ' || text.charAt(end - 1) == '\t')) {
+            end--;
+        }
+        return end;
+    }
+
+    private int endOfLine(int start, int length) {
+        int end = text.indexOf('\n', start);
+        if (end < 0) {
+            return length;
+        }
+        return end > start && text.charAt(end - 1) == '\r' ? end - 1 : end;
+    }
+
+    private static boolean isEscapable(char c) {
+        return "\\`*_[]()#+-.!|>".indexOf(c) >= 0;
+    }
+
+    private static boolean isLanguageChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '-' || c == '_' || c == '+';
+    }
+}
@@ -0,0 +1,237 @@
+package demystified.hackathon.demo.service.email;
+
+import demystified.hackathon.demo.config.MailPoolConfig;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.Address;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.Date;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link JavaMailSenderImpl} that keeps connected SMTP transports open between sends
+ * instead of paying the connect, STARTTLS and AUTH round trips for every email.
+ *
+ * <p>At most {@code maxConnections} transports exist at once; senders wait for a free
+ * one. Transports are closed after an idle timeout, after a number of messages, or
+ * when a send fails on them. A reused transport the server has silently dropped is
+ * detected on send and the message is retried once on a fresh connection.
+ */
+public class PooledJavaMailSender extends JavaMailSenderImpl {
+    private static final Logger logger = LoggerFactory.getLogger(PooledJavaMailSender.class);
+
+    private static final String HEADER_MESSAGE_ID = "Message-ID";
+
+    private final MailPoolConfig config;
+    private final Semaphore permits;
+    private final Deque<PooledTransport> idle = new ConcurrentLinkedDeque<>();
+    private final ScheduledExecutorService evictor;
+
+    private final AtomicLong opened = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+
+    private volatile boolean shutdown;
+
+    public PooledJavaMailSender(MailPoolConfig config) {
+        this.config = config;
+        this.permits = new Semaphore(config.getMaxConnections(), true);
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "smtp-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long evictionPeriod = Math.max(1000, config.getIdleTimeoutMs() / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, evictionPeriod, evictionPeriod, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) throws MailException {
+        acquirePermit();
+        Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+        try {
+            for (int i = 0; i < mimeMessages.length; i++) {
+                MimeMessage mimeMessage = mimeMessages[i];
+                try {
+                    prepare(mimeMessage);
+                    Address[] addresses = mimeMessage.getAllRecipients();
+                    sendMessage(mimeMessage, addresses != null ? addresses : new Address[0]);
+                } catch (AuthenticationFailedException e) {
+                    throw new MailAuthenticationException(e);
+                } catch (MessagingException e) {
+                    Object original = originalMessages != null ? originalMessages[i] : mimeMessage;
+                    failedMessages.put(original, e);
+                }
+            }
+        } finally {
+            permits.release();
+        }
+
+        if (!failedMessages.isEmpty()) {
+            throw new MailSendException(failedMessages);
+        }
+    }
+
+    /**
+     * Opens connections until {@code connections} are idle in the pool, bounded by the
+     * pool size, so the first emails skip the connect and AUTH handshake.
+     */
+    public int prewarm(int connections) throws MessagingException {
+        int target = Math.min(connections, config.getMaxConnections());
+        int openedNow = 0;
+        while (!shutdown && idle.size() < target) {
+            idle.offerFirst(open());
+            openedNow++;
+        }
+        return openedNow;
+    }
+
+    public PoolStats getStats() {
+        return new PoolStats(opened.get(), reused.get(), discarded.get(), idle.size());
+    }
+
+    private void sendMessage(MimeMessage message, Address[] recipients) throws MessagingException {
+        PooledTransport connection = borrow();
+        while (true) {
+            try {
+                connection.send(message, recipients);
+                release(connection);
+                return;
+            } catch (SendFailedException e) {
+                release(connection);
+                throw e;
+            } catch (MessagingException | IllegalStateException e) {
+                discard(connection);
+                if (connection.messagesSent == 0) {
+                    throw e;
+                }
+                logger.debug("Pooled SMTP connection failed, retrying on a new connection", e);
+                connection = open();
+            }
+        }
+    }
+
+    /**
+     * Applies the same header handling {@link JavaMailSenderImpl} does before sending.
+     */
+    private void prepare(MimeMessage mimeMessage) throws MessagingException {
+        if (mimeMessage.getSentDate() == null) {
+            mimeMessage.setSentDate(new Date());
+        }
+        String messageId = mimeMessage.getMessageID();
+        mimeMessage.saveChanges();
+        if (messageId != null) {
+            mimeMessage.setHeader(HEADER_MESSAGE_ID, messageId);
+        }
+    }
+
+    private void acquirePermit() {
+        try {
+            if (!permits.tryAcquire(config.getAcquireTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                throw new MailSendException("Timed out waiting for a free SMTP connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted while waiting for a free SMTP connection", e);
+        }
+    }
+
+    private PooledTransport borrow() throws MessagingException {
+        long now = System.nanoTime();
+        PooledTransport connection;
+        while ((connection = idle.pollFirst()) != null) {
+            if (!connection.isExpired(now, config.getIdleTimeoutMs())) {
+                reused.incrementAndGet();
+                return connection;
+            }
+            discard(connection);
+        }
+        return open();
+    }
+
+    private PooledTransport open() throws MessagingException {
+        Transport transport = connectTransport();
+        opened.incrementAndGet();
+        return new PooledTransport(transport);
+    }
+
+    private void release(PooledTransport connection) {
+        if (shutdown || connection.messagesSent >= config.getMaxMessagesPerConnection()) {
+            discard(connection);
+            return;
+        }
+        connection.lastUsedNanos = System.nanoTime();
+        idle.offerFirst(connection);
+    }
+
+    private void discard(PooledTransport connection) {
+        discarded.incrementAndGet();
+        try {
+            connection.transport.close();
+        } catch (MessagingException | RuntimeException e) {
+            logger.debug("Failed to close SMTP connection", e);
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        Iterator<PooledTransport> iterator = idle.descendingIterator();
+        while (iterator.hasNext()) {
+            PooledTransport connection = iterator.next();
+            if (connection.isExpired(now, config.getIdleTimeoutMs()) && idle.removeLastOccurrence(connection)) {
+                discard(connection);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shutdown = true;
+        evictor.shutdownNow();
+        PooledTransport connection;
+        while ((connection = idle.pollFirst()) != null) {
+            discard(connection);
+        }
+    }
+
+    private static final class PooledTransport {
+        private final Transport transport;
+        private long lastUsedNanos = System.nanoTime();
+        private int messagesSent;
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+
+        void send(MimeMessage message, Address[] recipients) throws MessagingException {
+            transport.sendMessage(message, recipients);
+            messagesSent++;
+        }
+
+        boolean isExpired(long now, long idleTimeoutMs) {
+            return now - lastUsedNanos > TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs);
+        }
+    }
+
+    public record PoolStats(long opened, long reused, long discarded, int idle) {
+    }
+}
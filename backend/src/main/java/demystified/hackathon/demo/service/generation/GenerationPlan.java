@@ -0,0 +1,11 @@
+package demystified.hackathon.demo.service.generation;
+
+import demystified.hackathon.demo.service.chat.GenerationParameters;
+
+/**
+ * Outcome of sizing one request: the profile used, the parameters to send, the CSV
+ * context to include (shortened when it did not fit) and the estimated input tokens.
+ */
+public record GenerationPlan(String profile, GenerationParameters parameters, String csvContext,
+                             int estimatedInputTokens, int csvRowsDropped) {
+}
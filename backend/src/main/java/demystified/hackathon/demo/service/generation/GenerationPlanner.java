@@ -0,0 +1,267 @@
+package demystified.hackathon.demo.service.generation;
+
+import demystified.hackathon.demo.config.GenerationConfig;
+import demystified.hackathon.demo.service.LatencyTracker;
+import demystified.hackathon.demo.service.chat.ChatRequestEncoder;
+import demystified.hackathon.demo.service.chat.GenerationParameters;
+import demystified.hackathon.demo.service.chat.TokenUsage;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * Chooses the generation profile of a prompt and sizes {@code max_tokens} to what is
+ * left of the model's context window after the estimated input. Prompts that leave
+ * less than {@code minCompletionTokens} (capped at the profile's {@code maxTokens}) are
+ * rejected before any upstream call, unless they carry CSV data: then trailing rows are
+ * dropped until the prompt fits. CSV data is sized as it will be sent, so a compact
+ * encoding of the table admits more rows than its markdown would.
+ *
+ * <p>Keeps per-profile distributions of generated tokens and model latency.
+ */
+@Component
+public class GenerationPlanner {
+    public static final String CSV_CONTEXT_HEADING = "\n\n**CSV Context Data:**\n";
+
+    /** Role markers and chat template tokens wrapped around the two messages. */
+    private static final int MESSAGE_OVERHEAD_TOKENS = 16;
+    private static final int DISTRIBUTION_WINDOW = 1024;
+    private static final String TRUNCATION_NOTE = "\n_Only the first %d of %d rows are included._\n";
+    /** Truncations of a rendered table tried before giving up on fitting it. */
+    private static final int MAX_FIT_ATTEMPTS = 4;
+
+    private final GenerationConfig config;
+    private final int systemPromptTokens = TokenEstimator.estimate(ChatRequestEncoder.SYSTEM_PROMPT);
+    private final int headingTokens = TokenEstimator.estimate(CSV_CONTEXT_HEADING)
+        + TokenEstimator.estimate(String.format(TRUNCATION_NOTE, 100000, 100000));
+    private final Map<String, ProfileCounters> counters = new ConcurrentHashMap<>();
+
+    public GenerationPlanner(GenerationConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Plans the request for {@code content} with optional {@code csvContext}.
+     *
+     * @throws GenerationRequestException when the profile is unknown or the prompt cannot fit
+     */
+    public GenerationPlan plan(String requestedProfile, String modelId, String content, String csvContext) {
+        return plan(requestedProfile, modelId, content, csvContext, null);
+    }
+
+    /**
+     * Plans the request for {@code content} with an optional markdown {@code csvContext}
+     * that is sent as {@code render} writes it. The context is sized, and shortened, by
+     * its rendered text, which is what the plan carries; a null {@code render} sends the
+     * markdown as it is. When rows are dropped, the last text {@code render} returned is
+     * the one in the plan.
+     *
+     * @throws GenerationRequestException when the profile is unknown or the prompt cannot fit
+     */
+    public GenerationPlan plan(String requestedProfile, String modelId, String content, String csvContext,
+                               UnaryOperator<String> render) {
+        String profileName = resolveProfileName(requestedProfile, csvContext != null);
+        GenerationConfig.Profile profile = config.getProfiles().get(profileName);
+        if (profile == null) {
+            if (requestedProfile == null || requestedProfile.isBlank()) {
+                throw new IllegalStateException("Generation profile '" + profileName + "' is not configured");
+            }
+            throw new GenerationRequestException(HttpStatus.BAD_REQUEST,
+                "Unknown generation profile '" + profileName + "', expected one of " + config.getProfiles().keySet());
+        }
+        ProfileCounters profileCounters = countersFor(profileName);
+        profileCounters.requests.increment();
+
+        int window = config.contextWindowFor(modelId);
+        int minCompletionTokens = Math.min(config.getMinCompletionTokens(), profile.getMaxTokens());
+        int available = window - minCompletionTokens;
+        int fixedTokens = withMargin(systemPromptTokens + MESSAGE_OVERHEAD_TOKENS + TokenEstimator.estimate(content));
+        String context = csvContext != null && render != null ? render.apply(csvContext) : csvContext;
+        int csvTokens = context != null
+            ? withMargin(headingTokens + TokenEstimator.estimate(context))
+            : 0;
+        int rowsDropped = 0;
+
+        if (fixedTokens + csvTokens > available) {
+            TruncatedTable truncated = null;
+            if (config.isTruncateOversizedCsv() && csvContext != null) {
+                truncated = render != null
+                    ? truncateRendered(csvContext, available - fixedTokens, render, csvTokens)
+                    : truncateRows(csvContext, available - fixedTokens);
+            }
+            if (truncated == null) {
+                profileCounters.rejected.increment();
+                throw new GenerationRequestException(HttpStatus.PAYLOAD_TOO_LARGE, String.format(
+                    "Prompt needs about %d tokens but model %s accepts %d, including at least %d for the answer",
+                    fixedTokens + csvTokens, modelId, window, minCompletionTokens));
+            }
+            profileCounters.truncatedCsv.increment();
+            context = truncated.text();
+            csvTokens = truncated.tokens();
+            rowsDropped = truncated.rowsDropped();
+        }
+
+        int inputTokens = fixedTokens + csvTokens;
+        int maxTokens = Math.min(profile.getMaxTokens(), window - inputTokens);
+        if (maxTokens < profile.getMaxTokens()) {
+            profileCounters.reducedMaxTokens.increment();
+        }
+        GenerationParameters parameters = new GenerationParameters(maxTokens, profile.getTemperature(),
+            profile.getTopP(), profile.getFrequencyPenalty(), profile.getPresencePenalty(), profile.getStopSequences());
+        return new GenerationPlan(profileName, parameters, context, inputTokens, rowsDropped);
+    }
+
+    /**
+     * Records the outcome of a model call made with {@code plan}.
+     */
+    public void record(GenerationPlan plan, TokenUsage usage, long latencyMs) {
+        ProfileCounters profileCounters = countersFor(plan.profile());
+        profileCounters.latencies.record(latencyMs);
+        if (usage != null) {
+            profileCounters.completionTokens.record(usage.completionTokens());
+            profileCounters.estimatedPromptTokens.add(plan.estimatedInputTokens());
+            profileCounters.actualPromptTokens.add(usage.promptTokens());
+        }
+    }
+
+    /**
+     * The completion tokens a call made with {@code plan} is expected to generate: the
+     * median of the profile's recent calls, or its max_tokens before the first one.
+     */
+    public long expectedCompletionTokens(GenerationPlan plan) {
+        long median = countersFor(plan.profile()).completionTokens.percentile(50);
+        int maxTokens = plan.parameters().maxTokens();
+        return median >= 0 ? Math.min(median, maxTokens) : maxTokens;
+    }
+
+    public List<ProfileStats> getStats() {
+        List<ProfileStats> stats = new ArrayList<>();
+        new TreeMap<>(counters).forEach((profile, profileCounters) -> stats.add(profileCounters.snapshot(profile)));
+        return stats;
+    }
+
+    private String resolveProfileName(String requestedProfile, boolean hasCsv) {
+        if (requestedProfile != null && !requestedProfile.isBlank()) {
+            return requestedProfile.trim().toLowerCase(Locale.ROOT);
+        }
+        return hasCsv ? config.getCsvProfile() : config.getDefaultProfile();
+    }
+
+    private ProfileCounters countersFor(String profile) {
+        return counters.computeIfAbsent(profile, key -> new ProfileCounters());
+    }
+
+    private int withMargin(int tokens) {
+        return (int) Math.ceil(tokens * config.getEstimateMargin());
+    }
+
+    /**
+     * Keeps the header, separator and as many leading rows of the markdown table as
+     * fit in {@code budget} tokens, or returns null when not even one row fits.
+     */
+    private TruncatedTable truncateRows(String table, int budget) {
+        int rawBudget = (int) (budget / config.getEstimateMargin()) - headingTokens;
+        int position = 0;
+        int tokens = 0;
+        int lines = 0;
+        int keptEnd = 0;
+        int keptTokens = 0;
+        int keptRows = 0;
+        int totalRows = 0;
+        boolean full = false;
+
+        while (position < table.length()) {
+            int lineEnd = table.indexOf('\n', position);
+            lineEnd = lineEnd < 0 ? table.length() : lineEnd + 1;
+            lines++;
+            // notes appended under the table are not rows
+            if (lines > 2 && table.charAt(position) == '|') {
+                totalRows++;
+            }
+            if (!full) {
+                tokens += TokenEstimator.estimate(table, position, lineEnd);
+                if (tokens <= rawBudget) {
+                    keptEnd = lineEnd;
+                    keptTokens = tokens;
+                    keptRows = totalRows;
+                } else {
+                    full = true;
+                }
+            }
+            position = lineEnd;
+        }
+
+        if (keptRows == 0) {
+            return null;
+        }
+        String text = table.substring(0, keptEnd) + String.format(TRUNCATION_NOTE, keptRows, totalRows);
+        // headingTokens already allows for the note
+        return new TruncatedTable(text, withMargin(headingTokens + keptTokens), totalRows - keptRows);
+    }
+
+    /**
+     * Truncates the markdown {@code table} so that its text as written by {@code render}
+     * fits in {@code budget} tokens. The markdown budget starts from the ratio of the
+     * whole table's rendered size, {@code renderedTokens}, to its markdown size, and
+     * shrinks by how far each attempt overshoots.
+     */
+    private TruncatedTable truncateRendered(String table, int budget, UnaryOperator<String> render,
+                                            int renderedTokens) {
+        double ratio = (double) renderedTokens / withMargin(headingTokens + TokenEstimator.estimate(table));
+        for (int attempt = 0; attempt < MAX_FIT_ATTEMPTS; attempt++) {
+            TruncatedTable markdown = truncateRows(table, (int) (budget / ratio));
+            if (markdown == null) {
+                return null;
+            }
+            String text = render.apply(markdown.text());
+            int tokens = withMargin(headingTokens + TokenEstimator.estimate(text));
+            if (tokens <= budget) {
+                return new TruncatedTable(text, tokens, markdown.rowsDropped());
+            }
+            ratio *= (double) tokens / budget;
+        }
+        return null;
+    }
+
+    private record TruncatedTable(String text, int tokens, int rowsDropped) {
+    }
+
+    private static final class ProfileCounters {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder reducedMaxTokens = new LongAdder();
+        private final LongAdder truncatedCsv = new LongAdder();
+        private final LongAdder estimatedPromptTokens = new LongAdder();
+        private final LongAdder actualPromptTokens = new LongAdder();
+        // LatencyTracker is a plain sliding window of longs, so it serves token counts as well
+        private final LatencyTracker completionTokens = new LatencyTracker(DISTRIBUTION_WINDOW);
+        private final LatencyTracker latencies = new LatencyTracker(DISTRIBUTION_WINDOW);
+
+        ProfileStats snapshot(String profile) {
+            long estimated = estimatedPromptTokens.sum();
+            double estimateRatio = estimated > 0 ? (double) actualPromptTokens.sum() / estimated : 0;
+            return new ProfileStats(profile, requests.sum(), rejected.sum(), reducedMaxTokens.sum(),
+                truncatedCsv.sum(), completionTokens.percentile(50), completionTokens.percentile(90),
+                completionTokens.percentile(99), latencies.percentile(50), latencies.percentile(90),
+                latencies.percentile(99), estimateRatio);
+        }
+    }
+
+    /**
+     * Per-profile counters; percentiles cover the most recent calls and are -1 before the first.
+     * {@code promptTokenEstimateRatio} is actual over estimated prompt tokens.
+     */
+    public record ProfileStats(String profile, long requests, long rejected, long reducedMaxTokens,
+                               long truncatedCsv, long completionTokensP50, long completionTokensP90,
+                               long completionTokensP99, long latencyMsP50, long latencyMsP90, long latencyMsP99,
+                               double promptTokenEstimateRatio) {
+    }
+}
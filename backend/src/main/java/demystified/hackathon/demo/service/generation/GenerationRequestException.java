@@ -0,0 +1,15 @@
+package demystified.hackathon.demo.service.generation;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Raised before any upstream call when a prompt names an unknown generation profile
+ * or does not fit the model's context window. The status is returned to the client as-is.
+ */
+public class GenerationRequestException extends ResponseStatusException {
+
+    public GenerationRequestException(HttpStatus status, String reason) {
+        super(status, reason);
+    }
+}
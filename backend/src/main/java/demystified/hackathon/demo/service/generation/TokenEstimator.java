@@ -0,0 +1,63 @@
+package demystified.hackathon.demo.service.generation;
+
+/**
+ * Local estimate of how many tokens a text takes, without the model's tokenizer.
+ * Sub-word tokenizers spend roughly one token per four letters of a word, one per
+ * few digits, and one per punctuation mark or non-Latin character; markdown tables
+ * and CSV data are mostly the latter, so they are far denser than prose. The
+ * estimate errs on the high side.
+ */
+public final class TokenEstimator {
+    private static final int LETTERS_PER_TOKEN = 4;
+    private static final int DIGITS_PER_TOKEN = 3;
+
+    private TokenEstimator() {
+    }
+
+    public static int estimate(CharSequence text) {
+        return text != null ? estimate(text, 0, text.length()) : 0;
+    }
+
+    /**
+     * Estimates the tokens in {@code text} between {@code from} (inclusive) and {@code to} (exclusive).
+     */
+    public static int estimate(CharSequence text, int from, int to) {
+        int tokens = 0;
+        int i = from;
+        while (i < to) {
+            char c = text.charAt(i);
+            if (isAsciiLetter(c)) {
+                int start = i;
+                while (i < to && isAsciiLetter(text.charAt(i))) {
+                    i++;
+                }
+                tokens += (i - start + LETTERS_PER_TOKEN - 1) / LETTERS_PER_TOKEN;
+            } else if (c >= '0' && c <= '9') {
+                int start = i;
+                while (i < to && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+                    i++;
+                }
+                tokens += (i - start + DIGITS_PER_TOKEN - 1) / DIGITS_PER_TOKEN;
+            } else if (c == ' ') {
+                int start = i;
+                while (i < to && text.charAt(i) == ' ') {
+                    i++;
+                }
+                // a single space is merged into the next word; runs of padding are not
+                if (i - start > 1) {
+                    tokens++;
+                }
+            } else {
+                if (!Character.isLowSurrogate(c)) {
+                    tokens++;
+                }
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+}
@@ -0,0 +1,111 @@
+package demystified.hackathon.demo.service.history;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of log offsets by response id and by user. Each user's timeline
+ * keeps offsets and record times in append order, which is also time order, so
+ * pages and time ranges are found with a binary search.
+ */
+final class HistoryIndex {
+    private final Map<String, Long> offsetsById = new ConcurrentHashMap<>();
+    private final Map<String, Timeline> timelines = new ConcurrentHashMap<>();
+
+    void add(HistoryRecord record, long offset) {
+        offsetsById.put(record.id(), offset);
+        if (record.email() != null && !record.email().isBlank()) {
+            timelines.computeIfAbsent(key(record.email()), key -> new Timeline()).add(offset, record.recordedAt());
+        }
+    }
+
+    Long offsetOf(String id) {
+        return offsetsById.get(id);
+    }
+
+    /**
+     * Returns up to {@code limit + 1} offsets for {@code email}, newest first, that are
+     * older than {@code cursor} and fall within {@code [since, until]}. Any bound may be null.
+     */
+    long[] page(String email, Long cursor, Long since, Long until, int limit) {
+        Timeline timeline = timelines.get(key(email));
+        return timeline != null ? timeline.page(cursor, since, until, limit + 1) : new long[0];
+    }
+
+    int size() {
+        return offsetsById.size();
+    }
+
+    int users() {
+        return timelines.size();
+    }
+
+    private static String key(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Timeline {
+        private long[] offsets = new long[8];
+        private long[] times = new long[8];
+        private int size;
+
+        synchronized void add(long offset, long recordedAt) {
+            if (size == offsets.length) {
+                offsets = Arrays.copyOf(offsets, size * 2);
+                times = Arrays.copyOf(times, size * 2);
+            }
+            offsets[size] = offset;
+            times[size] = recordedAt;
+            size++;
+        }
+
+        synchronized long[] page(Long cursor, Long since, Long until, int limit) {
+            int end = size;
+            if (cursor != null) {
+                end = Math.min(end, lowerBound(offsets, cursor));
+            }
+            if (until != null) {
+                end = Math.min(end, upperBound(times, until));
+            }
+            int start = since != null ? lowerBound(times, since) : 0;
+
+            long[] result = new long[Math.max(0, Math.min(limit, end - start))];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = offsets[end - 1 - i];
+            }
+            return result;
+        }
+
+        /** First index whose value is {@code >= target}. */
+        private int lowerBound(long[] values, long target) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] < target) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /** First index whose value is {@code > target}. */
+        private int upperBound(long[] values, long target) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] <= target) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
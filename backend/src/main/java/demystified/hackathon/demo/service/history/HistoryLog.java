@@ -0,0 +1,259 @@
+package demystified.hackathon.demo.service.history;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.ObjLongConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file of history records. Each record is framed as
+ * {@code [int payloadLength][int crc32][payload]} so a torn write at the tail, for
+ * example after a crash, is detected on open and truncated away.
+ *
+ * <p>Only one thread appends or compacts; reads use positional I/O and may run
+ * concurrently.
+ */
+final class HistoryLog implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(HistoryLog.class);
+
+    private static final int HEADER_SIZE = 8;
+    private static final byte FORMAT_VERSION = 1;
+    private static final int NULL_LENGTH = -1;
+
+    private final FileChannel channel;
+    private final ByteArrayOutputStream batchBuffer = new ByteArrayOutputStream(64 * 1024);
+    private final ByteArrayOutputStream payloadBuffer = new ByteArrayOutputStream(8 * 1024);
+    private final DataOutputStream payloadOut = new DataOutputStream(payloadBuffer);
+    private long size;
+
+    private HistoryLog(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Opens or creates the log at {@code file}, passing every intact record and its
+     * offset to {@code visitor} so the caller can rebuild its indexes.
+     */
+    static HistoryLog open(Path file, ObjLongConsumer<HistoryRecord> visitor) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        HistoryLog log = new HistoryLog(channel);
+        try {
+            log.recover(visitor);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return log;
+    }
+
+    /**
+     * Appends {@code records} with a single write and returns their offsets.
+     */
+    long[] append(List<HistoryRecord> records) throws IOException {
+        long[] offsets = new long[records.size()];
+        batchBuffer.reset();
+        for (int i = 0; i < records.size(); i++) {
+            offsets[i] = size + batchBuffer.size();
+            writeFrame(records.get(i));
+        }
+
+        ByteBuffer bytes = ByteBuffer.wrap(batchBuffer.toByteArray());
+        long position = size;
+        while (bytes.hasRemaining()) {
+            position += channel.write(bytes, position);
+        }
+        size = position;
+        return offsets;
+    }
+
+    /**
+     * Returns the offset of the first record at or after {@code minOffset} that was
+     * recorded at or after {@code minRecordedAt}, or the log size when there is none.
+     * Records are appended in time order, so everything before it is older.
+     */
+    long firstOffset(long minOffset, long minRecordedAt) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + 1 + Long.BYTES);
+        long position = 0;
+        while (position < size) {
+            header.clear();
+            readFully(header, position);
+            header.flip();
+            int length = header.getInt();
+            header.getInt();
+            header.get();
+            long recordedAt = header.getLong();
+            if (position >= minOffset && recordedAt >= minRecordedAt) {
+                return position;
+            }
+            position += HEADER_SIZE + length;
+        }
+        return size;
+    }
+
+    /**
+     * Copies the records from {@code from} on into a new file that atomically replaces
+     * {@code file}, and opens it, passing its records to {@code visitor}. This log keeps
+     * reading the old file until it is closed.
+     */
+    HistoryLog compact(long from, Path file, ObjLongConsumer<HistoryRecord> visitor) throws IOException {
+        Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+        try (FileChannel target = FileChannel.open(compacted,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = from;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, target);
+            }
+            target.force(true);
+        }
+        Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return open(file, visitor);
+    }
+
+    void sync() throws IOException {
+        channel.force(false);
+    }
+
+    HistoryRecord read(long offset) throws IOException {
+        ByteBuffer header = readFully(offset, HEADER_SIZE);
+        int length = header.getInt();
+        int checksum = header.getInt();
+        ByteBuffer payload = readFully(offset + HEADER_SIZE, length);
+        if (checksum(payload.array(), length) != checksum) {
+            throw new IOException("Corrupt history record at offset " + offset);
+        }
+        return decode(payload.array(), length);
+    }
+
+    long size() {
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void recover(ObjLongConsumer<HistoryRecord> visitor) throws IOException {
+        long fileSize = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+        while (position + HEADER_SIZE <= fileSize) {
+            header.clear();
+            readFully(header, position);
+            header.flip();
+            int length = header.getInt();
+            int checksum = header.getInt();
+            if (length <= 0 || position + HEADER_SIZE + length > fileSize) {
+                break;
+            }
+            ByteBuffer payload = readFully(position + HEADER_SIZE, length);
+            if (checksum(payload.array(), length) != checksum) {
+                break;
+            }
+            visitor.accept(decode(payload.array(), length), position);
+            position += HEADER_SIZE + length;
+        }
+
+        if (position < fileSize) {
+            logger.warn("Truncating {} bytes of incomplete history records", fileSize - position);
+            channel.truncate(position);
+        }
+        size = position;
+    }
+
+    private void writeFrame(HistoryRecord record) throws IOException {
+        payloadBuffer.reset();
+        payloadOut.writeByte(FORMAT_VERSION);
+        payloadOut.writeLong(record.recordedAt());
+        payloadOut.writeLong(record.createdAt());
+        writeString(record.id());
+        writeString(record.email());
+        writeString(record.modelId());
+        writeString(record.prompt());
+        writeString(record.content());
+        payloadOut.flush();
+
+        byte[] payload = payloadBuffer.toByteArray();
+        DataOutputStream frame = new DataOutputStream(batchBuffer);
+        frame.writeInt(payload.length);
+        frame.writeInt(checksum(payload, payload.length));
+        frame.write(payload);
+    }
+
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            payloadOut.writeInt(NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        payloadOut.writeInt(bytes.length);
+        payloadOut.write(bytes);
+    }
+
+    private static HistoryRecord decode(byte[] payload, int length) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload, 0, length));
+        byte version = in.readByte();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported history record version " + version);
+        }
+        long recordedAt = in.readLong();
+        long createdAt = in.readLong();
+        String id = readString(in);
+        String email = readString(in);
+        String modelId = readString(in);
+        String prompt = readString(in);
+        String content = readString(in);
+        return new HistoryRecord(id, email, prompt, content, modelId, createdAt, recordedAt);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int checksum(byte[] bytes, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, length);
+        return (int) crc.getValue();
+    }
+
+    private ByteBuffer readFully(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        readFully(buffer, position);
+        buffer.flip();
+        return buffer;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of history log at offset " + position);
+            }
+            position += read;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package demystified.hackathon.demo.service.history;
+
+import java.util.List;
+
+/**
+ * A page of a user's history, newest first. {@code nextCursor} is passed back to
+ * fetch the following page and is null on the last one.
+ */
+public record HistoryPage(List<HistoryRecord> items, Long nextCursor) {
+}
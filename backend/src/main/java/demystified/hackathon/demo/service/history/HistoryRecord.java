@@ -0,0 +1,13 @@
+package demystified.hackathon.demo.service.history;
+
+/**
+ * One recorded prompt and the response returned for it. {@code recordedAt} is the
+ * local time in milliseconds the exchange was recorded and orders a user's history.
+ */
+public record HistoryRecord(String id, String email, String prompt, String content, String modelId,
+                            long createdAt, long recordedAt) {
+
+    HistoryRecord withRecordedAt(long recordedAt) {
+        return new HistoryRecord(id, email, prompt, content, modelId, createdAt, recordedAt);
+    }
+}
@@ -0,0 +1,265 @@
+package demystified.hackathon.demo.service.history;
+
+import demystified.hackathon.demo.config.HistoryConfig;
+import demystified.hackathon.demo.controller.PromptResponse;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Local history of prompts and responses. {@link #record} only enqueues the exchange;
+ * a background writer drains the queue in batches, appends each batch to the
+ * {@link HistoryLog} with one write and then makes the records visible through the
+ * {@link HistoryIndex}. When the queue is full new exchanges are dropped rather than
+ * slowing down requests.
+ *
+ * <p>The writer also compacts the log: records older than the retention window, and
+ * the oldest records once the log outgrows its size cap, are dropped by copying the
+ * rest into a fresh file and swapping it in with a rebuilt index.
+ */
+@Component
+public class HistoryStore {
+    private static final Logger logger = LoggerFactory.getLogger(HistoryStore.class);
+
+    static final String LOG_FILE_NAME = "history.log";
+
+    private static final long POLL_TIMEOUT_MS = 100;
+    private static final long SHUTDOWN_TIMEOUT_MS = 5000;
+
+    private final HistoryConfig config;
+    private final BlockingQueue<HistoryRecord> queue;
+    private final Path logFile;
+    private final Thread writer;
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile HistoryIndex index = new HistoryIndex();
+    private volatile HistoryLog log;
+
+    private final AtomicLong recordsWritten = new AtomicLong();
+    private final AtomicLong batchesWritten = new AtomicLong();
+    private final AtomicLong recordsDropped = new AtomicLong();
+    private final AtomicLong recordsExpired = new AtomicLong();
+    private final AtomicLong compactions = new AtomicLong();
+
+    private volatile boolean running = true;
+    private long lastRecordedAt;
+    private long nextCompactionAt;
+
+    public HistoryStore(HistoryConfig config) {
+        this.config = config;
+        this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        if (!config.isEnabled()) {
+            this.logFile = null;
+            this.writer = null;
+            return;
+        }
+
+        try {
+            Path directory = Path.of(config.getDirectory());
+            Files.createDirectories(directory);
+            this.logFile = directory.resolve(LOG_FILE_NAME);
+            this.log = HistoryLog.open(logFile, this::indexRecovered);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open history log in " + config.getDirectory(), e);
+        }
+        logger.info("Loaded {} history records for {} users", index.size(), index.users());
+
+        this.writer = new Thread(this::writeLoop, "history-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues the exchange for recording without blocking the caller.
+     */
+    public void record(String email, String prompt, PromptResponse response) {
+        if (log == null || response == null || response.getId() == null || response.getId().isEmpty()) {
+            return;
+        }
+        HistoryRecord record = new HistoryRecord(response.getId(), email, prompt, response.getContent(),
+            response.getModelId(), response.getCreatedAt(), System.currentTimeMillis());
+        if (!running || !queue.offer(record)) {
+            recordsDropped.incrementAndGet();
+        }
+    }
+
+    public Optional<HistoryRecord> findById(String id) {
+        if (log == null) {
+            return Optional.empty();
+        }
+        swapLock.readLock().lock();
+        try {
+            Long offset = index.offsetOf(id);
+            return offset != null ? Optional.of(read(offset)) : Optional.empty();
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the newest {@code limit} records for {@code email} older than
+     * {@code cursor}, optionally restricted to records made between {@code since}
+     * and {@code until} (epoch milliseconds, inclusive).
+     */
+    public HistoryPage findByEmail(String email, Long cursor, Long since, Long until, int limit) {
+        if (log == null || email == null || email.isBlank() || limit <= 0) {
+            return new HistoryPage(List.of(), null);
+        }
+
+        swapLock.readLock().lock();
+        try {
+            long[] offsets = index.page(email, cursor, since, until, limit);
+            int count = Math.min(limit, offsets.length);
+            List<HistoryRecord> items = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                items.add(read(offsets[i]));
+            }
+            Long nextCursor = offsets.length > limit ? offsets[limit - 1] : null;
+            return new HistoryPage(items, nextCursor);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    public HistoryStats getStats() {
+        return new HistoryStats(index.size(), recordsWritten.get(), batchesWritten.get(), recordsDropped.get(),
+            recordsExpired.get(), compactions.get(), queue.size(), log != null ? log.size() : 0);
+    }
+
+    private HistoryRecord read(long offset) {
+        try {
+            return log.read(offset);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read history record", e);
+        }
+    }
+
+    private void indexRecovered(HistoryRecord record, long offset) {
+        index.add(record, offset);
+        lastRecordedAt = Math.max(lastRecordedAt, record.recordedAt());
+    }
+
+    private void writeLoop() {
+        List<HistoryRecord> batch = new ArrayList<>(config.getMaxBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                HistoryRecord first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, config.getMaxBatchSize() - 1);
+                    writeBatch(batch);
+                }
+                compactIfDue();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<HistoryRecord> batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            HistoryRecord record = batch.get(i);
+            if (record.recordedAt() < lastRecordedAt) {
+                batch.set(i, record.withRecordedAt(lastRecordedAt));
+            } else {
+                lastRecordedAt = record.recordedAt();
+            }
+        }
+
+        try {
+            long[] offsets = log.append(batch);
+            if (config.isSyncOnWrite()) {
+                log.sync();
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                index.add(batch.get(i), offsets[i]);
+            }
+            recordsWritten.addAndGet(batch.size());
+            batchesWritten.incrementAndGet();
+        } catch (IOException e) {
+            recordsDropped.addAndGet(batch.size());
+            logger.error("Failed to write {} history records", batch.size(), e);
+        }
+    }
+
+    /**
+     * Drops expired records on every compaction interval, and the oldest quarter of the
+     * size cap whenever the log grows past it. Runs on the writer thread only.
+     */
+    private void compactIfDue() {
+        long now = System.currentTimeMillis();
+        long maxSize = config.getMaxLogSize().toBytes();
+        long size = log.size();
+        if (now < nextCompactionAt && size <= maxSize) {
+            return;
+        }
+        nextCompactionAt = now + config.getCompactionIntervalMs();
+
+        try {
+            long minOffset = size > maxSize ? size - maxSize * 3 / 4 : 0;
+            long keepFrom = log.firstOffset(minOffset, now - config.getRetentionMs());
+            if (keepFrom == 0) {
+                return;
+            }
+
+            HistoryIndex compactedIndex = new HistoryIndex();
+            HistoryLog compactedLog = log.compact(keepFrom, logFile, compactedIndex::add);
+            HistoryLog previous = log;
+            int expired = index.size() - compactedIndex.size();
+            recordsExpired.addAndGet(expired);
+            compactions.incrementAndGet();
+            swapLock.writeLock().lock();
+            try {
+                index = compactedIndex;
+                log = compactedLog;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            previous.close();
+            logger.info("Compacted history log from {} to {} bytes, dropped {} records",
+                size, compactedLog.size(), expired);
+        } catch (IOException e) {
+            logger.error("Failed to compact history log", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        try {
+            writer.join(SHUTDOWN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            log.sync();
+            log.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close history log", e);
+        }
+    }
+
+    public record HistoryStats(int records, long recordsWritten, long batchesWritten, long recordsDropped,
+                               long recordsExpired, long compactions, int queued, long logSizeBytes) {
+    }
+}
@@ -0,0 +1,15 @@
+package demystified.hackathon.demo.service.idempotency;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Raised for an unusable {@code Idempotency-Key}, e.g. one already used for a
+ * different request. The status is returned to the client as-is.
+ */
+public class IdempotencyException extends ResponseStatusException {
+
+    public IdempotencyException(HttpStatus status, String reason) {
+        super(status, reason);
+    }
+}
@@ -0,0 +1,235 @@
+package demystified.hackathon.demo.service.idempotency;
+
+import demystified.hackathon.demo.config.CancellationConfig;
+import demystified.hackathon.demo.config.IdempotencyConfig;
+import demystified.hackathon.demo.service.cancellation.RequestListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request sent with an {@code Idempotency-Key} once and answers retries with
+ * key and payload from its outcome, so a client retrying after a timeout does not
+ * trigger a second model call and a second email. A retry arriving while the first
+ * request still runs waits for it without taking a lane worker.
+ *
+ * <p>Only successful answers are kept, for {@code idempotency.ttl-ms} after they
+ * finished. A failed or cancelled request forgets its key, so the next retry runs
+ * again. Since its answer is kept, a keyed request also finishes when its client
+ * disconnects or times out, whatever {@code cancellation.policy} says.
+ *
+ * <p>Beyond {@code idempotency.max-entries} the oldest finished keys are dropped. A
+ * key still in progress is never dropped, as its retry would run the model call and
+ * the email again; when only those are left, new keys are refused with 503.
+ */
+@Component
+public class IdempotencyStore {
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyConfig config;
+    private final long waitTimeoutMs;
+    // insertion order, so the oldest key is dropped first; guarded by this
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder joined = new LongAdder();
+    private final LongAdder mismatched = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public IdempotencyStore(IdempotencyConfig config, CancellationConfig cancellationConfig) {
+        this.config = config;
+        this.waitTimeoutMs = cancellationConfig.getRequestTimeoutMs();
+    }
+
+    /**
+     * Runs {@code submit} for the first request with {@code key}, handing it the listener
+     * that keeps its outcome, and answers later requests with the same key from that
+     * outcome. Without a key the request simply runs. {@code fingerprint} is only
+     * computed for keyed requests.
+     *
+     * @throws IdempotencyException when the key is malformed, was used for a request
+     *                              with a different fingerprint, or no key can be dropped
+     *                              to make room for it
+     */
+    public <T> DeferredResult<T> execute(String key, Supplier<String> fingerprint,
+                                         Function<RequestListener<T>, DeferredResult<T>> submit) {
+        if (!config.isEnabled() || key == null || key.isBlank()) {
+            return submit.apply(null);
+        }
+        String normalized = validate(key);
+        String print = fingerprint.get();
+        requests.increment();
+
+        Entry entry;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            entry = entries.get(normalized);
+            if (entry != null && entry.isExpired(now)) {
+                entries.remove(normalized);
+                entry = null;
+            }
+            if (entry != null) {
+                if (!entry.fingerprint.equals(print)) {
+                    mismatched.increment();
+                    throw new IdempotencyException(HttpStatus.UNPROCESSABLE_CONTENT,
+                        HEADER + " " + normalized + " was already used for a different request");
+                }
+                return follow(entry);
+            }
+            if (!makeRoom(now)) {
+                rejected.increment();
+                throw new IdempotencyException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Too many " + HEADER + " requests in progress, retry later");
+            }
+            entry = new Entry(normalized, print);
+            entries.put(normalized, entry);
+        }
+
+        executed.increment();
+        try {
+            return submit.apply(entry.listener());
+        } catch (RuntimeException | Error e) {
+            entry.failed(e);
+            throw e;
+        }
+    }
+
+    public synchronized IdempotencyStats getStats() {
+        int inProgress = 0;
+        for (Entry entry : entries.values()) {
+            if (!entry.outcome.isDone()) {
+                inProgress++;
+            }
+        }
+        return new IdempotencyStats(config.isEnabled(), entries.size(), inProgress, requests.sum(), executed.sum(),
+            replayed.sum(), joined.sum(), mismatched.sum(), failed.sum(), evicted.sum(), rejected.sum());
+    }
+
+    private <T> DeferredResult<T> follow(Entry entry) {
+        if (entry.outcome.isDone()) {
+            replayed.increment();
+            logger.debug("Answering repeated request with {} {} from its stored result", HEADER, entry.key);
+        } else {
+            joined.increment();
+            logger.info("Waiting for the request with {} {} already in flight", HEADER, entry.key);
+        }
+        DeferredResult<T> result = new DeferredResult<>(waitTimeoutMs);
+        entry.outcome.whenComplete((value, error) -> {
+            if (error != null) {
+                result.setErrorResult(error);
+            } else {
+                result.setResult(entry.cast(value));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Drops expired keys from the front, then the oldest finished keys until one more
+     * fits, skipping keys in progress; returns false when it does not fit. The caller
+     * holds the lock.
+     */
+    private boolean makeRoom(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            boolean full = entries.size() >= config.getMaxEntries();
+            if (eldest.isExpired(now)) {
+                iterator.remove();
+            } else if (full && eldest.outcome.isDone()) {
+                iterator.remove();
+                evicted.increment();
+            } else if (!full) {
+                break;
+            }
+        }
+        return entries.size() < config.getMaxEntries();
+    }
+
+    private synchronized void forget(Entry entry) {
+        entries.remove(entry.key, entry);
+    }
+
+    private static String validate(String key) {
+        String trimmed = key.trim();
+        if (trimmed.length() > MAX_KEY_LENGTH || !trimmed.chars().allMatch(c -> c > 0x20 && c < 0x7f)) {
+            throw new IdempotencyException(HttpStatus.BAD_REQUEST,
+                HEADER + " must be up to " + MAX_KEY_LENGTH + " printable ASCII characters without spaces");
+        }
+        return trimmed;
+    }
+
+    private final class Entry implements RequestListener<Object> {
+        private final String key;
+        private final String fingerprint;
+        private final CompletableFuture<Object> outcome = new CompletableFuture<>();
+        private volatile long expiresAt = Long.MAX_VALUE;
+
+        private Entry(String key, String fingerprint) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> RequestListener<T> listener() {
+            return (RequestListener<T>) (RequestListener<?>) this;
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> T cast(Object value) {
+            return (T) value;
+        }
+
+        @Override
+        public void completed(Object result) {
+            expiresAt = System.currentTimeMillis() + config.getTtlMs();
+            outcome.complete(result);
+        }
+
+        @Override
+        public void failed(Throwable error) {
+            failed.increment();
+            forget(this);
+            outcome.completeExceptionally(error);
+        }
+
+        @Override
+        public boolean keepsAnswer() {
+            return true;
+        }
+    }
+
+    /**
+     * {@code requests} counts keyed requests: {@code executed} ran, {@code replayed}
+     * were answered from a finished request and {@code joined} waited for one in
+     * flight. {@code mismatched} reused a key with a different payload and were
+     * rejected; {@code failed} ran but failed, so their key was forgotten.
+     * {@code evicted} finished keys were dropped to stay within the limit, and
+     * {@code rejected} new keys were refused because every key kept was in progress.
+     */
+    public record IdempotencyStats(boolean enabled, int entries, int inProgress, long requests, long executed,
+                                   long replayed, long joined, long mismatched, long failed, long evicted,
+                                   long rejected) {
+    }
+}
@@ -0,0 +1,79 @@
+package demystified.hackathon.demo.service.idempotency;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 over the parts of a request that decide its answer, to tell a retry of a
+ * request from a different request sent with the same {@code Idempotency-Key}.
+ * Every part is length-prefixed, so {@code ("ab", "c")} and {@code ("a", "bc")} differ.
+ */
+public final class RequestFingerprint {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final MessageDigest digest;
+
+    private RequestFingerprint(MessageDigest digest) {
+        this.digest = digest;
+    }
+
+    /**
+     * Starts a fingerprint for {@code operation}, so equal payloads sent to different
+     * endpoints differ.
+     */
+    public static RequestFingerprint of(String operation) {
+        try {
+            return new RequestFingerprint(MessageDigest.getInstance("SHA-256")).add(operation);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public RequestFingerprint add(String value) {
+        if (value == null) {
+            length(-1);
+            return this;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        length(bytes.length);
+        digest.update(bytes);
+        return this;
+    }
+
+    /**
+     * Adds the content of {@code file}, read in chunks rather than loaded at once.
+     */
+    public RequestFingerprint add(MultipartFile file) {
+        if (file == null) {
+            length(-1);
+            return this;
+        }
+        length(file.getSize());
+        try (InputStream in = file.getInputStream()) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + file.getOriginalFilename(), e);
+        }
+        return this;
+    }
+
+    public String hex() {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private void length(long length) {
+        digest.update(ByteBuffer.allocate(Long.BYTES).putLong(length).array());
+    }
+}
@@ -0,0 +1,168 @@
+package demystified.hackathon.demo.service.query;
+
+import demystified.hackathon.demo.config.QueryConfig;
+import demystified.hackathon.demo.service.LatencyTracker;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Answers CSV questions in two model calls instead of one over the whole table: the
+ * model sees the schema and a few rows and writes a {@link QueryPlan}, the plan runs
+ * locally over every row, and the model explains the small result. This class owns
+ * both prompts, the mode choice and the query itself; the model calls stay in
+ * {@code WatsonxService}.
+ */
+@Component
+public class QueryEngine {
+    public static final String MODE_TABLE = "table";
+    public static final String MODE_QUERY = "query";
+    public static final String MODE_AUTO = "auto";
+
+    private static final int DISTRIBUTION_WINDOW = 1024;
+    private static final Set<String> AGGREGATION_WORDS = Set.of("total", "totals", "sum", "average", "avg", "mean",
+        "count", "many", "max", "maximum", "min", "minimum", "highest", "lowest", "top", "largest", "smallest",
+        "per", "each");
+
+    private static final String PLAN_INSTRUCTIONS = """
+        Write a query that answers the question below over the CSV table described after it. \
+        Reply with one JSON object and nothing else, leaving out the keys you do not need:
+        {"filters": [{"column": "...", "op": "eq|ne|gt|gte|lt|lte|contains", "value": "..."}], \
+        "groupBy": ["..."], \
+        "aggregates": [{"function": "count|sum|avg|min|max", "column": "...", "as": "..."}], \
+        "select": ["..."], \
+        "orderBy": [{"column": "...", "direction": "asc|desc"}], \
+        "limit": 10}
+        Use only the listed column names. Without groupBy or aggregates the matching rows are returned; \
+        orderBy may name a result column or an aggregate's "as".
+
+        Question:\s""";
+    private static final String EXPLAIN_INSTRUCTIONS = """
+
+
+        This question was answered by running the query below over all %d rows of the CSV; %d rows matched.
+        %s
+        Answer the question from the query result that follows. Do not recompute it from other data.""";
+
+    private final QueryConfig config;
+    private final QueryPlanParser parser = new QueryPlanParser();
+
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder rowsScanned = new LongAdder();
+    private final LongAdder fullTableTokens = new LongAdder();
+    private final LongAdder sentTokens = new LongAdder();
+    private final LatencyTracker executeMicros = new LatencyTracker(DISTRIBUTION_WINDOW);
+
+    public QueryEngine(QueryConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Whether {@code question} should be answered with a local query, given the mode
+     * the client asked for (null for the configured default).
+     *
+     * @throws QueryPlanException when {@code mode} is not a known mode
+     */
+    public boolean useQuery(String mode, String question) {
+        String resolved = mode != null && !mode.isBlank() ? mode.trim().toLowerCase(Locale.ROOT)
+            : config.getDefaultMode();
+        boolean query = switch (resolved) {
+            case MODE_TABLE -> false;
+            case MODE_QUERY -> true;
+            case MODE_AUTO -> isAggregationQuestion(question);
+            default -> throw new QueryPlanException("Unknown mode " + mode + "; use " + MODE_TABLE + ", "
+                + MODE_QUERY + " or " + MODE_AUTO);
+        };
+        return query && config.isEnabled();
+    }
+
+    public String getPlanProfile() {
+        return config.getPlanProfile();
+    }
+
+    /**
+     * The prompt asking for a query; {@link #describe} gives the context sent with it.
+     */
+    public String planningPrompt(String question) {
+        return PLAN_INSTRUCTIONS + question;
+    }
+
+    public String describe(QueryTable table) {
+        return table.describe(config.getSampleRows());
+    }
+
+    public QueryPlan parsePlan(String reply) {
+        return parser.parse(reply);
+    }
+
+    /**
+     * Runs {@code plan} over every row of {@code table}.
+     *
+     * @throws QueryPlanException when the plan does not fit the table
+     */
+    public QueryResult execute(QueryPlan plan, QueryTable table) {
+        long start = System.nanoTime();
+        QueryResult result = QueryExecutor.execute(plan, table, config.getMaxGroups(), config.getMaxResultRows(),
+            table.rowCount() >= config.getParallelThreshold());
+        executeMicros.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+        queries.increment();
+        rowsScanned.add(table.rowCount());
+        return result;
+    }
+
+    /**
+     * The prompt asking the model to explain {@code result}, which is sent as its context.
+     */
+    public String explanationPrompt(String question, QueryPlan plan, QueryResult result) {
+        return question + String.format(EXPLAIN_INSTRUCTIONS, result.scannedRows(), result.matchedRows(),
+            plan.describe());
+    }
+
+    /**
+     * Records what a query answer sent against what sending the table would have cost.
+     */
+    public void recordTokens(long tableTokens, long queryTokens) {
+        fullTableTokens.add(tableTokens);
+        sentTokens.add(queryTokens);
+    }
+
+    public void recordFallback() {
+        fallbacks.increment();
+    }
+
+    public QueryStats getStats() {
+        long full = fullTableTokens.sum();
+        long sent = sentTokens.sum();
+        return new QueryStats(queries.sum(), fallbacks.sum(), rowsScanned.sum(), full, sent, full - sent,
+            executeMicros.percentile(50), executeMicros.percentile(99));
+    }
+
+    /**
+     * Whether {@code question} asks for totals, counts, averages or similar over the
+     * table, which only a local query or the whole table can answer.
+     */
+    public static boolean isAggregationQuestion(String question) {
+        if (question == null) {
+            return false;
+        }
+        for (String word : question.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (AGGREGATION_WORDS.contains(word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Token counts are local estimates: {@code fullTableTokens} is what the question
+     * and the whole table would have taken, {@code sentTokens} what the two query
+     * prompts and their contexts took.
+     */
+    public record QueryStats(long queries, long fallbacks, long rowsScanned, long fullTableTokens, long sentTokens,
+                             long tokensSaved, long executeMicrosP50, long executeMicrosP99) {
+    }
+}
@@ -0,0 +1,531 @@
+package demystified.hackathon.demo.service.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.IntStream;
+
+/**
+ * Runs a {@link QueryPlan} over a {@link QueryTable}.
+ *
+ * <p>Filters are compiled to one flag per distinct value of their column, so the row
+ * scan only looks up codes. Rows are scanned in chunks of {@link #CHUNK_ROWS}: each
+ * chunk narrows a selection vector filter by filter, maps the surviving rows to group
+ * ids, and then updates one aggregate at a time over the selection. Chunks are
+ * independent and run in parallel for large tables; their partial groups are merged
+ * in chunk order, so groups keep the order in which they first appear in the file.
+ */
+final class QueryExecutor {
+    static final int CHUNK_ROWS = 4096;
+
+    private enum Op { EQ, NE, GT, GTE, LT, LTE, CONTAINS }
+
+    private enum Function { COUNT, SUM, AVG, MIN, MAX }
+
+    private final QueryPlan plan;
+    private final QueryTable table;
+    private final int maxGroups;
+    private final int limit;
+
+    private final QueryTable.Column[] filterColumns;
+    private final boolean[][] filterMatches;
+    private final QueryTable.Column[] groupColumns;
+    private final long[] groupStrides;
+    private final Function[] functions;
+    private final QueryTable.Column[] aggregateColumns;
+    private final boolean[][] presentValues;
+
+    private QueryExecutor(QueryPlan plan, QueryTable table, int maxGroups, int maxRows) {
+        this.plan = plan;
+        this.table = table;
+        this.maxGroups = maxGroups;
+        this.limit = plan.limit() != null && plan.limit() > 0 ? Math.min(plan.limit(), maxRows) : maxRows;
+
+        int filterCount = plan.filters().size();
+        filterColumns = new QueryTable.Column[filterCount];
+        filterMatches = new boolean[filterCount][];
+        for (int f = 0; f < filterCount; f++) {
+            QueryPlan.Filter filter = plan.filters().get(f);
+            filterColumns[f] = column(filter.column());
+            filterMatches[f] = compileFilter(filterColumns[f], parseOp(filter.op()), filter.value());
+        }
+
+        groupColumns = plan.groupBy().stream().map(this::column).toArray(QueryTable.Column[]::new);
+        groupStrides = new long[groupColumns.length];
+        long stride = 1;
+        for (int g = 0; g < groupColumns.length; g++) {
+            groupStrides[g] = stride;
+            try {
+                stride = Math.multiplyExact(stride, Math.max(1, groupColumns[g].dictionary.length));
+            } catch (ArithmeticException e) {
+                throw new QueryPlanException("Too many combinations of the group-by columns");
+            }
+        }
+
+        int aggregateCount = plan.aggregates().size();
+        functions = new Function[aggregateCount];
+        aggregateColumns = new QueryTable.Column[aggregateCount];
+        presentValues = new boolean[aggregateCount][];
+        for (int a = 0; a < aggregateCount; a++) {
+            QueryPlan.Aggregate aggregate = plan.aggregates().get(a);
+            functions[a] = parseFunction(aggregate.function());
+            boolean countRows = aggregate.column() == null || aggregate.column().isBlank()
+                || aggregate.column().equals("*");
+            if (countRows && functions[a] != Function.COUNT) {
+                throw new QueryPlanException(aggregate.function() + " needs a column");
+            }
+            aggregateColumns[a] = countRows ? null : column(aggregate.column());
+            if (functions[a] == Function.COUNT && !countRows) {
+                QueryTable.Column column = aggregateColumns[a];
+                presentValues[a] = new boolean[column.dictionary.length];
+                for (int code = 0; code < column.dictionary.length; code++) {
+                    presentValues[a][code] = !column.dictionary[code].isBlank();
+                }
+            } else if (functions[a] != Function.COUNT && !aggregateColumns[a].numeric) {
+                throw new QueryPlanException("Column " + aggregateColumns[a].name + " is not numeric");
+            }
+        }
+    }
+
+    /**
+     * Runs {@code plan}, returning at most {@code maxRows} rows.
+     *
+     * @throws QueryPlanException when the plan names unknown columns, operators or
+     *                            functions, or produces more than {@code maxGroups} groups
+     */
+    static QueryResult execute(QueryPlan plan, QueryTable table, int maxGroups, int maxRows, boolean parallel) {
+        QueryExecutor executor = new QueryExecutor(plan, table, maxGroups, maxRows);
+        int chunks = (table.rowCount() + CHUNK_ROWS - 1) / CHUNK_ROWS;
+        IntStream chunkIds = IntStream.range(0, chunks);
+        if (parallel) {
+            chunkIds = chunkIds.parallel();
+        }
+        List<Partial> partials = chunkIds.mapToObj(executor::scan).toList();
+        return plan.isAggregation() ? executor.aggregate(partials) : executor.project(partials);
+    }
+
+    private Partial scan(int chunk) {
+        int from = chunk * CHUNK_ROWS;
+        int to = Math.min(table.rowCount(), from + CHUNK_ROWS);
+        int[] selection = new int[to - from];
+        int selected = 0;
+        for (int row = from; row < to; row++) {
+            selection[selected++] = row;
+        }
+        for (int f = 0; f < filterColumns.length && selected > 0; f++) {
+            int[] codes = filterColumns[f].codes;
+            boolean[] matches = filterMatches[f];
+            int kept = 0;
+            for (int i = 0; i < selected; i++) {
+                int row = selection[i];
+                if (matches[codes[row]]) {
+                    selection[kept++] = row;
+                }
+            }
+            selected = kept;
+        }
+
+        Partial partial = new Partial(functions.length);
+        partial.matched = selected;
+        if (!plan.isAggregation()) {
+            partial.rows = Arrays.copyOf(selection, selected);
+            return partial;
+        }
+
+        int[] groupIds = new int[selected];
+        for (int i = 0; i < selected; i++) {
+            long key = 0;
+            for (int g = 0; g < groupColumns.length; g++) {
+                key += groupColumns[g].codes[selection[i]] * groupStrides[g];
+            }
+            groupIds[i] = partial.groups.add(key);
+        }
+        checkGroups(partial.groups.size());
+        partial.ensureCapacity(partial.groups.size());
+        for (int i = 0; i < selected; i++) {
+            partial.rowCounts[groupIds[i]]++;
+        }
+        for (int a = 0; a < functions.length; a++) {
+            QueryTable.Column column = aggregateColumns[a];
+            if (column == null) {
+                continue;
+            }
+            Accumulator accumulator = partial.accumulators[a];
+            int[] codes = column.codes;
+            if (functions[a] == Function.COUNT) {
+                boolean[] present = presentValues[a];
+                for (int i = 0; i < selected; i++) {
+                    if (present[codes[selection[i]]]) {
+                        accumulator.counts[groupIds[i]]++;
+                    }
+                }
+            } else {
+                double[] numbers = column.numbers;
+                for (int i = 0; i < selected; i++) {
+                    accumulator.add(groupIds[i], numbers[codes[selection[i]]]);
+                }
+            }
+        }
+        return partial;
+    }
+
+    private QueryResult aggregate(List<Partial> partials) {
+        Partial total = new Partial(functions.length);
+        for (Partial partial : partials) {
+            total.matched += partial.matched;
+            for (int p = 0; p < partial.groups.size(); p++) {
+                int group = total.groups.add(partial.groups.key(p));
+                checkGroups(total.groups.size());
+                total.ensureCapacity(total.groups.size());
+                total.rowCounts[group] += partial.rowCounts[p];
+                for (int a = 0; a < functions.length; a++) {
+                    total.accumulators[a].merge(group, partial.accumulators[a], p);
+                }
+            }
+        }
+        if (groupColumns.length == 0 && total.groups.size() == 0) {
+            // aggregates over no rows still produce their one row
+            total.groups.add(0);
+            total.ensureCapacity(1);
+        }
+
+        List<String> names = new ArrayList<>();
+        for (QueryTable.Column column : groupColumns) {
+            names.add(column.name);
+        }
+        for (QueryPlan.Aggregate aggregate : plan.aggregates()) {
+            names.add(aggregate.alias() != null && !aggregate.alias().isBlank()
+                ? aggregate.alias() : aggregate.describe());
+        }
+        if (plan.aggregates().isEmpty()) {
+            names.add("count");
+        }
+
+        List<ResultRow> rows = new ArrayList<>(total.groups.size());
+        for (int group = 0; group < total.groups.size(); group++) {
+            String[] cells = new String[names.size()];
+            double[] keys = new double[names.size()];
+            long key = total.groups.key(group);
+            for (int g = 0; g < groupColumns.length; g++) {
+                QueryTable.Column column = groupColumns[g];
+                int code = (int) (key / groupStrides[g] % Math.max(1, column.dictionary.length));
+                cells[g] = column.dictionary[code];
+                keys[g] = column.numbers[code];
+            }
+            for (int a = 0; a < functions.length; a++) {
+                double value = aggregateValue(a, total, group);
+                cells[groupColumns.length + a] = QueryResult.formatNumber(value);
+                keys[groupColumns.length + a] = value;
+            }
+            if (functions.length == 0) {
+                cells[groupColumns.length] = Long.toString(total.rowCounts[group]);
+                keys[groupColumns.length] = total.rowCounts[group];
+            }
+            rows.add(new ResultRow(cells, keys));
+        }
+
+        if (!plan.orderBy().isEmpty()) {
+            rows.sort(comparator(plan.orderBy().stream()
+                .map(order -> new int[]{outputIndex(names, order.column()), order.descending() ? -1 : 1})
+                .toList()));
+        }
+        List<List<String>> output = rows.stream().limit(limit).map(row -> List.of(row.cells)).toList();
+        return new QueryResult(names, output, table.rowCount(), total.matched, rows.size());
+    }
+
+    private QueryResult project(List<Partial> partials) {
+        int matched = partials.stream().mapToInt(partial -> partial.matched).sum();
+        int[] rows = new int[matched];
+        int at = 0;
+        for (Partial partial : partials) {
+            System.arraycopy(partial.rows, 0, rows, at, partial.rows.length);
+            at += partial.rows.length;
+        }
+
+        List<QueryTable.Column> selected = plan.select().isEmpty()
+            ? table.columns()
+            : plan.select().stream().map(this::column).toList();
+        int[] ordered = rows;
+        if (!plan.orderBy().isEmpty()) {
+            List<QueryTable.Column> sortColumns = plan.orderBy().stream()
+                .map(order -> column(order.column()))
+                .toList();
+            Comparator<Integer> order = null;
+            for (int o = 0; o < sortColumns.size(); o++) {
+                QueryTable.Column column = sortColumns.get(o);
+                Comparator<Integer> byColumn = (left, right) -> compareValues(column.text(left),
+                    column.number(left), column.text(right), column.number(right));
+                if (plan.orderBy().get(o).descending()) {
+                    byColumn = byColumn.reversed();
+                }
+                order = order == null ? byColumn : order.thenComparing(byColumn);
+            }
+            Comparator<Integer> rowOrder = order;
+            ordered = Arrays.stream(rows).boxed().sorted(rowOrder).mapToInt(Integer::intValue).toArray();
+        }
+
+        List<List<String>> output = new ArrayList<>(Math.min(limit, ordered.length));
+        for (int i = 0; i < Math.min(limit, ordered.length); i++) {
+            int row = ordered[i];
+            output.add(selected.stream().map(column -> column.text(row)).toList());
+        }
+        List<String> names = selected.stream().map(column -> column.name).toList();
+        return new QueryResult(names, output, table.rowCount(), matched, matched);
+    }
+
+    private double aggregateValue(int aggregate, Partial total, int group) {
+        Accumulator accumulator = total.accumulators[aggregate];
+        return switch (functions[aggregate]) {
+            case COUNT -> aggregateColumns[aggregate] == null ? total.rowCounts[group] : accumulator.counts[group];
+            case SUM -> accumulator.counts[group] > 0 ? accumulator.sums[group] + accumulator.compensations[group]
+                : Double.NaN;
+            case AVG -> accumulator.counts[group] > 0
+                ? (accumulator.sums[group] + accumulator.compensations[group]) / accumulator.counts[group]
+                : Double.NaN;
+            case MIN -> accumulator.counts[group] > 0 ? accumulator.mins[group] : Double.NaN;
+            case MAX -> accumulator.counts[group] > 0 ? accumulator.maxs[group] : Double.NaN;
+        };
+    }
+
+    private void checkGroups(int groups) {
+        if (groups > maxGroups) {
+            throw new QueryPlanException("The query produces more than " + maxGroups + " groups");
+        }
+    }
+
+    private QueryTable.Column column(String name) {
+        int index = table.indexOf(name);
+        if (index < 0) {
+            throw new QueryPlanException("Unknown column " + name);
+        }
+        return table.columns().get(index);
+    }
+
+    private static int outputIndex(List<String> names, String name) {
+        for (int i = 0; i < names.size(); i++) {
+            if (name != null && names.get(i).trim().equalsIgnoreCase(name.trim())) {
+                return i;
+            }
+        }
+        throw new QueryPlanException("Cannot order by " + name + ", which is not in the result");
+    }
+
+    private static Comparator<ResultRow> comparator(List<int[]> orders) {
+        return (left, right) -> {
+            for (int[] order : orders) {
+                int index = order[0];
+                int comparison = compareValues(left.cells[index], left.keys[index], right.cells[index],
+                    right.keys[index]);
+                if (comparison != 0) {
+                    return comparison * order[1];
+                }
+            }
+            return 0;
+        };
+    }
+
+    /**
+     * Compares numerically when both values are numbers, otherwise as text ignoring case.
+     */
+    private static int compareValues(String leftText, double leftNumber, String rightText, double rightNumber) {
+        if (!Double.isNaN(leftNumber) && !Double.isNaN(rightNumber)) {
+            return Double.compare(leftNumber, rightNumber);
+        }
+        return String.CASE_INSENSITIVE_ORDER.compare(leftText, rightText);
+    }
+
+    /**
+     * Flags the distinct values of {@code column} that pass the filter. Values are
+     * compared as numbers when both sides are numeric, otherwise as text ignoring case,
+     * so ISO dates order correctly; blank cells never pass an ordering comparison.
+     */
+    private static boolean[] compileFilter(QueryTable.Column column, Op op, String value) {
+        String operand = value != null ? value.trim().toLowerCase(Locale.ROOT) : "";
+        double target = QueryTable.parseNumber(operand);
+        boolean[] matches = new boolean[column.dictionary.length];
+        for (int code = 0; code < matches.length; code++) {
+            String text = column.lowerCase(code);
+            double number = column.numbers[code];
+            boolean numeric = !Double.isNaN(target) && !Double.isNaN(number);
+            int comparison = numeric ? Double.compare(number, target) : text.compareTo(operand);
+            boolean comparable = numeric || !text.isEmpty();
+            matches[code] = switch (op) {
+                case EQ -> comparison == 0;
+                case NE -> comparison != 0;
+                case GT -> comparable && comparison > 0;
+                case GTE -> comparable && comparison >= 0;
+                case LT -> comparable && comparison < 0;
+                case LTE -> comparable && comparison <= 0;
+                case CONTAINS -> text.contains(operand);
+            };
+        }
+        return matches;
+    }
+
+    private static Op parseOp(String op) {
+        return switch (op != null ? op.trim().toLowerCase(Locale.ROOT) : "eq") {
+            case "eq", "=", "==", "equals", "is" -> Op.EQ;
+            case "ne", "neq", "!=", "<>", "not_equals" -> Op.NE;
+            case "gt", ">" -> Op.GT;
+            case "gte", "ge", ">=" -> Op.GTE;
+            case "lt", "<" -> Op.LT;
+            case "lte", "le", "<=" -> Op.LTE;
+            case "contains", "like", "includes" -> Op.CONTAINS;
+            default -> throw new QueryPlanException("Unknown filter operator " + op);
+        };
+    }
+
+    private static Function parseFunction(String function) {
+        return switch (function != null ? function.trim().toLowerCase(Locale.ROOT) : "") {
+            case "count" -> Function.COUNT;
+            case "sum", "total" -> Function.SUM;
+            case "avg", "average", "mean" -> Function.AVG;
+            case "min", "minimum" -> Function.MIN;
+            case "max", "maximum" -> Function.MAX;
+            default -> throw new QueryPlanException("Unknown aggregate function " + function);
+        };
+    }
+
+    private record ResultRow(String[] cells, double[] keys) {
+    }
+
+    /**
+     * The groups and aggregates of one chunk, or its selected rows when the plan does
+     * not aggregate.
+     */
+    private static final class Partial {
+        final GroupIndex groups = new GroupIndex();
+        final Accumulator[] accumulators;
+        long[] rowCounts = new long[0];
+        int[] rows;
+        int matched;
+
+        Partial(int aggregates) {
+            accumulators = new Accumulator[aggregates];
+            for (int a = 0; a < aggregates; a++) {
+                accumulators[a] = new Accumulator();
+            }
+        }
+
+        void ensureCapacity(int groups) {
+            if (groups <= rowCounts.length) {
+                return;
+            }
+            int capacity = Math.max(groups, rowCounts.length * 2);
+            rowCounts = Arrays.copyOf(rowCounts, capacity);
+            for (Accumulator accumulator : accumulators) {
+                accumulator.ensureCapacity(capacity);
+            }
+        }
+    }
+
+    /**
+     * Per-group count, sum (with Neumaier compensation, so long money columns add up
+     * to the cent), minimum and maximum of the numeric values seen.
+     */
+    private static final class Accumulator {
+        long[] counts = new long[0];
+        double[] sums = new double[0];
+        double[] compensations = new double[0];
+        double[] mins = new double[0];
+        double[] maxs = new double[0];
+
+        void ensureCapacity(int capacity) {
+            int previous = counts.length;
+            counts = Arrays.copyOf(counts, capacity);
+            sums = Arrays.copyOf(sums, capacity);
+            compensations = Arrays.copyOf(compensations, capacity);
+            mins = Arrays.copyOf(mins, capacity);
+            maxs = Arrays.copyOf(maxs, capacity);
+            Arrays.fill(mins, previous, capacity, Double.POSITIVE_INFINITY);
+            Arrays.fill(maxs, previous, capacity, Double.NEGATIVE_INFINITY);
+        }
+
+        void add(int group, double value) {
+            if (Double.isNaN(value)) {
+                return;
+            }
+            counts[group]++;
+            addToSum(group, value);
+            mins[group] = Math.min(mins[group], value);
+            maxs[group] = Math.max(maxs[group], value);
+        }
+
+        void merge(int group, Accumulator other, int otherGroup) {
+            counts[group] += other.counts[otherGroup];
+            addToSum(group, other.sums[otherGroup]);
+            compensations[group] += other.compensations[otherGroup];
+            mins[group] = Math.min(mins[group], other.mins[otherGroup]);
+            maxs[group] = Math.max(maxs[group], other.maxs[otherGroup]);
+        }
+
+        private void addToSum(int group, double value) {
+            double sum = sums[group];
+            double next = sum + value;
+            compensations[group] += Math.abs(sum) >= Math.abs(value) ? (sum - next) + value : (value - next) + sum;
+            sums[group] = next;
+        }
+    }
+
+    /**
+     * Open-addressing map from a group key to a dense group id, in insertion order.
+     */
+    private static final class GroupIndex {
+        private long[] keys = new long[16];
+        private int[] slots = new int[32];
+        private int size;
+
+        GroupIndex() {
+            Arrays.fill(slots, -1);
+        }
+
+        int add(long key) {
+            int mask = slots.length - 1;
+            int slot = (int) (mix(key) & mask);
+            while (slots[slot] >= 0) {
+                if (keys[slots[slot]] == key) {
+                    return slots[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            keys[size] = key;
+            slots[slot] = size;
+            size++;
+            if (size * 2 > slots.length) {
+                rehash();
+            }
+            return size - 1;
+        }
+
+        long key(int group) {
+            return keys[group];
+        }
+
+        int size() {
+            return size;
+        }
+
+        private void rehash() {
+            slots = new int[slots.length * 2];
+            Arrays.fill(slots, -1);
+            int mask = slots.length - 1;
+            for (int group = 0; group < size; group++) {
+                int slot = (int) (mix(keys[group]) & mask);
+                while (slots[slot] >= 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = group;
+            }
+        }
+
+        private static long mix(long key) {
+            key *= 0x9E3779B97F4A7C15L;
+            return key ^ (key >>> 32);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package demystified.hackathon.demo.service.query;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A query planned by the model: rows are kept when they pass every filter, then
+ * either grouped and aggregated or returned as they are (the {@code select}ed
+ * columns, or all), sorted and limited. Column names are checked against the table
+ * only when the query runs.
+ */
+public record QueryPlan(List<Filter> filters, List<String> groupBy, List<Aggregate> aggregates, List<String> select,
+                        List<Order> orderBy, Integer limit) {
+
+    public QueryPlan {
+        filters = filters != null ? List.copyOf(filters) : List.of();
+        groupBy = groupBy != null ? List.copyOf(groupBy) : List.of();
+        aggregates = aggregates != null ? List.copyOf(aggregates) : List.of();
+        select = select != null ? List.copyOf(select) : List.of();
+        orderBy = orderBy != null ? List.copyOf(orderBy) : List.of();
+    }
+
+    public boolean isAggregation() {
+        return !groupBy.isEmpty() || !aggregates.isEmpty();
+    }
+
+    /**
+     * Describes the query in SQL-like form for the explanation prompt and the logs.
+     */
+    public String describe() {
+        StringBuilder text = new StringBuilder("SELECT ");
+        if (isAggregation()) {
+            text.append(Stream.concat(groupBy.stream(), aggregates.stream().map(Aggregate::describe))
+                .collect(Collectors.joining(", ")));
+        } else {
+            text.append(select.isEmpty() ? "*" : String.join(", ", select));
+        }
+        if (!filters.isEmpty()) {
+            text.append(" WHERE ").append(filters.stream().map(Filter::describe).collect(Collectors.joining(" AND ")));
+        }
+        if (!groupBy.isEmpty()) {
+            text.append(" GROUP BY ").append(String.join(", ", groupBy));
+        }
+        if (!orderBy.isEmpty()) {
+            text.append(" ORDER BY ").append(orderBy.stream()
+                .map(order -> order.column() + (order.descending() ? " DESC" : ""))
+                .collect(Collectors.joining(", ")));
+        }
+        if (limit != null) {
+            text.append(" LIMIT ").append(limit);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Keeps rows whose {@code column} compares to {@code value} with {@code op}: one of
+     * {@code eq}, {@code ne}, {@code gt}, {@code gte}, {@code lt}, {@code lte} or
+     * {@code contains}.
+     */
+    public record Filter(String column, String op, String value) {
+
+        String describe() {
+            return column + " " + op + " '" + value + "'";
+        }
+    }
+
+    /**
+     * {@code count}, {@code sum}, {@code avg}, {@code min} or {@code max} of
+     * {@code column}, named {@code alias} in the result. {@code count} needs no column.
+     */
+    public record Aggregate(String function, String column, String alias) {
+
+        String describe() {
+            String call = function + "(" + (column != null ? column : "*") + ")";
+            return alias != null ? call + " AS " + alias : call;
+        }
+    }
+
+    public record Order(String column, boolean descending) {
+    }
+}
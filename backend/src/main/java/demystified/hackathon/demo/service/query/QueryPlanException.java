@@ -0,0 +1,16 @@
+package demystified.hackathon.demo.service.query;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Raised when a request names an unknown answer mode, or when the model's query cannot
+ * be parsed or run against the table. The latter is handled by falling back to
+ * sending the table; the former is returned to the client as a 400.
+ */
+public class QueryPlanException extends ResponseStatusException {
+
+    public QueryPlanException(String reason) {
+        super(HttpStatus.BAD_REQUEST, reason);
+    }
+}
@@ -0,0 +1,164 @@
+package demystified.hackathon.demo.service.query;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads the query the model wrote. The reply may wrap the JSON object in prose or a
+ * code fence, so everything from the first {@code {} to the last {@code }} is parsed.
+ * A few common spellings of the keys are accepted, and a single string or object
+ * where a list is expected counts as a list of one; unknown keys are skipped.
+ */
+final class QueryPlanParser {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    QueryPlan parse(String reply) {
+        int start = reply != null ? reply.indexOf('{') : -1;
+        int end = reply != null ? reply.lastIndexOf('}') : -1;
+        if (start < 0 || end < start) {
+            throw new QueryPlanException("The model did not reply with a JSON query");
+        }
+
+        List<QueryPlan.Filter> filters = null;
+        List<String> groupBy = null;
+        List<QueryPlan.Aggregate> aggregates = null;
+        List<String> select = null;
+        List<QueryPlan.Order> orderBy = null;
+        Integer limit = null;
+        byte[] json = reply.substring(start, end + 1).getBytes(StandardCharsets.UTF_8);
+        try (JsonParser parser = mapper.createParser(json)) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "filters", "filter", "where" -> filters = readList(parser, value, this::readFilter);
+                    case "groupBy", "group_by" -> groupBy = readList(parser, value, QueryPlanParser::readName);
+                    case "aggregates", "aggregations" -> aggregates = readList(parser, value, this::readAggregate);
+                    case "select", "columns" -> select = readList(parser, value, QueryPlanParser::readName);
+                    case "orderBy", "order_by", "sort" -> orderBy = readList(parser, value, this::readOrder);
+                    case "limit" -> limit = value.isNumeric() ? parser.getIntValue() : null;
+                    default -> parser.skipChildren();
+                }
+            }
+        } catch (JacksonException e) {
+            throw new QueryPlanException("The model's query is not valid JSON: " + e.getMessage());
+        }
+        return new QueryPlan(filters, groupBy, aggregates, select, orderBy, limit);
+    }
+
+    private QueryPlan.Filter readFilter(JsonParser parser, JsonToken value) {
+        if (value != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        String column = null;
+        String op = "eq";
+        String operand = null;
+        while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "column", "field" -> column = readScalar(parser, token);
+                case "op", "operator" -> op = readScalar(parser, token);
+                case "value" -> operand = readScalar(parser, token);
+                default -> parser.skipChildren();
+            }
+        }
+        return column != null ? new QueryPlan.Filter(column, op, operand != null ? operand : "") : null;
+    }
+
+    private QueryPlan.Aggregate readAggregate(JsonParser parser, JsonToken value) {
+        if (value != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        String function = null;
+        String column = null;
+        String alias = null;
+        while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "function", "fn", "op" -> function = readScalar(parser, token);
+                case "column", "field" -> column = readScalar(parser, token);
+                case "as", "alias", "name" -> alias = readScalar(parser, token);
+                default -> parser.skipChildren();
+            }
+        }
+        return function != null ? new QueryPlan.Aggregate(function.toLowerCase(Locale.ROOT), column, alias) : null;
+    }
+
+    private QueryPlan.Order readOrder(JsonParser parser, JsonToken value) {
+        if (value == JsonToken.VALUE_STRING) {
+            // "total desc"
+            String text = parser.getString().trim();
+            int space = text.lastIndexOf(' ');
+            String direction = space > 0 ? text.substring(space + 1) : "";
+            if (direction.equalsIgnoreCase("desc") || direction.equalsIgnoreCase("asc")) {
+                return new QueryPlan.Order(text.substring(0, space).trim(), direction.equalsIgnoreCase("desc"));
+            }
+            return new QueryPlan.Order(text, false);
+        }
+        if (value != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        String column = null;
+        boolean descending = false;
+        while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "column", "field" -> column = readScalar(parser, token);
+                case "direction", "order", "dir" -> descending = "desc".equalsIgnoreCase(readScalar(parser, token));
+                case "desc", "descending" -> descending = token == JsonToken.VALUE_TRUE;
+                default -> parser.skipChildren();
+            }
+        }
+        return column != null ? new QueryPlan.Order(column, descending) : null;
+    }
+
+    private static String readName(JsonParser parser, JsonToken value) {
+        return readScalar(parser, value);
+    }
+
+    private static String readScalar(JsonParser parser, JsonToken value) {
+        if (value.isScalarValue() && value != JsonToken.VALUE_NULL) {
+            return parser.getValueAsString();
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    private static <T> List<T> readList(JsonParser parser, JsonToken value, ElementReader<T> reader) {
+        List<T> items = new ArrayList<>();
+        if (value == JsonToken.START_ARRAY) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                T item = reader.read(parser, token);
+                if (item != null) {
+                    items.add(item);
+                }
+            }
+        } else {
+            T item = reader.read(parser, value);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    @FunctionalInterface
+    private interface ElementReader<T> {
+        T read(JsonParser parser, JsonToken value);
+    }
+}
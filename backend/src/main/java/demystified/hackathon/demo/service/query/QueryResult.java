@@ -0,0 +1,50 @@
+package demystified.hackathon.demo.service.query;
+
+import demystified.hackathon.demo.service.csv.MarkdownTableSink;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+/**
+ * The outcome of a local query: the first {@code rows} of {@code resultRows} output
+ * rows, computed over {@code matchedRows} of the table's {@code scannedRows}.
+ */
+public record QueryResult(List<String> columns, List<List<String>> rows, int scannedRows, int matchedRows,
+                          int resultRows) {
+    private static final String LIMIT_NOTE = "\n_Showing the first %d of %d result rows._\n";
+
+    public String toMarkdown() {
+        StringBuilder table = new StringBuilder(64 * (rows.size() + 2));
+        MarkdownTableSink sink = new MarkdownTableSink(table);
+        appendRow(sink, columns);
+        for (List<String> row : rows) {
+            appendRow(sink, row);
+        }
+        if (resultRows > rows.size()) {
+            table.append(String.format(LIMIT_NOTE, rows.size(), resultRows));
+        }
+        return table.toString();
+    }
+
+    /**
+     * Prints whole numbers without a fraction and others rounded to four decimals.
+     */
+    static String formatNumber(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return "";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return BigDecimal.valueOf(value).setScale(4, RoundingMode.HALF_UP).stripTrailingZeros().toPlainString();
+    }
+
+    private static void appendRow(MarkdownTableSink sink, List<String> cells) {
+        for (String cell : cells) {
+            char[] chars = cell.toCharArray();
+            sink.cell(chars, 0, chars.length);
+        }
+        sink.endRow();
+    }
+}
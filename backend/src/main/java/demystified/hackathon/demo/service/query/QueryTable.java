@@ -0,0 +1,247 @@
+package demystified.hackathon.demo.service.query;
+
+import demystified.hackathon.demo.service.csv.MarkdownTableSink;
+import demystified.hackathon.demo.service.generation.TokenEstimator;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * A CSV held column by column for {@link QueryEngine}. Each column keeps its distinct
+ * values once, with their numeric value when they parse as a number, and one int code
+ * per row. Filters are evaluated once per distinct value and applied to rows by code.
+ */
+public final class QueryTable {
+    private static final Pattern NUMBER = Pattern.compile("[-+]?[$€£]?(\\d+|\\d{1,3}(,\\d{3})+)?(\\.\\d+)?");
+    private static final int EXAMPLE_VALUES = 3;
+    private static final int MAX_EXAMPLE_LENGTH = 40;
+    private static final int MAX_INITIAL_CAPACITY = 4 * 1024 * 1024;
+
+    private final List<Column> columns;
+    private final int rowCount;
+
+    QueryTable(List<Column> columns, int rowCount) {
+        this.columns = columns;
+        this.rowCount = rowCount;
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    public List<Column> columns() {
+        return columns;
+    }
+
+    /**
+     * Returns the index of the column named {@code name}, ignoring case, or -1.
+     */
+    public int indexOf(String name) {
+        if (name == null) {
+            return -1;
+        }
+        String trimmed = name.trim();
+        for (int c = 0; c < columns.size(); c++) {
+            if (columns.get(c).name.trim().equalsIgnoreCase(trimmed)) {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Renders the whole table as the markdown an upload of the CSV produces.
+     */
+    public String renderMarkdown() {
+        return renderMarkdown(rowCount);
+    }
+
+    /**
+     * Describes the table for the model: the row count, one line per column with its
+     * type and a value range or the most frequent values, then the first rows.
+     */
+    public String describe(int sampleRows) {
+        StringBuilder text = new StringBuilder(1024);
+        text.append("Rows: ").append(rowCount).append("\n\n");
+        MarkdownTableSink schema = new MarkdownTableSink(text);
+        cells(schema, "Column", "Type", "Distinct values", "Range or most frequent values");
+        for (Column column : columns) {
+            cells(schema, column.name, column.numeric ? "number" : "text",
+                Integer.toString(column.dictionary.length), column.numeric ? range(column) : examples(column));
+        }
+        int sample = Math.min(sampleRows, rowCount);
+        if (sample > 0) {
+            text.append("\nFirst ").append(sample).append(" rows:\n");
+            text.append(renderMarkdown(sample));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Estimates the tokens of {@link #renderMarkdown()} without rendering it.
+     */
+    public long estimateMarkdownTokens() {
+        // every row opens with a pipe and ends with a line break; the separator row adds "--- |" per column
+        long tokens = 2L * (rowCount + 2) + 4L * columns.size();
+        for (Column column : columns) {
+            tokens += cellTokens(column.name);
+            int[] counts = column.counts();
+            for (int code = 0; code < counts.length; code++) {
+                if (counts[code] > 0) {
+                    tokens += (long) counts[code] * cellTokens(column.dictionary[code]);
+                }
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Parses {@code text} as a plain or thousands-grouped decimal, optionally with a
+     * currency sign, returning NaN when it is not a number.
+     */
+    static double parseNumber(String text) {
+        String value = text.trim();
+        if (value.isEmpty() || value.length() > 40 || !NUMBER.matcher(value).matches()) {
+            return Double.NaN;
+        }
+        StringBuilder digits = new StringBuilder(value.length());
+        boolean hasDigit = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                hasDigit = true;
+                digits.append(c);
+            } else if (c == '-' || c == '.') {
+                digits.append(c);
+            }
+        }
+        return hasDigit ? Double.parseDouble(digits.toString()) : Double.NaN;
+    }
+
+    private String renderMarkdown(int rows) {
+        StringBuilder table = new StringBuilder((int) Math.min(MAX_INITIAL_CAPACITY,
+            16L * (rows + 1) * columns.size()));
+        MarkdownTableSink sink = new MarkdownTableSink(table);
+        char[][] scratch = {new char[256]};
+        for (Column column : columns) {
+            emit(sink, column.name, scratch);
+        }
+        sink.endRow();
+        for (int row = 0; row < rows; row++) {
+            for (Column column : columns) {
+                emit(sink, column.text(row), scratch);
+            }
+            sink.endRow();
+        }
+        return table.toString();
+    }
+
+    /**
+     * A cell's value and its closing pipe; an empty cell leaves a run of two spaces.
+     */
+    private static int cellTokens(String value) {
+        return (value.isEmpty() ? 1 : TokenEstimator.estimate(value)) + 1;
+    }
+
+    private static String range(Column column) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (double number : column.numbers) {
+            if (!Double.isNaN(number)) {
+                min = Math.min(min, number);
+                max = Math.max(max, number);
+            }
+        }
+        return QueryResult.formatNumber(min) + " to " + QueryResult.formatNumber(max);
+    }
+
+    private static String examples(Column column) {
+        int[] counts = column.counts();
+        List<String> values = new ArrayList<>(EXAMPLE_VALUES);
+        IntStream.range(0, counts.length)
+            .boxed()
+            .filter(code -> !column.dictionary[code].isBlank())
+            .sorted(Comparator.comparingInt((Integer code) -> counts[code]).reversed())
+            .limit(EXAMPLE_VALUES)
+            .forEach(code -> {
+                String value = column.dictionary[code];
+                values.add(value.length() > MAX_EXAMPLE_LENGTH
+                    ? value.substring(0, MAX_EXAMPLE_LENGTH) + "…"
+                    : value);
+            });
+        return String.join(", ", values);
+    }
+
+    private static void cells(MarkdownTableSink sink, String... values) {
+        char[][] scratch = {new char[64]};
+        for (String value : values) {
+            emit(sink, value, scratch);
+        }
+        sink.endRow();
+    }
+
+    private static void emit(MarkdownTableSink sink, String value, char[][] scratch) {
+        int length = value.length();
+        if (length > scratch[0].length) {
+            scratch[0] = new char[Math.max(length, scratch[0].length * 2)];
+        }
+        value.getChars(0, length, scratch[0], 0);
+        sink.cell(scratch[0], 0, length);
+    }
+
+    /**
+     * One column: its distinct values, their numbers (NaN when not numeric) and the
+     * code of every row. A column is numeric when every non-blank value is a number.
+     */
+    public static final class Column {
+        final String name;
+        final String[] dictionary;
+        final double[] numbers;
+        final int[] codes;
+        final boolean numeric;
+        private int[] counts;
+
+        Column(String name, String[] dictionary, double[] numbers, int[] codes, boolean numeric) {
+            this.name = name;
+            this.dictionary = dictionary;
+            this.numbers = numbers;
+            this.codes = codes;
+            this.numeric = numeric;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public boolean isNumeric() {
+            return numeric;
+        }
+
+        String text(int row) {
+            return dictionary[codes[row]];
+        }
+
+        double number(int row) {
+            return numbers[codes[row]];
+        }
+
+        String lowerCase(int code) {
+            return dictionary[code].trim().toLowerCase(Locale.ROOT);
+        }
+
+        private synchronized int[] counts() {
+            if (counts == null) {
+                int[] computed = new int[dictionary.length];
+                for (int code : codes) {
+                    computed[code]++;
+                }
+                counts = computed;
+            }
+            return counts;
+        }
+    }
+}
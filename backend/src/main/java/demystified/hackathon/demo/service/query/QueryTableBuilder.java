@@ -0,0 +1,99 @@
+package demystified.hackathon.demo.service.query;
+
+import demystified.hackathon.demo.service.csv.CsvCellSink;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects CSV cells into a {@link QueryTable}. The first row names the columns; later
+ * rows are cut or padded with empty cells to the header's width. Every column is
+ * dictionary-encoded as it is read, so each distinct value is parsed as a number once.
+ */
+public final class QueryTableBuilder implements CsvCellSink {
+    private final List<String> names = new ArrayList<>();
+    private final List<ColumnBuilder> columns = new ArrayList<>();
+    private boolean headerRead;
+    private int cellInRow;
+    private int rowCount;
+
+    @Override
+    public void cell(char[] buffer, int offset, int length) {
+        if (!headerRead) {
+            names.add(new String(buffer, offset, length));
+        } else if (cellInRow < columns.size()) {
+            columns.get(cellInRow).add(new String(buffer, offset, length));
+        }
+        cellInRow++;
+    }
+
+    @Override
+    public void endRow() {
+        if (!headerRead) {
+            headerRead = true;
+            for (int i = 0; i < names.size(); i++) {
+                columns.add(new ColumnBuilder());
+            }
+        } else {
+            for (int i = cellInRow; i < columns.size(); i++) {
+                columns.get(i).add("");
+            }
+            rowCount++;
+        }
+        cellInRow = 0;
+    }
+
+    /**
+     * Returns the collected table, or null when the CSV had no header row.
+     */
+    public QueryTable build() {
+        if (names.isEmpty()) {
+            return null;
+        }
+        List<QueryTable.Column> built = new ArrayList<>(columns.size());
+        for (int c = 0; c < columns.size(); c++) {
+            built.add(columns.get(c).build(names.get(c), rowCount));
+        }
+        return new QueryTable(built, rowCount);
+    }
+
+    private static final class ColumnBuilder {
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private int[] codes = new int[1024];
+        private int size;
+
+        void add(String value) {
+            Integer code = dictionary.get(value);
+            if (code == null) {
+                code = values.size();
+                dictionary.put(value, code);
+                values.add(value);
+            }
+            if (size == codes.length) {
+                codes = Arrays.copyOf(codes, size * 2);
+            }
+            codes[size++] = code;
+        }
+
+        QueryTable.Column build(String name, int rowCount) {
+            String[] texts = values.toArray(new String[0]);
+            double[] numbers = new double[texts.length];
+            boolean numeric = false;
+            boolean allNumeric = true;
+            for (int code = 0; code < texts.length; code++) {
+                numbers[code] = QueryTable.parseNumber(texts[code]);
+                if (!Double.isNaN(numbers[code])) {
+                    numeric = true;
+                } else if (!texts[code].isBlank()) {
+                    allNumeric = false;
+                }
+            }
+            return new QueryTable.Column(name, texts, numbers, Arrays.copyOf(codes, rowCount),
+                numeric && allNumeric);
+        }
+    }
+}
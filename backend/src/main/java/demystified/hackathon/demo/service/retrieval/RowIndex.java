@@ -0,0 +1,362 @@
+package demystified.hackathon.demo.service.retrieval;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * BM25 index over the data rows of a markdown table as rendered by
+ * {@link demystified.hackathon.demo.service.csv.MarkdownTableSink}. Rows stay in the
+ * table string and are addressed by their line offsets; the index holds only term
+ * hashes, per-row term counts and postings of (row, frequency) pairs.
+ *
+ * <p>Rows are indexed in chunks of {@link #CHUNK_ROWS}. A parallel build indexes the
+ * chunks on the common fork-join pool and concatenates their postings in chunk order,
+ * so every posting list stays sorted by row.
+ */
+public final class RowIndex {
+    static final int CHUNK_ROWS = 4096;
+
+    private final String table;
+    private final int headerEnd;
+    /** Start offset of each data row, followed by the end of the last row. */
+    private final int[] rowStarts;
+    private final int[] rowTerms;
+    private final double averageRowTerms;
+    private final TermPostings postings;
+
+    private RowIndex(String table, int headerEnd, int[] rowStarts, int[] rowTerms, TermPostings postings) {
+        this.table = table;
+        this.headerEnd = headerEnd;
+        this.rowStarts = rowStarts;
+        this.rowTerms = rowTerms;
+        this.postings = postings;
+        long totalTerms = 0;
+        for (int terms : rowTerms) {
+            totalTerms += terms;
+        }
+        this.averageRowTerms = rowTerms.length > 0 ? Math.max(1, (double) totalTerms / rowTerms.length) : 1;
+    }
+
+    public static RowIndex build(String table, boolean parallel) {
+        int headerEnd = headerEnd(table);
+        int[] rowStarts = rowStarts(table, headerEnd);
+        int rowCount = rowStarts.length - 1;
+        int[] rowTerms = new int[rowCount];
+
+        int chunks = (rowCount + CHUNK_ROWS - 1) / CHUNK_ROWS;
+        IntStream chunkIds = IntStream.range(0, chunks);
+        if (parallel) {
+            chunkIds = chunkIds.parallel();
+        }
+        // each chunk writes only its own range of rowTerms
+        List<TermPostings> parts = chunkIds
+            .mapToObj(chunk -> indexChunk(table, rowStarts, rowTerms, chunk * CHUNK_ROWS,
+                Math.min(rowCount, (chunk + 1) * CHUNK_ROWS)))
+            .toList();
+
+        TermPostings merged;
+        if (parts.isEmpty()) {
+            merged = new TermPostings(16);
+        } else if (parts.size() == 1) {
+            merged = parts.get(0);
+        } else {
+            merged = new TermPostings(parts.get(0).size * 2);
+            for (TermPostings part : parts) {
+                merged.appendAll(part);
+            }
+        }
+        return new RowIndex(table, headerEnd, rowStarts, rowTerms, merged);
+    }
+
+    /**
+     * Counts the data rows of {@code table} without indexing it.
+     */
+    public static int countRows(String table) {
+        int lines = 0;
+        for (int i = table.indexOf('\n'); i >= 0; i = table.indexOf('\n', i + 1)) {
+            lines++;
+        }
+        if (!table.isEmpty() && table.charAt(table.length() - 1) != '\n') {
+            lines++;
+        }
+        return Math.max(0, lines - 2);
+    }
+
+    public int rowCount() {
+        return rowTerms.length;
+    }
+
+    /**
+     * Returns up to {@code limit} rows sharing terms with {@code question}, best BM25
+     * score first among equals by position, as row numbers in ascending order. Returns
+     * an empty array when no row matches.
+     */
+    public int[] search(CharSequence question, int limit, double k1, double b) {
+        long[] terms = queryTerms(question);
+        float[] scores = new float[rowCount()];
+        int[] touched = new int[64];
+        int touchedCount = 0;
+
+        for (long term : terms) {
+            int slot = postings.slotOf(term);
+            if (slot < 0) {
+                continue;
+            }
+            int[] list = postings.lists[slot];
+            int length = postings.lengths[slot];
+            int documentFrequency = length / 2;
+            double idf = Math.log(1 + (rowCount() - documentFrequency + 0.5) / (documentFrequency + 0.5));
+            for (int i = 0; i < length; i += 2) {
+                int row = list[i];
+                int frequency = list[i + 1];
+                if (scores[row] == 0) {
+                    if (touchedCount == touched.length) {
+                        touched = Arrays.copyOf(touched, touchedCount * 2);
+                    }
+                    touched[touchedCount++] = row;
+                }
+                double norm = k1 * (1 - b + b * rowTerms[row] / averageRowTerms);
+                scores[row] += (float) (idf * frequency * (k1 + 1) / (frequency + norm));
+            }
+        }
+        return topRows(scores, touched, touchedCount, limit);
+    }
+
+    /**
+     * Appends the header, the separator and {@code rows} (ascending) to {@code out}.
+     */
+    public void appendRows(StringBuilder out, int[] rows) {
+        out.append(table, 0, headerEnd);
+        for (int row : rows) {
+            out.append(table, rowStarts[row], rowStarts[row + 1]);
+            if (table.charAt(rowStarts[row + 1] - 1) != '\n') {
+                out.append('\n');
+            }
+        }
+    }
+
+    private static TermPostings indexChunk(String table, int[] rowStarts, int[] rowTerms, int from, int to) {
+        TermPostings chunk = new TermPostings(4096);
+        long[][] buffer = {new long[64]};
+        int[] count = new int[1];
+        TermAnalyzer.TermSink sink = hash -> {
+            if (count[0] == buffer[0].length) {
+                buffer[0] = Arrays.copyOf(buffer[0], count[0] * 2);
+            }
+            buffer[0][count[0]++] = hash;
+        };
+
+        for (int row = from; row < to; row++) {
+            count[0] = 0;
+            rowTerms[row] = TermAnalyzer.analyze(table, rowStarts[row], rowStarts[row + 1], sink);
+            long[] terms = buffer[0];
+            Arrays.sort(terms, 0, count[0]);
+            int i = 0;
+            while (i < count[0]) {
+                int runStart = i;
+                while (i < count[0] && terms[i] == terms[runStart]) {
+                    i++;
+                }
+                chunk.add(terms[runStart], row, i - runStart);
+            }
+        }
+        return chunk;
+    }
+
+    private static long[] queryTerms(CharSequence question) {
+        long[][] buffer = {new long[16]};
+        int[] count = new int[1];
+        TermAnalyzer.analyze(question, 0, question.length(), hash -> {
+            if (TermAnalyzer.isStopWord(hash)) {
+                return;
+            }
+            if (count[0] == buffer[0].length) {
+                buffer[0] = Arrays.copyOf(buffer[0], count[0] * 2);
+            }
+            buffer[0][count[0]++] = hash;
+        });
+        return Arrays.stream(buffer[0], 0, count[0]).distinct().toArray();
+    }
+
+    /**
+     * Keeps the {@code limit} best of the touched rows in a min-heap whose root is the
+     * weakest row kept, then returns them in row order.
+     */
+    private static int[] topRows(float[] scores, int[] touched, int touchedCount, int limit) {
+        if (touchedCount <= limit) {
+            int[] rows = Arrays.copyOf(touched, touchedCount);
+            Arrays.sort(rows);
+            return rows;
+        }
+        int[] heap = new int[limit];
+        int size = 0;
+        for (int i = 0; i < touchedCount; i++) {
+            int row = touched[i];
+            if (size < limit) {
+                heap[size] = row;
+                int child = size++;
+                while (child > 0 && weaker(scores, heap[child], heap[(child - 1) / 2])) {
+                    swap(heap, child, (child - 1) / 2);
+                    child = (child - 1) / 2;
+                }
+            } else if (weaker(scores, heap[0], row)) {
+                heap[0] = row;
+                int parent = 0;
+                while (true) {
+                    int weakest = parent;
+                    int left = 2 * parent + 1;
+                    if (left < size && weaker(scores, heap[left], heap[weakest])) {
+                        weakest = left;
+                    }
+                    if (left + 1 < size && weaker(scores, heap[left + 1], heap[weakest])) {
+                        weakest = left + 1;
+                    }
+                    if (weakest == parent) {
+                        break;
+                    }
+                    swap(heap, parent, weakest);
+                    parent = weakest;
+                }
+            }
+        }
+        Arrays.sort(heap);
+        return heap;
+    }
+
+    private static boolean weaker(float[] scores, int row, int other) {
+        return scores[row] < scores[other] || (scores[row] == scores[other] && row > other);
+    }
+
+    private static void swap(int[] values, int i, int j) {
+        int value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+    }
+
+    private static int headerEnd(String table) {
+        int headerLine = table.indexOf('\n');
+        int separatorLine = headerLine >= 0 ? table.indexOf('\n', headerLine + 1) : -1;
+        return separatorLine >= 0 ? separatorLine + 1 : table.length();
+    }
+
+    private static int[] rowStarts(String table, int headerEnd) {
+        int[] starts = new int[1024];
+        int count = 0;
+        int position = headerEnd;
+        while (position < table.length()) {
+            if (count + 1 >= starts.length) {
+                starts = Arrays.copyOf(starts, starts.length * 2);
+            }
+            starts[count++] = position;
+            int lineEnd = table.indexOf('\n', position);
+            position = lineEnd < 0 ? table.length() : lineEnd + 1;
+        }
+        starts[count] = table.length();
+        return Arrays.copyOf(starts, count + 1);
+    }
+
+    /**
+     * Open-addressing map from term hash to a growable list of (row, frequency) pairs.
+     */
+    private static final class TermPostings {
+        private long[] keys;
+        private int[][] lists;
+        private int[] lengths;
+        private int size;
+
+        TermPostings(int expectedTerms) {
+            int capacity = Integer.highestOneBit(Math.max(16, expectedTerms) * 2 - 1) << 1;
+            keys = new long[capacity];
+            lists = new int[capacity][];
+            lengths = new int[capacity];
+        }
+
+        void add(long term, int row, int frequency) {
+            int slot = insert(term);
+            append(slot, row, frequency);
+        }
+
+        void appendAll(TermPostings other) {
+            for (int i = 0; i < other.keys.length; i++) {
+                if (other.lists[i] == null) {
+                    continue;
+                }
+                int slot = insert(other.keys[i]);
+                int length = lengths[slot] + other.lengths[i];
+                if (length > lists[slot].length) {
+                    lists[slot] = Arrays.copyOf(lists[slot], Math.max(length, lists[slot].length * 2));
+                }
+                System.arraycopy(other.lists[i], 0, lists[slot], lengths[slot], other.lengths[i]);
+                lengths[slot] = length;
+            }
+        }
+
+        int slotOf(long term) {
+            int mask = keys.length - 1;
+            for (int slot = mix(term) & mask; lists[slot] != null; slot = (slot + 1) & mask) {
+                if (keys[slot] == term) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        private int insert(long term) {
+            int mask = keys.length - 1;
+            int slot = mix(term) & mask;
+            while (lists[slot] != null) {
+                if (keys[slot] == term) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+                return insert(term);
+            }
+            keys[slot] = term;
+            lists[slot] = new int[4];
+            size++;
+            return slot;
+        }
+
+        private void append(int slot, int row, int frequency) {
+            int[] list = lists[slot];
+            int length = lengths[slot];
+            if (length + 2 > list.length) {
+                list = Arrays.copyOf(list, list.length * 2);
+                lists[slot] = list;
+            }
+            list[length] = row;
+            list[length + 1] = frequency;
+            lengths[slot] = length + 2;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[][] oldLists = lists;
+            int[] oldLengths = lengths;
+            keys = new long[oldKeys.length * 2];
+            lists = new int[oldKeys.length * 2][];
+            lengths = new int[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldLists[i] == null) {
+                    continue;
+                }
+                int slot = mix(oldKeys[i]) & mask;
+                while (lists[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                lists[slot] = oldLists[i];
+                lengths[slot] = oldLengths[i];
+            }
+        }
+
+        private static int mix(long hash) {
+            return (int) (hash ^ (hash >>> 32));
+        }
+    }
+}
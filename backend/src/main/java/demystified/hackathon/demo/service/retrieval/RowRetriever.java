@@ -0,0 +1,109 @@
+package demystified.hackathon.demo.service.retrieval;
+
+import demystified.hackathon.demo.config.RetrievalConfig;
+import demystified.hackathon.demo.service.LatencyTracker;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cuts a large CSV table down to the rows relevant to the question before it is sent
+ * to the model. The rows are indexed with {@link RowIndex} for this one request and
+ * the {@code topK} best matches are kept in their original order, under the header.
+ * Aggregate questions, such as totals by region, and questions that match no row keep
+ * the full table, which the generation planner may still truncate: a total computed
+ * over the best matching rows would be wrong.
+ */
+@Component
+public class RowRetriever {
+    private static final String SELECTION_NOTE = "\n_Showing the %d of %d rows most relevant to the question._\n";
+    private static final int DISTRIBUTION_WINDOW = 1024;
+
+    private final RetrievalConfig config;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder retrieved = new LongAdder();
+    private final LongAdder belowMinRows = new LongAdder();
+    private final LongAdder noMatch = new LongAdder();
+    private final LongAdder aggregations = new LongAdder();
+    private final LongAdder rowsIndexed = new LongAdder();
+    private final LongAdder rowsSent = new LongAdder();
+    private final LatencyTracker buildMillis = new LatencyTracker(DISTRIBUTION_WINDOW);
+    private final LatencyTracker searchMicros = new LatencyTracker(DISTRIBUTION_WINDOW);
+
+    public RowRetriever(RetrievalConfig config) {
+        this.config = config;
+    }
+
+    public RowSelection select(String question, String table) {
+        return select(question, table, false);
+    }
+
+    /**
+     * Selects the rows of {@code table} relevant to {@code question}, keeping all of
+     * them when {@code aggregation} says the question needs every row.
+     */
+    public RowSelection select(String question, String table, boolean aggregation) {
+        if (!config.isEnabled() || table == null || table.isEmpty() || question == null || question.isBlank()) {
+            return RowSelection.unchanged(table, 0);
+        }
+        requests.increment();
+        int rows = RowIndex.countRows(table);
+        if (aggregation) {
+            aggregations.increment();
+            return RowSelection.unchanged(table, rows);
+        }
+        if (rows < config.getMinRows() || rows <= config.getTopK()) {
+            belowMinRows.increment();
+            return RowSelection.unchanged(table, rows);
+        }
+
+        long start = System.nanoTime();
+        RowIndex index = RowIndex.build(table, rows >= config.getParallelThreshold());
+        long built = System.nanoTime();
+        int[] selected = index.search(question, config.getTopK(), config.getK1(), config.getB());
+        buildMillis.record(TimeUnit.NANOSECONDS.toMillis(built - start));
+        searchMicros.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - built));
+
+        if (selected.length == 0) {
+            noMatch.increment();
+            return RowSelection.unchanged(table, rows);
+        }
+        retrieved.increment();
+        rowsIndexed.add(rows);
+        rowsSent.add(selected.length);
+
+        StringBuilder context = new StringBuilder();
+        index.appendRows(context, selected);
+        context.append(String.format(SELECTION_NOTE, selected.length, rows));
+        return new RowSelection(context.toString(), rows, selected.length);
+    }
+
+    public RetrievalStats getStats() {
+        return new RetrievalStats(requests.sum(), retrieved.sum(), belowMinRows.sum(), noMatch.sum(),
+            aggregations.sum(), rowsIndexed.sum(), rowsSent.sum(), buildMillis.percentile(50), buildMillis.percentile(99),
+            searchMicros.percentile(50), searchMicros.percentile(99));
+    }
+
+    /**
+     * The table to send and how many of its {@code totalRows} data rows it keeps.
+     */
+    public record RowSelection(String table, int totalRows, int selectedRows) {
+        static RowSelection unchanged(String table, int rows) {
+            return new RowSelection(table, rows, rows);
+        }
+
+        public boolean reduced() {
+            return selectedRows < totalRows;
+        }
+    }
+
+    /**
+     * Percentiles cover the most recent retrievals and are -1 before the first one.
+     */
+    public record RetrievalStats(long requests, long retrieved, long belowMinRows, long noMatch,
+                                 long aggregations, long rowsIndexed, long rowsSent, long indexBuildMsP50, long indexBuildMsP99,
+                                 long searchMicrosP50, long searchMicrosP99) {
+    }
+}
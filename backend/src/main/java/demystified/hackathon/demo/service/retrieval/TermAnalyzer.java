@@ -0,0 +1,120 @@
+package demystified.hackathon.demo.service.retrieval;
+
+import java.util.Arrays;
+
+/**
+ * Splits text into lower-case words of letters and digits and hands each one to a
+ * {@link TermSink} as a 64-bit FNV-1a hash, so indexing a row creates no String per
+ * word. A plural {@code s} is dropped from words longer than three letters, so
+ * "refunds" matches "refund". A date written as {@code yyyy-mm} or {@code yyyy/mm}
+ * also yields the English name of its month, so "March" in a question matches
+ * {@code 2024-03-15} in a row.
+ */
+final class TermAnalyzer {
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private static final long[] MONTHS = hashAll("january", "february", "march", "april", "may", "june", "july",
+        "august", "september", "october", "november", "december");
+
+    /** Question words that say nothing about which rows are wanted; sorted for binary search. */
+    private static final long[] STOP_WORDS = sorted(hashAll("a", "about", "all", "an", "and", "any", "are", "as",
+        "at", "be", "by", "did", "do", "does", "for", "from", "happened", "has", "have", "how", "in", "is", "it",
+        "list", "me", "of", "on", "or", "show", "tell", "that", "the", "there", "this", "to", "was", "were",
+        "what", "when", "where", "which", "who", "why", "with"));
+
+    @FunctionalInterface
+    interface TermSink {
+        void term(long hash);
+    }
+
+    private TermAnalyzer() {
+    }
+
+    /**
+     * Analyzes {@code text} between {@code from} (inclusive) and {@code to} (exclusive)
+     * and returns the number of terms emitted.
+     */
+    static int analyze(CharSequence text, int from, int to, TermSink sink) {
+        int count = 0;
+        int i = from;
+        while (i < to) {
+            char c = text.charAt(i);
+            if (!Character.isLetterOrDigit(c)) {
+                i++;
+                continue;
+            }
+            int start = i;
+            boolean numeric = true;
+            long hash = FNV_OFFSET;
+            long withoutLast = hash;
+            char previous = 0;
+            char last = 0;
+            while (i < to && Character.isLetterOrDigit(c = text.charAt(i))) {
+                numeric &= isDigit(c);
+                withoutLast = hash;
+                previous = last;
+                last = Character.toLowerCase(c);
+                hash = (hash ^ last) * FNV_PRIME;
+                i++;
+            }
+            boolean plural = i - start > 3 && last == 's' && previous != 's';
+            sink.term(plural ? withoutLast : hash);
+            count++;
+            if (numeric && i - start == 4) {
+                int month = monthAfterYear(text, i, to);
+                if (month > 0) {
+                    sink.term(MONTHS[month - 1]);
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    static boolean isStopWord(long hash) {
+        return Arrays.binarySearch(STOP_WORDS, hash) >= 0;
+    }
+
+    /**
+     * Returns the term of a single word, as {@link #analyze} would emit it.
+     */
+    static long hash(String word) {
+        long[] term = {0};
+        analyze(word, 0, word.length(), hash -> term[0] = hash);
+        return term[0];
+    }
+
+    /**
+     * Returns the month (1-12) written right after the year ending at {@code i}, or 0.
+     */
+    private static int monthAfterYear(CharSequence text, int i, int to) {
+        if (i + 3 > to || (text.charAt(i) != '-' && text.charAt(i) != '/')) {
+            return 0;
+        }
+        char tens = text.charAt(i + 1);
+        char ones = text.charAt(i + 2);
+        if (!isDigit(tens) || !isDigit(ones) || (i + 3 < to && isDigit(text.charAt(i + 3)))) {
+            return 0;
+        }
+        int month = (tens - '0') * 10 + (ones - '0');
+        return month >= 1 && month <= 12 ? month : 0;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static long[] hashAll(String... words) {
+        long[] hashes = new long[words.length];
+        for (int i = 0; i < words.length; i++) {
+            hashes[i] = hash(words[i]);
+        }
+        return hashes;
+    }
+
+    private static long[] sorted(long[] values) {
+        Arrays.sort(values);
+        return values;
+    }
+}
@@ -0,0 +1,47 @@
+package demystified.hackathon.demo.service.scheduling;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Locale;
+
+/**
+ * Priority classes of prompt work, highest first. The endpoint picks a default lane
+ * and a client may name another in the {@value #HEADER} header.
+ */
+public enum Lane {
+    INTERACTIVE("interactive"),
+    CSV("csv"),
+    BATCH("batch");
+
+    public static final String HEADER = "X-Priority";
+
+    private final String key;
+
+    Lane(String key) {
+        this.key = key;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    /**
+     * Returns the lane named by {@code header}, or {@code defaultLane} when it is blank.
+     *
+     * @throws ResponseStatusException 400 when the header names no lane
+     */
+    public static Lane resolve(String header, Lane defaultLane) {
+        if (header == null || header.isBlank()) {
+            return defaultLane;
+        }
+        String key = header.trim().toLowerCase(Locale.ROOT);
+        for (Lane lane : values()) {
+            if (lane.key.equals(key)) {
+                return lane;
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+            "Unknown " + HEADER + " " + header + "; use interactive, csv or batch");
+    }
+}
@@ -0,0 +1,15 @@
+package demystified.hackathon.demo.service.scheduling;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Raised when a lane's queue is full, so the client backs off and retries instead of
+ * waiting behind work that would not start for a long time.
+ */
+public class LaneFullException extends ResponseStatusException {
+
+    public LaneFullException(Lane lane) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Too many " + lane.key() + " requests queued, please retry");
+    }
+}
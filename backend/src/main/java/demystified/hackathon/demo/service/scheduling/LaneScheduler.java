@@ -0,0 +1,290 @@
+package demystified.hackathon.demo.service.scheduling;
+
+import demystified.hackathon.demo.config.LaneConfig;
+import demystified.hackathon.demo.service.LatencyTracker;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Keeps interactive prompts responsive while CSV analyses and batch work run. Every
+ * {@link Lane} has its own bounded worker pool, so a burst in one lane queues or is
+ * rejected without taking threads from the others, and watsonx calls pass through a
+ * shared gate where each lane holds at most its share of the upstream slots.
+ *
+ * <p>A free slot goes to the highest-priority lane with a call waiting and room in its
+ * share. Running calls are never preempted; instead a lane whose oldest waiting call
+ * has waited past the starvation threshold is served first, so low-priority work
+ * still progresses while the interactive lane is busy.
+ */
+@Component
+public class LaneScheduler {
+    private static final ThreadLocal<Lane> CURRENT = new ThreadLocal<>();
+    private static final int DISTRIBUTION_WINDOW = 1024;
+
+    private final LaneConfig config;
+    private final int upstreamLimit;
+    private final long starvationThresholdNanos;
+    private final Map<Lane, LaneState> lanes = new EnumMap<>(Lane.class);
+    private int upstreamInUse;
+
+    public LaneScheduler(LaneConfig config) {
+        this.config = config;
+        this.upstreamLimit = Math.max(1, config.getUpstreamMaxConcurrent());
+        this.starvationThresholdNanos = TimeUnit.MILLISECONDS.toNanos(config.getStarvationThresholdMs());
+        for (Lane lane : Lane.values()) {
+            lanes.put(lane, new LaneState(lane, settingsFor(lane)));
+        }
+    }
+
+    /**
+     * Returns the lane of the work running on this thread; work outside any lane,
+     * such as warm-up calls, counts as interactive.
+     */
+    public static Lane currentLane() {
+        Lane lane = CURRENT.get();
+        return lane != null ? lane : Lane.INTERACTIVE;
+    }
+
+    /**
+     * Queues {@code task} on the workers of {@code lane}. With lanes disabled every
+     * lane shares the interactive workers.
+     *
+     * @throws LaneFullException when the lane's queue is full
+     */
+    public Future<?> submit(Lane lane, Runnable task) {
+        LaneState state = lanes.get(config.isEnabled() ? lane : Lane.INTERACTIVE);
+        long queuedAt = System.nanoTime();
+        try {
+            Future<?> future = state.executor.submit(() -> {
+                state.queueMillis.record(elapsedMillis(queuedAt));
+                callInLane(lane, () -> {
+                    task.run();
+                    return null;
+                });
+            });
+            state.submitted.increment();
+            return future;
+        } catch (RejectedExecutionException e) {
+            state.rejected.increment();
+            throw new LaneFullException(lane);
+        }
+    }
+
+    /**
+     * Runs {@code work} on the calling thread as work of {@code lane}.
+     */
+    public <T> T callInLane(Lane lane, Supplier<T> work) {
+        Lane previous = CURRENT.get();
+        CURRENT.set(lane);
+        try {
+            return work.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * Runs an upstream call for the current lane once an upstream slot is free for it.
+     * The wait is interruptible, so a cancelled request stops waiting.
+     */
+    public <T> T callUpstream(Supplier<T> call) {
+        if (!config.isEnabled()) {
+            return call.get();
+        }
+        LaneState state = lanes.get(currentLane());
+        long start = System.nanoTime();
+        acquire(state);
+        state.upstreamWaitMillis.record(elapsedMillis(start));
+        try {
+            return call.get();
+        } finally {
+            release(state);
+        }
+    }
+
+    public synchronized LaneSchedulerStats getStats() {
+        List<LaneStats> stats = new ArrayList<>(lanes.size());
+        for (LaneState state : lanes.values()) {
+            stats.add(state.snapshot());
+        }
+        return new LaneSchedulerStats(config.isEnabled(), upstreamLimit, upstreamInUse, stats);
+    }
+
+    private synchronized void acquire(LaneState state) {
+        Waiter waiter = new Waiter(System.nanoTime());
+        state.waiters.add(waiter);
+        grant();
+        try {
+            while (!waiter.granted) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            if (waiter.granted) {
+                releaseSlot(state);
+            } else {
+                state.waiters.remove(waiter);
+            }
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an upstream slot", e);
+        }
+    }
+
+    private synchronized void release(LaneState state) {
+        releaseSlot(state);
+    }
+
+    private void releaseSlot(LaneState state) {
+        state.upstreamInUse--;
+        upstreamInUse--;
+        grant();
+    }
+
+    /**
+     * Hands free slots to waiting calls; the caller holds the lock.
+     */
+    private void grant() {
+        boolean granted = false;
+        while (upstreamInUse < upstreamLimit) {
+            LaneState next = nextLane(System.nanoTime());
+            if (next == null) {
+                break;
+            }
+            next.waiters.poll().granted = true;
+            next.upstreamInUse++;
+            next.upstreamCalls++;
+            upstreamInUse++;
+            granted = true;
+        }
+        if (granted) {
+            notifyAll();
+        }
+    }
+
+    private LaneState nextLane(long now) {
+        LaneState first = null;
+        LaneState starved = null;
+        long starvedSince = Long.MAX_VALUE;
+        // EnumMap iterates in declaration order, i.e. by priority
+        for (LaneState state : lanes.values()) {
+            if (state.waiters.isEmpty() || state.upstreamInUse >= state.upstreamCap) {
+                continue;
+            }
+            if (first == null) {
+                first = state;
+            }
+            long waitingSince = state.waiters.peek().enqueuedNanos;
+            if (now - waitingSince >= starvationThresholdNanos && waitingSince < starvedSince) {
+                starved = state;
+                starvedSince = waitingSince;
+            }
+        }
+        if (starved != null && starved != first) {
+            starved.starvationGrants++;
+            return starved;
+        }
+        return first;
+    }
+
+    private LaneConfig.Lane settingsFor(Lane lane) {
+        return switch (lane) {
+            case INTERACTIVE -> config.getInteractive();
+            case CSV -> config.getCsv();
+            case BATCH -> config.getBatch();
+        };
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static ThreadFactory laneThreadFactory(Lane lane) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "lane-" + lane.key() + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // no shutdownNow: an interrupt outside the model call could break a history write
+        for (LaneState state : lanes.values()) {
+            state.executor.shutdown();
+        }
+    }
+
+    private static final class Waiter {
+        private final long enqueuedNanos;
+        private boolean granted;
+
+        private Waiter(long enqueuedNanos) {
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+
+    private final class LaneState {
+        private final Lane lane;
+        private final ThreadPoolExecutor executor;
+        private final int upstreamCap;
+        private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+        private final LongAdder submitted = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LatencyTracker queueMillis = new LatencyTracker(DISTRIBUTION_WINDOW);
+        private final LatencyTracker upstreamWaitMillis = new LatencyTracker(DISTRIBUTION_WINDOW);
+        // guarded by the scheduler's lock
+        private int upstreamInUse;
+        private long upstreamCalls;
+        private long starvationGrants;
+
+        private LaneState(Lane lane, LaneConfig.Lane settings) {
+            this.lane = lane;
+            int threads = Math.max(1, settings.getThreads());
+            this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, settings.getQueueCapacity())), laneThreadFactory(lane));
+            this.upstreamCap = (int) Math.max(1, Math.min(upstreamLimit, Math.round(settings.getUpstreamShare()
+                * upstreamLimit)));
+        }
+
+        LaneStats snapshot() {
+            return new LaneStats(lane.key(), executor.getMaximumPoolSize(), executor.getActiveCount(),
+                executor.getQueue().size(), submitted.sum(), rejected.sum(), upstreamCap, upstreamInUse,
+                waiters.size(), upstreamCalls, starvationGrants, queueMillis.percentile(50),
+                queueMillis.percentile(99), upstreamWaitMillis.percentile(50), upstreamWaitMillis.percentile(99));
+        }
+    }
+
+    /**
+     * {@code queueMs} is the time from submission until a lane worker picked the work
+     * up, {@code upstreamWaitMs} the time a model call waited for an upstream slot;
+     * percentiles cover recent requests and are -1 before the first.
+     */
+    public record LaneStats(String lane, int threads, int active, int queued, long submitted, long rejected,
+                            int upstreamCap, int upstreamInUse, int upstreamWaiting, long upstreamCalls,
+                            long starvationGrants, long queueMsP50, long queueMsP99, long upstreamWaitMsP50,
+                            long upstreamWaitMsP99) {
+    }
+
+    public record LaneSchedulerStats(boolean enabled, int upstreamMaxConcurrent, int upstreamInUse,
+                                     List<LaneStats> lanes) {
+    }
+}
@@ -0,0 +1,55 @@
+package demystified.hackathon.demo.service.usage;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running totals for one {@link UsageKey}. Recording only touches {@link LongAdder}s,
+ * which spread concurrent updates over striped cells instead of contending on one
+ * value. The flusher takes the change since its previous flush, so updates racing
+ * with a flush are carried into the next one rather than lost.
+ */
+final class UsageCounters {
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder promptTokens = new LongAdder();
+    private final LongAdder completionTokens = new LongAdder();
+    private final LongAdder latencyMs = new LongAdder();
+
+    private long flushedRequests;
+    private long flushedPromptTokens;
+    private long flushedCompletionTokens;
+    private long flushedLatencyMs;
+
+    void add(int prompt, int completion, long latency) {
+        requests.increment();
+        promptTokens.add(prompt);
+        completionTokens.add(completion);
+        latencyMs.add(latency);
+    }
+
+    /**
+     * Returns the usage recorded since the last call, or null if there was none.
+     */
+    synchronized UsageRow takeDelta(long bucketStart, UsageKey key) {
+        UsageRow delta = peekDelta(bucketStart, key);
+        if (delta != null) {
+            flushedRequests += delta.requests();
+            flushedPromptTokens += delta.promptTokens();
+            flushedCompletionTokens += delta.completionTokens();
+            flushedLatencyMs += delta.latencyMs();
+        }
+        return delta;
+    }
+
+    /**
+     * Returns the usage recorded since the last {@link #takeDelta}, or null if there was none.
+     */
+    synchronized UsageRow peekDelta(long bucketStart, UsageKey key) {
+        long requestDelta = requests.sum() - flushedRequests;
+        if (requestDelta == 0) {
+            return null;
+        }
+        return new UsageRow(bucketStart, key.email(), key.modelId(), key.csvName(), requestDelta,
+            promptTokens.sum() - flushedPromptTokens, completionTokens.sum() - flushedCompletionTokens,
+            latencyMs.sum() - flushedLatencyMs);
+    }
+}
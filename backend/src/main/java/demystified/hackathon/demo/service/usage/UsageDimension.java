@@ -0,0 +1,16 @@
+package demystified.hackathon.demo.service.usage;
+
+import java.util.Locale;
+
+/**
+ * Dimensions usage rollups can be grouped by.
+ */
+public enum UsageDimension {
+    USER,
+    MODEL,
+    CSV;
+
+    public static UsageDimension parse(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,7 @@
+package demystified.hackathon.demo.service.usage;
+
+/**
+ * Aggregation key of the usage counters. {@code csvName} is null for plain prompts.
+ */
+record UsageKey(String email, String modelId, String csvName) {
+}
@@ -0,0 +1,158 @@
+package demystified.hackathon.demo.service.usage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Append-only text file of flushed usage rows, one tab-separated row per line:
+ * {@code bucketStart, email, modelId, csvName, requests, promptTokens,
+ * completionTokens, latencyMs}. A line cut short by a crash is truncated away on open.
+ */
+final class UsageLog implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(UsageLog.class);
+
+    private static final char SEPARATOR = '\t';
+    private static final int FIELDS = 8;
+
+    private final FileChannel channel;
+    private final Writer writer;
+
+    private UsageLog(FileChannel channel) {
+        this.channel = channel;
+        this.writer = Channels.newWriter(channel, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Opens or creates the log at {@code file}, passing every complete row to {@code visitor}.
+     */
+    static UsageLog open(Path file, Consumer<UsageRow> visitor) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            truncateTornTail(channel);
+            load(file, visitor);
+            channel.position(channel.size());
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return new UsageLog(channel);
+    }
+
+    void append(List<UsageRow> rows) throws IOException {
+        StringBuilder lines = new StringBuilder(rows.size() * 96);
+        for (UsageRow row : rows) {
+            lines.append(row.bucketStart()).append(SEPARATOR);
+            appendText(lines, row.email());
+            appendText(lines, row.modelId());
+            appendText(lines, row.csvName());
+            lines.append(row.requests()).append(SEPARATOR)
+                .append(row.promptTokens()).append(SEPARATOR)
+                .append(row.completionTokens()).append(SEPARATOR)
+                .append(row.latencyMs()).append('\n');
+        }
+        writer.write(lines.toString());
+        writer.flush();
+    }
+
+    long size() throws IOException {
+        return channel.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private static void load(Path file, Consumer<UsageRow> visitor) throws IOException {
+        int skipped = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                UsageRow row = parse(line);
+                if (row != null) {
+                    visitor.accept(row);
+                } else if (!line.isEmpty()) {
+                    skipped++;
+                }
+            }
+        }
+        if (skipped > 0) {
+            logger.warn("Skipped {} malformed usage log lines in {}", skipped, file);
+        }
+    }
+
+    /**
+     * Cuts the file back to just after its last newline.
+     */
+    private static void truncateTornTail(FileChannel channel) throws IOException {
+        long end = channel.size();
+        ByteBuffer chunk = ByteBuffer.allocate(4096);
+        long position = end;
+        while (position > 0) {
+            int length = (int) Math.min(chunk.capacity(), position);
+            position -= length;
+            chunk.clear().limit(length);
+            while (chunk.hasRemaining()) {
+                if (channel.read(chunk, position + chunk.position()) < 0) {
+                    throw new IOException("Unexpected end of usage log");
+                }
+            }
+            for (int i = length - 1; i >= 0; i--) {
+                if (chunk.get(i) == '\n') {
+                    long validEnd = position + i + 1;
+                    if (validEnd < end) {
+                        logger.warn("Truncating {} bytes of incomplete usage log line", end - validEnd);
+                        channel.truncate(validEnd);
+                    }
+                    return;
+                }
+            }
+        }
+        if (end > 0) {
+            channel.truncate(0);
+        }
+    }
+
+    private static UsageRow parse(String line) {
+        String[] fields = line.split(String.valueOf(SEPARATOR), -1);
+        if (fields.length != FIELDS) {
+            return null;
+        }
+        try {
+            return new UsageRow(Long.parseLong(fields[0]), textOrNull(fields[1]), textOrNull(fields[2]),
+                textOrNull(fields[3]), Long.parseLong(fields[4]), Long.parseLong(fields[5]),
+                Long.parseLong(fields[6]), Long.parseLong(fields[7]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static void appendText(StringBuilder line, String value) {
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                line.append(c == SEPARATOR || c == '\n' || c == '\r' ? ' ' : c);
+            }
+        }
+        line.append(SEPARATOR);
+    }
+
+    private static String textOrNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,261 @@
+package demystified.hackathon.demo.service.usage;
+
+import demystified.hackathon.demo.config.UsageConfig;
+import demystified.hackathon.demo.service.chat.TokenUsage;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Meters watsonx token usage per user, model and CSV file. {@link #record} only
+ * looks up the key's counters and adds to them without locking; a background task
+ * flushes the change since the previous flush to the {@link UsageLog} as one row per
+ * key and keeps the rows of the retention window in memory for rollups.
+ */
+@Component
+public class UsageMeter {
+    private static final Logger logger = LoggerFactory.getLogger(UsageMeter.class);
+
+    static final String LOG_FILE_NAME = "usage.log";
+    static final String ANONYMOUS = "anonymous";
+    static final String OTHER = "(other)";
+
+    private static final UsageKey OVERFLOW_KEY = new UsageKey(OTHER, OTHER, null);
+
+    private final UsageConfig config;
+    private final Map<UsageKey, UsageCounters> counters = new ConcurrentHashMap<>();
+    private final Deque<UsageRow> flushedRows = new ArrayDeque<>();
+    private final UsageLog log;
+    private final ScheduledExecutorService flusher;
+    private final Object flushLock = new Object();
+
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+
+    private volatile long bucketStart = System.currentTimeMillis();
+
+    public UsageMeter(UsageConfig config) {
+        this.config = config;
+        if (!config.isEnabled()) {
+            this.log = null;
+            this.flusher = null;
+            return;
+        }
+
+        try {
+            Path directory = Path.of(config.getDirectory());
+            Files.createDirectories(directory);
+            long retainFrom = System.currentTimeMillis() - config.getRetentionMs();
+            this.log = UsageLog.open(directory.resolve(LOG_FILE_NAME), row -> {
+                if (row.bucketStart() >= retainFrom) {
+                    flushedRows.addLast(row);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open usage log in " + config.getDirectory(), e);
+        }
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "usage-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = config.getFlushIntervalMs();
+        flusher.scheduleAtFixedRate(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records one watsonx call. {@code csvName} is null for prompts without a CSV.
+     */
+    public void record(String email, String modelId, String csvName, TokenUsage usage, long latencyMs) {
+        if (log == null) {
+            return;
+        }
+        UsageKey key = new UsageKey(normalizeEmail(email), modelId, csvName);
+        UsageCounters keyCounters = counters.get(key);
+        if (keyCounters == null) {
+            keyCounters = counters.size() < config.getMaxKeys()
+                ? counters.computeIfAbsent(key, k -> new UsageCounters())
+                : counters.computeIfAbsent(OVERFLOW_KEY, k -> new UsageCounters());
+        }
+        keyCounters.add(usage != null ? usage.promptTokens() : 0, usage != null ? usage.completionTokens() : 0,
+            latencyMs);
+    }
+
+    /**
+     * Sums usage into buckets of {@code bucketMs} made between {@code since} and
+     * {@code until} (epoch milliseconds, either may be null), grouped by
+     * {@code groupBy} and optionally restricted to one user. Usage not yet flushed is
+     * included in the current bucket.
+     */
+    public List<UsageRollup> rollup(Set<UsageDimension> groupBy, long bucketMs, Long since, Long until, String email) {
+        if (log == null) {
+            return List.of();
+        }
+        String user = email != null && !email.isBlank() ? normalizeEmail(email) : null;
+        Map<List<Object>, RollupBuilder> groups = new LinkedHashMap<>();
+
+        synchronized (flushLock) {
+            for (UsageRow row : flushedRows) {
+                accumulate(groups, row, groupBy, bucketMs, since, until, user);
+            }
+            long currentBucket = bucketStart;
+            for (Map.Entry<UsageKey, UsageCounters> entry : counters.entrySet()) {
+                UsageRow pending = entry.getValue().peekDelta(currentBucket, entry.getKey());
+                if (pending != null) {
+                    accumulate(groups, pending, groupBy, bucketMs, since, until, user);
+                }
+            }
+        }
+
+        List<UsageRollup> rollups = new ArrayList<>(groups.size());
+        for (RollupBuilder group : groups.values()) {
+            rollups.add(group.build());
+        }
+        rollups.sort(Comparator.comparingLong(UsageRollup::bucketStart)
+            .thenComparing(Comparator.comparingLong(UsageRollup::totalTokens).reversed()));
+        return rollups;
+    }
+
+    public UsageStats getStats() {
+        long logSize = 0;
+        if (log != null) {
+            try {
+                logSize = log.size();
+            } catch (IOException e) {
+                logger.debug("Failed to read usage log size", e);
+            }
+        }
+        return new UsageStats(counters.size(), flushes.get(), rowsWritten.get(), failedFlushes.get(), logSize);
+    }
+
+    void flush() {
+        synchronized (flushLock) {
+            long flushedBucket = bucketStart;
+            List<UsageRow> rows = new ArrayList<>();
+            for (Map.Entry<UsageKey, UsageCounters> entry : counters.entrySet()) {
+                UsageRow delta = entry.getValue().takeDelta(flushedBucket, entry.getKey());
+                if (delta != null) {
+                    rows.add(delta);
+                }
+            }
+            bucketStart = System.currentTimeMillis();
+
+            flushedRows.addAll(rows);
+            long retainFrom = bucketStart - config.getRetentionMs();
+            while (!flushedRows.isEmpty() && flushedRows.peekFirst().bucketStart() < retainFrom) {
+                flushedRows.pollFirst();
+            }
+            flushes.incrementAndGet();
+            if (rows.isEmpty()) {
+                return;
+            }
+
+            try {
+                log.append(rows);
+                rowsWritten.addAndGet(rows.size());
+            } catch (IOException e) {
+                failedFlushes.incrementAndGet();
+                logger.error("Failed to write {} usage rows", rows.size(), e);
+            }
+        }
+    }
+
+    private void accumulate(Map<List<Object>, RollupBuilder> groups, UsageRow row, Set<UsageDimension> groupBy,
+                            long bucketMs, Long since, Long until, String user) {
+        if ((since != null && row.bucketStart() < since) || (until != null && row.bucketStart() > until)
+            || (user != null && !user.equals(row.email()))) {
+            return;
+        }
+        long bucket = row.bucketStart() - Math.floorMod(row.bucketStart(), bucketMs);
+        String groupEmail = groupBy.contains(UsageDimension.USER) ? row.email() : null;
+        String groupModel = groupBy.contains(UsageDimension.MODEL) ? row.modelId() : null;
+        String groupCsv = groupBy.contains(UsageDimension.CSV) ? row.csvName() : null;
+
+        groups.computeIfAbsent(Arrays.asList(bucket, groupEmail, groupModel, groupCsv),
+                key -> new RollupBuilder(bucket, groupEmail, groupModel, groupCsv))
+            .add(row, costOf(row));
+    }
+
+    private double costOf(UsageRow row) {
+        Double pricePerThousand = row.modelId() != null ? config.getCostPerThousandTokens().get(row.modelId()) : null;
+        return pricePerThousand != null
+            ? (row.promptTokens() + row.completionTokens()) / 1000.0 * pricePerThousand
+            : 0;
+    }
+
+    private static String normalizeEmail(String email) {
+        return email != null && !email.isBlank() ? email.trim().toLowerCase(Locale.ROOT) : ANONYMOUS;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdownNow();
+        flush();
+        try {
+            log.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close usage log", e);
+        }
+    }
+
+    private static final class RollupBuilder {
+        private final long bucketStart;
+        private final String email;
+        private final String modelId;
+        private final String csvName;
+        private long requests;
+        private long promptTokens;
+        private long completionTokens;
+        private long latencyMs;
+        private double cost;
+
+        private RollupBuilder(long bucketStart, String email, String modelId, String csvName) {
+            this.bucketStart = bucketStart;
+            this.email = email;
+            this.modelId = modelId;
+            this.csvName = csvName;
+        }
+
+        void add(UsageRow row, double rowCost) {
+            requests += row.requests();
+            promptTokens += row.promptTokens();
+            completionTokens += row.completionTokens();
+            latencyMs += row.latencyMs();
+            cost += rowCost;
+        }
+
+        UsageRollup build() {
+            return new UsageRollup(bucketStart, email, modelId, csvName, requests, promptTokens, completionTokens,
+                promptTokens + completionTokens, requests > 0 ? (double) latencyMs / requests : 0, cost);
+        }
+    }
+
+    public record UsageStats(int trackedKeys, long flushes, long rowsWritten, long failedFlushes, long logSizeBytes) {
+    }
+}
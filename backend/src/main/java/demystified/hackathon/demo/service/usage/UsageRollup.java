@@ -0,0 +1,10 @@
+package demystified.hackathon.demo.service.usage;
+
+/**
+ * Usage summed over one rollup bucket and group. Dimensions that are not grouped by
+ * are null.
+ */
+public record UsageRollup(long bucketStart, String email, String modelId, String csvName, long requests,
+                          long promptTokens, long completionTokens, long totalTokens, double averageLatencyMs,
+                          double estimatedCost) {
+}
@@ -0,0 +1,9 @@
+package demystified.hackathon.demo.service.usage;
+
+/**
+ * Usage of one user, model and CSV during the bucket starting at {@code bucketStart}
+ * (epoch milliseconds), as written to the usage log.
+ */
+public record UsageRow(long bucketStart, String email, String modelId, String csvName,
+                       long requests, long promptTokens, long completionTokens, long latencyMs) {
+}
@@ -0,0 +1,103 @@
+package demystified.hackathon.demo.tracing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Encodes a batch of spans as one line of OTLP/JSON ({@code ExportTraceServiceRequest}),
+ * the format read by the OpenTelemetry Collector's {@code otlpjsonfile} receiver.
+ */
+final class OtlpJsonEncoder {
+    private static final String SCOPE_NAME = "demystified.hackathon.demo";
+    private static final int STATUS_ERROR = 2;
+
+    private final String resourcePrefix;
+
+    OtlpJsonEncoder(String serviceName) {
+        StringBuilder prefix = new StringBuilder(128);
+        prefix.append("{\"resourceSpans\":[{\"resource\":{\"attributes\":[");
+        appendAttribute(prefix, "service.name", serviceName);
+        prefix.append("]},\"scopeSpans\":[{\"scope\":{\"name\":\"").append(SCOPE_NAME).append("\"},\"spans\":[");
+        this.resourcePrefix = prefix.toString();
+    }
+
+    byte[] encode(List<Span> spans) {
+        StringBuilder json = new StringBuilder(resourcePrefix.length() + spans.size() * 384);
+        json.append(resourcePrefix);
+        for (int i = 0; i < spans.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            appendSpan(json, spans.get(i));
+        }
+        json.append("]}]}]}\n");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void appendSpan(StringBuilder json, Span span) {
+        json.append("{\"traceId\":\"").append(Span.hex(span.traceIdHigh)).append(Span.hex(span.traceIdLow))
+            .append("\",\"spanId\":\"").append(Span.hex(span.spanId)).append('"');
+        if (span.parentSpanId != 0) {
+            json.append(",\"parentSpanId\":\"").append(Span.hex(span.parentSpanId)).append('"');
+        }
+        json.append(",\"name\":");
+        appendString(json, span.name);
+        json.append(",\"kind\":").append(span.kind.otlpValue())
+            .append(",\"startTimeUnixNano\":\"").append(span.startEpochNanos)
+            .append("\",\"endTimeUnixNano\":\"").append(span.endEpochNanos).append('"');
+
+        if (span.attributeCount > 0) {
+            json.append(",\"attributes\":[");
+            for (int i = 0; i < span.attributeCount; i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                appendAttribute(json, span.attributeKeys[i], span.attributeValues[i]);
+            }
+            json.append(']');
+        }
+        if (span.errorMessage != null) {
+            json.append(",\"status\":{\"code\":").append(STATUS_ERROR).append(",\"message\":");
+            appendString(json, span.errorMessage);
+            json.append('}');
+        }
+        json.append('}');
+    }
+
+    private static void appendAttribute(StringBuilder json, String key, Object value) {
+        json.append("{\"key\":");
+        appendString(json, key);
+        json.append(",\"value\":{");
+        if (value instanceof Long number) {
+            json.append("\"intValue\":\"").append(number).append('"');
+        } else if (value instanceof Boolean flag) {
+            json.append("\"boolValue\":").append(flag);
+        } else {
+            json.append("\"stringValue\":");
+            appendString(json, String.valueOf(value));
+        }
+        json.append("}}");
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+}
@@ -0,0 +1,160 @@
+package demystified.hackathon.demo.tracing;
+
+import demystified.hackathon.demo.logging.Pii;
+
+import java.util.Arrays;
+
+/**
+ * One timed operation of a trace. While open it is the current span of the thread
+ * that started it, so spans started on that thread become its children; closing it
+ * records the end time, restores the previous current span and hands it to the
+ * exporter.
+ *
+ * <p>Spans that were not sampled record nothing: every setter returns immediately,
+ * so callers can instrument unconditionally and only guard attribute values that are
+ * expensive to compute with {@link #isRecording()}.
+ */
+public final class Span implements AutoCloseable {
+    static final Span NOOP = new Span(null, null, null, 0, 0, 0, 0, 0, null);
+
+    private final Tracer tracer;
+    private final Span previous;
+    final SpanKind kind;
+    final long traceIdHigh;
+    final long traceIdLow;
+    final long spanId;
+    final long parentSpanId;
+    final long startEpochNanos;
+    long endEpochNanos;
+    String name;
+
+    String[] attributeKeys;
+    Object[] attributeValues;
+    int attributeCount;
+    String errorMessage;
+
+    Span(Tracer tracer, Span previous, String name, long traceIdHigh, long traceIdLow, long spanId,
+         long parentSpanId, long startEpochNanos, SpanKind kind) {
+        this.tracer = tracer;
+        this.previous = previous;
+        this.name = name;
+        this.kind = kind;
+        this.traceIdHigh = traceIdHigh;
+        this.traceIdLow = traceIdLow;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.startEpochNanos = startEpochNanos;
+    }
+
+    /**
+     * Non-recording root span: it only marks the thread as part of an unsampled trace.
+     */
+    static Span unsampled(Tracer tracer, Span previous) {
+        return new Span(tracer, previous, null, 0, 0, 0, 0, 0, null);
+    }
+
+    public boolean isRecording() {
+        return kind != null;
+    }
+
+    /**
+     * Replaces the name given at start, for spans whose best name is only known later.
+     */
+    public Span updateName(String name) {
+        if (isRecording() && name != null) {
+            this.name = name;
+        }
+        return this;
+    }
+
+    public Span setAttribute(String key, String value) {
+        if (isRecording() && value != null) {
+            addAttribute(key, value);
+        }
+        return this;
+    }
+
+    public Span setAttribute(String key, long value) {
+        if (isRecording()) {
+            addAttribute(key, value);
+        }
+        return this;
+    }
+
+    public Span setAttribute(String key, boolean value) {
+        if (isRecording()) {
+            addAttribute(key, value);
+        }
+        return this;
+    }
+
+    /**
+     * Marks the span as failed with the exception type and a masked message.
+     */
+    public Span recordError(Throwable error) {
+        if (isRecording() && error != null) {
+            errorMessage = Pii.summary(error).toString();
+        }
+        return this;
+    }
+
+    /**
+     * Marks the span as failed with {@code message}, unless an error was already recorded.
+     */
+    public Span setError(String message) {
+        if (isRecording() && message != null && errorMessage == null) {
+            errorMessage = message;
+        }
+        return this;
+    }
+
+    /**
+     * Trace id in W3C trace context form, or null when the span is not recording.
+     */
+    public String traceId() {
+        return isRecording() ? hex(traceIdHigh) + hex(traceIdLow) : null;
+    }
+
+    /**
+     * Value of the W3C {@code traceparent} header identifying this span, or null when
+     * the span is not recording.
+     */
+    public String traceparent() {
+        return isRecording() ? "00-" + traceId() + "-" + hex(spanId) + "-01" : null;
+    }
+
+    @Override
+    public void close() {
+        if (tracer != null) {
+            tracer.end(this, previous);
+        }
+    }
+
+    /**
+     * Restores the previous current span of this thread while leaving this span open,
+     * for a span that another thread closes later.
+     */
+    void detach() {
+        if (tracer != null) {
+            tracer.detach(this, previous);
+        }
+    }
+
+    private void addAttribute(String key, Object value) {
+        if (attributeKeys == null) {
+            attributeKeys = new String[4];
+            attributeValues = new Object[4];
+        } else if (attributeCount == attributeKeys.length) {
+            attributeKeys = Arrays.copyOf(attributeKeys, attributeCount * 2);
+            attributeValues = Arrays.copyOf(attributeValues, attributeCount * 2);
+        }
+        attributeKeys[attributeCount] = key;
+        attributeValues[attributeCount] = value;
+        attributeCount++;
+    }
+
+    static String hex(long value) {
+        String digits = Long.toHexString(value);
+        return "0".repeat(16 - digits.length()) + digits;
+    }
+}
@@ -0,0 +1,164 @@
+package demystified.hackathon.demo.tracing;
+
+import demystified.hackathon.demo.config.TracingConfig;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes finished spans to {@code spans.jsonl} in the tracing directory, one OTLP/JSON
+ * batch per line, so a collector can ship them or they can be inspected locally.
+ * Spans are queued and written by a background thread; when the queue is full new
+ * spans are dropped rather than slowing down requests. Once the file exceeds
+ * {@code tracing.max-file-bytes} it is renamed to {@code spans.jsonl.1}, replacing
+ * the previous one.
+ */
+@Component
+public class SpanExporter {
+    private static final Logger logger = LoggerFactory.getLogger(SpanExporter.class);
+
+    static final String FILE_NAME = "spans.jsonl";
+
+    private static final long POLL_TIMEOUT_MS = 100;
+    private static final long SHUTDOWN_TIMEOUT_MS = 5000;
+
+    private final TracingConfig config;
+    private final BlockingQueue<Span> queue;
+    private final OtlpJsonEncoder encoder;
+    private final Path file;
+    private final Thread writer;
+    private FileChannel channel;
+
+    private final AtomicLong spansExported = new AtomicLong();
+    private final AtomicLong spansDropped = new AtomicLong();
+    private final AtomicLong failedWrites = new AtomicLong();
+
+    private volatile boolean running = true;
+    private volatile long fileSize;
+
+    public SpanExporter(TracingConfig config) {
+        this.config = config;
+        this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        this.encoder = new OtlpJsonEncoder(config.getServiceName());
+        if (!config.isEnabled()) {
+            this.file = null;
+            this.writer = null;
+            return;
+        }
+
+        try {
+            Path directory = Path.of(config.getDirectory());
+            Files.createDirectories(directory);
+            this.file = directory.resolve(FILE_NAME);
+            openChannel();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open span file in " + config.getDirectory(), e);
+        }
+
+        this.writer = new Thread(this::writeLoop, "span-exporter");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues a finished span for export without blocking the caller.
+     */
+    void export(Span span) {
+        if (writer == null || !running || !queue.offer(span)) {
+            spansDropped.incrementAndGet();
+        }
+    }
+
+    public ExportStats getStats() {
+        return new ExportStats(queue.size(), spansExported.get(), spansDropped.get(), failedWrites.get(), fileSize);
+    }
+
+    private void writeLoop() {
+        List<Span> batch = new ArrayList<>(config.getMaxBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                Span first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, config.getMaxBatchSize() - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<Span> batch) {
+        try {
+            byte[] line = encoder.encode(batch);
+            if (fileSize > 0 && fileSize + line.length > config.getMaxFileBytes()) {
+                rotate();
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            fileSize += line.length;
+            spansExported.addAndGet(batch.size());
+        } catch (IOException e) {
+            failedWrites.incrementAndGet();
+            spansDropped.addAndGet(batch.size());
+            logger.error("Failed to write {} spans", batch.size(), e);
+        }
+    }
+
+    private void rotate() throws IOException {
+        channel.close();
+        Files.move(file, file.resolveSibling(FILE_NAME + ".1"), StandardCopyOption.REPLACE_EXISTING);
+        openChannel();
+    }
+
+    private void openChannel() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.APPEND);
+        fileSize = channel.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        try {
+            writer.join(SHUTDOWN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close span file", e);
+        }
+    }
+
+    public record ExportStats(int queued, long spansExported, long spansDropped, long failedWrites,
+                              long fileSizeBytes) {
+    }
+}
@@ -0,0 +1,20 @@
+package demystified.hackathon.demo.tracing;
+
+/**
+ * Role of a span, numbered as in the OTLP {@code Span.SpanKind} enum.
+ */
+public enum SpanKind {
+    INTERNAL(1),
+    SERVER(2),
+    CLIENT(3);
+
+    private final int otlpValue;
+
+    SpanKind(int otlpValue) {
+        this.otlpValue = otlpValue;
+    }
+
+    int otlpValue() {
+        return otlpValue;
+    }
+}
@@ -0,0 +1,30 @@
+package demystified.hackathon.demo.tracing;
+
+/**
+ * Parsed W3C {@code traceparent} header: {@code 00-<trace id>-<parent id>-<flags>}.
+ */
+record TraceParent(long traceIdHigh, long traceIdLow, long spanId, boolean sampled) {
+    private static final int LENGTH = 55;
+
+    /**
+     * Returns the parsed header, or null when it is missing or malformed.
+     */
+    static TraceParent parse(String header) {
+        if (header == null || header.length() != LENGTH || !header.startsWith("00-")
+            || header.charAt(35) != '-' || header.charAt(52) != '-') {
+            return null;
+        }
+        try {
+            long traceIdHigh = Long.parseUnsignedLong(header.substring(3, 19), 16);
+            long traceIdLow = Long.parseUnsignedLong(header.substring(19, 35), 16);
+            long spanId = Long.parseUnsignedLong(header.substring(36, 52), 16);
+            int flags = Integer.parseInt(header.substring(53, 55), 16);
+            if ((traceIdHigh == 0 && traceIdLow == 0) || spanId == 0) {
+                return null;
+            }
+            return new TraceParent(traceIdHigh, traceIdLow, spanId, (flags & 1) != 0);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package demystified.hackathon.demo.tracing;
+
+import demystified.hackathon.demo.config.TracingConfig;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Starts spans and tracks the current span of each thread. A trace is sampled once,
+ * at its root: the request's server span follows the caller's {@code traceparent}
+ * decision when present and {@code tracing.sample-ratio} otherwise, and every span
+ * below it inherits that decision.
+ *
+ * <p>With tracing disabled no span is ever recorded and starting one allocates
+ * nothing. An unsampled trace costs one marker object per root.
+ */
+@Component
+public class Tracer {
+    private static final ThreadLocal<Span> CURRENT = new ThreadLocal<>();
+
+    private final TracingConfig config;
+    private final SpanExporter exporter;
+    private final long anchorEpochNanos = System.currentTimeMillis() * 1_000_000;
+    private final long anchorNanoTime = System.nanoTime();
+
+    private final LongAdder tracesSampled = new LongAdder();
+    private final LongAdder tracesNotSampled = new LongAdder();
+
+    public Tracer(TracingConfig config, SpanExporter exporter) {
+        this.config = config;
+        this.exporter = exporter;
+    }
+
+    /**
+     * Tracer that never records, for code paths and tests without tracing.
+     */
+    public static Tracer noop() {
+        TracingConfig config = new TracingConfig();
+        config.setEnabled(false);
+        return new Tracer(config, null);
+    }
+
+    /**
+     * Returns the current span of this thread, or a non-recording span when there is none.
+     */
+    public static Span current() {
+        Span span = CURRENT.get();
+        return span != null ? span : Span.NOOP;
+    }
+
+    /**
+     * Wraps {@code task} so spans it starts are children of the caller's current span.
+     */
+    public static Runnable propagate(Runnable task) {
+        Span span = CURRENT.get();
+        if (span == null) {
+            return task;
+        }
+        return () -> {
+            Span previous = CURRENT.get();
+            CURRENT.set(span);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    public Span startSpan(String name) {
+        return startSpan(name, SpanKind.INTERNAL);
+    }
+
+    /**
+     * Starts a child of the current span, or a new trace when there is none.
+     */
+    public Span startSpan(String name, SpanKind kind) {
+        Span parent = CURRENT.get();
+        if (parent == null) {
+            return startRoot(name, kind, nextId(), nextId(), 0, sample());
+        }
+        if (!parent.isRecording()) {
+            return Span.NOOP;
+        }
+        return open(name, kind, parent.traceIdHigh, parent.traceIdLow, parent.spanId, parent);
+    }
+
+    /**
+     * Runs {@code work} inside a child span, marking the span failed if it throws.
+     */
+    public <T> T trace(String name, SpanKind kind, Function<Span, T> work) {
+        try (Span span = startSpan(name, kind)) {
+            try {
+                return work.apply(span);
+            } catch (RuntimeException | Error e) {
+                span.recordError(e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Starts the server span of an incoming request, continuing the caller's trace
+     * when {@code traceparent} is a valid W3C trace context header. A caller that did
+     * not sample the trace is followed; one that did is followed only when
+     * {@code tracing.trust-remote-sampled} is set, otherwise the request is sampled at
+     * {@code tracing.sample-ratio} like any other.
+     */
+    public Span startServerSpan(String name, String traceparent) {
+        TraceParent remote = TraceParent.parse(traceparent);
+        if (remote == null) {
+            return startRoot(name, SpanKind.SERVER, nextId(), nextId(), 0, sample());
+        }
+        boolean sampled = remote.sampled() && (config.isTrustRemoteSampled() ? config.isEnabled() : sample());
+        return startRoot(name, SpanKind.SERVER, remote.traceIdHigh(), remote.traceIdLow(), remote.spanId(),
+            sampled);
+    }
+
+    public TracingStats getStats() {
+        return new TracingStats(config.isEnabled(), config.getSampleRatio(), tracesSampled.sum(),
+            tracesNotSampled.sum(), exporter != null ? exporter.getStats() : null);
+    }
+
+    void detach(Span span, Span previous) {
+        if (CURRENT.get() == span) {
+            restore(previous);
+        }
+    }
+
+    void end(Span span, Span previous) {
+        if (CURRENT.get() == span) {
+            restore(previous);
+        }
+        if (span.isRecording()) {
+            span.endEpochNanos = now();
+            if (exporter != null) {
+                exporter.export(span);
+            }
+        }
+    }
+
+    private Span startRoot(String name, SpanKind kind, long traceIdHigh, long traceIdLow, long parentSpanId,
+                           boolean sampled) {
+        if (!config.isEnabled()) {
+            return Span.NOOP;
+        }
+        Span previous = CURRENT.get();
+        if (!sampled) {
+            tracesNotSampled.increment();
+            Span marker = Span.unsampled(this, previous);
+            CURRENT.set(marker);
+            return marker;
+        }
+        tracesSampled.increment();
+        return open(name, kind, traceIdHigh, traceIdLow, parentSpanId, previous);
+    }
+
+    private Span open(String name, SpanKind kind, long traceIdHigh, long traceIdLow, long parentSpanId,
+                      Span previous) {
+        Span span = new Span(this, previous, name, traceIdHigh, traceIdLow, nextId(), parentSpanId, now(), kind);
+        CURRENT.set(span);
+        return span;
+    }
+
+    private boolean sample() {
+        double ratio = config.getSampleRatio();
+        return ratio >= 1 || (ratio > 0 && ThreadLocalRandom.current().nextDouble() < ratio);
+    }
+
+    private long now() {
+        return anchorEpochNanos + (System.nanoTime() - anchorNanoTime);
+    }
+
+    private static long nextId() {
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong();
+        } while (id == 0);
+        return id;
+    }
+
+    private static void restore(Span previous) {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    public record TracingStats(boolean enabled, double sampleRatio, long tracesSampled, long tracesNotSampled,
+                               SpanExporter.ExportStats export) {
+    }
+}
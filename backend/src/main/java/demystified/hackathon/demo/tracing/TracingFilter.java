@@ -0,0 +1,110 @@
+package demystified.hackathon.demo.tracing;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Opens the server span of each request, continuing the caller's W3C trace context.
+ * The span is named after the matched route, e.g. {@code POST /api/send-prompt}, or
+ * just the method when no route matched, so client-chosen paths never become span
+ * names; the raw path is kept in {@code url.path}. A sampled trace's id is added to the logging context and returned in the
+ * {@code traceparent} response header. For a request that goes asynchronous the span
+ * ends when the response completes rather than when the filter chain returns.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class TracingFilter extends OncePerRequestFilter {
+    public static final String TRACEPARENT_HEADER = "traceparent";
+    public static final String TRACE_ID_MDC_KEY = "traceId";
+
+    private final Tracer tracer;
+
+    public TracingFilter(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+        throws ServletException, IOException {
+        Span span = tracer.startServerSpan(request.getMethod(), request.getHeader(TRACEPARENT_HEADER));
+        boolean async = false;
+        try {
+            if (span.isRecording()) {
+                span.setAttribute("http.request.method", request.getMethod());
+                span.setAttribute("url.path", request.getRequestURI());
+                MDC.put(TRACE_ID_MDC_KEY, span.traceId());
+                response.setHeader(TRACEPARENT_HEADER, span.traceparent());
+            }
+            try {
+                chain.doFilter(request, response);
+            } catch (IOException | ServletException | RuntimeException e) {
+                span.recordError(e);
+                throw e;
+            }
+            if (request.isAsyncStarted()) {
+                // the handler finishes on another thread; end the span when the response is complete
+                async = true;
+                span.detach();
+                request.getAsyncContext().addListener(new ServerSpanListener(span, request, response));
+            }
+        } finally {
+            if (!async) {
+                finish(span, request, response);
+            }
+            MDC.remove(TRACE_ID_MDC_KEY);
+        }
+    }
+
+    private static void finish(Span span, HttpServletRequest request, HttpServletResponse response) {
+        if (span.isRecording()) {
+            Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (route != null) {
+                span.updateName(request.getMethod() + " " + route);
+                span.setAttribute("http.route", route.toString());
+            }
+            span.setAttribute("http.response.status_code", response.getStatus());
+            if (response.getStatus() >= 500) {
+                span.setError("HTTP " + response.getStatus());
+            }
+        }
+        span.close();
+    }
+
+    private record ServerSpanListener(Span span, HttpServletRequest request, HttpServletResponse response)
+        implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            finish(span, request, response);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            if (event.getThrowable() != null) {
+                span.recordError(event.getThrowable());
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            span.setError("Request timed out");
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
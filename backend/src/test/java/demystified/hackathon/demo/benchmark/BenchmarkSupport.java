@@ -0,0 +1,56 @@
+package demystified.hackathon.demo.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+/**
+ * Minimal harness for the {@code *Benchmark} classes. They are not picked up by the
+ * default test run; execute them with {@code mvn test -Dtest='*Benchmark'}. They only
+ * report their measurements: times and allocations vary with the machine and JIT, so
+ * comparing them would make a flaky test, and behaviour is covered by the unit tests.
+ */
+public final class BenchmarkSupport {
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static volatile int sink;
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Runs {@code operation} for the warm-up and measured iterations on the current
+     * thread and reports the average time and bytes allocated per call.
+     */
+    public static Result measure(String name, int warmupIterations, int iterations, Supplier<?> operation) {
+        for (int i = 0; i < warmupIterations; i++) {
+            consume(operation.get());
+        }
+
+        long allocatedBefore = THREAD_MX_BEAN.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            consume(operation.get());
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = THREAD_MX_BEAN.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        return new Result(name, (double) elapsed / iterations, (double) allocated / iterations);
+    }
+
+    public static void report(String title, Result... results) {
+        System.out.println();
+        System.out.println("== " + title + " ==");
+        System.out.printf("%-40s %14s %14s%n", "case", "ns/op", "bytes/op");
+        for (Result result : results) {
+            System.out.printf("%-40s %14.1f %14.1f%n", result.name(), result.nanosPerOp(), result.bytesPerOp());
+        }
+    }
+
+    private static void consume(Object value) {
+        sink ^= value == null ? 0 : System.identityHashCode(value);
+    }
+
+    public record Result(String name, double nanosPerOp, double bytesPerOp) {
+    }
+}
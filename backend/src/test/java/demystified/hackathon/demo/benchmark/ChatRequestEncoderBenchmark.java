@@ -0,0 +1,83 @@
+package demystified.hackathon.demo.benchmark;
+
+import demystified.hackathon.demo.config.WatsonxConfig;
+import demystified.hackathon.demo.service.chat.ChatRequestEncoder;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares bytes allocated per chat request body between the pre-encoded template
+ * and the previous approach of building Maps and serializing them on every call.
+ */
+class ChatRequestEncoderBenchmark {
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 50_000;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void compareAllocations() {
+        WatsonxConfig config = new WatsonxConfig();
+        config.setProjectId("benchmark-project");
+        config.setModelId("ibm/granite-13b-chat-v2");
+        ChatRequestEncoder encoder = new ChatRequestEncoder(config);
+        String prompt = "Summarize the quarterly revenue trend and call out anomalies. ".repeat(20);
+        OutputStream sink = OutputStream.nullOutputStream();
+
+        BenchmarkSupport.Result mapBased = BenchmarkSupport.measure("map-and-serialize", WARMUP, ITERATIONS,
+            () -> mapper.writeValueAsBytes(buildLegacyBody(config, prompt)));
+        BenchmarkSupport.Result template = BenchmarkSupport.measure("pre-encoded-template", WARMUP, ITERATIONS,
+            () -> encode(encoder, config.getModelId(), prompt, sink));
+
+        BenchmarkSupport.report("watsonx chat request encoding (" + prompt.length() + " chars)", mapBased, template);
+    }
+
+    private static Integer encode(ChatRequestEncoder encoder, String modelId, String prompt, OutputStream sink) {
+        try {
+            return encoder.encodeTo(modelId, prompt, sink);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Map<String, Object> buildLegacyBody(WatsonxConfig config, String content) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("messages", List.of(
+            Map.of("role", "system", "content", legacySystemPrompt()),
+            Map.of("role", "user", "content", List.of(Map.of("type", "text", "text", content)))
+        ));
+        body.put("project_id", config.getProjectId());
+        body.put("model_id", config.getModelId());
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("frequency_penalty", 0);
+        parameters.put("max_tokens", 2000);
+        parameters.put("presence_penalty", 0);
+        parameters.put("temperature", 0);
+        parameters.put("top_p", 1);
+        body.putAll(parameters);
+        return body;
+    }
+
+    private static String legacySystemPrompt() {
+        return "You always answer the questions with markdown formatting using GitHub syntax. " +
+               "The markdown formatting you support: headings, bold, italic, links, tables, lists, " +
+               "code blocks, and blockquotes. You must omit that you answer the questions with markdown.\n\n" +
+               "Any HTML tags must be wrapped in block quotes, for example <html>. " +
+               "You will be penalized for not rendering code in block quotes.\n\n" +
+               "When returning code blocks, specify language.\n\n" +
+               "You are a helpful, respectful and honest assistant. Always answer as helpfully as possible, " +
+               "while being safe. Your answers should not include any harmful, unethical, racist, sexist, " +
+               "toxic, dangerous, or illegal content. Please ensure that your responses are socially unbiased " +
+               "and positive in nature.\n\n" +
+               "If a question does not make any sense, or is not factually coherent, explain why instead of " +
+               "answering something not correct. If you don't know the answer to a question, " +
+               "please don't share false information.";
+    }
+}
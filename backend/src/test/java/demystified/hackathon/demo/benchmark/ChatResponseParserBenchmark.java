@@ -0,0 +1,57 @@
+package demystified.hackathon.demo.benchmark;
+
+import demystified.hackathon.demo.service.chat.ChatResponseParser;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares allocations of the streaming chat response parser with the previous
+ * approach of binding the whole body into a {@code Map} and walking it.
+ */
+class ChatResponseParserBenchmark {
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 50_000;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ChatResponseParser parser = new ChatResponseParser();
+
+    @Test
+    void compareAllocations() {
+        byte[] body = buildResponseWithLogprobs(400);
+
+        BenchmarkSupport.Result mapBased = BenchmarkSupport.measure("map-based", WARMUP, ITERATIONS,
+            () -> extractContentFromMap(mapper.readValue(body, Map.class)));
+        BenchmarkSupport.Result streaming = BenchmarkSupport.measure("streaming-parser", WARMUP, ITERATIONS,
+            () -> parser.parse(new ByteArrayInputStream(body)));
+
+        BenchmarkSupport.report("watsonx chat response parsing (" + body.length + " bytes)", mapBased, streaming);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String extractContentFromMap(Map<String, Object> response) {
+        List<Map<String, Object>> choices = (List<Map<String, Object>>) response.get("choices");
+        Map<String, Object> message = (Map<String, Object>) choices.get(0).get("message");
+        return (String) message.get("content");
+    }
+
+    private static byte[] buildResponseWithLogprobs(int tokens) {
+        StringBuilder logprobs = new StringBuilder();
+        for (int i = 0; i < tokens; i++) {
+            if (i > 0) {
+                logprobs.append(',');
+            }
+            logprobs.append("{\"token\":\"tok").append(i).append("\",\"logprob\":-0.").append(i % 97).append('}');
+        }
+        String json = "{\"id\":\"chat-1\",\"model_id\":\"ibm/granite\",\"created\":1738420800," +
+            "\"choices\":[{\"index\":0,\"message\":{\"role\":\"assistant\",\"content\":\"" +
+            "A reasonably sized markdown answer. ".repeat(40) + "\"}," +
+            "\"logprobs\":{\"content\":[" + logprobs + "]},\"finish_reason\":\"stop\"}]," +
+            "\"usage\":{\"completion_tokens\":400,\"prompt_tokens\":900,\"total_tokens\":1300}}";
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
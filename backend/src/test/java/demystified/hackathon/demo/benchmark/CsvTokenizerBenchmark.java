@@ -0,0 +1,106 @@
+package demystified.hackathon.demo.benchmark;
+
+import com.opencsv.CSVReader;
+import demystified.hackathon.demo.service.csv.CsvTokenizer;
+import demystified.hackathon.demo.service.csv.MarkdownTableSink;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+
+/**
+ * Compares the CSV tokenizer used for prompt context against the previous OpenCSV
+ * based path on wide, narrow and quote-heavy files.
+ */
+class CsvTokenizerBenchmark {
+    private static final int WARMUP = 30;
+    private static final int ITERATIONS = 100;
+
+    @Test
+    void compareCsvShapes() {
+        run("wide (60 columns x 2,000 rows)", wideCsv());
+        run("narrow (3 columns x 60,000 rows)", narrowCsv());
+        run("quote-heavy (8 columns x 10,000 rows)", quotedCsv());
+    }
+
+    private static void run(String shape, String csv) {
+        BenchmarkSupport.Result openCsv = BenchmarkSupport.measure("opencsv", WARMUP, ITERATIONS,
+            () -> renderWithOpenCsv(csv));
+        BenchmarkSupport.Result tokenizer = BenchmarkSupport.measure("tokenizer", WARMUP, ITERATIONS,
+            () -> renderWithTokenizer(csv));
+        BenchmarkSupport.report("CSV to markdown, " + shape + ", " + csv.length() / 1024 + " KiB", openCsv, tokenizer);
+    }
+
+    private static String renderWithTokenizer(String csv) {
+        try {
+            StringBuilder table = new StringBuilder(csv.length() + 1024);
+            new CsvTokenizer(new StringReader(csv)).tokenize(new MarkdownTableSink(table));
+            return table.toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String renderWithOpenCsv(String csv) {
+        try (CSVReader reader = new CSVReader(new StringReader(csv))) {
+            StringBuilder table = new StringBuilder();
+            String[] headers = reader.readNext();
+            table.append("| ");
+            for (String header : headers) {
+                table.append(header).append(" | ");
+            }
+            table.append("\n| ");
+            for (int i = 0; i < headers.length; i++) {
+                table.append("--- | ");
+            }
+            table.append("\n");
+            String[] row;
+            while ((row = reader.readNext()) != null) {
+                table.append("| ");
+                for (String cell : row) {
+                    table.append(cell != null ? cell : "").append(" | ");
+                }
+                table.append("\n");
+            }
+            return table.toString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String wideCsv() {
+        StringBuilder csv = new StringBuilder();
+        for (int c = 0; c < 60; c++) {
+            csv.append(c == 0 ? "" : ",").append("metric_").append(c);
+        }
+        csv.append('\n');
+        for (int r = 0; r < 2_000; r++) {
+            for (int c = 0; c < 60; c++) {
+                csv.append(c == 0 ? "" : ",").append((r * 31 + c * 7) % 10_000).append('.').append(c % 10);
+            }
+            csv.append('\n');
+        }
+        return csv.toString();
+    }
+
+    private static String narrowCsv() {
+        StringBuilder csv = new StringBuilder("date,region,sales\n");
+        String[] regions = {"North", "South", "East", "West"};
+        for (int r = 0; r < 60_000; r++) {
+            csv.append("2024-").append(1 + r % 12).append('-').append(1 + r % 28).append(',')
+                .append(regions[r % regions.length]).append(',').append(r % 5_000).append('\n');
+        }
+        return csv.toString();
+    }
+
+    private static String quotedCsv() {
+        StringBuilder csv = new StringBuilder("id,name,address,notes,city,state,zip,comment\n");
+        for (int r = 0; r < 10_000; r++) {
+            csv.append(r).append(",\"Doe, Jane ").append(r).append("\",\"")
+                .append(r).append(" Main St, Apt ").append(r % 40).append("\",\"said \"\"ok\"\" twice\",")
+                .append("\"Springfield\",\"IL\",\"6270").append(r % 10).append("\",\"line one\nline two\"\n");
+        }
+        return csv.toString();
+    }
+}
@@ -0,0 +1,103 @@
+package demystified.hackathon.demo.benchmark;
+
+import demystified.hackathon.demo.service.email.EmailTemplate;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Compares time and bytes allocated per email body between the precomputed template
+ * and the previous string concatenation builder.
+ */
+class EmailTemplateBenchmark {
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 50_000;
+
+    @Test
+    void compareRendering() {
+        EmailTemplate template = new EmailTemplate();
+        String prompt = "Summarize the quarterly revenue trend & call out <anomalies>. ".repeat(10);
+        String response = "## Revenue\n" +
+            "Revenue grew **12%** quarter over quarter, driven by `enterprise` deals.\n\n" +
+            "| Quarter | Revenue |\n|---|---|\n| Q1 | 1.2M |\n| Q2 | 1.4M |\n| Q3 | 1.6M |\n\n" +
+            "- Churn stayed flat\n- Expansion revenue doubled\n\n" +
+            "```sql\nSELECT quarter, SUM(amount) FROM sales GROUP BY quarter;\n```\n";
+        String modelId = "ibm/granite-13b-chat-v2";
+        String responseId = "chat-6f2a9c4e";
+
+        BenchmarkSupport.Result legacy = BenchmarkSupport.measure("string-concatenation", WARMUP, ITERATIONS,
+            () -> LegacyEmailBuilder.build(prompt, response, modelId, responseId));
+        BenchmarkSupport.Result precomputed = BenchmarkSupport.measure("precomputed-template", WARMUP, ITERATIONS,
+            () -> template.render(prompt, response, modelId, responseId));
+
+        BenchmarkSupport.report("prompt response email rendering", legacy, precomputed);
+    }
+
+    /**
+     * Copy of the builder EmailService used before the template, kept as the baseline.
+     */
+    private static final class LegacyEmailBuilder {
+
+        static String build(String promptContent, String responseContent, String modelId, String responseId) {
+            String currentDateTime = LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss"));
+            return "<html>" +
+                "<head>" +
+                "<meta charset=\"UTF-8\">" +
+                "<meta name=\"viewport\" content=\"width=device-width, initial-scale=1.0\">" +
+                "<style>" + styles() + "</style>" +
+                "</head>" +
+                "<body>" +
+                "<div class=\"container\">" +
+                "<div class=\"header\">" + "<h1>Watsonx Response</h1>" + "</div>" +
+                "<div class=\"content\">" +
+                "<div class=\"section\">" +
+                "<div class=\"section-title\">Your Prompt</div>" +
+                "<div class=\"prompt-box\">" + htmlEscape(promptContent) + "</div>" +
+                "</div>" +
+                "<div class=\"section\">" +
+                "<div class=\"section-title\">Response</div>" +
+                "<div class=\"response-box\">" + responseContent + "</div>" +
+                "<div class=\"metadata\">" +
+                "<strong>Model:</strong> " + htmlEscape(modelId) + "<br>" +
+                "<strong>Response ID:</strong> " + htmlEscape(responseId) + "<br>" +
+                "<strong>Date:</strong> " + currentDateTime +
+                "</div>" +
+                "</div>" +
+                "</div>" +
+                "<div class=\"footer\">" +
+                "<p>This is an automated response from the Watsonx system. Do not reply to this email.</p>" +
+                "</div>" +
+                "</div>" +
+                "</body>" +
+                "</html>";
+        }
+
+        private static String styles() {
+            return "body { font-family: -apple-system, BlinkMacSystemFont, 'Segoe UI', Roboto, 'Helvetica Neue', Arial, sans-serif; line-height: 1.6; color: #333; background-color: #f5f5f5; padding: 20px; }" +
+                ".container { max-width: 600px; margin: 0 auto; background-color: white; border-radius: 8px; box-shadow: 0 2px 4px rgba(0,0,0,0.1); overflow: hidden; }" +
+                ".header { background: linear-gradient(135deg, #667eea 0%, #764ba2 100%); color: white; padding: 30px; text-align: center; }" +
+                ".header h1 { margin: 0; font-size: 24px; }" +
+                ".content { padding: 30px; }" +
+                ".section { margin-bottom: 25px; }" +
+                ".section-title { font-size: 14px; font-weight: bold; color: #667eea; text-transform: uppercase; margin-bottom: 10px; border-bottom: 2px solid #667eea; padding-bottom: 8px; }" +
+                ".prompt-box { background-color: #f9f9f9; border-left: 4px solid #667eea; padding: 15px; border-radius: 4px; font-style: italic; color: #555; }" +
+                ".response-box { background-color: #fafafa; border-left: 4px solid #764ba2; padding: 15px; border-radius: 4px; }" +
+                ".response-box code { background-color: #f0f0f0; padding: 2px 6px; border-radius: 3px; font-family: 'Monaco', 'Menlo', monospace; font-size: 13px; }" +
+                ".response-box pre { background-color: #2d2d2d; color: #f8f8f2; padding: 15px; border-radius: 4px; overflow-x: auto; font-family: 'Monaco', 'Menlo', monospace; font-size: 12px; }" +
+                ".footer { background-color: #f5f5f5; padding: 20px; text-align: center; border-top: 1px solid #e0e0e0; font-size: 12px; color: #666; }" +
+                ".metadata { font-size: 12px; color: #999; margin-top: 10px; padding-top: 10px; border-top: 1px solid #e0e0e0; }";
+        }
+
+        private static String htmlEscape(String text) {
+            if (text == null) {
+                return "";
+            }
+            return text.replace("&", "&amp;")
+                .replace("<", "&lt;")
+                .replace(">", "&gt;")
+                .replace("\"", "&quot;")
+                .replace("'", "&#39;");
+        }
+    }
+}
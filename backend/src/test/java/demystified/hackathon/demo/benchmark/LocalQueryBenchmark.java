@@ -0,0 +1,117 @@
+package demystified.hackathon.demo.benchmark;
+
+import demystified.hackathon.demo.config.QueryConfig;
+import demystified.hackathon.demo.service.csv.CsvTokenizer;
+import demystified.hackathon.demo.service.generation.TokenEstimator;
+import demystified.hackathon.demo.service.query.QueryEngine;
+import demystified.hackathon.demo.service.query.QueryPlan;
+import demystified.hackathon.demo.service.query.QueryResult;
+import demystified.hackathon.demo.service.query.QueryTable;
+import demystified.hackathon.demo.service.query.QueryTableBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures the local query path on a generated orders table: "total revenue by region"
+ * answered by a grouped sum, scanned sequentially and in parallel, and the prompt
+ * tokens of the two query calls against sending the whole table. The sums are checked
+ * to the cent against totals kept while generating the table.
+ */
+class LocalQueryBenchmark {
+    private static final int ROWS = 1_000_000;
+    private static final String[] REGIONS = {"North", "South", "Southeast", "Midwest", "Northeast"};
+    private static final String QUESTION = "What is the total revenue by region?";
+    private static final String PLAN = """
+        {"groupBy": ["Region"], "aggregates": [{"function": "sum", "column": "Amount", "as": "revenue"}],
+         "orderBy": [{"column": "revenue", "direction": "desc"}]}""";
+
+    @Test
+    void measureQueryAgainstFullTable() throws IOException {
+        long[] expectedCents = new long[REGIONS.length];
+        String csv = generateCsv(new Random(42), expectedCents);
+
+        long start = System.nanoTime();
+        QueryTableBuilder builder = new QueryTableBuilder();
+        new CsvTokenizer(new StringReader(csv)).tokenize(builder);
+        QueryTable table = builder.build();
+        long loadMs = (System.nanoTime() - start) / 1_000_000;
+
+        QueryConfig sequentialConfig = new QueryConfig();
+        sequentialConfig.setParallelThreshold(Integer.MAX_VALUE);
+        QueryConfig parallelConfig = new QueryConfig();
+        parallelConfig.setParallelThreshold(0);
+        QueryEngine sequential = new QueryEngine(sequentialConfig);
+        QueryEngine parallel = new QueryEngine(parallelConfig);
+        QueryPlan plan = sequential.parsePlan(PLAN);
+        for (int i = 0; i < 5; i++) {
+            sequential.execute(plan, table);
+            parallel.execute(plan, table);
+        }
+        long sequentialMicros = executeMicros(sequential, plan, table);
+        long parallelMicros = executeMicros(parallel, plan, table);
+
+        QueryResult result = parallel.execute(plan, table);
+        String planningPrompt = parallel.planningPrompt(QUESTION);
+        String schema = parallel.describe(table);
+        String explanation = parallel.explanationPrompt(QUESTION, plan, result);
+        long queryTokens = TokenEstimator.estimate(planningPrompt) + TokenEstimator.estimate(schema)
+            + TokenEstimator.estimate(PLAN) + TokenEstimator.estimate(explanation)
+            + TokenEstimator.estimate(result.toMarkdown());
+        long tableTokens = TokenEstimator.estimate(QUESTION) + table.estimateMarkdownTokens();
+
+        System.out.println();
+        System.out.println("== local query, " + ROWS + " rows, total revenue by region ==");
+        System.out.printf("%-40s %14s%n", "case", "value");
+        System.out.printf("%-40s %14d%n", "load into columns (ms)", loadMs);
+        System.out.printf("%-40s %14d%n", "query sequential (us)", sequentialMicros);
+        System.out.printf("%-40s %14d%n", "query parallel (us)", parallelMicros);
+        System.out.printf("%-40s %14d%n", "prompt tokens, full table", tableTokens);
+        System.out.printf("%-40s %14d%n", "prompt tokens, plan + explain", queryTokens);
+        System.out.println(result.toMarkdown());
+
+        Map<String, String> revenueByRegion = result.rows().stream()
+            .collect(Collectors.toMap(row -> row.get(0), row -> row.get(1)));
+        for (int region = 0; region < REGIONS.length; region++) {
+            assertThat(revenueByRegion.get(REGIONS[region]))
+                .isEqualTo(BigDecimal.valueOf(expectedCents[region], 2).stripTrailingZeros().toPlainString());
+        }
+        assertThat(queryTokens).isLessThan(tableTokens / 1000);
+    }
+
+    private static long executeMicros(QueryEngine engine, QueryPlan plan, QueryTable table) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            long start = System.nanoTime();
+            engine.execute(plan, table);
+            best = Math.min(best, (System.nanoTime() - start) / 1_000);
+        }
+        return best;
+    }
+
+    private static String generateCsv(Random random, long[] expectedCents) {
+        String[] products = {"Laptop", "Monitor", "Keyboard", "Mouse", "Headset", "Dock", "Webcam", "Tablet"};
+        StringBuilder csv = new StringBuilder(ROWS * 50);
+        csv.append("Date,Customer,Product,Region,Amount\n");
+        for (int row = 0; row < ROWS; row++) {
+            int region = random.nextInt(REGIONS.length);
+            long cents = random.nextInt(500_000);
+            expectedCents[region] += cents;
+            csv.append("2024-").append(String.format("%02d", random.nextInt(12) + 1))
+                .append('-').append(String.format("%02d", random.nextInt(28) + 1))
+                .append(",C").append(String.format("%04d", random.nextInt(2_000)))
+                .append(',').append(products[random.nextInt(products.length)])
+                .append(',').append(REGIONS[region])
+                .append(',').append(cents / 100).append('.').append(String.format("%02d", cents % 100))
+                .append('\n');
+        }
+        return csv.toString();
+    }
+}
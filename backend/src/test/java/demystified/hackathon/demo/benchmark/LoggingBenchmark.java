@@ -0,0 +1,201 @@
+package demystified.hackathon.demo.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import demystified.hackathon.demo.logging.CorrelationId;
+import demystified.hackathon.demo.logging.Pii;
+import jakarta.mail.MessagingException;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures the time the prompt pipeline's log statements add to each request while
+ * several request threads log at once. "before" is the previous setup: a synchronous
+ * appender, unmasked addresses and full stack traces for failed emails. "after" logs
+ * through the asynchronous appender used by {@code logback-spring.xml}, with masked
+ * parameters and a key-value event per model call.
+ *
+ * <p>The sink takes {@link #SINK_WRITE_MICROS} per write, like stdout piped to a
+ * container log driver, so the synchronous case shows request threads queueing on
+ * the appender. The asynchronous appender never blocks and drops events instead
+ * when its queue is full; the written column shows how many reached the sink.
+ */
+class LoggingBenchmark {
+    private static final int THREADS = 8;
+    private static final int REQUESTS_PER_THREAD = 20_000;
+    private static final int FAILURE_EVERY = 50;
+    private static final long SINK_WRITE_MICROS = 20;
+    private static final String EMAIL = "ana.souza@example.com";
+    private static final MessagingException FAILURE =
+        new MessagingException("Invalid Addresses: " + EMAIL);
+
+    @Test
+    void compareRequestLatency() throws InterruptedException {
+        SlowSink syncSink = new SlowSink();
+        SlowSink asyncSink = new SlowSink();
+        LoggerContext syncContext = newContext(syncSink, false);
+        LoggerContext asyncContext = newContext(asyncSink, true);
+        Logger before = syncContext.getLogger("pipeline");
+        Logger after = asyncContext.getLogger("pipeline");
+
+        run(i -> logBefore(before, i), REQUESTS_PER_THREAD / 10);
+        run(i -> logAfter(after, i), REQUESTS_PER_THREAD / 10);
+        long[] beforeNanos = run(i -> logBefore(before, i), REQUESTS_PER_THREAD);
+        long[] afterNanos = run(i -> logAfter(after, i), REQUESTS_PER_THREAD);
+        syncContext.stop();
+        asyncContext.stop();
+
+        System.out.println();
+        System.out.println("== logging per request, " + THREADS + " threads ==");
+        System.out.printf("%-40s %14s %14s %14s%n", "case", "mean us", "p99 us", "written");
+        print("before (sync, unmasked, stack traces)", beforeNanos, syncSink);
+        print("after (async, masked, key-values)", afterNanos, asyncSink);
+    }
+
+    private static void logBefore(Logger logger, int request) {
+        logger.debug("Queued response for digest email to: {}", EMAIL);
+        if (request % FAILURE_EVERY == 0) {
+            logger.error("Error sending email to {}", EMAIL, FAILURE);
+        } else {
+            logger.info("Email sent successfully to: {}", EMAIL);
+            logger.info("Email enviado com sucesso para: {}", EMAIL);
+        }
+    }
+
+    private static void logAfter(Logger logger, int request) {
+        logger.atInfo()
+            .addKeyValue("modelId", "ibm/granite-13b-chat-v2")
+            .addKeyValue("responseId", "chat-" + request)
+            .addKeyValue("latencyMs", 2140L)
+            .log("Model call finished");
+        logger.debug("Queued response {} for digest email to {}", "chat-" + request, Pii.email(EMAIL));
+        if (request % FAILURE_EVERY == 0) {
+            logger.error("Error sending email for response {} to {}: {}", "chat-" + request, Pii.email(EMAIL),
+                Pii.summary(FAILURE));
+        } else {
+            logger.info("Email for response {} sent to {}", "chat-" + request, Pii.email(EMAIL));
+        }
+    }
+
+    /**
+     * Runs {@code requests} simulated requests on each thread and returns every request's duration.
+     */
+    private static long[] run(RequestLogger requestLogger, int requests) throws InterruptedException {
+        long[] nanos = new long[THREADS * requests];
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            int offset = t * requests;
+            executor.submit(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < requests; i++) {
+                        MDC.put(CorrelationId.MDC_KEY, "req-" + (offset + i));
+                        long begin = System.nanoTime();
+                        requestLogger.log(i);
+                        nanos[offset + i] = System.nanoTime() - begin;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    MDC.clear();
+                    done.countDown();
+                }
+            });
+        }
+        start.countDown();
+        done.await();
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        return nanos;
+    }
+
+    private static LoggerContext newContext(SlowSink sink, boolean async) {
+        LoggerContext context = new LoggerContext();
+        context.setMDCAdapter(MDC.getMDCAdapter());
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{ISO8601} %-5level [%thread] %X{requestId} %logger - %msg %kvp%n");
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> sinkAppender = new OutputStreamAppender<>();
+        sinkAppender.setContext(context);
+        sinkAppender.setName("SINK");
+        sinkAppender.setEncoder(encoder);
+        sinkAppender.setOutputStream(sink);
+        sinkAppender.start();
+
+        Appender<ILoggingEvent> appender = sinkAppender;
+        if (async) {
+            AsyncAppender asyncAppender = new AsyncAppender();
+            asyncAppender.setContext(context);
+            asyncAppender.setName("ASYNC_SINK");
+            asyncAppender.setQueueSize(8192);
+            asyncAppender.setNeverBlock(true);
+            asyncAppender.addAppender(sinkAppender);
+            asyncAppender.start();
+            appender = asyncAppender;
+        }
+
+        Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.detachAndStopAllAppenders();
+        root.addAppender(appender);
+        root.setLevel(Level.INFO);
+        return context;
+    }
+
+    private static void print(String name, long[] nanos, SlowSink sink) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        long p99 = sorted[(int) (sorted.length * 0.99)];
+        System.out.printf("%-40s %14.2f %14.2f %14d%n", name, mean(nanos) / 1e3, p99 / 1e3, sink.lines.get());
+    }
+
+    private static double mean(long[] nanos) {
+        return Arrays.stream(nanos).average().orElse(0);
+    }
+
+    @FunctionalInterface
+    private interface RequestLogger {
+        void log(int request);
+    }
+
+    /**
+     * Discards output after a fixed delay per write, counting the lines written.
+     */
+    private static final class SlowSink extends OutputStream {
+        private final AtomicLong lines = new AtomicLong();
+
+        @Override
+        public void write(int b) {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(SINK_WRITE_MICROS));
+            for (int i = offset; i < offset + length; i++) {
+                if (bytes[i] == '\n') {
+                    lines.incrementAndGet();
+                }
+            }
+        }
+    }
+}
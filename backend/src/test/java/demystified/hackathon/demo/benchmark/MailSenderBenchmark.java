@@ -0,0 +1,64 @@
+package demystified.hackathon.demo.benchmark;
+
+import demystified.hackathon.demo.config.MailPoolConfig;
+import demystified.hackathon.demo.fixtures.SmtpSink;
+import demystified.hackathon.demo.service.email.PooledJavaMailSender;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.io.IOException;
+
+/**
+ * Compares email throughput against a local SMTP sink between opening a connection
+ * per message and reusing pooled connections. The sink delays its greeting to stand
+ * in for the STARTTLS and AUTH round trips of a real provider.
+ */
+class MailSenderBenchmark {
+    private static final int WARMUP = 50;
+    private static final int ITERATIONS = 300;
+    private static final long HANDSHAKE_DELAY_MS = 5;
+
+    @Test
+    void compareThroughput() throws IOException {
+        try (SmtpSink sink = new SmtpSink(HANDSHAKE_DELAY_MS)) {
+            JavaMailSenderImpl perMessage = new JavaMailSenderImpl();
+            PooledJavaMailSender pooled = new PooledJavaMailSender(new MailPoolConfig());
+            configure(perMessage, sink);
+            configure(pooled, sink);
+
+            BenchmarkSupport.Result connectPerMessage = BenchmarkSupport.measure("connection-per-message", WARMUP, ITERATIONS,
+                () -> send(perMessage));
+            BenchmarkSupport.Result pooledConnections = BenchmarkSupport.measure("pooled-connections", WARMUP, ITERATIONS,
+                () -> send(pooled));
+            pooled.shutdown();
+
+            BenchmarkSupport.report("smtp send against local sink (" + HANDSHAKE_DELAY_MS + "ms handshake)",
+                connectPerMessage, pooledConnections);
+            System.out.printf("%-40s %14.1f%n", "connection-per-message msgs/s", 1e9 / connectPerMessage.nanosPerOp());
+            System.out.printf("%-40s %14.1f%n", "pooled-connections msgs/s", 1e9 / pooledConnections.nanosPerOp());
+        }
+    }
+
+    private static void configure(JavaMailSenderImpl sender, SmtpSink sink) {
+        sender.setHost("localhost");
+        sender.setPort(sink.getPort());
+    }
+
+    private static MimeMessage send(JavaMailSenderImpl sender) {
+        try {
+            MimeMessage message = sender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+            helper.setTo("user@example.com");
+            helper.setFrom("watsonx-bot@noreply.com");
+            helper.setSubject("Watsonx Response - Your Prompt");
+            helper.setText("<p>Benchmark body</p>", true);
+            sender.send(message);
+            return message;
+        } catch (MessagingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package demystified.hackathon.demo.benchmark;
+
+import demystified.hackathon.demo.config.RetrievalConfig;
+import demystified.hackathon.demo.service.generation.TokenEstimator;
+import demystified.hackathon.demo.service.retrieval.RowIndex;
+import demystified.hackathon.demo.service.retrieval.RowRetriever;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures row retrieval on a generated orders table: index build time sequential and
+ * parallel, search latency, recall and the prompt tokens saved. Each question asks
+ * about one customer in one month ("What happened with customer C0123 in March?"); a
+ * question's relevant rows are that customer's rows in that month, and recall is the
+ * share of them that made it into the selected rows.
+ */
+class RowRetrievalBenchmark {
+    private static final int ROWS = 200_000;
+    private static final int CUSTOMERS = 2_000;
+    private static final int QUESTIONS = 200;
+    private static final String[] MONTHS = {"January", "February", "March", "April", "May", "June", "July",
+        "August", "September", "October", "November", "December"};
+
+    @Test
+    void measureRecallAndLatency() {
+        Random random = new Random(42);
+        int[] customers = new int[ROWS];
+        int[] months = new int[ROWS];
+        String table = generateTable(random, customers, months);
+        RetrievalConfig config = new RetrievalConfig();
+
+        for (int i = 0; i < 3; i++) {
+            RowIndex.build(table, false);
+            RowIndex.build(table, true);
+        }
+        long sequentialMs = buildMillis(table, false);
+        long parallelMs = buildMillis(table, true);
+
+        RowIndex index = RowIndex.build(table, true);
+        long[] searchNanos = new long[QUESTIONS];
+        double recallSum = 0;
+        long selectedTokens = 0;
+        RowRetriever retriever = new RowRetriever(config);
+        for (int q = 0; q < QUESTIONS; q++) {
+            int customer = random.nextInt(CUSTOMERS);
+            int month = random.nextInt(12);
+            String question = String.format("What happened with customer C%04d in %s?", customer, MONTHS[month]);
+
+            long start = System.nanoTime();
+            int[] selected = index.search(question, config.getTopK(), config.getK1(), config.getB());
+            searchNanos[q] = System.nanoTime() - start;
+
+            List<Integer> relevant = new ArrayList<>();
+            for (int row = 0; row < ROWS; row++) {
+                if (customers[row] == customer && months[row] == month) {
+                    relevant.add(row);
+                }
+            }
+            long found = relevant.stream().filter(row -> Arrays.binarySearch(selected, row) >= 0).count();
+            recallSum += relevant.isEmpty() ? 1 : (double) found / relevant.size();
+            if (q < 10) {
+                selectedTokens += TokenEstimator.estimate(retriever.select(question, table).table());
+            }
+        }
+        Arrays.sort(searchNanos);
+        double recall = recallSum / QUESTIONS;
+        long fullTokens = TokenEstimator.estimate(table);
+        long averageSelectedTokens = selectedTokens / 10;
+
+        System.out.println();
+        System.out.println("== row retrieval, " + ROWS + " rows, top " + config.getTopK() + " ==");
+        System.out.printf("%-40s %14s%n", "case", "value");
+        System.out.printf("%-40s %14d%n", "index build sequential (ms)", sequentialMs);
+        System.out.printf("%-40s %14d%n", "index build parallel (ms)", parallelMs);
+        System.out.printf("%-40s %14.1f%n", "search p50 (us)", searchNanos[QUESTIONS / 2] / 1e3);
+        System.out.printf("%-40s %14.1f%n", "search p99 (us)", searchNanos[QUESTIONS * 99 / 100] / 1e3);
+        System.out.printf("%-40s %14.3f%n", "recall (customer + month)", recall);
+        System.out.printf("%-40s %14d%n", "prompt tokens, full table", fullTokens);
+        System.out.printf("%-40s %14d%n", "prompt tokens, selected rows", averageSelectedTokens);
+
+        assertThat(recall).isGreaterThan(0.95);
+        assertThat(averageSelectedTokens).isLessThan(fullTokens / 100);
+    }
+
+    private static long buildMillis(String table, boolean parallel) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            long start = System.nanoTime();
+            RowIndex.build(table, parallel);
+            best = Math.min(best, (System.nanoTime() - start) / 1_000_000);
+        }
+        return best;
+    }
+
+    private static String generateTable(Random random, int[] customers, int[] months) {
+        String[] products = {"Laptop", "Monitor", "Keyboard", "Mouse", "Headset", "Dock", "Webcam", "Tablet"};
+        String[] regions = {"North", "South", "Southeast", "Midwest", "Northeast"};
+        String[] notes = {"delivered", "delivered", "delivered", "delayed shipment", "refund requested",
+            "damaged on arrival", "gift wrap"};
+        StringBuilder table = new StringBuilder(ROWS * 80);
+        table.append("| Date | Customer | Product | Region | Amount | Note | \n");
+        table.append("| --- | --- | --- | --- | --- | --- | \n");
+        for (int row = 0; row < ROWS; row++) {
+            customers[row] = random.nextInt(CUSTOMERS);
+            months[row] = random.nextInt(12);
+            table.append("| 2024-").append(String.format("%02d", months[row] + 1))
+                .append('-').append(String.format("%02d", random.nextInt(28) + 1))
+                .append(" | C").append(String.format("%04d", customers[row]))
+                .append(" | ").append(products[random.nextInt(products.length)])
+                .append(" | ").append(regions[random.nextInt(regions.length)])
+                .append(" | ").append(random.nextInt(500_000) / 100.0)
+                .append(" | ").append(notes[random.nextInt(notes.length)])
+                .append(" | \n");
+        }
+        return table.toString();
+    }
+}
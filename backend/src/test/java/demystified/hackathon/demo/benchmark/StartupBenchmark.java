@@ -0,0 +1,211 @@
+package demystified.hackathon.demo.benchmark;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts the packaged application in a child JVM and reports the time until the
+ * readiness probe reports {@code UP} and the latency of the first request. Compares
+ * a cold start without warm-up, the default start with warm-up, and the
+ * startup-optimized variant with Spring AOT and a class data sharing archive.
+ *
+ * <p>Build the jar first, with {@code mvn package -Pstartup -DskipTests} to include the
+ * AOT variant. {@code -Dbenchmark.prompt="..."} sends a real prompt as the first request,
+ * which needs watsonx credentials; otherwise a local history query is used, sent with
+ * the admin token the child is started with since history is an admin endpoint.
+ */
+class StartupBenchmark {
+    private static final int RUNS = Integer.getInteger("benchmark.runs", 3);
+    private static final Duration READY_TIMEOUT = Duration.ofSeconds(120);
+    private static final Path WORK_DIR = Path.of("target", "startup-benchmark");
+    private static final String ADMIN_TOKEN = UUID.randomUUID().toString();
+    private static final String AOT_INITIALIZER =
+        "BOOT-INF/classes/demystified/hackathon/demo/DemoApplication__ApplicationContextInitializer.class";
+
+    private final HttpClient client = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofMillis(500))
+        .build();
+
+    @Test
+    void measureStartup() throws Exception {
+        Path jar = findJar();
+        Path extracted = extract(jar);
+
+        List<Result> results = new ArrayList<>();
+        results.add(measure("cold (no warm-up)", List.of("-Dwarmup.enabled=false"), jar));
+        results.add(measure("warm-up", List.of(), jar));
+        if (hasAotCode(jar)) {
+            Path archive = WORK_DIR.resolve("app.jsa");
+            Path app = extracted.resolve(jar.getFileName());
+            train(app, archive);
+            results.add(measure("warm-up + aot + cds",
+                List.of("-XX:SharedArchiveFile=" + archive, "-Dspring.aot.enabled=true"), app));
+        } else {
+            System.out.println("Jar was built without -Pstartup; skipping the AOT + CDS variant");
+        }
+
+        System.out.println();
+        System.out.println("== startup (median of " + RUNS + " runs) ==");
+        System.out.printf("%-40s %14s %14s%n", "case", "ready ms", "first req ms");
+        for (Result result : results) {
+            System.out.printf("%-40s %14d %14.1f%n", result.name(), result.readyMs(), result.firstRequestMs());
+        }
+        assertThat(results).allSatisfy(result -> assertThat(result.readyMs()).isPositive());
+    }
+
+    private Result measure(String name, List<String> jvmArgs, Path jar) throws Exception {
+        long[] readyMs = new long[RUNS];
+        double[] firstRequestMs = new double[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            int port = freePort();
+            List<String> command = new ArrayList<>(List.of(javaBin()));
+            command.addAll(jvmArgs);
+            command.addAll(dataDirectories());
+            command.addAll(List.of("-Dadmin.token=" + ADMIN_TOKEN, "-jar", jar.toString(),
+                "--server.port=" + port));
+
+            long start = System.nanoTime();
+            Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(WORK_DIR.resolve("app.log").toFile())
+                .start();
+            try {
+                awaitReady(port, process);
+                readyMs[run] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+                long requestStart = System.nanoTime();
+                int status = client.send(firstRequest(port), HttpResponse.BodyHandlers.discarding()).statusCode();
+                firstRequestMs[run] = (System.nanoTime() - requestStart) / 1e6;
+                if (status != 200) {
+                    throw new IllegalStateException("First request answered " + status + ", see " + WORK_DIR.resolve("app.log"));
+                }
+            } finally {
+                process.destroy();
+                process.waitFor(10, TimeUnit.SECONDS);
+            }
+        }
+        Arrays.sort(readyMs);
+        Arrays.sort(firstRequestMs);
+        return new Result(name, readyMs[RUNS / 2], firstRequestMs[RUNS / 2]);
+    }
+
+    private void awaitReady(int port, Process process) throws Exception {
+        HttpRequest probe = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health/readiness"))
+            .timeout(Duration.ofSeconds(1))
+            .build();
+        long deadline = System.nanoTime() + READY_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with " + process.exitValue() + ", see " + WORK_DIR.resolve("app.log"));
+            }
+            try {
+                if (client.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("Application not ready within " + READY_TIMEOUT);
+    }
+
+    private static HttpRequest firstRequest(int port) {
+        String prompt = System.getProperty("benchmark.prompt");
+        if (prompt == null) {
+            return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/history?email=benchmark@example.com"))
+                .header("Authorization", "Bearer " + ADMIN_TOKEN)
+                .build();
+        }
+        String body = "{\"content\":\"" + prompt.replace("\\", "\\\\").replace("\"", "\\\"") + "\"}";
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/send-prompt"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+    }
+
+    /**
+     * Records the class data sharing archive the same way the Dockerfile does.
+     */
+    private static void train(Path app, Path archive) throws Exception {
+        Files.deleteIfExists(archive);
+        List<String> command = new ArrayList<>(List.of(javaBin(), "-XX:ArchiveClassesAtExit=" + archive,
+            "-Dspring.aot.enabled=true", "-Dspring.context.exit=onRefresh"));
+        command.addAll(dataDirectories());
+        command.addAll(List.of("-jar", app.toString()));
+        run(command.toArray(String[]::new));
+    }
+
+    /**
+     * Points every directory the application writes to into the work directory, so a
+     * benchmark run leaves no data next to the project.
+     */
+    private static List<String> dataDirectories() {
+        Path data = WORK_DIR.resolve("data").toAbsolutePath();
+        return List.of("-Dhistory.directory=" + data.resolve("history"), "-Dusage.directory=" + data.resolve("usage"),
+            "-Dtracing.directory=" + data.resolve("traces"), "-Ddatasets.directory=" + data.resolve("datasets"),
+            "-Dprofiling.directory=" + data.resolve("profiling"));
+    }
+
+    private static Path extract(Path jar) throws Exception {
+        Path destination = WORK_DIR.resolve("application");
+        Files.createDirectories(WORK_DIR);
+        run(javaBin(), "-Djarmode=tools", "-jar", jar.toString(), "extract", "--force", "--destination", destination.toString());
+        return destination;
+    }
+
+    private static void run(String... command) throws Exception {
+        Process process = new ProcessBuilder(command)
+            .redirectErrorStream(true)
+            .redirectOutput(WORK_DIR.resolve("setup.log").toFile())
+            .start();
+        if (!process.waitFor(5, TimeUnit.MINUTES) || process.exitValue() != 0) {
+            throw new IllegalStateException("Command failed: " + String.join(" ", command));
+        }
+    }
+
+    private static boolean hasAotCode(Path jar) throws IOException {
+        try (JarFile jarFile = new JarFile(jar.toFile())) {
+            return jarFile.getEntry(AOT_INITIALIZER) != null;
+        }
+    }
+
+    private static Path findJar() throws IOException {
+        try (Stream<Path> files = Files.list(Path.of("target"))) {
+            return files.filter(path -> path.toString().endsWith(".jar"))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Run mvn package -DskipTests first"));
+        }
+    }
+
+    private static String javaBin() {
+        return Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private record Result(String name, long readyMs, double firstRequestMs) {
+    }
+}
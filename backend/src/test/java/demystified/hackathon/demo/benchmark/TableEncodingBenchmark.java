@@ -0,0 +1,111 @@
+package demystified.hackathon.demo.benchmark;
+
+import demystified.hackathon.demo.config.TableEncodingConfig;
+import demystified.hackathon.demo.service.csv.CsvTokenizer;
+import demystified.hackathon.demo.service.csv.MarkdownTableSink;
+import demystified.hackathon.demo.service.csv.TableEncoder;
+import demystified.hackathon.demo.service.csv.TableEncoding;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the estimated prompt tokens of each CSV context encoding against markdown
+ * on three generated files: orders (dates, ids and repeating categories), sensor
+ * readings (mostly numbers with trailing zeros) and support tickets (free text).
+ * Auto must never send more than markdown would.
+ */
+class TableEncodingBenchmark {
+    private static final int ROWS = 2_000;
+    private static final TableEncoding[] ENCODINGS = {TableEncoding.MARKDOWN, TableEncoding.TSV,
+        TableEncoding.COLUMNAR, TableEncoding.AUTO};
+
+    @Test
+    void compareEncodingTokens() throws IOException {
+        Random random = new Random(42);
+        TableEncoder encoder = new TableEncoder(new TableEncodingConfig());
+
+        System.out.println();
+        System.out.println("== CSV context tokens by encoding, " + ROWS + " rows ==");
+        System.out.printf("%-10s %-14s %12s %12s %10s%n", "file", "encoding", "tokens", "chars", "vs md");
+        report(encoder, "orders", toMarkdown(ordersCsv(random)));
+        report(encoder, "sensor", toMarkdown(sensorCsv(random)));
+        report(encoder, "tickets", toMarkdown(ticketsCsv(random)));
+    }
+
+    private static void report(TableEncoder encoder, String file, String markdown) {
+        TableEncoder.EncodedTable auto = null;
+        for (TableEncoding encoding : ENCODINGS) {
+            TableEncoder.EncodedTable encoded = encoder.encode(markdown, encoding);
+            String label = encoding == TableEncoding.AUTO ? "auto:" + encoded.encoding().key() : encoding.key();
+            System.out.printf("%-10s %-14s %12d %12d %9.0f%%%n", file, label, encoded.tokens(),
+                encoded.text().length(), 100.0 * encoded.tokens() / encoded.markdownTokens());
+            if (encoding == TableEncoding.AUTO) {
+                auto = encoded;
+            }
+        }
+        assertThat(auto).isNotNull();
+        assertThat(auto.tokens()).isLessThanOrEqualTo(auto.markdownTokens());
+    }
+
+    private static String toMarkdown(String csv) throws IOException {
+        StringBuilder table = new StringBuilder(csv.length() * 2);
+        new CsvTokenizer(new StringReader(csv)).tokenize(new MarkdownTableSink(table));
+        return table.toString();
+    }
+
+    private static String ordersCsv(Random random) {
+        String[] regions = {"North America", "Europe", "Asia Pacific", "Latin America"};
+        String[] products = {"Laptop Pro 14", "Monitor 27 inch", "Wireless Keyboard", "Docking Station"};
+        String[] statuses = {"Delivered", "Shipped", "Cancelled", "Returned"};
+        StringBuilder csv = new StringBuilder(ROWS * 80);
+        csv.append("Order Id,Date,Region,Product,Status,Quantity,Amount\n");
+        for (int row = 0; row < ROWS; row++) {
+            csv.append("SO-").append(String.format("%06d", 100_000 + row))
+                .append(",2024-").append(String.format("%02d", random.nextInt(12) + 1))
+                .append('-').append(String.format("%02d", random.nextInt(28) + 1))
+                .append(',').append(regions[random.nextInt(regions.length)])
+                .append(',').append(products[random.nextInt(products.length)])
+                .append(',').append(statuses[random.nextInt(statuses.length)])
+                .append(',').append(random.nextInt(20) + 1)
+                .append(',').append(random.nextInt(5_000)).append('.').append(String.format("%02d", random.nextInt(100)))
+                .append('\n');
+        }
+        return csv.toString();
+    }
+
+    private static String sensorCsv(Random random) {
+        StringBuilder csv = new StringBuilder(ROWS * 60);
+        csv.append("Timestamp,Sensor,Temperature,Humidity,Pressure\n");
+        for (int row = 0; row < ROWS; row++) {
+            csv.append(1_700_000_000L + row * 60L)
+                .append(",S").append(random.nextInt(8))
+                .append(',').append(String.format(Locale.ROOT, "%.3f", 18 + random.nextInt(80) / 10.0))
+                .append(',').append(String.format(Locale.ROOT, "%.2f", (double) (30 + random.nextInt(50))))
+                .append(',').append(String.format(Locale.ROOT, "%.1f", 1000.0 + random.nextInt(30)))
+                .append('\n');
+        }
+        return csv.toString();
+    }
+
+    private static String ticketsCsv(Random random) {
+        String[] openings = {"Customer reports that", "User says", "Escalated because", "Follow-up:"};
+        String[] problems = {"the invoice total does not match the order", "login fails after the password reset",
+            "the export to CSV drops the last column", "emails arrive twice, see attached log"};
+        StringBuilder csv = new StringBuilder(ROWS * 120);
+        csv.append("Ticket,Priority,Summary\n");
+        for (int row = 0; row < ROWS; row++) {
+            csv.append("T").append(10_000 + row)
+                .append(',').append(random.nextBoolean() ? "high" : "normal")
+                .append(",\"").append(openings[random.nextInt(openings.length)]).append(' ')
+                .append(problems[random.nextInt(problems.length)]).append(" (case ")
+                .append(random.nextInt(100_000)).append(")\"\n");
+        }
+        return csv.toString();
+    }
+}
@@ -0,0 +1,74 @@
+package demystified.hackathon.demo.benchmark;
+
+import demystified.hackathon.demo.config.TracingConfig;
+import demystified.hackathon.demo.tracing.Span;
+import demystified.hackathon.demo.tracing.SpanExporter;
+import demystified.hackathon.demo.tracing.SpanKind;
+import demystified.hackathon.demo.tracing.Tracer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+/**
+ * Measures the cost of the spans opened for one prompt request (server span, cache
+ * lookup, IAM token, chat call, attempt and email) with tracing disabled, with
+ * tracing on but the trace not sampled, and with the trace sampled and exported.
+ */
+class TracingBenchmark {
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int ITERATIONS = 1_000_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void compareSamplingModes() {
+        Tracer disabled = Tracer.noop();
+
+        TracingConfig unsampledConfig = new TracingConfig();
+        unsampledConfig.setSampleRatio(0);
+        Tracer unsampled = new Tracer(unsampledConfig, null);
+
+        TracingConfig sampledConfig = new TracingConfig();
+        sampledConfig.setSampleRatio(1.0);
+        sampledConfig.setDirectory(directory.toString());
+        SpanExporter exporter = new SpanExporter(sampledConfig);
+        Tracer sampled = new Tracer(sampledConfig, exporter);
+
+        BenchmarkSupport.report("prompt request spans",
+            BenchmarkSupport.measure("no tracing", WARMUP_ITERATIONS, ITERATIONS, TracingBenchmark::untraced),
+            BenchmarkSupport.measure("tracing disabled", WARMUP_ITERATIONS, ITERATIONS, () -> traced(disabled)),
+            BenchmarkSupport.measure("sample ratio 0", WARMUP_ITERATIONS, ITERATIONS, () -> traced(unsampled)),
+            BenchmarkSupport.measure("sample ratio 1 (exported)", WARMUP_ITERATIONS / 10, ITERATIONS / 10,
+                () -> traced(sampled))
+        );
+        System.out.println("export: " + exporter.getStats());
+        exporter.shutdown();
+    }
+
+    private static Object untraced() {
+        return "response";
+    }
+
+    private static Object traced(Tracer tracer) {
+        try (Span server = tracer.startServerSpan("POST /api/send-prompt", null)) {
+            server.setAttribute("http.request.method", "POST");
+            Boolean hit = tracer.trace("prompt-cache.lookup", SpanKind.INTERNAL, span -> {
+                span.setAttribute("cache.hit", false);
+                return Boolean.FALSE;
+            });
+            String token = tracer.trace("iam.token", SpanKind.INTERNAL, span -> "token");
+            String response = tracer.trace("watsonx.chat", SpanKind.INTERNAL, span -> {
+                span.setAttribute("gen_ai.request.model", "ibm/granite-13b-chat-v2");
+                span.setAttribute("prompt.chars", 1200);
+                return tracer.trace("watsonx.attempt", SpanKind.CLIENT, attempt -> token + hit);
+            });
+            try (Span email = tracer.startSpan("smtp.send", SpanKind.CLIENT)) {
+                email.setAttribute("email.entries", 1);
+            }
+            server.setAttribute("http.response.status_code", 200);
+            return response;
+        }
+    }
+}
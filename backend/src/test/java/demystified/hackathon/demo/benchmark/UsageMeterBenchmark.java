@@ -0,0 +1,107 @@
+package demystified.hackathon.demo.benchmark;
+
+import demystified.hackathon.demo.config.UsageConfig;
+import demystified.hackathon.demo.service.chat.TokenUsage;
+import demystified.hackathon.demo.service.usage.UsageMeter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures usage recording throughput as threads are added, comparing the striped
+ * {@link UsageMeter} counters with a map of counters guarded by one lock. Every
+ * thread records for the same few users and models, the worst case for contention.
+ */
+class UsageMeterBenchmark {
+    private static final int[] THREAD_COUNTS = {1, 4, 8};
+    private static final int OPERATIONS_PER_THREAD = 2_000_000;
+    private static final String[] USERS = {"ana@example.com", "bruno@example.com", "carla@example.com"};
+    private static final String MODEL_ID = "ibm/granite-13b-chat-v2";
+    private static final TokenUsage USAGE = new TokenUsage(900, 120, 1020);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void compareContention() throws InterruptedException {
+        UsageConfig config = new UsageConfig();
+        config.setDirectory(directory.toString());
+        config.setFlushIntervalMs(3_600_000);
+        UsageMeter meter = new UsageMeter(config);
+        LockedCounters locked = new LockedCounters();
+
+        System.out.println();
+        System.out.println("== usage recording, " + OPERATIONS_PER_THREAD + " ops per thread ==");
+        System.out.printf("%-40s %14s %14s%n", "case", "threads", "Mops/s");
+        for (int threads : THREAD_COUNTS) {
+            double lockedRate = run(threads, i -> locked.record(USERS[i % USERS.length], MODEL_ID, USAGE, 35));
+            double stripedRate = run(threads, i -> meter.record(USERS[i % USERS.length], MODEL_ID, null, USAGE, 35));
+            System.out.printf("%-40s %14d %14.2f%n", "single-lock-map", threads, lockedRate / 1e6);
+            System.out.printf("%-40s %14d %14.2f%n", "striped-long-adders", threads, stripedRate / 1e6);
+        }
+        meter.shutdown();
+    }
+
+    /**
+     * Runs warm-up and measured rounds on {@code threads} threads and returns operations per second.
+     */
+    private static double run(int threads, Recorder recorder) throws InterruptedException {
+        runRound(threads, OPERATIONS_PER_THREAD / 10, recorder);
+        long elapsed = runRound(threads, OPERATIONS_PER_THREAD, recorder);
+        return (double) threads * OPERATIONS_PER_THREAD / (elapsed / 1e9);
+    }
+
+    private static long runRound(int threads, int operations, Recorder recorder) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < operations; i++) {
+                        recorder.record(i);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - begin;
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        return elapsed;
+    }
+
+    @FunctionalInterface
+    private interface Recorder {
+        void record(int iteration);
+    }
+
+    /**
+     * Straightforward alternative: plain counters in a map behind one lock.
+     */
+    private static final class LockedCounters {
+        private final Map<String, long[]> counters = new HashMap<>();
+
+        synchronized void record(String email, String modelId, TokenUsage usage, long latencyMs) {
+            long[] values = counters.computeIfAbsent(email + '|' + modelId, key -> new long[4]);
+            values[0]++;
+            values[1] += usage.promptTokens();
+            values[2] += usage.completionTokens();
+            values[3] += latencyMs;
+        }
+    }
+}
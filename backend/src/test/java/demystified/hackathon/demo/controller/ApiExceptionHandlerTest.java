@@ -0,0 +1,36 @@
+package demystified.hackathon.demo.controller;
+
+import demystified.hackathon.demo.service.csv.CsvUploadException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ApiExceptionHandlerTest {
+
+    /**
+     * Test: the reason of a ResponseStatusException should be returned with its status
+     */
+    @Test
+    void shouldWriteReasonOfResponseStatusException() {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/send-prompt-with-csv");
+        CsvUploadException exception = new CsvUploadException(HttpStatus.PAYLOAD_TOO_LARGE,
+            "CSV upload is too large");
+
+        // Act
+        ResponseEntity<Map<String, Object>> response = new ApiExceptionHandler().handleResponseStatus(exception, request);
+
+        // Assert
+        assertThat(response.getStatusCode().value()).isEqualTo(413);
+        assertThat(response.getBody())
+            .containsEntry("status", 413)
+            .containsEntry("error", "Payload Too Large")
+            .containsEntry("message", "CSV upload is too large")
+            .containsEntry("path", "/api/send-prompt-with-csv");
+    }
+}
@@ -1,16 +1,31 @@
 package demystified.hackathon.demo.controller;
 
+import demystified.hackathon.demo.config.CancellationConfig;
+import demystified.hackathon.demo.config.CsvUploadConfig;
+import demystified.hackathon.demo.config.IdempotencyConfig;
+import demystified.hackathon.demo.config.LaneConfig;
+import demystified.hackathon.demo.service.InFlightTracker;
 import demystified.hackathon.demo.service.WatsonxService;
+import demystified.hackathon.demo.service.cancellation.DisconnectGuard;
+import demystified.hackathon.demo.service.csv.CsvUploadReader;
+import demystified.hackathon.demo.service.idempotency.IdempotencyException;
+import demystified.hackathon.demo.service.idempotency.IdempotencyStore;
+import demystified.hackathon.demo.service.scheduling.LaneScheduler;
 import demystified.hackathon.demo.fixtures.TestDataBuilder;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -19,12 +34,16 @@ class PromptControllerTest {
     @Mock
     private WatsonxService watsonxService;
 
-    @InjectMocks
     private PromptController promptController;
 
     @BeforeEach
     void setUp() {
-        // Setup common mock behavior
+        // Run prompts on the calling thread so results are set when the handler returns
+        CancellationConfig cancellationConfig = new CancellationConfig();
+        cancellationConfig.setEnabled(false);
+        promptController = new PromptController(watsonxService, new DisconnectGuard(cancellationConfig,
+            new LaneScheduler(new LaneConfig()), new InFlightTracker()), new IdempotencyStore(new IdempotencyConfig(), cancellationConfig),
+            new CsvUploadReader(new CsvUploadConfig()));
     }
 
     /**
@@ -36,7 +55,7 @@ class PromptControllerTest {
         PromptResponse expectedResponse = TestDataBuilder.createTestPromptResponse(
             "This is a test response"
         );
-        when(watsonxService.sendPrompt(anyString(), anyString()))
+        when(watsonxService.sendPrompt(anyString(), anyString(), isNull()))
             .thenReturn(expectedResponse);
 
         PromptController.PromptRequest request = new PromptController.PromptRequest();
@@ -44,7 +63,7 @@ class PromptControllerTest {
         request.setEmail("test@example.com");
 
         // Act
-        PromptResponse response = promptController.sendPrompt(request);
+        PromptResponse response = (PromptResponse) promptController.sendPrompt(request, null, null).getResult();
 
         // Assert
         assertThat(response).isNotNull();
@@ -61,7 +80,7 @@ class PromptControllerTest {
         PromptResponse expectedResponse = TestDataBuilder.createTestPromptResponse(
             "Response without email"
         );
-        when(watsonxService.sendPrompt(TestDataBuilder.TestConstants.TEST_PROMPT, null))
+        when(watsonxService.sendPrompt(TestDataBuilder.TestConstants.TEST_PROMPT, null, null))
             .thenReturn(expectedResponse);
 
         PromptController.PromptRequest request = new PromptController.PromptRequest();
@@ -69,7 +88,7 @@ class PromptControllerTest {
         request.setEmail(null);
 
         // Act
-        PromptResponse response = promptController.sendPrompt(request);
+        PromptResponse response = (PromptResponse) promptController.sendPrompt(request, null, null).getResult();
 
         // Assert
         assertThat(response).isNotNull();
@@ -83,7 +102,7 @@ class PromptControllerTest {
     void shouldSendPromptWithEmptyContent() {
         // Arrange
         PromptResponse expectedResponse = TestDataBuilder.createTestPromptResponse();
-        when(watsonxService.sendPrompt(anyString(), anyString()))
+        when(watsonxService.sendPrompt(anyString(), anyString(), isNull()))
             .thenReturn(expectedResponse);
 
         PromptController.PromptRequest request = new PromptController.PromptRequest();
@@ -91,7 +110,7 @@ class PromptControllerTest {
         request.setEmail("test@example.com");
 
         // Act
-        PromptResponse response = promptController.sendPrompt(request);
+        PromptResponse response = (PromptResponse) promptController.sendPrompt(request, null, null).getResult();
 
         // Assert
         assertThat(response).isNotNull();
@@ -106,7 +125,7 @@ class PromptControllerTest {
         PromptResponse expectedResponse = TestDataBuilder.createTestPromptResponse(
             "Response with special chars"
         );
-        when(watsonxService.sendPrompt(anyString(), anyString()))
+        when(watsonxService.sendPrompt(anyString(), anyString(), isNull()))
             .thenReturn(expectedResponse);
 
         PromptController.PromptRequest request = new PromptController.PromptRequest();
@@ -114,7 +133,7 @@ class PromptControllerTest {
         request.setEmail("test@example.com");
 
         // Act
-        PromptResponse response = promptController.sendPrompt(request);
+        PromptResponse response = (PromptResponse) promptController.sendPrompt(request, null, null).getResult();
 
         // Assert
         assertThat(response).isNotNull();
@@ -134,7 +153,7 @@ class PromptControllerTest {
             "unique-response-id",
             expectedCreatedAt
         );
-        when(watsonxService.sendPrompt(anyString(), anyString()))
+        when(watsonxService.sendPrompt(anyString(), anyString(), isNull()))
             .thenReturn(expectedResponse);
 
         PromptController.PromptRequest request = new PromptController.PromptRequest();
@@ -142,7 +161,7 @@ class PromptControllerTest {
         request.setEmail("test@example.com");
 
         // Act
-        PromptResponse response = promptController.sendPrompt(request);
+        PromptResponse response = (PromptResponse) promptController.sendPrompt(request, null, null).getResult();
 
         // Assert
         assertThat(response).isNotNull();
@@ -151,4 +170,60 @@ class PromptControllerTest {
         assertThat(response.getId()).isEqualTo("unique-response-id");
         assertThat(response.getCreatedAt()).isEqualTo(expectedCreatedAt);
     }
+
+    /**
+     * Test: a repeat with the same idempotency key should get the first answer without a second model call
+     */
+    @Test
+    void shouldAnswerRepeatedIdempotencyKeyFromFirstRequest() {
+        // Arrange
+        PromptResponse expectedResponse = TestDataBuilder.createTestPromptResponse("First answer");
+        when(watsonxService.sendPrompt(anyString(), anyString(), isNull()))
+            .thenReturn(expectedResponse);
+
+        PromptController.PromptRequest request = new PromptController.PromptRequest();
+        request.setContent("Test");
+        request.setEmail("test@example.com");
+        promptController.sendPrompt(request, null, "key-1");
+
+        // Act
+        Object repeated = promptController.sendPrompt(request, null, "key-1").getResult();
+
+        // Assert
+        assertThat(repeated).isSameAs(expectedResponse);
+        verify(watsonxService, times(1)).sendPrompt("Test", "test@example.com", null);
+    }
+
+    /**
+     * Test: reusing an idempotency key for a different prompt should be rejected
+     */
+    @Test
+    void shouldRejectIdempotencyKeyReusedForDifferentPrompt() {
+        // Arrange
+        when(watsonxService.sendPrompt(anyString(), anyString(), isNull()))
+            .thenReturn(TestDataBuilder.createTestPromptResponse());
+
+        PromptController.PromptRequest request = new PromptController.PromptRequest();
+        request.setContent("Test");
+        request.setEmail("test@example.com");
+        promptController.sendPrompt(request, null, "key-1");
+        request.setContent("Another question");
+
+        // Act & Assert
+        assertThatThrownBy(() -> promptController.sendPrompt(request, null, "key-1"))
+            .isInstanceOf(IdempotencyException.class)
+            .satisfies(e -> assertThat(((IdempotencyException) e).getStatusCode())
+                .isEqualTo(HttpStatus.UNPROCESSABLE_CONTENT));
+    }
+
+    /**
+     * Test: cancelling a request that is not in flight should be a 404
+     */
+    @Test
+    void shouldRejectCancellingUnknownRequest() {
+        // Act & Assert
+        assertThatThrownBy(() -> promptController.cancel("no-such-request", null))
+            .isInstanceOf(ResponseStatusException.class)
+            .hasMessageContaining("no-such-request");
+    }
 }
@@ -1,8 +1,9 @@
 package demystified.hackathon.demo.fixtures;
 
 import demystified.hackathon.demo.controller.PromptResponse;
+import demystified.hackathon.demo.service.chat.ChatResponse;
+import demystified.hackathon.demo.service.chat.TokenUsage;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -13,27 +14,38 @@ public class TestDataBuilder {
     /**
      * Creates a mock Watsonx API response
      */
-    public static Map<String, Object> createMockWatsonxResponse() {
+    public static ChatResponse createMockWatsonxResponse() {
         return createMockWatsonxResponse("Mocked response content");
     }
 
     /**
      * Creates a mock Watsonx API response with custom content
      */
-    public static Map<String, Object> createMockWatsonxResponse(String content) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("id", "response-123");
-        response.put("model_id", "test-model");
-        response.put("created", System.currentTimeMillis());
-
-        Map<String, Object> message = new HashMap<>();
-        message.put("content", content);
-
-        Map<String, Object> choice = new HashMap<>();
-        choice.put("message", message);
+    public static ChatResponse createMockWatsonxResponse(String content) {
+        return new ChatResponse(
+            "response-123",
+            "test-model",
+            System.currentTimeMillis(),
+            content,
+            new TokenUsage(120, 45, 165)
+        );
+    }
 
-        response.put("choices", List.of(choice));
-        return response;
+    /**
+     * Creates a raw Watsonx chat completion body, including fields the backend ignores
+     */
+    public static String createMockWatsonxResponseJson(String content) {
+        return "{" +
+               "\"id\":\"response-123\"," +
+               "\"model_id\":\"test-model\"," +
+               "\"model\":\"test-model\"," +
+               "\"created\":1738420800," +
+               "\"model_version\":\"1.0.0\"," +
+               "\"choices\":[{\"index\":0,\"message\":{\"role\":\"assistant\",\"content\":\"" + content + "\"}," +
+               "\"logprobs\":{\"content\":[{\"token\":\"a\",\"logprob\":-0.1}]},\"finish_reason\":\"stop\"}]," +
+               "\"usage\":{\"completion_tokens\":45,\"prompt_tokens\":120,\"total_tokens\":165}," +
+               "\"system\":{\"warnings\":[{\"message\":\"ignored\",\"id\":\"w1\"}]}" +
+               "}";
     }
 
     /**
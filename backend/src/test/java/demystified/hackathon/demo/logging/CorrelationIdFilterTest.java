@@ -0,0 +1,74 @@
+package demystified.hackathon.demo.logging;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CorrelationIdFilterTest {
+
+    private final CorrelationIdFilter filter = new CorrelationIdFilter();
+
+    /**
+     * Test: a well-formed caller id should be used for the request and echoed back
+     */
+    @Test
+    void shouldReuseCallerRequestId() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/send-prompt");
+        request.addHeader(CorrelationId.HEADER, "req-123");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<String> seen = new AtomicReference<>();
+
+        // Act
+        filter.doFilter(request, response, (req, res) -> seen.set(CorrelationId.current()));
+
+        // Assert
+        assertThat(seen.get()).isEqualTo("req-123");
+        assertThat(response.getHeader(CorrelationId.HEADER)).isEqualTo("req-123");
+        assertThat(MDC.get(CorrelationId.MDC_KEY)).isNull();
+    }
+
+    /**
+     * Test: a missing or malformed id should be replaced by a generated one
+     */
+    @Test
+    void shouldGenerateIdForMalformedHeader() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/send-prompt");
+        request.addHeader(CorrelationId.HEADER, "bad id\r\nInjected: yes");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<String> seen = new AtomicReference<>();
+
+        // Act
+        filter.doFilter(request, response, (req, res) -> seen.set(CorrelationId.current()));
+
+        // Assert
+        assertThat(seen.get()).isNotBlank().doesNotContain(" ");
+        assertThat(response.getHeader(CorrelationId.HEADER)).isEqualTo(seen.get());
+    }
+
+    /**
+     * Test: work handed to another thread should log with the caller's request id
+     */
+    @Test
+    void shouldPropagateRequestIdToOtherThreads() throws InterruptedException {
+        // Arrange
+        AtomicReference<String> seen = new AtomicReference<>();
+        MDC.put(CorrelationId.MDC_KEY, "req-456");
+        Runnable task = CorrelationId.propagate(() -> seen.set(CorrelationId.current()));
+        MDC.remove(CorrelationId.MDC_KEY);
+
+        // Act
+        Thread worker = new Thread(task);
+        worker.start();
+        worker.join();
+
+        // Assert
+        assertThat(seen.get()).isEqualTo("req-456");
+    }
+}
@@ -0,0 +1,34 @@
+package demystified.hackathon.demo.logging;
+
+import jakarta.mail.MessagingException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PiiTest {
+
+    /**
+     * Test: email addresses should keep only the first letter and domain
+     */
+    @Test
+    void shouldMaskEmail() {
+        assertThat(Pii.email("ana.souza@example.com")).hasToString("a***@example.com");
+        assertThat(Pii.maskEmail("not-an-email")).isEqualTo("***");
+        assertThat(Pii.maskEmail(null)).isNull();
+    }
+
+    /**
+     * Test: exception summaries should mask addresses in the message and omit the stack trace
+     */
+    @Test
+    void shouldSummarizeExceptionWithoutAddresses() {
+        // Arrange
+        MessagingException failure = new MessagingException("Invalid Addresses: ana@example.com; bruno@test.org");
+
+        // Act
+        String summary = Pii.summary(failure).toString();
+
+        // Assert
+        assertThat(summary).isEqualTo("MessagingException: Invalid Addresses: a***@example.com; b***@test.org");
+    }
+}
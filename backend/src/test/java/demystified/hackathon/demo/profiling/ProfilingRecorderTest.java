@@ -0,0 +1,182 @@
+package demystified.hackathon.demo.profiling;
+
+import demystified.hackathon.demo.config.ProfilingConfig;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProfilingRecorderTest {
+
+    @TempDir
+    Path directory;
+
+    private ProfilingConfig config;
+    private ProfilingRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        config = new ProfilingConfig();
+        config.setEnabled(true);
+        config.setDirectory(directory.toString());
+        config.setSettings("default");
+        recorder = new ProfilingRecorder(config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        recorder.shutdown();
+    }
+
+    /**
+     * Test: pipeline events emitted while recording should end up in the collected file
+     */
+    @Test
+    void shouldRecordPipelineEvents() throws IOException {
+        // Arrange
+        recorder.start(60_000L);
+        RenderEvent render = new RenderEvent();
+        render.begin();
+        render.commit(RenderEvent.PROMPT, 1234);
+        UpstreamCallEvent call = new UpstreamCallEvent();
+        call.begin();
+        call.setRequest("ibm/granite", "default", "interactive", 1234, 310, 900);
+        call.setUsage(320, 85);
+        call.commit(UpstreamCallEvent.OK);
+
+        // Act
+        ProfilingRecorder.RecordingFile file = recorder.stop();
+
+        // Assert
+        assertThat(file.path()).exists();
+        assertThat(file.sizeBytes()).isEqualTo(Files.size(file.path()));
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file.path()).stream()
+            .filter(event -> event.getEventType().getName().startsWith("demystified.watsonx."))
+            .toList();
+        assertThat(events).extracting(event -> event.getEventType().getName())
+            .containsExactly("demystified.watsonx.Render", "demystified.watsonx.UpstreamCall");
+        assertThat(events.get(0).getLong("chars")).isEqualTo(1234);
+        assertThat(events.get(1).getString("lane")).isEqualTo("interactive");
+        assertThat(events.get(1).getLong("outputTokens")).isEqualTo(85);
+        assertThat(recorder.getStats().state()).isEqualTo("idle");
+    }
+
+    /**
+     * Test: a recording should never hold the environment, system properties or JVM arguments
+     */
+    @Test
+    void shouldLeaveOutEventsCarryingCredentials() throws IOException {
+        // Arrange
+        config.setSettings("profile");
+        recorder.start(60_000L);
+
+        // Act
+        ProfilingRecorder.RecordingFile file = recorder.stop();
+
+        // Assert
+        assertThat(RecordingFile.readAllEvents(file.path()))
+            .extracting(event -> event.getEventType().getName())
+            .isNotEmpty()
+            .doesNotContain("jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty", "jdk.JVMInformation");
+    }
+
+    /**
+     * Test: profiling should be off unless enabled
+     */
+    @Test
+    void shouldRejectStartWhenNotEnabled() {
+        // Arrange
+        recorder = new ProfilingRecorder(new ProfilingConfig());
+
+        // Act & Assert
+        assertThatThrownBy(() -> recorder.start(60_000L))
+            .isInstanceOf(ProfilingException.class)
+            .satisfies(e -> assertThat(((ProfilingException) e).getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN));
+    }
+
+    /**
+     * Test: events should be disabled while no recording runs
+     */
+    @Test
+    void shouldNotEnableEventsWithoutRecording() {
+        // Act
+        UpstreamCallEvent event = new UpstreamCallEvent();
+        event.begin();
+
+        // Assert
+        assertThat(event.isEnabled()).isFalse();
+        assertThat(event.shouldCommit()).isFalse();
+    }
+
+    /**
+     * Test: a recording should stop by itself after its duration and still be collectable
+     */
+    @Test
+    void shouldStopAfterDuration() throws InterruptedException {
+        // Arrange
+        recorder.start(100L);
+
+        // Act
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (recorder.getStats().state().equals("running") && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+
+        // Assert
+        assertThat(recorder.getStats().state()).isEqualTo("stopped");
+        assertThat(recorder.stop().path()).exists();
+    }
+
+    /**
+     * Test: the requested duration should be capped at the configured maximum
+     */
+    @Test
+    void shouldCapDuration() {
+        // Arrange
+        config.setMaxDurationMs(5_000);
+
+        // Act
+        ProfilingRecorder.ProfilingStats stats = recorder.start(3_600_000L);
+
+        // Assert
+        assertThat(stats.state()).isEqualTo("running");
+        assertThat(stats.durationMs()).isEqualTo(5_000);
+    }
+
+    /**
+     * Test: only one recording should run at a time
+     */
+    @Test
+    void shouldRejectSecondRecording() {
+        // Arrange
+        recorder.start(60_000L);
+
+        // Act & Assert
+        assertThatThrownBy(() -> recorder.start(60_000L))
+            .isInstanceOf(ProfilingException.class)
+            .satisfies(e -> assertThat(((ProfilingException) e).getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+    }
+
+    /**
+     * Test: stopping without a recording should be reported as not found
+     */
+    @Test
+    void shouldRejectStopWithoutRecording() {
+        // Act & Assert
+        assertThatThrownBy(() -> recorder.stop())
+            .isInstanceOf(ProfilingException.class)
+            .satisfies(e -> assertThat(((ProfilingException) e).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+    }
+}
@@ -0,0 +1,131 @@
+package demystified.hackathon.demo.security;
+
+import demystified.hackathon.demo.config.AdminConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdminTokenFilterTest {
+    private static final String TOKEN = "s3cret-admin-token";
+
+    /**
+     * Test: an admin request with the configured bearer token should pass
+     */
+    @Test
+    void shouldPassAdminRequestWithToken() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/admin/usage");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + TOKEN);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicBoolean passed = new AtomicBoolean();
+
+        // Act
+        filter(TOKEN).doFilter(request, response, (req, res) -> passed.set(true));
+
+        // Assert
+        assertThat(passed.get()).isTrue();
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    /**
+     * Test: a missing or wrong token should be rejected with 401
+     */
+    @Test
+    void shouldRejectAdminRequestWithoutValidToken() throws Exception {
+        // Arrange
+        MockHttpServletRequest missing = new MockHttpServletRequest("GET", "/api/admin/usage");
+        MockHttpServletRequest wrong = new MockHttpServletRequest("POST", "/api/admin/profiling/stop");
+        wrong.addHeader(HttpHeaders.AUTHORIZATION, "Bearer guess");
+        MockHttpServletRequest history = new MockHttpServletRequest("GET", "/api/history");
+        history.setParameter("email", "user@example.com");
+        MockHttpServletResponse missingResponse = new MockHttpServletResponse();
+        MockHttpServletResponse wrongResponse = new MockHttpServletResponse();
+        MockHttpServletResponse historyResponse = new MockHttpServletResponse();
+        AtomicBoolean passed = new AtomicBoolean();
+
+        // Act
+        filter(TOKEN).doFilter(missing, missingResponse, (req, res) -> passed.set(true));
+        filter(TOKEN).doFilter(wrong, wrongResponse, (req, res) -> passed.set(true));
+        filter(TOKEN).doFilter(history, historyResponse, (req, res) -> passed.set(true));
+
+        // Assert
+        assertThat(passed.get()).isFalse();
+        assertThat(missingResponse.getStatus()).isEqualTo(401);
+        assertThat(historyResponse.getStatus()).isEqualTo(401);
+        assertThat(wrongResponse.getStatus()).isEqualTo(401);
+        assertThat(wrongResponse.getHeader(HttpHeaders.WWW_AUTHENTICATE)).isEqualTo("Bearer");
+    }
+
+    /**
+     * Test: encoded or matrix-parameter variants of a protected path should still need the token
+     */
+    @Test
+    void shouldRejectObfuscatedAdminPaths() throws Exception {
+        // Arrange
+        List<String> paths = List.of("/api/admin;x/usage", "/api/%61dmin/profiling", "/api/history;x",
+            "/api//admin/usage");
+        AdminTokenFilter filter = filter(TOKEN);
+        AtomicBoolean passed = new AtomicBoolean();
+
+        // Act
+        List<Integer> statuses = new ArrayList<>();
+        for (String path : paths) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("GET", path), response, (req, res) -> passed.set(true));
+            statuses.add(response.getStatus());
+        }
+
+        // Assert
+        assertThat(passed.get()).isFalse();
+        assertThat(statuses).containsOnly(401);
+    }
+
+    /**
+     * Test: without a configured token the admin endpoints should be closed to everyone
+     */
+    @Test
+    void shouldRejectEveryAdminRequestWithoutConfiguredToken() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/admin/profiling");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer ");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicBoolean passed = new AtomicBoolean();
+
+        // Act
+        filter("").doFilter(request, response, (req, res) -> passed.set(true));
+
+        // Assert
+        assertThat(passed.get()).isFalse();
+        assertThat(response.getStatus()).isEqualTo(403);
+    }
+
+    /**
+     * Test: requests outside the admin endpoints should not need a token
+     */
+    @Test
+    void shouldIgnorePublicEndpoints() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/send-prompt");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicBoolean passed = new AtomicBoolean();
+
+        // Act
+        filter(TOKEN).doFilter(request, response, (req, res) -> passed.set(true));
+
+        // Assert
+        assertThat(passed.get()).isTrue();
+    }
+
+    private static AdminTokenFilter filter(String token) {
+        AdminConfig config = new AdminConfig();
+        config.setToken(token);
+        return new AdminTokenFilter(config);
+    }
+}
@@ -0,0 +1,155 @@
+package demystified.hackathon.demo.service;
+
+import demystified.hackathon.demo.config.EmailDigestConfig;
+import demystified.hackathon.demo.fixtures.TestDataBuilder;
+import demystified.hackathon.demo.service.email.DigestEntry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailDigesterTest {
+
+    @Mock
+    private EmailService emailService;
+
+    private EmailDigestConfig config;
+    private EmailDigester digester;
+
+    @BeforeEach
+    void setUp() {
+        config = new EmailDigestConfig();
+        config.setEnabled(true);
+        config.setWindowMs(60000);
+        config.setMaxEntriesPerDigest(3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        digester.shutdown();
+    }
+
+    /**
+     * Test: reaching the per-digest count should send one combined email
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldSendDigestWhenCountThresholdIsReached() {
+        // Arrange
+        digester = new EmailDigester(config, emailService);
+        when(emailService.sendDigest(anyString(), anyList())).thenReturn(true);
+        String email = TestDataBuilder.TestConstants.VALID_EMAIL;
+
+        // Act
+        digester.add(email, entry("id-1"));
+        digester.add(email, entry("id-2"));
+        digester.add(email, entry("id-3"));
+
+        // Assert
+        ArgumentCaptor<List<DigestEntry>> entries = ArgumentCaptor.forClass(List.class);
+        verify(emailService, times(1)).sendDigest(eq(email), entries.capture());
+        assertThat(entries.getValue()).extracting(DigestEntry::responseId).containsExactly("id-1", "id-2", "id-3");
+        assertThat(digester.getStats().emailsSent()).isEqualTo(1);
+        assertThat(digester.getStats().emailsSaved()).isEqualTo(2);
+        assertThat(digester.getStats().bufferedEntries()).isZero();
+    }
+
+    /**
+     * Test: buffered responses should be sent once the window elapses
+     */
+    @Test
+    void shouldSendDigestWhenWindowElapses() {
+        // Arrange
+        config.setWindowMs(100);
+        digester = new EmailDigester(config, emailService);
+        when(emailService.sendDigest(anyString(), anyList())).thenReturn(true);
+
+        // Act
+        digester.add("user1@example.com", entry("id-1"));
+        digester.add("USER1@example.com", entry("id-2"));
+
+        // Assert
+        verify(emailService, timeout(2000).times(1)).sendDigest(eq("user1@example.com"), anyList());
+        verify(emailService, never()).sendPromptResponse(anyString(), anyString(), anyString(), anyString(), anyString());
+    }
+
+    /**
+     * Test: a single buffered response should be sent as a regular email
+     */
+    @Test
+    void shouldSendRegularEmailForSingleEntry() {
+        // Arrange
+        digester = new EmailDigester(config, emailService);
+        when(emailService.sendPromptResponse(anyString(), anyString(), anyString(), anyString(), anyString()))
+            .thenReturn(true);
+
+        // Act
+        digester.add("user1@example.com", entry("id-1"));
+        digester.shutdown();
+
+        // Assert
+        verify(emailService, times(1)).sendPromptResponse(eq("user1@example.com"), anyString(), anyString(),
+            anyString(), eq("id-1"));
+        verify(emailService, never()).sendDigest(anyString(), anyList());
+    }
+
+    /**
+     * Test: when the global buffer is full the recipient should be sent immediately
+     */
+    @Test
+    void shouldSendImmediatelyWhenBufferIsFull() {
+        // Arrange
+        config.setMaxBufferedEntries(2);
+        digester = new EmailDigester(config, emailService);
+        when(emailService.sendPromptResponse(anyString(), anyString(), anyString(), anyString(), anyString()))
+            .thenReturn(true);
+
+        // Act
+        digester.add("user1@example.com", entry("id-1"));
+        digester.add("user2@example.com", entry("id-2"));
+        digester.add("user3@example.com", entry("id-3"));
+
+        // Assert
+        verify(emailService, times(1)).sendPromptResponse(eq("user3@example.com"), anyString(), anyString(),
+            anyString(), eq("id-3"));
+        assertThat(digester.getStats().bufferedEntries()).isEqualTo(2);
+        assertThat(digester.getStats().bufferedRecipients()).isEqualTo(2);
+    }
+
+    /**
+     * Test: shutdown should flush every buffered recipient
+     */
+    @Test
+    void shouldFlushAllRecipientsOnShutdown() {
+        // Arrange
+        digester = new EmailDigester(config, emailService);
+        when(emailService.sendDigest(anyString(), anyList())).thenReturn(true);
+        digester.add("user1@example.com", entry("id-1"));
+        digester.add("user1@example.com", entry("id-2"));
+        digester.add("user2@example.com", entry("id-3"));
+        digester.add("user2@example.com", entry("id-4"));
+
+        // Act
+        digester.shutdown();
+
+        // Assert
+        verify(emailService, times(2)).sendDigest(anyString(), anyList());
+        assertThat(digester.getStats().bufferedRecipients()).isZero();
+    }
+
+    private static DigestEntry entry(String responseId) {
+        return new DigestEntry(TestDataBuilder.TestConstants.TEST_PROMPT, "Response " + responseId,
+            TestDataBuilder.TestConstants.TEST_MODEL_ID, responseId, LocalDateTime.now());
+    }
+}
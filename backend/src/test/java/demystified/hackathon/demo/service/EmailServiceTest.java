@@ -1,15 +1,21 @@
 package demystified.hackathon.demo.service;
 
 import demystified.hackathon.demo.fixtures.TestDataBuilder;
+import demystified.hackathon.demo.service.email.DigestEntry;
+import demystified.hackathon.demo.tracing.Tracer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mail.javamail.JavaMailSender;
 import jakarta.mail.internet.MimeMessage;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
@@ -19,6 +25,9 @@ class EmailServiceTest {
     @Mock
     private JavaMailSender mailSender;
 
+    @Spy
+    private Tracer tracer = Tracer.noop();
+
     @InjectMocks
     private EmailService emailService;
 
@@ -163,4 +172,26 @@ class EmailServiceTest {
         assertThat(result2).isTrue();
         verify(mailSender, times(2)).send(any(MimeMessage.class));
     }
+
+    /**
+     * Test: Digest with several responses should be sent as one email
+     */
+    @Test
+    void shouldSendDigestAsSingleEmail() {
+        // Arrange
+        when(mailSender.createMimeMessage()).thenReturn(mockMessage);
+        List<DigestEntry> entries = List.of(
+            new DigestEntry(TestDataBuilder.TestConstants.TEST_PROMPT, "Response 1",
+                TestDataBuilder.TestConstants.TEST_MODEL_ID, "id-1", LocalDateTime.now()),
+            new DigestEntry(TestDataBuilder.TestConstants.TEST_PROMPT, "Response 2",
+                TestDataBuilder.TestConstants.TEST_MODEL_ID, "id-2", LocalDateTime.now())
+        );
+
+        // Act
+        boolean result = emailService.sendDigest(TestDataBuilder.TestConstants.VALID_EMAIL, entries);
+
+        // Assert
+        assertThat(result).isTrue();
+        verify(mailSender, times(1)).send(any(MimeMessage.class));
+    }
 }
@@ -0,0 +1,92 @@
+package demystified.hackathon.demo.service;
+
+import demystified.hackathon.demo.config.WatsonxConfig;
+import demystified.hackathon.demo.fixtures.TestDataBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IamTokenProviderTest {
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    private IamTokenProvider tokenProvider;
+
+    @BeforeEach
+    void setUp() {
+        WatsonxConfig watsonxConfig = new WatsonxConfig();
+        watsonxConfig.setApikey(TestDataBuilder.TestConstants.TEST_API_KEY);
+        tokenProvider = new IamTokenProvider(watsonxConfig, restTemplate);
+    }
+
+    /**
+     * Test: a token that is not close to expiring should be reused
+     */
+    @Test
+    void shouldReuseTokenUntilItNearsExpiry() {
+        // Arrange
+        when(restTemplate.postForObject(contains("iam.cloud.ibm.com"), any(), eq(Map.class)))
+            .thenReturn(TestDataBuilder.createMockIamTokenResponse());
+
+        // Act
+        String first = tokenProvider.getAccessToken();
+        String second = tokenProvider.getAccessToken();
+
+        // Assert
+        assertThat(first).isEqualTo("mock-access-token-12345");
+        assertThat(second).isEqualTo(first);
+        verify(restTemplate, times(1)).postForObject(contains("iam.cloud.ibm.com"), any(), eq(Map.class));
+    }
+
+    /**
+     * Test: a token inside the refresh margin should be fetched again
+     */
+    @Test
+    void shouldRefreshTokenThatExpiresSoon() {
+        // Arrange
+        Map<String, Object> response = new HashMap<>(TestDataBuilder.createMockIamTokenResponse());
+        response.put("expires_in", 60);
+        when(restTemplate.postForObject(contains("iam.cloud.ibm.com"), any(), eq(Map.class))).thenReturn(response);
+
+        // Act
+        tokenProvider.getAccessToken();
+        tokenProvider.getAccessToken();
+
+        // Assert
+        verify(restTemplate, times(2)).postForObject(contains("iam.cloud.ibm.com"), any(), eq(Map.class));
+    }
+
+    /**
+     * Test: an invalidated token should be fetched again
+     */
+    @Test
+    void shouldFetchNewTokenAfterInvalidate() {
+        // Arrange
+        when(restTemplate.postForObject(contains("iam.cloud.ibm.com"), any(), eq(Map.class)))
+            .thenReturn(TestDataBuilder.createMockIamTokenResponse());
+        tokenProvider.getAccessToken();
+
+        // Act
+        tokenProvider.invalidate();
+        tokenProvider.getAccessToken();
+
+        // Assert
+        verify(restTemplate, times(2)).postForObject(contains("iam.cloud.ibm.com"), any(), eq(Map.class));
+    }
+}
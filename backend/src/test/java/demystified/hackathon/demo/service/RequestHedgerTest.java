@@ -0,0 +1,227 @@
+package demystified.hackathon.demo.service;
+
+import demystified.hackathon.demo.config.HedgingConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RequestHedgerTest {
+
+    private HedgingConfig config;
+    private RequestHedger hedger;
+
+    @BeforeEach
+    void setUp() {
+        config = new HedgingConfig();
+        config.setEnabled(true);
+        config.setInitialDelayMs(50);
+        config.setMaxExtraLoad(1.0);
+        hedger = new RequestHedger(config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hedger.shutdown();
+    }
+
+    /**
+     * Test: disabled hedging should call the upstream exactly once on the caller thread
+     */
+    @Test
+    void shouldRunInlineWhenDisabled() {
+        // Arrange
+        config.setEnabled(false);
+        AtomicInteger calls = new AtomicInteger();
+        Thread caller = Thread.currentThread();
+
+        // Act
+        String result = hedger.execute("model-a", modelId -> {
+            calls.incrementAndGet();
+            assertThat(Thread.currentThread()).isSameAs(caller);
+            return modelId;
+        });
+
+        // Assert
+        assertThat(result).isEqualTo("model-a");
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(hedger.getStats().hedgesFired()).isZero();
+    }
+
+    /**
+     * Test: a slow primary should be hedged and the faster duplicate should win
+     */
+    @Test
+    void shouldReturnHedgeWhenPrimaryIsSlow() {
+        // Arrange
+        config.setAlternateModelId("model-b");
+        AtomicInteger attempts = new AtomicInteger();
+
+        // Act
+        String result = hedger.execute("model-a", modelId -> {
+            if (attempts.incrementAndGet() == 1) {
+                sleep(2000);
+            }
+            return modelId;
+        });
+
+        // Assert
+        assertThat(result).isEqualTo("model-b");
+        assertThat(hedger.getStats().hedgesFired()).isEqualTo(1);
+        assertThat(hedger.getStats().hedgesWon()).isEqualTo(1);
+    }
+
+    /**
+     * Test: no hedge should be fired once the extra load budget is exhausted
+     */
+    @Test
+    void shouldNotHedgeWhenBudgetIsExhausted() {
+        // Arrange
+        config.setMaxExtraLoad(0.0);
+        AtomicInteger attempts = new AtomicInteger();
+
+        // Act
+        String result = hedger.execute("model-a", modelId -> {
+            attempts.incrementAndGet();
+            sleep(150);
+            return modelId;
+        });
+
+        // Assert
+        assertThat(result).isEqualTo("model-a");
+        assertThat(attempts.get()).isEqualTo(1);
+        assertThat(hedger.getStats().hedgesFired()).isZero();
+    }
+
+    /**
+     * Test: a quiet period should not bank more than maxBurst hedges for a later slowdown
+     */
+    @Test
+    void shouldCapBankedHedgesAtBurst() {
+        // Arrange
+        config.setMaxExtraLoad(0.5);
+        config.setMaxBurst(1);
+        for (int i = 0; i < 10; i++) {
+            hedger.execute("model-a", modelId -> modelId);
+        }
+
+        // Act
+        for (int i = 0; i < 2; i++) {
+            hedger.execute("model-a", modelId -> {
+                sleep(150);
+                return modelId;
+            });
+        }
+
+        // Assert
+        assertThat(hedger.getStats().hedgesFired()).isEqualTo(1);
+    }
+
+    /**
+     * Test: primaries cancelled because the hedge won should still count towards the hedge delay
+     */
+    @Test
+    void shouldSampleLatencyOfCancelledPrimaries() {
+        // Arrange
+        config.setMinDelayMs(0);
+        config.setAlternateModelId("model-b");
+
+        // Act
+        for (int i = 0; i < 15; i++) {
+            hedger.execute("model-a", modelId -> {
+                if (modelId.equals("model-a")) {
+                    sleep(2000);
+                }
+                return modelId;
+            });
+        }
+
+        // Assert
+        assertThat(hedger.getStats().hedgesWon()).isEqualTo(15);
+        assertThat(hedger.getStats().currentDelayMs()).isGreaterThanOrEqualTo(40);
+    }
+
+    /**
+     * Test: the upstream failure should propagate when every attempt fails
+     */
+    @Test
+    void shouldPropagateFailureWhenAllAttemptsFail() {
+        // Act & Assert
+        assertThatThrownBy(() -> hedger.execute("model-a", modelId -> {
+            throw new IllegalArgumentException("upstream failure");
+        })).isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("upstream failure");
+    }
+
+    /**
+     * Test: an Error thrown by the upstream call should reach the caller instead of leaving it waiting
+     */
+    @Test
+    void shouldPropagateErrorFromAttempt() {
+        // Act & Assert
+        assertThatThrownBy(() -> hedger.execute("model-a", modelId -> {
+            throw new AssertionError("upstream error");
+        })).isInstanceOf(AssertionError.class)
+            .hasMessage("upstream error");
+    }
+
+    /**
+     * Test: with every hedging thread busy the request should run unhedged on the caller thread
+     */
+    @Test
+    void shouldRunOnCallerThreadWhenPoolIsBusy() throws InterruptedException {
+        // Arrange
+        hedger.shutdown();
+        config.setThreadPoolSize(1);
+        hedger = new RequestHedger(config);
+        CountDownLatch busy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread other = new Thread(() -> hedger.execute("model-a", modelId -> {
+            busy.countDown();
+            await(release);
+            return modelId;
+        }));
+        other.start();
+        assertThat(busy.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread caller = Thread.currentThread();
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+
+        // Act
+        String result = hedger.execute("model-a", modelId -> {
+            ranOn.set(Thread.currentThread());
+            return modelId;
+        });
+
+        // Assert
+        release.countDown();
+        other.join(5000);
+        assertThat(result).isEqualTo("model-a");
+        assertThat(ranOn.get()).isSameAs(caller);
+        assertThat(hedger.getStats().unhedged()).isEqualTo(1);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package demystified.hackathon.demo.service;
+
+import demystified.hackathon.demo.config.CancellationConfig;
+import demystified.hackathon.demo.config.CsvUploadConfig;
+import demystified.hackathon.demo.config.DrainConfig;
+import demystified.hackathon.demo.config.EmailDigestConfig;
+import demystified.hackathon.demo.config.GenerationConfig;
+import demystified.hackathon.demo.config.HedgingConfig;
+import demystified.hackathon.demo.config.LaneConfig;
+import demystified.hackathon.demo.config.PromptCacheConfig;
+import demystified.hackathon.demo.config.QueryConfig;
+import demystified.hackathon.demo.config.RetrievalConfig;
+import demystified.hackathon.demo.config.TableEncodingConfig;
+import demystified.hackathon.demo.config.WatsonxConfig;
+import demystified.hackathon.demo.controller.PromptResponse;
+import demystified.hackathon.demo.fixtures.TestDataBuilder;
+import demystified.hackathon.demo.service.cache.PromptCache;
+import demystified.hackathon.demo.service.cancellation.DisconnectGuard;
+import demystified.hackathon.demo.service.chat.ChatRequestEncoder;
+import demystified.hackathon.demo.service.chat.ChatResponseParser;
+import demystified.hackathon.demo.service.csv.CsvContextBuilder;
+import demystified.hackathon.demo.service.csv.CsvUploadReader;
+import demystified.hackathon.demo.service.csv.TableEncoder;
+import demystified.hackathon.demo.service.dataset.DatasetRegistry;
+import demystified.hackathon.demo.service.generation.GenerationPlanner;
+import demystified.hackathon.demo.service.history.HistoryStore;
+import demystified.hackathon.demo.service.query.QueryEngine;
+import demystified.hackathon.demo.service.retrieval.RowRetriever;
+import demystified.hackathon.demo.service.scheduling.Lane;
+import demystified.hackathon.demo.service.scheduling.LaneScheduler;
+import demystified.hackathon.demo.service.usage.UsageMeter;
+import demystified.hackathon.demo.tracing.Tracer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShutdownCoordinatorTest {
+    private static final long GENERATION_MS = 300;
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    @Mock
+    private HistoryStore historyStore;
+
+    @Mock
+    private UsageMeter usageMeter;
+
+    @Mock
+    private DatasetRegistry datasetRegistry;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(2);
+    private final CountDownLatch generationStarted = new CountDownLatch(1);
+
+    private DrainConfig drainConfig;
+    private InFlightTracker inFlightTracker;
+    private EmailDigester emailDigester;
+    private WatsonxService watsonxService;
+    private ShutdownCoordinator coordinator;
+
+    @BeforeEach
+    void setUp() {
+        WatsonxConfig watsonxConfig = new WatsonxConfig();
+        watsonxConfig.setApikey(TestDataBuilder.TestConstants.TEST_API_KEY);
+        watsonxConfig.setModelId(TestDataBuilder.TestConstants.TEST_MODEL_ID);
+        watsonxConfig.setEndpoint(TestDataBuilder.TestConstants.TEST_ENDPOINT);
+
+        drainConfig = new DrainConfig();
+        inFlightTracker = new InFlightTracker();
+        emailDigester = new EmailDigester(new EmailDigestConfig(), emailService);
+        LaneScheduler laneScheduler = new LaneScheduler(new LaneConfig());
+        watsonxService = new WatsonxService(
+            watsonxConfig,
+            restTemplate,
+            new IamTokenProvider(watsonxConfig, restTemplate),
+            new RequestHedger(new HedgingConfig()),
+            new ChatRequestEncoder(watsonxConfig),
+            new ChatResponseParser(),
+            new CsvContextBuilder(new CsvUploadReader(new CsvUploadConfig())),
+            historyStore,
+            new PromptCache(new PromptCacheConfig()),
+            inFlightTracker,
+            usageMeter,
+            Tracer.noop(),
+            new GenerationPlanner(new GenerationConfig()),
+            new RowRetriever(new RetrievalConfig()),
+            datasetRegistry,
+            new QueryEngine(new QueryConfig()),
+            new DisconnectGuard(new CancellationConfig(), laneScheduler, inFlightTracker),
+            laneScheduler,
+            new TableEncoder(new TableEncodingConfig())
+        );
+        coordinator = new ShutdownCoordinator(drainConfig, inFlightTracker, emailDigester, eventPublisher);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        emailDigester.shutdown();
+    }
+
+    /**
+     * Test: a generation running when shutdown starts should complete and be recorded
+     */
+    @Test
+    void shouldWaitForInFlightGenerationBeforeShutdown() throws Exception {
+        // Arrange
+        stubSlowGeneration(GENERATION_MS);
+        Future<PromptResponse> inFlight = callers.submit(
+            () -> watsonxService.sendPrompt(TestDataBuilder.TestConstants.TEST_PROMPT, null));
+        assertThat(generationStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Act
+        ShutdownCoordinator.DrainReport report = coordinator.drain();
+
+        // Assert
+        assertThat(inFlight.isDone()).isTrue();
+        PromptResponse response = inFlight.get();
+        assertThat(response.getContent()).isEqualTo("Slow response");
+        verify(historyStore).record(null, TestDataBuilder.TestConstants.TEST_PROMPT, response);
+        assertThat(report.inFlightAtStart()).isEqualTo(1);
+        assertThat(report.completed()).isEqualTo(1);
+        assertThat(report.abandoned()).isEmpty();
+        verify(eventPublisher).publishEvent(any(AvailabilityChangeEvent.class));
+    }
+
+    /**
+     * Test: prompts arriving after the drain started should be rejected without calling the model
+     */
+    @Test
+    void shouldRejectNewPromptsWhileDraining() {
+        // Arrange
+        coordinator.drain();
+
+        // Act & Assert
+        assertThatThrownBy(() -> watsonxService.sendPrompt(TestDataBuilder.TestConstants.TEST_PROMPT, null))
+            .isInstanceOf(DrainingException.class);
+        verifyNoInteractions(restTemplate);
+        assertThat(inFlightTracker.getStats().rejected()).isEqualTo(1);
+    }
+
+    /**
+     * Test: a prompt queued for a lane worker before the drain started should still be answered
+     */
+    @Test
+    void shouldDrainPromptsQueuedBeforeShutdown() throws Exception {
+        // Arrange
+        stubSlowGeneration(GENERATION_MS);
+        LaneConfig laneConfig = new LaneConfig();
+        laneConfig.getInteractive().setThreads(1);
+        LaneScheduler laneScheduler = new LaneScheduler(laneConfig);
+        DisconnectGuard guard = new DisconnectGuard(new CancellationConfig(), laneScheduler, inFlightTracker);
+        CountDownLatch release = new CountDownLatch(1);
+        guard.submit(Lane.INTERACTIVE, null, () -> {
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        DeferredResult<PromptResponse> queued = guard.submit(Lane.INTERACTIVE, null,
+            () -> watsonxService.sendPrompt(TestDataBuilder.TestConstants.TEST_PROMPT, null));
+
+        // Act
+        Future<ShutdownCoordinator.DrainReport> drain = callers.submit(coordinator::drain);
+        while (!inFlightTracker.isDraining()) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+        ShutdownCoordinator.DrainReport report = drain.get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertThat(report.inFlightAtStart()).isEqualTo(2);
+        assertThat(report.abandoned()).isEmpty();
+        assertThat(((PromptResponse) queued.getResult()).getContent()).isEqualTo("Slow response");
+        assertThat(inFlightTracker.getStats().rejected()).isZero();
+        laneScheduler.shutdown();
+    }
+
+    /**
+     * Test: a generation still running at the deadline should be reported as abandoned
+     */
+    @Test
+    void shouldReportGenerationAbandonedAtDeadline() throws Exception {
+        // Arrange
+        drainConfig.setTimeoutMs(100);
+        stubSlowGeneration(5000);
+        callers.submit(() -> watsonxService.sendPrompt(TestDataBuilder.TestConstants.TEST_PROMPT, null));
+        assertThat(generationStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Act
+        ShutdownCoordinator.DrainReport report = coordinator.drain();
+
+        // Assert
+        assertThat(report.completed()).isZero();
+        assertThat(report.abandoned()).hasSize(1);
+        assertThat(report.abandoned().get(0)).startsWith("prompt in model-call");
+    }
+
+    private void stubSlowGeneration(long generationMs) {
+        when(restTemplate.postForObject(contains("iam.cloud.ibm.com"), any(), eq(Map.class)))
+            .thenReturn(TestDataBuilder.createMockIamTokenResponse());
+        when(restTemplate.execute(
+            contains("ml/v1/text/chat"),
+            eq(HttpMethod.POST),
+            any(),
+            any(ResponseExtractor.class)
+        )).thenAnswer(invocation -> {
+            generationStarted.countDown();
+            Thread.sleep(generationMs);
+            return TestDataBuilder.createMockWatsonxResponse("Slow response");
+        });
+    }
+}
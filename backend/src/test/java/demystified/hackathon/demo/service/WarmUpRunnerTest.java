@@ -0,0 +1,121 @@
+package demystified.hackathon.demo.service;
+
+import demystified.hackathon.demo.config.WarmUpConfig;
+import demystified.hackathon.demo.config.WatsonxConfig;
+import demystified.hackathon.demo.service.chat.ChatRequestEncoder;
+import demystified.hackathon.demo.service.chat.ChatResponseParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.web.client.RestTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WarmUpRunnerTest {
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    @Mock
+    private IamTokenProvider iamTokenProvider;
+
+    @Mock
+    private JavaMailSender mailSender;
+
+    private WarmUpConfig config;
+    private WatsonxConfig watsonxConfig;
+
+    @BeforeEach
+    void setUp() {
+        config = new WarmUpConfig();
+        config.setRenderIterations(10);
+        watsonxConfig = new WatsonxConfig();
+        watsonxConfig.setModelId("test-model");
+    }
+
+    /**
+     * Test: the token should be fetched and render paths exercised before the runner returns
+     */
+    @Test
+    void shouldFetchTokenAndExerciseRenderPaths() {
+        // Arrange
+        watsonxConfig.setApikey("test-api-key");
+        when(iamTokenProvider.getAccessToken()).thenReturn("token");
+        WarmUpRunner runner = createRunner();
+
+        // Act
+        runner.run(null);
+
+        // Assert
+        verify(iamTokenProvider).getAccessToken();
+        WarmUpRunner.WarmUpStats stats = runner.getStats();
+        assertThat(stats.completed()).isTrue();
+        assertThat(stats.stepMs()).containsKeys("iam-token", "render-paths");
+        assertThat(stats.failedSteps()).isEmpty();
+    }
+
+    /**
+     * Test: unconfigured upstreams should be skipped rather than reported as failures
+     */
+    @Test
+    void shouldSkipUnconfiguredUpstreams() {
+        // Arrange
+        WarmUpRunner runner = createRunner();
+
+        // Act
+        runner.run(null);
+
+        // Assert
+        verifyNoInteractions(iamTokenProvider, restTemplate, mailSender);
+        assertThat(runner.getStats().stepMs()).containsOnlyKeys("render-paths");
+        assertThat(runner.getStats().failedSteps()).isEmpty();
+    }
+
+    /**
+     * Test: a failing step should be recorded without failing startup
+     */
+    @Test
+    void shouldRecordFailedStepWithoutThrowing() {
+        // Arrange
+        watsonxConfig.setApikey("test-api-key");
+        when(iamTokenProvider.getAccessToken()).thenThrow(new IllegalStateException("IAM unavailable"));
+        WarmUpRunner runner = createRunner();
+
+        // Act
+        runner.run(null);
+
+        // Assert
+        assertThat(runner.getStats().completed()).isTrue();
+        assertThat(runner.getStats().failedSteps()).containsExactly("iam-token");
+    }
+
+    /**
+     * Test: a disabled warm-up should do nothing
+     */
+    @Test
+    void shouldDoNothingWhenDisabled() {
+        // Arrange
+        config.setEnabled(false);
+        watsonxConfig.setApikey("test-api-key");
+        WarmUpRunner runner = createRunner();
+
+        // Act
+        runner.run(null);
+
+        // Assert
+        verifyNoInteractions(iamTokenProvider);
+        assertThat(runner.getStats().completed()).isFalse();
+    }
+
+    private WarmUpRunner createRunner() {
+        return new WarmUpRunner(config, watsonxConfig, restTemplate, iamTokenProvider, mailSender,
+            new ChatRequestEncoder(watsonxConfig), new ChatResponseParser());
+    }
+}
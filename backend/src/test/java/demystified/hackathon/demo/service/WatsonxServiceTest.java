@@ -1,14 +1,41 @@
 package demystified.hackathon.demo.service;
 
+import demystified.hackathon.demo.config.CancellationConfig;
+import demystified.hackathon.demo.config.CsvUploadConfig;
+import demystified.hackathon.demo.config.GenerationConfig;
+import demystified.hackathon.demo.config.HedgingConfig;
+import demystified.hackathon.demo.config.LaneConfig;
+import demystified.hackathon.demo.config.PromptCacheConfig;
+import demystified.hackathon.demo.config.QueryConfig;
+import demystified.hackathon.demo.config.RetrievalConfig;
+import demystified.hackathon.demo.config.TableEncodingConfig;
 import demystified.hackathon.demo.config.WatsonxConfig;
 import demystified.hackathon.demo.controller.PromptResponse;
 import demystified.hackathon.demo.fixtures.TestDataBuilder;
+import demystified.hackathon.demo.service.cache.PromptCache;
+import demystified.hackathon.demo.service.cancellation.DisconnectGuard;
+import demystified.hackathon.demo.service.chat.ChatRequestEncoder;
+import demystified.hackathon.demo.service.chat.ChatResponse;
+import demystified.hackathon.demo.service.chat.ChatResponseParser;
+import demystified.hackathon.demo.service.chat.TokenUsage;
+import demystified.hackathon.demo.service.csv.CsvContextBuilder;
+import demystified.hackathon.demo.service.csv.CsvUploadReader;
+import demystified.hackathon.demo.service.csv.TableEncoder;
+import demystified.hackathon.demo.service.dataset.DatasetRegistry;
+import demystified.hackathon.demo.service.generation.GenerationPlanner;
+import demystified.hackathon.demo.service.history.HistoryStore;
+import demystified.hackathon.demo.service.query.QueryEngine;
+import demystified.hackathon.demo.service.retrieval.RowRetriever;
+import demystified.hackathon.demo.service.scheduling.LaneScheduler;
+import demystified.hackathon.demo.service.usage.UsageMeter;
+import demystified.hackathon.demo.tracing.Tracer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.Map;
@@ -29,7 +56,15 @@ class WatsonxServiceTest {
     @Mock
     private EmailService emailService;
 
-    @InjectMocks
+    @Mock
+    private HistoryStore historyStore;
+
+    @Mock
+    private UsageMeter usageMeter;
+
+    @Mock
+    private DatasetRegistry datasetRegistry;
+
     private WatsonxService watsonxService;
 
     @BeforeEach
@@ -39,6 +74,29 @@ class WatsonxServiceTest {
         when(watsonxConfig.getProjectId()).thenReturn(TestDataBuilder.TestConstants.TEST_PROJECT_ID);
         when(watsonxConfig.getModelId()).thenReturn(TestDataBuilder.TestConstants.TEST_MODEL_ID);
         when(watsonxConfig.getEndpoint()).thenReturn(TestDataBuilder.TestConstants.TEST_ENDPOINT);
+
+        LaneScheduler laneScheduler = new LaneScheduler(new LaneConfig());
+        watsonxService = new WatsonxService(
+            watsonxConfig,
+            restTemplate,
+            new IamTokenProvider(watsonxConfig, restTemplate),
+            new RequestHedger(new HedgingConfig()),
+            new ChatRequestEncoder(watsonxConfig),
+            new ChatResponseParser(),
+            new CsvContextBuilder(new CsvUploadReader(new CsvUploadConfig())),
+            historyStore,
+            new PromptCache(new PromptCacheConfig()),
+            new InFlightTracker(),
+            usageMeter,
+            Tracer.noop(),
+            new GenerationPlanner(new GenerationConfig()),
+            new RowRetriever(new RetrievalConfig()),
+            datasetRegistry,
+            new QueryEngine(new QueryConfig()),
+            new DisconnectGuard(new CancellationConfig(), laneScheduler, new InFlightTracker()),
+            laneScheduler,
+            new TableEncoder(new TableEncodingConfig())
+        );
     }
 
     /**
@@ -50,7 +108,7 @@ class WatsonxServiceTest {
         String content = TestDataBuilder.TestConstants.TEST_PROMPT;
         String email = TestDataBuilder.TestConstants.VALID_EMAIL;
         
-        Map<String, Object> mockWatsonxResponse = TestDataBuilder.createMockWatsonxResponse(
+        ChatResponse mockWatsonxResponse = TestDataBuilder.createMockWatsonxResponse(
             "This is a test response"
         );
         Map<String, Object> mockIamResponse = TestDataBuilder.createMockIamTokenResponse();
@@ -61,10 +119,11 @@ class WatsonxServiceTest {
             eq(Map.class)
         )).thenReturn(mockIamResponse);
 
-        when(restTemplate.postForObject(
+        when(restTemplate.execute(
             contains("ml/v1/text/chat"),
+            eq(HttpMethod.POST),
             any(),
-            eq(Map.class)
+            any(ResponseExtractor.class)
         )).thenReturn(mockWatsonxResponse);
 
         // Act
@@ -75,6 +134,8 @@ class WatsonxServiceTest {
         assertThat(response.getContent()).isEqualTo("This is a test response");
         assertThat(response.getModelId()).isEqualTo("test-model");
         assertThat(response.getId()).isEqualTo("response-123");
+        verify(historyStore).record(email, content, response);
+        verify(usageMeter).record(eq(email), eq("test-model"), isNull(), eq(new TokenUsage(120, 45, 165)), anyLong());
     }
 
     /**
@@ -85,7 +146,7 @@ class WatsonxServiceTest {
         // Arrange
         String content = TestDataBuilder.TestConstants.TEST_PROMPT;
         
-        Map<String, Object> mockWatsonxResponse = TestDataBuilder.createMockWatsonxResponse();
+        ChatResponse mockWatsonxResponse = TestDataBuilder.createMockWatsonxResponse();
         Map<String, Object> mockIamResponse = TestDataBuilder.createMockIamTokenResponse();
 
         when(restTemplate.postForObject(
@@ -94,10 +155,11 @@ class WatsonxServiceTest {
             eq(Map.class)
         )).thenReturn(mockIamResponse);
 
-        when(restTemplate.postForObject(
+        when(restTemplate.execute(
             contains("ml/v1/text/chat"),
+            eq(HttpMethod.POST),
             any(),
-            eq(Map.class)
+            any(ResponseExtractor.class)
         )).thenReturn(mockWatsonxResponse);
 
         // Act
@@ -116,7 +178,7 @@ class WatsonxServiceTest {
         // Arrange
         String content = TestDataBuilder.TestConstants.TEST_PROMPT;
         
-        Map<String, Object> mockWatsonxResponse = TestDataBuilder.createMockWatsonxResponse();
+        ChatResponse mockWatsonxResponse = TestDataBuilder.createMockWatsonxResponse();
         Map<String, Object> mockIamResponse = TestDataBuilder.createMockIamTokenResponse();
 
         when(restTemplate.postForObject(
@@ -125,10 +187,11 @@ class WatsonxServiceTest {
             eq(Map.class)
         )).thenReturn(mockIamResponse);
 
-        when(restTemplate.postForObject(
+        when(restTemplate.execute(
             contains("ml/v1/text/chat"),
+            eq(HttpMethod.POST),
             any(),
-            eq(Map.class)
+            any(ResponseExtractor.class)
         )).thenReturn(mockWatsonxResponse);
 
         // Act
@@ -156,10 +219,11 @@ class WatsonxServiceTest {
             eq(Map.class)
         )).thenReturn(mockIamResponse);
 
-        when(restTemplate.postForObject(
+        when(restTemplate.execute(
             contains("ml/v1/text/chat"),
+            eq(HttpMethod.POST),
             any(),
-            eq(Map.class)
+            any(ResponseExtractor.class)
         )).thenReturn(null);
 
         // Act
@@ -179,7 +243,7 @@ class WatsonxServiceTest {
         String content = TestDataBuilder.TestConstants.TEST_PROMPT;
         String email = TestDataBuilder.TestConstants.VALID_EMAIL;
         
-        Map<String, Object> mockWatsonxResponse = TestDataBuilder.createMockWatsonxResponse();
+        ChatResponse mockWatsonxResponse = TestDataBuilder.createMockWatsonxResponse();
         Map<String, Object> mockIamResponse = TestDataBuilder.createMockIamTokenResponse();
 
         when(restTemplate.postForObject(
@@ -188,10 +252,11 @@ class WatsonxServiceTest {
             eq(Map.class)
         )).thenReturn(mockIamResponse);
 
-        when(restTemplate.postForObject(
+        when(restTemplate.execute(
             contains("ml/v1/text/chat"),
+            eq(HttpMethod.POST),
             any(),
-            eq(Map.class)
+            any(ResponseExtractor.class)
         )).thenReturn(mockWatsonxResponse);
 
         // Act
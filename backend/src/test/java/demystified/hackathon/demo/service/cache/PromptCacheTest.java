@@ -0,0 +1,121 @@
+package demystified.hackathon.demo.service.cache;
+
+import demystified.hackathon.demo.config.PromptCacheConfig;
+import demystified.hackathon.demo.controller.PromptResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PromptCacheTest {
+    private static final String MODEL_ID = "test-model";
+    private static final String PROMPT = "Explain the concept of machine learning in simple terms";
+
+    private PromptCacheConfig config;
+    private PromptCache cache;
+
+    @BeforeEach
+    void setUp() {
+        config = new PromptCacheConfig();
+        config.setEnabled(true);
+        cache = new PromptCache(config);
+        cache.store(MODEL_ID, PROMPT, null, new PromptResponse("Cached answer", MODEL_ID, "response-1", 1L));
+    }
+
+    /**
+     * Test: prompts differing only in case, whitespace and punctuation should hit
+     */
+    @Test
+    void shouldHitForNormalizedDuplicate() {
+        // Act
+        PromptResponse response = cache.lookup(MODEL_ID, "  explain THE concept of machine-learning in simple terms!! ", null);
+
+        // Assert
+        assertThat(response).isNotNull();
+        assertThat(response.getContent()).isEqualTo("Cached answer");
+        assertThat(response.getId()).isEqualTo("response-1");
+        assertThat(cache.getStats().hits()).isEqualTo(1);
+    }
+
+    /**
+     * Test: a small rephrasing above the threshold should hit
+     */
+    @Test
+    void shouldHitForMinorRephrasing() {
+        // Act
+        PromptResponse response = cache.lookup(MODEL_ID, "Explain the concept of machine learning in very simple terms", null);
+
+        // Assert
+        assertThat(response).isNotNull();
+    }
+
+    /**
+     * Test: a prompt about a different subject should miss
+     */
+    @Test
+    void shouldMissForDifferentPrompt() {
+        // Act
+        PromptResponse response = cache.lookup(MODEL_ID, "Explain the concept of deep learning in simple terms", null);
+
+        // Assert
+        assertThat(response).isNull();
+        assertThat(cache.getStats().misses()).isEqualTo(1);
+    }
+
+    /**
+     * Test: prompts that differ only in their numbers should never share an answer
+     */
+    @Test
+    void shouldMissWhenNumbersDiffer() {
+        // Arrange
+        cache.store(MODEL_ID, "Summarize the sales report for 2023", null, new PromptResponse("2023", MODEL_ID, "r-2023", 1L));
+
+        // Act
+        PromptResponse response = cache.lookup(MODEL_ID, "Summarize the sales report for 2024", null);
+
+        // Assert
+        assertThat(response).isNull();
+    }
+
+    /**
+     * Test: a different model or CSV context should miss
+     */
+    @Test
+    void shouldMissForDifferentModelOrContext() {
+        // Act & Assert
+        assertThat(cache.lookup("other-model", PROMPT, null)).isNull();
+        assertThat(cache.lookup(MODEL_ID, PROMPT, "| Name |\n| --- |\n| John |\n")).isNull();
+    }
+
+    /**
+     * Test: the least recently used entry should be evicted once the cache is full
+     */
+    @Test
+    void shouldEvictLeastRecentlyUsedEntry() {
+        // Arrange
+        config.setMaxEntries(2);
+        cache.store(MODEL_ID, "List the largest cities in Brazil", null, new PromptResponse("a", MODEL_ID, "r-2", 1L));
+        cache.lookup(MODEL_ID, PROMPT, null);
+
+        // Act
+        cache.store(MODEL_ID, "Write a haiku about the ocean", null, new PromptResponse("b", MODEL_ID, "r-3", 1L));
+
+        // Assert
+        assertThat(cache.lookup(MODEL_ID, PROMPT, null)).isNotNull();
+        assertThat(cache.lookup(MODEL_ID, "List the largest cities in Brazil", null)).isNull();
+        assertThat(cache.getStats().size()).isEqualTo(2);
+        assertThat(cache.getStats().evictions()).isEqualTo(1);
+    }
+
+    /**
+     * Test: a disabled cache should never answer
+     */
+    @Test
+    void shouldNotAnswerWhenDisabled() {
+        // Arrange
+        config.setEnabled(false);
+
+        // Act & Assert
+        assertThat(cache.lookup(MODEL_ID, PROMPT, null)).isNull();
+    }
+}
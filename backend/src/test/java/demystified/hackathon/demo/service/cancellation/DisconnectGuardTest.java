@@ -0,0 +1,363 @@
+package demystified.hackathon.demo.service.cancellation;
+
+import demystified.hackathon.demo.config.CancellationConfig;
+import demystified.hackathon.demo.config.LaneConfig;
+import demystified.hackathon.demo.logging.CorrelationId;
+import demystified.hackathon.demo.service.InFlightTracker;
+import demystified.hackathon.demo.service.scheduling.Lane;
+import demystified.hackathon.demo.service.scheduling.LaneScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DisconnectGuardTest {
+    private static final String REQUEST_ID = "req-1";
+
+    private CancellationConfig config;
+    private LaneScheduler laneScheduler;
+    private DisconnectGuard guard;
+
+    private final CountDownLatch callStarted = new CountDownLatch(1);
+    private final CountDownLatch callFinished = new CountDownLatch(1);
+    private final AtomicBoolean callInterrupted = new AtomicBoolean();
+
+    @BeforeEach
+    void setUp() {
+        config = new CancellationConfig();
+        laneScheduler = new LaneScheduler(new LaneConfig());
+        guard = new DisconnectGuard(config, laneScheduler, new InFlightTracker());
+        MDC.put(CorrelationId.MDC_KEY, REQUEST_ID);
+    }
+
+    @AfterEach
+    void tearDown() {
+        MDC.remove(CorrelationId.MDC_KEY);
+        laneScheduler.shutdown();
+    }
+
+    /**
+     * Test: the work should run on a worker thread and complete the deferred result
+     */
+    @Test
+    void shouldCompleteResultFromWorker() throws InterruptedException {
+        // Arrange
+        Thread caller = Thread.currentThread();
+
+        // Act
+        DeferredResult<String> result = guard.submit(Lane.INTERACTIVE, "user@example.com", () -> {
+            assertThat(Thread.currentThread()).isNotSameAs(caller);
+            return "answer";
+        });
+
+        // Assert
+        awaitResult(result);
+        assertThat(result.getResult()).isEqualTo("answer");
+        assertThat(guard.getStats().cancelled()).isZero();
+    }
+
+    /**
+     * Test: cancelling should interrupt the model call in flight and fail the request
+     */
+    @Test
+    void shouldInterruptModelCallWhenCancelled() throws InterruptedException {
+        // Arrange
+        config.setPolicy(DisconnectGuard.POLICY_CANCEL);
+        guard = new DisconnectGuard(config, laneScheduler, new InFlightTracker());
+        DeferredResult<String> result = guard.submit(Lane.INTERACTIVE, "user@example.com", this::slowModelCall);
+        assertThat(callStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Act
+        boolean cancelled = guard.cancel(REQUEST_ID, "User@Example.com");
+
+        // Assert
+        assertThat(cancelled).isTrue();
+        assertThat(callFinished.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(callInterrupted.get()).isTrue();
+        assertThat(result.getResult()).isInstanceOf(RequestCancelledException.class);
+        DisconnectGuard.CancellationStats stats = guard.getStats();
+        assertThat(stats.clientsGone()).isEqualTo(1);
+        assertThat(stats.cancelled()).isEqualTo(1);
+        assertThat(stats.inFlight()).isZero();
+    }
+
+    /**
+     * Test: a model call after cancellation should not start, and the thread should not stay interrupted
+     */
+    @Test
+    void shouldNotStartModelCallAfterCancellation() throws InterruptedException {
+        // Arrange
+        CountDownLatch cancelledSeen = new CountDownLatch(1);
+        AtomicBoolean secondCallStarted = new AtomicBoolean();
+        AtomicBoolean interruptedAfterCall = new AtomicBoolean();
+        DeferredResult<String> result = guard.submit(Lane.INTERACTIVE, null, () -> {
+            CancellationToken token = CancellationToken.current();
+            try {
+                slowModelCall();
+            } catch (IllegalStateException e) {
+                interruptedAfterCall.set(Thread.currentThread().isInterrupted());
+            }
+            cancelledSeen.countDown();
+            return token.callInterruptibly(() -> {
+                secondCallStarted.set(true);
+                return "explanation";
+            });
+        });
+        assertThat(callStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Act
+        guard.cancel(REQUEST_ID, null);
+
+        // Assert
+        assertThat(cancelledSeen.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(interruptedAfterCall.get()).isFalse();
+        assertThat(secondCallStarted.get()).isFalse();
+        assertThat(result.getResult()).isInstanceOf(RequestCancelledException.class);
+    }
+
+    /**
+     * Test: under complete-with-email a request with an email should finish after its client leaves
+     */
+    @Test
+    void shouldFinishRequestWithEmailUnderCompleteWithEmailPolicy() throws InterruptedException {
+        // Arrange
+        config.setPolicy(DisconnectGuard.POLICY_COMPLETE_WITH_EMAIL);
+        guard = new DisconnectGuard(config, laneScheduler, new InFlightTracker());
+        CountDownLatch release = new CountDownLatch(1);
+        DeferredResult<Boolean> result = guard.submit(Lane.INTERACTIVE, "user@example.com", () -> {
+            callStarted.countDown();
+            awaitQuietly(release);
+            return CancellationToken.current().isCancelled();
+        });
+        assertThat(callStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Act
+        guard.cancel(REQUEST_ID, "user@example.com");
+        release.countDown();
+
+        // Assert
+        awaitResult(result);
+        assertThat(result.getResult()).isEqualTo(false);
+        assertThat(guard.getStats().continued()).isEqualTo(1);
+        assertThat(guard.getStats().cancelled()).isZero();
+    }
+
+    /**
+     * Test: by default a request with an email should finish after its client leaves, one without should not
+     */
+    @Test
+    void shouldCompleteOnlyRequestsWithEmailByDefault() throws InterruptedException {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        DeferredResult<String> withEmail = guard.submit(Lane.INTERACTIVE, "user@example.com", () -> {
+            callStarted.countDown();
+            awaitQuietly(release);
+            return "answer";
+        });
+        assertThat(callStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Act
+        guard.cancel(REQUEST_ID, "user@example.com");
+        release.countDown();
+
+        // Assert
+        awaitResult(withEmail);
+        assertThat(withEmail.getResult()).isEqualTo("answer");
+        assertThat(guard.getStats().policy()).isEqualTo(DisconnectGuard.POLICY_COMPLETE_WITH_EMAIL);
+        assertThat(guard.getStats().continued()).isEqualTo(1);
+    }
+
+    /**
+     * Test: an Error thrown by the work should fail the request and its listener instead of leaving them waiting
+     */
+    @Test
+    void shouldFailRequestWhenWorkThrowsError() throws InterruptedException {
+        // Arrange
+        RecordingListener listener = new RecordingListener();
+
+        // Act
+        DeferredResult<String> result = guard.submit(Lane.INTERACTIVE, null, () -> {
+            throw new OutOfMemoryError("simulated");
+        }, listener);
+
+        // Assert
+        awaitResult(result);
+        assertThat(result.getResult()).isInstanceOf(OutOfMemoryError.class);
+        assertThat(listener.failed.get()).isInstanceOf(OutOfMemoryError.class);
+        assertThat(listener.calls.get()).isEqualTo(1);
+    }
+
+    /**
+     * Test: the listener should get the answer before the client does
+     */
+    @Test
+    void shouldReportAnswerToListener() throws InterruptedException {
+        // Arrange
+        RecordingListener listener = new RecordingListener();
+
+        // Act
+        DeferredResult<String> result = guard.submit(Lane.INTERACTIVE, null, () -> "answer", listener);
+
+        // Assert
+        awaitResult(result);
+        assertThat(listener.completed.get()).isEqualTo("answer");
+        assertThat(listener.calls.get()).isEqualTo(1);
+    }
+
+    /**
+     * Test: a cancelled request should report its cancellation to the listener exactly once
+     */
+    @Test
+    void shouldReportCancellationToListenerOnce() throws InterruptedException {
+        // Arrange
+        RecordingListener listener = new RecordingListener();
+        DeferredResult<String> result = guard.submit(Lane.INTERACTIVE, null, this::slowModelCall, listener);
+        assertThat(callStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Act
+        guard.cancel(REQUEST_ID, null);
+
+        // Assert
+        assertThat(callFinished.await(5, TimeUnit.SECONDS)).isTrue();
+        awaitResult(result);
+        assertThat(listener.failed.get()).isInstanceOf(RequestCancelledException.class);
+        assertThat(listener.calls.get()).isEqualTo(1);
+    }
+
+    /**
+     * Test: the resource handed to the job should stay open while the work runs and be closed once after it
+     */
+    @Test
+    void shouldCloseResourceAfterWork() throws InterruptedException {
+        // Arrange
+        AtomicInteger closes = new AtomicInteger();
+        CountDownLatch closed = new CountDownLatch(1);
+        AtomicInteger closesSeenByWork = new AtomicInteger(-1);
+
+        // Act
+        DeferredResult<String> result = guard.submit(Lane.INTERACTIVE, null, () -> {
+            closesSeenByWork.set(closes.get());
+            return "answer";
+        }, null, () -> {
+            closes.incrementAndGet();
+            closed.countDown();
+        });
+
+        // Assert
+        awaitResult(result);
+        assertThat(closed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(closesSeenByWork.get()).isZero();
+        assertThat(closes.get()).isEqualTo(1);
+    }
+
+    /**
+     * Test: cancelling an unknown request should report that nothing was cancelled
+     */
+    @Test
+    void shouldIgnoreUnknownRequest() {
+        // Act & Assert
+        assertThat(guard.cancel("unknown", null)).isFalse();
+        assertThat(guard.getStats().clientsGone()).isZero();
+    }
+
+    /**
+     * Test: a cancellation with another email should be refused and leave the request running
+     */
+    @Test
+    void shouldNotCancelRequestOfAnotherEmail() throws InterruptedException {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        DeferredResult<String> result = guard.submit(Lane.INTERACTIVE, "user@example.com", () -> {
+            callStarted.countDown();
+            awaitQuietly(release);
+            return "answer";
+        });
+        assertThat(callStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Act
+        boolean byOther = guard.cancel(REQUEST_ID, "other@example.com");
+        boolean anonymous = guard.cancel(REQUEST_ID, null);
+        release.countDown();
+
+        // Assert
+        awaitResult(result);
+        assertThat(byOther).isFalse();
+        assertThat(anonymous).isFalse();
+        assertThat(result.getResult()).isEqualTo("answer");
+        assertThat(guard.getStats().clientsGone()).isZero();
+    }
+
+    /**
+     * Test: an unknown policy should be rejected at startup
+     */
+    @Test
+    void shouldRejectUnknownPolicy() {
+        // Arrange
+        config.setPolicy("ignore");
+
+        // Act & Assert
+        assertThatThrownBy(() -> new DisconnectGuard(config, laneScheduler, new InFlightTracker()))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("ignore");
+    }
+
+    private static final class RecordingListener implements RequestListener<String> {
+        private final AtomicReference<String> completed = new AtomicReference<>();
+        private final AtomicReference<Throwable> failed = new AtomicReference<>();
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public void completed(String result) {
+            completed.set(result);
+            calls.incrementAndGet();
+        }
+
+        @Override
+        public void failed(Throwable error) {
+            failed.set(error);
+            calls.incrementAndGet();
+        }
+    }
+
+    private String slowModelCall() {
+        return CancellationToken.current().callInterruptibly(() -> {
+            callStarted.countDown();
+            try {
+                Thread.sleep(10_000);
+                return "late answer";
+            } catch (InterruptedException e) {
+                callInterrupted.set(true);
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for watsonx response", e);
+            } finally {
+                callFinished.countDown();
+            }
+        });
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitResult(DeferredResult<?> result) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!result.hasResult() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(result.hasResult()).isTrue();
+    }
+}
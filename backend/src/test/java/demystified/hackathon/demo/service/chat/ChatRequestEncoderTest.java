@@ -0,0 +1,114 @@
+package demystified.hackathon.demo.service.chat;
+
+import demystified.hackathon.demo.config.WatsonxConfig;
+import demystified.hackathon.demo.fixtures.TestDataBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatRequestEncoderTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private ChatRequestEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        WatsonxConfig config = new WatsonxConfig();
+        config.setProjectId(TestDataBuilder.TestConstants.TEST_PROJECT_ID);
+        config.setModelId(TestDataBuilder.TestConstants.TEST_MODEL_ID);
+        encoder = new ChatRequestEncoder(config);
+    }
+
+    /**
+     * Test: the encoded body should contain the constant fields and the user text
+     */
+    @Test
+    void shouldEncodeValidChatRequest() throws IOException {
+        // Act
+        Map<String, Object> body = encode(TestDataBuilder.TestConstants.TEST_MODEL_ID, "What is Java?");
+
+        // Assert
+        assertThat(body.get("project_id")).isEqualTo(TestDataBuilder.TestConstants.TEST_PROJECT_ID);
+        assertThat(body.get("model_id")).isEqualTo(TestDataBuilder.TestConstants.TEST_MODEL_ID);
+        assertThat(body.get("max_tokens")).isEqualTo(2000);
+        assertThat(userText(body)).isEqualTo("What is Java?");
+    }
+
+    /**
+     * Test: quotes, control characters and non-ASCII text should round-trip
+     */
+    @Test
+    void shouldEscapeUserText() throws IOException {
+        // Arrange
+        String text = "Say \"hi\"\\ now\n\ttab \u0001 café 日本 😀 \ud800 end";
+
+        // Act
+        Map<String, Object> body = encode(TestDataBuilder.TestConstants.TEST_MODEL_ID, text);
+
+        // Assert
+        assertThat(userText(body)).isEqualTo(text);
+    }
+
+    /**
+     * Test: a different model id should get its own constant prefix
+     */
+    @Test
+    void shouldEncodeAlternateModel() throws IOException {
+        // Act
+        Map<String, Object> body = encode("alternate-model", "hello");
+
+        // Assert
+        assertThat(body.get("model_id")).isEqualTo("alternate-model");
+        assertThat(userText(body)).isEqualTo("hello");
+    }
+
+    /**
+     * Test: generation parameters and stop sequences should be written as given
+     */
+    @Test
+    void shouldEncodeGenerationParameters() throws IOException {
+        // Arrange
+        GenerationParameters parameters = new GenerationParameters(300, 0.7, 0.9, 0.5, 0, List.of("\n\n", "END"));
+
+        // Act
+        Map<String, Object> body = encode(TestDataBuilder.TestConstants.TEST_MODEL_ID, parameters, "hello");
+
+        // Assert
+        assertThat(body.get("max_tokens")).isEqualTo(300);
+        assertThat(body.get("temperature")).isEqualTo(0.7);
+        assertThat(body.get("top_p")).isEqualTo(0.9);
+        assertThat(body.get("frequency_penalty")).isEqualTo(0.5);
+        assertThat(body.get("presence_penalty")).isEqualTo(0);
+        assertThat(body.get("stop")).isEqualTo(List.of("\n\n", "END"));
+        assertThat(userText(body)).isEqualTo("hello");
+    }
+
+    private Map<String, Object> encode(String modelId, String text) throws IOException {
+        return encode(modelId, GenerationParameters.DEFAULT, text);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> encode(String modelId, GenerationParameters parameters, String text)
+            throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int written = encoder.encodeTo(modelId, parameters, text, out);
+        assertThat(written).isEqualTo(out.size());
+        return mapper.readValue(out.toByteArray(), Map.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String userText(Map<String, Object> body) {
+        List<Map<String, Object>> messages = (List<Map<String, Object>>) body.get("messages");
+        assertThat(messages).hasSize(2);
+        assertThat(messages.get(0).get("role")).isEqualTo("system");
+        List<Map<String, Object>> parts = (List<Map<String, Object>>) messages.get(1).get("content");
+        return (String) parts.get(0).get("text");
+    }
+}
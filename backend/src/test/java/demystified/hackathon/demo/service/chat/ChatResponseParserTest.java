@@ -0,0 +1,73 @@
+package demystified.hackathon.demo.service.chat;
+
+import demystified.hackathon.demo.fixtures.TestDataBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatResponseParserTest {
+
+    private final ChatResponseParser parser = new ChatResponseParser();
+
+    /**
+     * Test: only the fields the backend uses should be extracted
+     */
+    @Test
+    void shouldExtractIdModelContentAndUsage() {
+        // Act
+        ChatResponse response = parse(TestDataBuilder.createMockWatsonxResponseJson("Hello \\\"world\\\""));
+
+        // Assert
+        assertThat(response.id()).isEqualTo("response-123");
+        assertThat(response.modelId()).isEqualTo("test-model");
+        assertThat(response.created()).isEqualTo(1738420800L);
+        assertThat(response.content()).isEqualTo("Hello \"world\"");
+        assertThat(response.usage()).isEqualTo(new TokenUsage(120, 45, 165));
+    }
+
+    /**
+     * Test: only the first choice should be used when several are returned
+     */
+    @Test
+    void shouldUseFirstChoiceOnly() {
+        // Act
+        ChatResponse response = parse("{\"choices\":[" +
+            "{\"message\":{\"content\":\"first\"}}," +
+            "{\"message\":{\"content\":\"second\"}}]}");
+
+        // Assert
+        assertThat(response.content()).isEqualTo("first");
+        assertThat(response.usage()).isNull();
+    }
+
+    /**
+     * Test: missing choices and null content should not fail the parse
+     */
+    @Test
+    void shouldHandleMissingChoicesAndNullContent() {
+        // Act
+        ChatResponse withoutChoices = parse("{\"id\":\"abc\",\"choices\":[]}");
+        ChatResponse withNullContent = parse("{\"choices\":[{\"message\":{\"content\":null}}]}");
+
+        // Assert
+        assertThat(withoutChoices.id()).isEqualTo("abc");
+        assertThat(withoutChoices.content()).isNull();
+        assertThat(withNullContent.content()).isNull();
+    }
+
+    /**
+     * Test: a non-object body should produce no response
+     */
+    @Test
+    void shouldReturnNullForNonObjectBody() {
+        // Act & Assert
+        assertThat(parse("[]")).isNull();
+    }
+
+    private ChatResponse parse(String json) {
+        return parser.parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
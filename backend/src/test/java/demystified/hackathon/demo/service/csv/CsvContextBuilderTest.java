@@ -0,0 +1,85 @@
+package demystified.hackathon.demo.service.csv;
+
+import demystified.hackathon.demo.config.CsvUploadConfig;
+import demystified.hackathon.demo.fixtures.TestDataBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvContextBuilderTest {
+
+    private final CsvContextBuilder builder = new CsvContextBuilder(new CsvUploadReader(new CsvUploadConfig()));
+
+    /**
+     * Test: standard CSV should render as a markdown table
+     */
+    @Test
+    void shouldRenderMarkdownTable() throws IOException {
+        // Act
+        String table = build(TestDataBuilder.createTestCsvData());
+
+        // Assert
+        assertThat(table).isEqualTo(TestDataBuilder.createExpectedCsvMarkdownTable());
+    }
+
+    /**
+     * Test: quoted cells, pipes, line breaks and CRLF endings should not break the table
+     */
+    @Test
+    void shouldEscapePipesAndLineBreaks() throws IOException {
+        // Arrange
+        String csv = "\uFEFFName,Notes\r\n" +
+                     "\"Doe, John\",\"said \"\"hi\"\"\"\r\n" +
+                     "Jane,\"a|b\r\nsecond line\"\r\n";
+
+        // Act
+        String table = build(csv);
+
+        // Assert
+        assertThat(table).isEqualTo(
+            "| Name | Notes | \n" +
+            "| --- | --- | \n" +
+            "| Doe, John | said \"hi\" | \n" +
+            "| Jane | a\\|b<br>second line | \n"
+        );
+    }
+
+    /**
+     * Test: input outside RFC 4180 should fall back to OpenCSV
+     */
+    @Test
+    void shouldFallBackToOpenCsvForBackslashEscapes() throws IOException {
+        // Arrange
+        String csv = "Name,Quote\n" +
+                     "Jane,\"she said \\\"hi\\\"\"\n";
+
+        // Act
+        String table = build(csv);
+
+        // Assert
+        assertThat(table).isEqualTo(
+            "| Name | Quote | \n" +
+            "| --- | --- | \n" +
+            "| Jane | she said \"hi\" | \n"
+        );
+    }
+
+    /**
+     * Test: an empty upload should produce no table
+     */
+    @Test
+    void shouldReturnEmptyStringForEmptyCsv() throws IOException {
+        // Act & Assert
+        assertThat(build("")).isEmpty();
+    }
+
+    private String build(String csv) throws IOException {
+        byte[] content = csv.getBytes(StandardCharsets.UTF_8);
+        try (CsvUpload upload = CsvUpload.inMemory(content, Long.MAX_VALUE)) {
+            return builder.buildMarkdownTable(upload);
+        }
+    }
+}
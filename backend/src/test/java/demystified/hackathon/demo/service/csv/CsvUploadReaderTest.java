@@ -0,0 +1,146 @@
+package demystified.hackathon.demo.service.csv;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import demystified.hackathon.demo.config.CsvUploadConfig;
+import demystified.hackathon.demo.fixtures.TestDataBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvUploadReaderTest {
+
+    @TempDir
+    Path spoolDirectory;
+
+    private CsvUploadConfig config;
+    private CsvUploadReader reader;
+
+    @BeforeEach
+    void setUp() {
+        config = new CsvUploadConfig();
+        config.setSpoolDirectory(spoolDirectory.toString());
+        reader = new CsvUploadReader(config);
+    }
+
+    /**
+     * Test: small uploads should stay in memory
+     */
+    @Test
+    void shouldKeepSmallUploadInMemory() throws IOException {
+        // Arrange
+        byte[] csv = TestDataBuilder.createTestCsvData().getBytes(StandardCharsets.UTF_8);
+
+        // Act
+        try (CsvUpload upload = reader.read(csvFile(csv))) {
+            // Assert
+            assertThat(upload.isSpooled()).isFalse();
+            assertThat(readAll(upload)).isEqualTo(TestDataBuilder.createTestCsvData());
+        }
+    }
+
+    /**
+     * Test: uploads above the threshold should be spooled to disk and removed on close
+     */
+    @Test
+    void shouldSpoolLargeUploadAndDeleteOnClose() throws IOException {
+        // Arrange
+        config.setSpoolThreshold(DataSize.ofBytes(10));
+        byte[] csv = TestDataBuilder.createTestCsvData().getBytes(StandardCharsets.UTF_8);
+
+        // Act
+        CsvUpload upload = reader.read(csvFile(csv));
+
+        // Assert
+        assertThat(upload.isSpooled()).isTrue();
+        assertThat(readAll(upload)).isEqualTo(TestDataBuilder.createTestCsvData());
+        assertThat(readAll(upload)).isEqualTo(TestDataBuilder.createTestCsvData());
+        upload.close();
+        try (var files = Files.list(spoolDirectory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    /**
+     * Test: gzip and zstd uploads should be decoded transparently
+     */
+    @Test
+    void shouldDecodeCompressedUploads() throws IOException {
+        // Arrange
+        byte[] csv = TestDataBuilder.createTestCsvData().getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(gzip)) {
+            out.write(csv);
+        }
+        ByteArrayOutputStream zstd = new ByteArrayOutputStream();
+        try (OutputStream out = new ZstdOutputStream(zstd)) {
+            out.write(csv);
+        }
+
+        // Act & Assert
+        try (CsvUpload upload = reader.read(csvFile(gzip.toByteArray()))) {
+            assertThat(readAll(upload)).isEqualTo(TestDataBuilder.createTestCsvData());
+        }
+        try (CsvUpload upload = reader.read(csvFile(zstd.toByteArray()))) {
+            assertThat(readAll(upload)).isEqualTo(TestDataBuilder.createTestCsvData());
+        }
+    }
+
+    /**
+     * Test: files above the upload limit should be rejected before reading
+     */
+    @Test
+    void shouldRejectUploadAboveMaxFileSize() {
+        // Arrange
+        config.setMaxFileSize(DataSize.ofBytes(10));
+        byte[] csv = TestDataBuilder.createTestCsvData().getBytes(StandardCharsets.UTF_8);
+
+        // Act & Assert
+        assertThatThrownBy(() -> reader.read(csvFile(csv)))
+            .isInstanceOf(CsvUploadException.class)
+            .hasMessageContaining("maximum upload size");
+    }
+
+    /**
+     * Test: compressed content that expands beyond the limit should be rejected while reading
+     */
+    @Test
+    void shouldRejectContentAboveMaxUncompressedSize() throws IOException {
+        // Arrange
+        config.setMaxUncompressedSize(DataSize.ofKilobytes(1));
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(gzip)) {
+            out.write("a,b\n".repeat(10_000).getBytes(StandardCharsets.UTF_8));
+        }
+
+        // Act & Assert
+        try (CsvUpload upload = reader.read(csvFile(gzip.toByteArray()))) {
+            assertThatThrownBy(() -> readAll(upload))
+                .isInstanceOf(CsvUploadException.class)
+                .hasMessageContaining("maximum uncompressed size");
+        }
+    }
+
+    private static MockMultipartFile csvFile(byte[] content) {
+        return new MockMultipartFile("csvFile", "data.csv", "text/csv", content);
+    }
+
+    private static String readAll(CsvUpload upload) throws IOException {
+        try (InputStream in = upload.openStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package demystified.hackathon.demo.service.csv;
+
+import demystified.hackathon.demo.config.TableEncodingConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TableEncoderTest {
+    private static final String TABLE =
+        "| Id | Region | Amount | Notes | \n" +
+        "| --- | --- | --- | --- | \n" +
+        "| 007 | Europe | +12.50 | a\\|b | \n" +
+        "| 008 | North America | 3.000 | first<br>second | \n" +
+        "| 009 | Europe | 4 |  | \n";
+
+    private final TableEncoder encoder = new TableEncoder(new TableEncodingConfig());
+
+    /**
+     * Test: TSV should restore escaped cells and shorten numbers but keep leading zeros
+     */
+    @Test
+    void shouldWriteTsvWithNormalizedNumbers() {
+        // Act
+        TableEncoder.EncodedTable encoded = encoder.encode(TABLE, TableEncoding.TSV);
+
+        // Assert
+        assertThat(encoded.encoding()).isEqualTo(TableEncoding.TSV);
+        assertThat(encoded.text()).isEqualTo(TableEncoder.TSV_PREAMBLE +
+            "Id\tRegion\tAmount\tNotes\n" +
+            "007\tEurope\t12.5\ta|b\n" +
+            "008\tNorth America\t3\tfirst\\nsecond\n" +
+            "009\tEurope\t4\t\n");
+        assertThat(encoded.tokens()).isLessThan(encoded.markdownTokens());
+    }
+
+    /**
+     * Test: the columnar encoding should code a repeated value only where that saves tokens
+     */
+    @Test
+    void shouldWriteColumnsWithDictionaryForRepeatedValues() {
+        // Arrange
+        StringBuilder table = new StringBuilder("| Customer | Qty | \n| --- | --- | \n");
+        for (int i = 0; i < 6; i++) {
+            table.append("| International Business Machines | ").append(i).append(" | \n");
+        }
+
+        // Act
+        TableEncoder.EncodedTable encoded = encoder.encode(table.toString(), TableEncoding.COLUMNAR);
+
+        // Assert
+        assertThat(encoded.text()).isEqualTo(TableEncoder.COLUMNAR_PREAMBLE +
+            "Rows: 6\n" +
+            "Customer [0=International Business Machines]: 0|0|0|0|0|0\n" +
+            "Qty: 0|1|2|3|4|5\n");
+    }
+
+    /**
+     * Test: auto should send the cheapest encoding and never more tokens than markdown
+     */
+    @Test
+    void shouldPickFewestTokensInAutoMode() {
+        // Act
+        TableEncoder.EncodedTable encoded = encoder.encode(TABLE, TableEncoding.AUTO);
+
+        // Assert
+        assertThat(encoded.encoding()).isNotEqualTo(TableEncoding.AUTO);
+        for (TableEncoding candidate : new TableEncoding[] {TableEncoding.MARKDOWN, TableEncoding.TSV,
+            TableEncoding.COLUMNAR}) {
+            assertThat(encoded.tokens()).isLessThanOrEqualTo(encoder.encode(TABLE, candidate).tokens());
+        }
+        assertThat(encoder.getStats().chosen().get(encoded.encoding().key())).isEqualTo(2);
+    }
+
+    /**
+     * Test: notes after the table should be kept and text without a table left alone
+     */
+    @Test
+    void shouldKeepNotesAndIgnoreTextWithoutTable() {
+        // Arrange
+        String note = "\n_Only the first 3 of 10 rows are included._\n";
+        String schema = "Rows: 3\n\n" + TABLE;
+
+        // Act
+        TableEncoder.EncodedTable withNote = encoder.encode(TABLE + note, TableEncoding.TSV);
+        TableEncoder.EncodedTable plain = encoder.encode(schema, TableEncoding.TSV);
+
+        // Assert
+        assertThat(withNote.text()).endsWith("009\tEurope\t4\t\n" + note);
+        assertThat(plain.encoding()).isEqualTo(TableEncoding.MARKDOWN);
+        assertThat(plain.text()).isSameAs(schema);
+    }
+
+    /**
+     * Test: numbers should be left as they are when normalization is off
+     */
+    @Test
+    void shouldKeepNumbersWhenNormalizationIsOff() {
+        // Arrange
+        TableEncodingConfig config = new TableEncodingConfig();
+        config.setNormalizeNumbers(false);
+
+        // Act
+        String text = new TableEncoder(config).encode(TABLE, TableEncoding.TSV).text();
+
+        // Assert
+        assertThat(text).contains("007\tEurope\t+12.50\t", "\t3.000\t");
+    }
+
+    /**
+     * Test: an unknown encoding should be rejected with 400 and a blank one fall back to the default
+     */
+    @Test
+    void shouldResolveEncodingNames() {
+        // Act & Assert
+        assertThat(TableEncoding.resolve(" TSV ", null)).isEqualTo(TableEncoding.TSV);
+        assertThat(TableEncoding.resolve("", TableEncoding.AUTO)).isEqualTo(TableEncoding.AUTO);
+        assertThatThrownBy(() -> TableEncoding.resolve("yaml", null))
+            .isInstanceOf(ResponseStatusException.class)
+            .satisfies(e -> assertThat(((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+}
@@ -0,0 +1,180 @@
+package demystified.hackathon.demo.service.dataset;
+
+import demystified.hackathon.demo.config.CsvUploadConfig;
+import demystified.hackathon.demo.config.DatasetConfig;
+import demystified.hackathon.demo.service.csv.CsvContextBuilder;
+import demystified.hackathon.demo.service.csv.CsvUploadReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DatasetRegistryTest {
+
+    private static final String CSV = """
+        Date,Customer,Amount,Qty,Note
+        2024-03-01,Acme,12.50,3,"has, comma"
+        2024-03-02,Globex,-0.75,10,"pipe | and
+        newline"
+        2024-03-03,Acme,100.00,007,short
+        """;
+
+    @TempDir
+    Path directory;
+
+    private DatasetConfig config;
+    private CsvContextBuilder csvContextBuilder;
+    private DatasetRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        config = new DatasetConfig();
+        config.setDirectory(directory.toString());
+        config.setMaxPerUser(2);
+        config.setMaxTotalSize(DataSize.ofMegabytes(1));
+        CsvUploadReader reader = new CsvUploadReader(new CsvUploadConfig());
+        csvContextBuilder = new CsvContextBuilder(reader);
+        registry = new DatasetRegistry(config, reader, csvContextBuilder);
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.shutdown();
+    }
+
+    /**
+     * Test: a stored dataset should render the same markdown table as uploading the CSV directly
+     */
+    @Test
+    void shouldRenderSameTableAsUpload() throws IOException {
+        // Act
+        DatasetInfo info = registry.create(csvFile(CSV), "Orders", "Ana@Example.com");
+        DatasetRegistry.DatasetTable table = registry.loadTable(info.id(), "ana@example.com");
+
+        // Assert
+        assertThat(info.id()).matches("ds-[0-9a-f]{20}");
+        assertThat(info.rows()).isEqualTo(3);
+        assertThat(info.columns()).extracting(DatasetInfo.ColumnInfo::type)
+            .containsExactly("string", "string", "decimal", "string", "string");
+        assertThat(info.columns().get(2).scale()).isEqualTo(2);
+        assertThat(table.name()).isEqualTo("Orders");
+        assertThat(table.markdown()).isEqualTo(csvContextBuilder.buildMarkdownTable(csvFile(CSV)));
+    }
+
+    /**
+     * Test: datasets should be reopened from disk by a new registry
+     */
+    @Test
+    void shouldReopenStoredDatasets() {
+        // Arrange
+        DatasetInfo info = registry.create(csvFile(CSV), null, null);
+        String markdown = registry.loadTable(info.id(), null).markdown();
+
+        // Act
+        DatasetRegistry reopened = new DatasetRegistry(config, new CsvUploadReader(new CsvUploadConfig()),
+            csvContextBuilder);
+
+        // Assert
+        try {
+            assertThat(reopened.get(info.id(), null).name()).isEqualTo("data.csv");
+            assertThat(reopened.loadTable(info.id(), null).markdown()).isEqualTo(markdown);
+        } finally {
+            reopened.shutdown();
+        }
+    }
+
+    /**
+     * Test: a user over the per-user limit should get 429 and nothing should be stored
+     */
+    @Test
+    void shouldRejectDatasetsOverUserQuota() throws IOException {
+        // Arrange
+        registry.create(csvFile(CSV), null, "ana@example.com");
+        registry.create(csvFile(CSV), null, "ana@example.com");
+
+        // Act & Assert
+        assertThatThrownBy(() -> registry.create(csvFile(CSV), null, "ana@example.com"))
+            .isInstanceOf(DatasetException.class)
+            .satisfies(e -> assertThat(((DatasetException) e).getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+        assertThat(registry.create(csvFile(CSV), null, "bob@example.com")).isNotNull();
+        assertThat(registry.getStats().rejected()).isEqualTo(1);
+        assertThat(datasetFiles()).hasSize(3);
+    }
+
+    /**
+     * Test: expired and deleted datasets should be gone from the registry and the disk
+     */
+    @Test
+    void shouldRemoveExpiredAndDeletedDatasets() throws IOException {
+        // Arrange
+        DatasetInfo first = registry.create(csvFile(CSV), null, "ana@example.com");
+        DatasetInfo second = registry.create(csvFile(CSV), null, "bob@example.com");
+
+        // Act
+        registry.delete(first.id(), "ana@example.com");
+        config.setTtlMs(-1);
+        int removed = registry.removeExpired();
+
+        // Assert
+        assertThat(removed).isEqualTo(1);
+        assertThat(datasetFiles()).isEmpty();
+        assertThatThrownBy(() -> registry.loadTable(second.id(), "bob@example.com"))
+            .isInstanceOf(DatasetException.class)
+            .satisfies(e -> assertThat(((DatasetException) e).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+        assertThatThrownBy(() -> registry.delete(first.id(), "ana@example.com")).isInstanceOf(DatasetException.class);
+    }
+
+    /**
+     * Test: another user's dataset should look missing and survive their delete
+     */
+    @Test
+    void shouldHideDatasetsFromOtherUsers() {
+        // Arrange
+        DatasetInfo info = registry.create(csvFile(CSV), null, "ana@example.com");
+
+        // Act & Assert
+        assertThatThrownBy(() -> registry.get(info.id(), "bob@example.com"))
+            .isInstanceOf(DatasetException.class)
+            .satisfies(e -> assertThat(((DatasetException) e).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+        assertThatThrownBy(() -> registry.loadTable(info.id(), null))
+            .isInstanceOf(DatasetException.class)
+            .satisfies(e -> assertThat(((DatasetException) e).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+        assertThatThrownBy(() -> registry.delete(info.id(), "bob@example.com"))
+            .isInstanceOf(DatasetException.class)
+            .satisfies(e -> assertThat(((DatasetException) e).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+        assertThat(registry.get(info.id(), "Ana@Example.com").id()).isEqualTo(info.id());
+    }
+
+    /**
+     * Test: ids that are not dataset ids should not reach the file system
+     */
+    @Test
+    void shouldRejectMalformedIds() {
+        assertThatThrownBy(() -> registry.loadTable("../../etc/passwd", null))
+            .isInstanceOf(DatasetException.class)
+            .satisfies(e -> assertThat(((DatasetException) e).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+    }
+
+    private MockMultipartFile csvFile(String content) {
+        return new MockMultipartFile("csvFile", "data.csv", "text/csv", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<Path> datasetFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(DatasetFile.SUFFIX)).toList();
+        }
+    }
+}
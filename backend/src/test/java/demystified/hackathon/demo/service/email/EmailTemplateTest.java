@@ -0,0 +1,70 @@
+package demystified.hackathon.demo.service.email;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmailTemplateTest {
+    private static final LocalDateTime SENT_AT = LocalDateTime.of(2024, 3, 5, 14, 7, 9);
+
+    private final EmailTemplate template = new EmailTemplate();
+
+    /**
+     * Test: the prompt and metadata should be escaped and the response rendered from markdown
+     */
+    @Test
+    void shouldRenderEscapedPromptAndMarkdownResponse() {
+        // Act
+        String html = template.render("Is <b>1 & 2</b> ok?", "**Yes**\n\n| a | b |\n|---|---|\n| 1 | 2 |",
+            "model<x>", "id&1", SENT_AT);
+
+        // Assert
+        assertThat(html).startsWith("<html>").endsWith("</html>");
+        assertThat(html).contains("<h1>Watsonx Response</h1>");
+        assertThat(html).contains("<div class=\"prompt-box\">Is &lt;b&gt;1 &amp; 2&lt;/b&gt; ok?</div>");
+        assertThat(html).contains("<p><strong>Yes</strong></p>");
+        assertThat(html).contains("<table><thead><tr><th>a</th><th>b</th></tr></thead><tbody><tr><td>1</td><td>2</td></tr></tbody></table>");
+        assertThat(html).contains("<strong>Model:</strong> model&lt;x&gt;");
+        assertThat(html).contains("<strong>Response ID:</strong> id&amp;1");
+        assertThat(html).contains("<strong>Date:</strong> 05/03/2024 14:07:09");
+    }
+
+    /**
+     * Test: a digest should render every entry in order, separated by a divider
+     */
+    @Test
+    void shouldRenderDigestEntriesInOrder() {
+        // Arrange
+        List<DigestEntry> entries = List.of(
+            new DigestEntry("first prompt", "first answer", "model", "id-1", SENT_AT),
+            new DigestEntry("second prompt", "second answer", "model", "id-2", SENT_AT.plusMinutes(1)));
+
+        // Act
+        String html = template.renderDigest(entries);
+
+        // Assert
+        assertThat(html).contains("<h1>Watsonx Responses</h1>");
+        assertThat(html.indexOf("first prompt")).isLessThan(html.indexOf("<hr class=\"digest-separator\">"));
+        assertThat(html.indexOf("<hr class=\"digest-separator\">")).isLessThan(html.indexOf("second prompt"));
+        assertThat(html.split("digest-separator\">", -1)).hasSize(2);
+        assertThat(html).contains("05/03/2024 14:08:09");
+    }
+
+    /**
+     * Test: rendering twice on the same thread should not leak content between documents
+     */
+    @Test
+    void shouldNotLeakContentBetweenRenders() {
+        // Arrange
+        String first = template.render("first prompt", "first answer", "model", "id-1", SENT_AT);
+
+        // Act
+        String second = template.render("second prompt", "second answer", "model", "id-2", SENT_AT);
+
+        // Assert
+        assertThat(second).doesNotContain("first prompt").doesNotContain("id-1");
+    }
+}
@@ -0,0 +1,103 @@
+package demystified.hackathon.demo.service.email;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MarkdownHtmlRendererTest {
+
+    /**
+     * Test: headings, emphasis and inline code should render as HTML
+     */
+    @Test
+    void shouldRenderHeadingsAndInlineFormatting() {
+        // Act
+        String html = render("# Summary\nRevenue is **up** by _5%_ in `Q3`.");
+
+        // Assert
+        assertThat(html).isEqualTo("<h1>Summary</h1><p>Revenue is <strong>up</strong> by <em>5%</em> in <code>Q3</code>.</p>");
+    }
+
+    /**
+     * Test: raw HTML in the model output should be escaped instead of rendered
+     */
+    @Test
+    void shouldEscapeRawHtml() {
+        // Act
+        String html = render("<script>alert('x')</script> & more");
+
+        // Assert
+        assertThat(html).isEqualTo("<p>&lt;script&gt;alert(&#39;x&#39;)&lt;/script&gt; &amp; more</p>");
+    }
+
+    /**
+     * Test: fenced code blocks should keep their content verbatim but escaped
+     */
+    @Test
+    void shouldRenderFencedCodeBlock() {
+        // Act
+        String html = render("```java\nif (a < b) {\n  **not bold**\n}\n```");
+
+        // Assert
+        assertThat(html).isEqualTo("<pre><code class=\"language-java\">if (a &lt; b) {\n  **not bold**\n}\n</code></pre>");
+    }
+
+    /**
+     * Test: ordered and unordered lists should render as separate lists
+     */
+    @Test
+    void shouldRenderLists() {
+        // Act
+        String html = render("- one\n- two\n\n1. first\n2. second");
+
+        // Assert
+        assertThat(html).isEqualTo("<ul><li>one</li><li>two</li></ul><ol><li>first</li><li>second</li></ol>");
+    }
+
+    /**
+     * Test: pipe tables should render with a header row and escaped pipes
+     */
+    @Test
+    void shouldRenderTable() {
+        // Act
+        String html = render("| Name | Notes |\n|------|-------|\n| John | a\\|b |\n| Jane | ok |");
+
+        // Assert
+        assertThat(html).isEqualTo(
+            "<table><thead><tr><th>Name</th><th>Notes</th></tr></thead><tbody>" +
+            "<tr><td>John</td><td>a|b</td></tr>" +
+            "<tr><td>Jane</td><td>ok</td></tr>" +
+            "</tbody></table>");
+    }
+
+    /**
+     * Test: only http, https and mailto links should become anchors
+     */
+    @Test
+    void shouldOnlyLinkAllowedSchemes() {
+        // Act
+        String html = render("[docs](https://ibm.com/docs?a=1&b=2) [bad](javascript:alert(1))");
+
+        // Assert
+        assertThat(html).isEqualTo(
+            "<p><a href=\"https://ibm.com/docs?a=1&amp;b=2\">docs</a> [bad](javascript:alert(1))</p>");
+    }
+
+    /**
+     * Test: blockquotes and horizontal rules should render
+     */
+    @Test
+    void shouldRenderBlockquoteAndRule() {
+        // Act
+        String html = render("> quoted <html>\n\n---");
+
+        // Assert
+        assertThat(html).isEqualTo("<blockquote>quoted &lt;html&gt;</blockquote><hr>");
+    }
+
+    private static String render(String markdown) {
+        StringBuilder out = new StringBuilder();
+        MarkdownHtmlRenderer.render(markdown, out);
+        return out.toString();
+    }
+}
@@ -0,0 +1,166 @@
+package demystified.hackathon.demo.service.email;
+
+import demystified.hackathon.demo.config.MailPoolConfig;
+import demystified.hackathon.demo.fixtures.SmtpSink;
+import demystified.hackathon.demo.fixtures.TestDataBuilder;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PooledJavaMailSenderTest {
+
+    private SmtpSink sink;
+    private MailPoolConfig config;
+    private PooledJavaMailSender sender;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        sink = new SmtpSink(0);
+        config = new MailPoolConfig();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (sender != null) {
+            sender.shutdown();
+        }
+        sink.close();
+    }
+
+    /**
+     * Test: consecutive sends should share a single SMTP connection
+     */
+    @Test
+    void shouldReuseConnectionAcrossMessages() throws MessagingException {
+        // Arrange
+        sender = createSender();
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            sender.send(createMessage(i));
+        }
+
+        // Assert
+        assertThat(sink.getMessages()).isEqualTo(5);
+        assertThat(sink.getConnections()).isEqualTo(1);
+        assertThat(sender.getStats().opened()).isEqualTo(1);
+        assertThat(sender.getStats().reused()).isEqualTo(4);
+    }
+
+    /**
+     * Test: a connection should be recycled after the per-connection message limit
+     */
+    @Test
+    void shouldRecycleConnectionAfterMessageLimit() throws MessagingException {
+        // Arrange
+        config.setMaxMessagesPerConnection(2);
+        sender = createSender();
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            sender.send(createMessage(i));
+        }
+
+        // Assert
+        assertThat(sink.getMessages()).isEqualTo(5);
+        assertThat(sink.getConnections()).isEqualTo(3);
+    }
+
+    /**
+     * Test: prewarmed connections should be used by the first send, up to the pool size
+     */
+    @Test
+    void shouldUsePrewarmedConnectionForFirstSend() throws MessagingException {
+        // Arrange
+        config.setMaxConnections(2);
+        sender = createSender();
+
+        // Act
+        int opened = sender.prewarm(5);
+        sender.send(createMessage(0));
+
+        // Assert
+        assertThat(opened).isEqualTo(2);
+        assertThat(sink.getConnections()).isEqualTo(2);
+        assertThat(sender.getStats().reused()).isEqualTo(1);
+    }
+
+    /**
+     * Test: a pooled connection dropped by the server should be replaced transparently
+     */
+    @Test
+    void shouldRetryOnNewConnectionWhenServerDropsIdleConnection() throws Exception {
+        // Arrange
+        sender = createSender();
+        sender.send(createMessage(1));
+        sink.dropConnections();
+
+        // Act
+        sender.send(createMessage(2));
+
+        // Assert
+        assertThat(sink.getMessages()).isEqualTo(2);
+        assertThat(sink.getConnections()).isEqualTo(2);
+        assertThat(sender.getStats().discarded()).isEqualTo(1);
+    }
+
+    /**
+     * Test: connections idle past the timeout should not be reused
+     */
+    @Test
+    void shouldNotReuseExpiredConnection() throws Exception {
+        // Arrange
+        config.setIdleTimeoutMs(50);
+        sender = createSender();
+        sender.send(createMessage(1));
+        Thread.sleep(100);
+
+        // Act
+        sender.send(createMessage(2));
+
+        // Assert
+        assertThat(sink.getConnections()).isEqualTo(2);
+        assertThat(sender.getStats().reused()).isZero();
+    }
+
+    /**
+     * Test: shutdown should close every idle connection
+     */
+    @Test
+    void shouldCloseIdleConnectionsOnShutdown() throws MessagingException {
+        // Arrange
+        sender = createSender();
+        sender.send(createMessage(1));
+
+        // Act
+        sender.shutdown();
+
+        // Assert
+        assertThat(sender.getStats().idle()).isZero();
+        assertThat(sender.getStats().discarded()).isEqualTo(1);
+    }
+
+    private PooledJavaMailSender createSender() {
+        PooledJavaMailSender pooledSender = new PooledJavaMailSender(config);
+        pooledSender.setHost("localhost");
+        pooledSender.setPort(sink.getPort());
+        return pooledSender;
+    }
+
+    private MimeMessage createMessage(int index) throws MessagingException {
+        MimeMessage message = sender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setTo(TestDataBuilder.TestConstants.VALID_EMAIL);
+        helper.setFrom("watsonx-bot@noreply.com");
+        helper.setSubject("Message " + index);
+        helper.setText("<p>Body " + index + "</p>", true);
+        return message;
+    }
+}
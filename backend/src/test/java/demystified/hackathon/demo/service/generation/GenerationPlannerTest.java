@@ -0,0 +1,228 @@
+package demystified.hackathon.demo.service.generation;
+
+import demystified.hackathon.demo.config.GenerationConfig;
+import demystified.hackathon.demo.service.chat.TokenUsage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GenerationPlannerTest {
+
+    private static final String MODEL_ID = "ibm/granite-13b-chat-v2";
+
+    private GenerationConfig config;
+    private GenerationPlanner planner;
+
+    @BeforeEach
+    void setUp() {
+        config = new GenerationConfig();
+        planner = new GenerationPlanner(config);
+    }
+
+    /**
+     * Test: prompts without CSV use the default profile and keep its full max_tokens
+     */
+    @Test
+    void shouldUseDefaultProfileForPlainPrompt() {
+        // Act
+        GenerationPlan plan = planner.plan(null, MODEL_ID, "What is Java?", null);
+
+        // Assert
+        assertThat(plan.profile()).isEqualTo("standard");
+        assertThat(plan.parameters().maxTokens()).isEqualTo(2000);
+        assertThat(plan.csvContext()).isNull();
+        assertThat(plan.csvRowsDropped()).isZero();
+    }
+
+    /**
+     * Test: prompts with CSV use the CSV profile, and a requested profile wins over both
+     */
+    @Test
+    void shouldPickProfileByRequestAndCsv() {
+        // Act
+        GenerationPlan csvPlan = planner.plan(null, MODEL_ID, "Summarize", table(3));
+        GenerationPlan briefPlan = planner.plan(" Brief ", MODEL_ID, "Summarize", table(3));
+
+        // Assert
+        assertThat(csvPlan.profile()).isEqualTo("analysis");
+        assertThat(csvPlan.parameters().maxTokens()).isEqualTo(4000);
+        assertThat(briefPlan.profile()).isEqualTo("brief");
+        assertThat(briefPlan.parameters().maxTokens()).isEqualTo(300);
+    }
+
+    /**
+     * Test: max_tokens should shrink to what is left of the context window
+     */
+    @Test
+    void shouldReduceMaxTokensToRemainingWindow() {
+        // Arrange
+        config.setContextWindowTokens(4096);
+
+        // Act
+        GenerationPlan plan = planner.plan("analysis", MODEL_ID, "Summarize", table(50));
+
+        // Assert
+        assertThat(plan.parameters().maxTokens())
+            .isEqualTo(4096 - plan.estimatedInputTokens())
+            .isLessThan(4000);
+        assertThat(planner.getStats().get(0).reducedMaxTokens()).isEqualTo(1);
+    }
+
+    /**
+     * Test: a CSV table larger than the window should lose trailing rows, keeping the header
+     */
+    @Test
+    void shouldTruncateOversizedCsv() {
+        // Arrange
+        config.setContextWindowTokens(4096);
+        String table = table(500);
+
+        // Act
+        GenerationPlan plan = planner.plan(null, MODEL_ID, "Summarize", table);
+
+        // Assert
+        assertThat(plan.csvRowsDropped()).isPositive();
+        assertThat(plan.csvContext()).startsWith("| Date | Product | Sales |\n| --- | --- | --- |\n| 2024-01-01");
+        assertThat(plan.csvContext()).contains("of 500 rows are included");
+        assertThat(plan.estimatedInputTokens()).isLessThanOrEqualTo(4096 - config.getMinCompletionTokens());
+        assertThat(plan.parameters().maxTokens()).isGreaterThanOrEqualTo(config.getMinCompletionTokens());
+    }
+
+    /**
+     * Test: a CSV table should be sized as rendered, so a compact rendering keeps more rows
+     */
+    @Test
+    void shouldSizeCsvByRenderedText() {
+        // Arrange
+        config.setContextWindowTokens(4096);
+        String table = table(500);
+        UnaryOperator<String> compact = markdown -> markdown.replace(" | ", "\t").replace("| ", "").replace(" |", "");
+
+        // Act
+        GenerationPlan markdown = planner.plan(null, MODEL_ID, "Summarize", table);
+        GenerationPlan rendered = planner.plan(null, MODEL_ID, "Summarize", table, compact);
+
+        // Assert
+        assertThat(rendered.csvContext()).startsWith("Date\tProduct\tSales\n").contains("rows are included");
+        assertThat(rendered.csvRowsDropped()).isPositive().isLessThan(markdown.csvRowsDropped());
+        assertThat(rendered.estimatedInputTokens()).isLessThanOrEqualTo(4096 - config.getMinCompletionTokens());
+        assertThat(rendered.parameters().maxTokens()).isEqualTo(4096 - rendered.estimatedInputTokens());
+    }
+
+    /**
+     * Test: prompts that cannot fit should be rejected with 413 before any model call
+     */
+    @Test
+    void shouldRejectPromptThatCannotFit() {
+        // Arrange
+        config.setContextWindowTokens(512);
+        String content = "word ".repeat(2000);
+
+        // Act & Assert
+        assertThatThrownBy(() -> planner.plan(null, MODEL_ID, content, null))
+            .isInstanceOf(GenerationRequestException.class)
+            .satisfies(e -> assertThat(((GenerationRequestException) e).getStatusCode())
+                .isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE));
+        assertThat(planner.getStats().get(0).rejected()).isEqualTo(1);
+    }
+
+    /**
+     * Test: a prompt that fits but would leave less than the completion floor should be rejected
+     */
+    @Test
+    void shouldRejectPromptLeavingTooFewCompletionTokens() {
+        // Arrange
+        config.setContextWindowTokens(2048);
+        String content = "word ".repeat(800);
+
+        // Act
+        GenerationPlan brief = planner.plan("brief", MODEL_ID, content, null);
+
+        // Assert
+        assertThat(brief.parameters().maxTokens()).isEqualTo(300);
+        assertThatThrownBy(() -> planner.plan("standard", MODEL_ID, content, null))
+            .isInstanceOf(GenerationRequestException.class)
+            .satisfies(e -> assertThat(((GenerationRequestException) e).getStatusCode())
+                .isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE));
+    }
+
+    /**
+     * Test: with truncation disabled an oversized CSV should be rejected as well
+     */
+    @Test
+    void shouldRejectOversizedCsvWhenTruncationDisabled() {
+        // Arrange
+        config.setContextWindowTokens(1024);
+        config.setTruncateOversizedCsv(false);
+
+        // Act & Assert
+        assertThatThrownBy(() -> planner.plan(null, MODEL_ID, "Summarize", table(500)))
+            .isInstanceOf(GenerationRequestException.class);
+    }
+
+    /**
+     * Test: an unknown profile requested by the client is a bad request
+     */
+    @Test
+    void shouldRejectUnknownProfile() {
+        // Act & Assert
+        assertThatThrownBy(() -> planner.plan("verbose", MODEL_ID, "hello", null))
+            .isInstanceOf(GenerationRequestException.class)
+            .satisfies(e -> assertThat(((GenerationRequestException) e).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+
+    /**
+     * Test: model-specific windows should override the default window
+     */
+    @Test
+    void shouldUseModelSpecificWindow() {
+        // Arrange
+        config.getContextWindowTokensByModel().put("small-model", 2048);
+
+        // Act
+        GenerationPlan small = planner.plan("analysis", "small-model", "hello", null);
+        GenerationPlan large = planner.plan("analysis", MODEL_ID, "hello", null);
+
+        // Assert
+        assertThat(small.parameters().maxTokens()).isEqualTo(2048 - small.estimatedInputTokens());
+        assertThat(large.parameters().maxTokens()).isEqualTo(4000);
+    }
+
+    /**
+     * Test: recorded calls should feed the per-profile distributions
+     */
+    @Test
+    void shouldRecordUsagePerProfile() {
+        // Arrange
+        GenerationPlan plan = planner.plan("brief", MODEL_ID, "hello", null);
+
+        // Act
+        planner.record(plan, new TokenUsage(plan.estimatedInputTokens() * 2, 120, 0), 850);
+
+        // Assert
+        List<GenerationPlanner.ProfileStats> stats = planner.getStats();
+        assertThat(stats).hasSize(1);
+        assertThat(stats.get(0).profile()).isEqualTo("brief");
+        assertThat(stats.get(0).requests()).isEqualTo(1);
+        assertThat(stats.get(0).completionTokensP50()).isEqualTo(120);
+        assertThat(stats.get(0).latencyMsP99()).isEqualTo(850);
+        assertThat(stats.get(0).promptTokenEstimateRatio()).isEqualTo(2.0);
+    }
+
+    private static String table(int rows) {
+        StringBuilder table = new StringBuilder("| Date | Product | Sales |\n| --- | --- | --- |\n");
+        for (int i = 0; i < rows; i++) {
+            table.append("| 2024-01-").append(String.format("%02d", i % 28 + 1))
+                .append(" | Product ").append((char) ('A' + i % 26))
+                .append(" | ").append(1000 + i * 7).append(" |\n");
+        }
+        return table.toString();
+    }
+}
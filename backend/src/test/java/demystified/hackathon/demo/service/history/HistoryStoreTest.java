@@ -0,0 +1,177 @@
+package demystified.hackathon.demo.service.history;
+
+import demystified.hackathon.demo.config.HistoryConfig;
+import demystified.hackathon.demo.controller.PromptResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HistoryStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private HistoryConfig config;
+    private HistoryStore store;
+
+    @BeforeEach
+    void setUp() {
+        config = new HistoryConfig();
+        config.setDirectory(directory.toString());
+        store = new HistoryStore(config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.shutdown();
+    }
+
+    /**
+     * Test: a recorded exchange should be retrievable by response id
+     */
+    @Test
+    void shouldFindRecordById() throws InterruptedException {
+        // Arrange
+        store.record("user@example.com", "What is Spring Boot?", response("id-1", "A framework"));
+
+        // Act
+        awaitWritten(1);
+
+        // Assert
+        assertThat(store.findById("id-1")).hasValueSatisfying(record -> {
+            assertThat(record.prompt()).isEqualTo("What is Spring Boot?");
+            assertThat(record.content()).isEqualTo("A framework");
+            assertThat(record.email()).isEqualTo("user@example.com");
+        });
+        assertThat(store.findById("missing")).isEmpty();
+    }
+
+    /**
+     * Test: a user's history should be paged newest first using the cursor
+     */
+    @Test
+    void shouldPageUserHistoryNewestFirst() throws InterruptedException {
+        // Arrange
+        for (int i = 1; i <= 5; i++) {
+            store.record("User@Example.com", "prompt " + i, response("id-" + i, "answer " + i));
+        }
+        store.record("other@example.com", "other", response("other-1", "other"));
+        awaitWritten(6);
+
+        // Act
+        HistoryPage first = store.findByEmail("user@example.com", null, null, null, 2);
+        HistoryPage second = store.findByEmail("user@example.com", first.nextCursor(), null, null, 2);
+        HistoryPage last = store.findByEmail("user@example.com", second.nextCursor(), null, null, 2);
+
+        // Assert
+        assertThat(first.items()).extracting(HistoryRecord::id).containsExactly("id-5", "id-4");
+        assertThat(second.items()).extracting(HistoryRecord::id).containsExactly("id-3", "id-2");
+        assertThat(last.items()).extracting(HistoryRecord::id).containsExactly("id-1");
+        assertThat(last.nextCursor()).isNull();
+    }
+
+    /**
+     * Test: records should survive a restart and a torn tail should be discarded
+     */
+    @Test
+    void shouldRecoverRecordsAfterRestart() throws IOException, InterruptedException {
+        // Arrange
+        store.record("user@example.com", "prompt", response("id-1", "answer"));
+        awaitWritten(1);
+        store.shutdown();
+        Files.write(directory.resolve(HistoryStore.LOG_FILE_NAME), new byte[] {0, 0, 1, 0, 42},
+            StandardOpenOption.APPEND);
+
+        // Act
+        store = new HistoryStore(config);
+
+        // Assert
+        assertThat(store.findById("id-1")).isPresent();
+        assertThat(store.findByEmail("user@example.com", null, null, null, 10).items()).hasSize(1);
+        assertThat(Files.size(directory.resolve(HistoryStore.LOG_FILE_NAME))).isEqualTo(store.getStats().logSizeBytes());
+    }
+
+    /**
+     * Test: once the log outgrows its size cap the oldest records should be dropped
+     */
+    @Test
+    void shouldDropOldestRecordsWhenLogExceedsMaxSize() throws InterruptedException {
+        // Arrange
+        store.shutdown();
+        config.setMaxLogSize(DataSize.ofKilobytes(4));
+        store = new HistoryStore(config);
+        String content = "x".repeat(200);
+
+        // Act
+        for (int i = 1; i <= 40; i++) {
+            store.record("user@example.com", "prompt " + i, response("id-" + i, content));
+        }
+        awaitWritten(40);
+        awaitLogSizeAtMost(DataSize.ofKilobytes(4).toBytes());
+
+        // Assert
+        assertThat(store.findById("id-1")).isEmpty();
+        assertThat(store.findById("id-40")).isPresent();
+        assertThat(store.getStats().compactions()).isPositive();
+        assertThat(Files.size(directory.resolve(HistoryStore.LOG_FILE_NAME))).isEqualTo(store.getStats().logSizeBytes());
+    }
+
+    /**
+     * Test: records older than the retention window should be dropped on startup
+     */
+    @Test
+    void shouldDropRecordsOlderThanRetention() throws InterruptedException {
+        // Arrange
+        store.record("user@example.com", "prompt", response("id-1", "answer"));
+        awaitWritten(1);
+        store.shutdown();
+        config.setRetentionMs(1);
+        Thread.sleep(5);
+
+        // Act
+        store = new HistoryStore(config);
+        awaitCompactions(1);
+
+        // Assert
+        assertThat(store.findById("id-1")).isEmpty();
+        assertThat(store.findByEmail("user@example.com", null, null, null, 10).items()).isEmpty();
+        assertThat(store.getStats().recordsExpired()).isEqualTo(1);
+    }
+
+    private void awaitWritten(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (store.getStats().recordsWritten() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(store.getStats().recordsWritten()).isEqualTo(count);
+    }
+
+    private void awaitCompactions(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (store.getStats().compactions() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(store.getStats().compactions()).isGreaterThanOrEqualTo(count);
+    }
+
+    private void awaitLogSizeAtMost(long bytes) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (store.getStats().logSizeBytes() > bytes && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(store.getStats().logSizeBytes()).isLessThanOrEqualTo(bytes);
+    }
+
+    private static PromptResponse response(String id, String content) {
+        return new PromptResponse(content, "test-model", id, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,207 @@
+package demystified.hackathon.demo.service.idempotency;
+
+import demystified.hackathon.demo.config.CancellationConfig;
+import demystified.hackathon.demo.config.IdempotencyConfig;
+import demystified.hackathon.demo.service.cancellation.RequestCancelledException;
+import demystified.hackathon.demo.service.cancellation.RequestListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyStoreTest {
+    private static final String KEY = "3f2c9a1e-retry";
+
+    private IdempotencyConfig config;
+    private IdempotencyStore store;
+
+    private final AtomicInteger runs = new AtomicInteger();
+    private final AtomicReference<RequestListener<String>> lastListener = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() {
+        config = new IdempotencyConfig();
+        store = new IdempotencyStore(config, new CancellationConfig());
+    }
+
+    /**
+     * Test: a repeated key should be answered from the first result without running again
+     */
+    @Test
+    void shouldReplayFinishedRequest() {
+        // Arrange
+        DeferredResult<String> first = store.execute(KEY, () -> "payload", this::runAndAnswer);
+
+        // Act
+        DeferredResult<String> repeat = store.execute(KEY, () -> "payload", this::runAndAnswer);
+
+        // Assert
+        assertThat(first.getResult()).isEqualTo("answer 1");
+        assertThat(repeat.getResult()).isEqualTo("answer 1");
+        assertThat(runs.get()).isEqualTo(1);
+        assertThat(store.getStats().replayed()).isEqualTo(1);
+    }
+
+    /**
+     * Test: a repeat arriving while the first request runs should wait for its answer
+     */
+    @Test
+    void shouldLetConcurrentRepeatWaitForFirstRequest() {
+        // Arrange
+        store.execute(KEY, () -> "payload", this::runWithoutAnswer);
+        DeferredResult<String> repeat = store.execute(KEY, () -> "payload", this::runWithoutAnswer);
+        assertThat(repeat.hasResult()).isFalse();
+
+        // Act
+        lastListener.get().completed("late answer");
+
+        // Assert
+        assertThat(repeat.getResult()).isEqualTo("late answer");
+        assertThat(runs.get()).isEqualTo(1);
+        assertThat(store.getStats().joined()).isEqualTo(1);
+        assertThat(lastListener.get().keepsAnswer()).isTrue();
+    }
+
+    /**
+     * Test: a failed request should pass its error to waiting repeats and let the next retry run
+     */
+    @Test
+    void shouldForgetKeyWhenRequestFails() {
+        // Arrange
+        store.execute(KEY, () -> "payload", this::runWithoutAnswer);
+        DeferredResult<String> waiting = store.execute(KEY, () -> "payload", this::runWithoutAnswer);
+
+        // Act
+        lastListener.get().failed(new RequestCancelledException());
+        DeferredResult<String> retry = store.execute(KEY, () -> "payload", this::runAndAnswer);
+
+        // Assert
+        assertThat(waiting.getResult()).isInstanceOf(RequestCancelledException.class);
+        assertThat(retry.getResult()).isEqualTo("answer 2");
+        assertThat(runs.get()).isEqualTo(2);
+        assertThat(store.getStats().failed()).isEqualTo(1);
+    }
+
+    /**
+     * Test: reusing a key for a different payload should be rejected
+     */
+    @Test
+    void shouldRejectKeyReusedForDifferentPayload() {
+        // Arrange
+        store.execute(KEY, () -> "payload", this::runAndAnswer);
+
+        // Act & Assert
+        assertThatThrownBy(() -> store.execute(KEY, () -> "other payload", this::runAndAnswer))
+            .isInstanceOf(IdempotencyException.class)
+            .satisfies(e -> assertThat(((IdempotencyException) e).getStatusCode())
+                .isEqualTo(HttpStatus.UNPROCESSABLE_CONTENT));
+        assertThat(runs.get()).isEqualTo(1);
+        assertThat(store.getStats().mismatched()).isEqualTo(1);
+    }
+
+    /**
+     * Test: a key should run again once its answer has expired
+     */
+    @Test
+    void shouldRunAgainAfterAnswerExpired() {
+        // Arrange
+        config.setTtlMs(0);
+        store.execute(KEY, () -> "payload", this::runAndAnswer);
+
+        // Act
+        DeferredResult<String> repeat = store.execute(KEY, () -> "payload", this::runAndAnswer);
+
+        // Assert
+        assertThat(repeat.getResult()).isEqualTo("answer 2");
+        assertThat(runs.get()).isEqualTo(2);
+    }
+
+    /**
+     * Test: the oldest keys should be dropped beyond the entry limit
+     */
+    @Test
+    void shouldDropOldestKeysBeyondLimit() {
+        // Arrange
+        config.setMaxEntries(1);
+        store.execute("key-1", () -> "payload", this::runAndAnswer);
+        store.execute("key-2", () -> "payload", this::runAndAnswer);
+
+        // Act
+        DeferredResult<String> repeat = store.execute("key-1", () -> "payload", this::runAndAnswer);
+
+        // Assert
+        assertThat(repeat.getResult()).isEqualTo("answer 3");
+        assertThat(store.getStats().evicted()).isEqualTo(2);
+        assertThat(store.getStats().entries()).isEqualTo(1);
+    }
+
+    /**
+     * Test: keys still in progress should never be dropped, and new keys should be refused instead
+     */
+    @Test
+    void shouldRejectNewKeyWhenOnlyKeysInProgressAreKept() {
+        // Arrange
+        config.setMaxEntries(1);
+        store.execute("key-1", () -> "payload", this::runWithoutAnswer);
+
+        // Act & Assert
+        assertThatThrownBy(() -> store.execute("key-2", () -> "payload", this::runAndAnswer))
+            .isInstanceOf(IdempotencyException.class)
+            .satisfies(e -> assertThat(((IdempotencyException) e).getStatusCode())
+                .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        DeferredResult<String> retry = store.execute("key-1", () -> "payload", this::runWithoutAnswer);
+        assertThat(retry.hasResult()).isFalse();
+        assertThat(runs.get()).isEqualTo(1);
+        assertThat(store.getStats().evicted()).isZero();
+        assertThat(store.getStats().rejected()).isEqualTo(1);
+    }
+
+    /**
+     * Test: requests without a key should always run, and the fingerprint should not be computed
+     */
+    @Test
+    void shouldRunRequestsWithoutKey() {
+        // Act
+        store.execute(null, () -> {
+            throw new AssertionError("fingerprint computed without a key");
+        }, this::runAndAnswer);
+        store.execute(" ", () -> "payload", this::runAndAnswer);
+
+        // Assert
+        assertThat(runs.get()).isEqualTo(2);
+        assertThat(store.getStats().requests()).isZero();
+    }
+
+    /**
+     * Test: a key with spaces or control characters should be rejected
+     */
+    @Test
+    void shouldRejectMalformedKey() {
+        // Act & Assert
+        assertThatThrownBy(() -> store.execute("two words", () -> "payload", this::runAndAnswer))
+            .isInstanceOf(IdempotencyException.class)
+            .hasMessageContaining(IdempotencyStore.HEADER);
+    }
+
+    private DeferredResult<String> runAndAnswer(RequestListener<String> listener) {
+        DeferredResult<String> result = new DeferredResult<>();
+        String answer = "answer " + runs.incrementAndGet();
+        if (listener != null) {
+            listener.completed(answer);
+        }
+        result.setResult(answer);
+        return result;
+    }
+
+    private DeferredResult<String> runWithoutAnswer(RequestListener<String> listener) {
+        runs.incrementAndGet();
+        lastListener.set(listener);
+        return new DeferredResult<>();
+    }
+}
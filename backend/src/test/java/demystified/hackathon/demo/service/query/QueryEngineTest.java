@@ -0,0 +1,156 @@
+package demystified.hackathon.demo.service.query;
+
+import demystified.hackathon.demo.config.QueryConfig;
+import demystified.hackathon.demo.service.csv.CsvTokenizer;
+import demystified.hackathon.demo.service.generation.TokenEstimator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QueryEngineTest {
+
+    private static final String CSV = """
+        Date,Region,Product,Revenue,Units
+        2024-03-01,EU,Widget,"1,200.50",3
+        2024-03-02,US,Gadget,99.99,10
+        2024-04-01,EU,Gadget,0.10,1
+        2024-04-02,APAC,Widget,0.20,2
+        2024-05-01,US,Widget,,4
+        """;
+
+    private QueryConfig config;
+    private QueryEngine engine;
+    private QueryTable table;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        config = new QueryConfig();
+        engine = new QueryEngine(config);
+        table = table(CSV);
+    }
+
+    /**
+     * Test: a grouped query should filter, aggregate, order and limit over every row
+     */
+    @Test
+    void shouldAggregateFilteredRowsByGroup() {
+        // Arrange
+        QueryPlan plan = engine.parsePlan("""
+            Here is the query:
+            ```json
+            {"filters": [{"column": "date", "op": ">=", "value": "2024-03-02"}],
+             "groupBy": "Region",
+             "aggregates": [{"function": "SUM", "column": "Revenue", "as": "total"}, {"fn": "count"}],
+             "orderBy": "total desc", "limit": 2, "notes": {"ignored": [1, 2]}}
+            ```""");
+
+        // Act
+        QueryResult result = engine.execute(plan, table);
+
+        // Assert
+        assertThat(result.columns()).containsExactly("Region", "total", "count(*)");
+        assertThat(result.rows()).containsExactly(List.of("US", "99.99", "2"), List.of("APAC", "0.2", "1"));
+        assertThat(result.scannedRows()).isEqualTo(5);
+        assertThat(result.matchedRows()).isEqualTo(4);
+        assertThat(result.toMarkdown()).endsWith("_Showing the first 2 of 3 result rows._\n");
+        assertThat(plan.describe()).isEqualTo("SELECT Region, sum(Revenue) AS total, count(*) "
+            + "WHERE date >= '2024-03-02' GROUP BY Region ORDER BY total DESC LIMIT 2");
+    }
+
+    /**
+     * Test: aggregates without group-by should return one row, also when no row matches
+     */
+    @Test
+    void shouldAggregateWholeTable() {
+        // Act
+        QueryResult all = engine.execute(engine.parsePlan(
+            "{\"aggregates\": [{\"function\": \"sum\", \"column\": \"Revenue\"}, {\"function\": \"max\", \"column\": \"Units\"}]}"),
+            table);
+        QueryResult none = engine.execute(engine.parsePlan(
+            "{\"filters\": [{\"column\": \"Region\", \"value\": \"LATAM\"}], \"aggregates\": [{\"function\": \"count\"}]}"),
+            table);
+
+        // Assert
+        assertThat(all.rows()).containsExactly(List.of("1300.79", "10"));
+        assertThat(none.rows()).containsExactly(List.of("0"));
+    }
+
+    /**
+     * Test: without aggregates the matching rows should be returned with the selected columns
+     */
+    @Test
+    void shouldReturnMatchingRows() {
+        // Act
+        QueryResult result = engine.execute(engine.parsePlan("""
+            {"filters": [{"column": "Product", "op": "contains", "value": "widg"}],
+             "select": ["Date", "Revenue"], "orderBy": [{"column": "Units", "direction": "desc"}]}"""), table);
+
+        // Assert
+        assertThat(result.columns()).containsExactly("Date", "Revenue");
+        assertThat(result.rows()).containsExactly(List.of("2024-05-01", ""), List.of("2024-03-01", "1,200.50"),
+            List.of("2024-04-02", "0.20"));
+    }
+
+    /**
+     * Test: replies that are not a query, or that do not fit the table, should be rejected
+     */
+    @Test
+    void shouldRejectInvalidPlans() {
+        assertThatThrownBy(() -> engine.parsePlan("I cannot answer that")).isInstanceOf(QueryPlanException.class);
+        assertThatThrownBy(() -> engine.execute(engine.parsePlan("{\"groupBy\": [\"Country\"]}"), table))
+            .isInstanceOf(QueryPlanException.class)
+            .hasMessageContaining("Unknown column Country");
+        assertThatThrownBy(() -> engine.execute(engine.parsePlan(
+            "{\"aggregates\": [{\"function\": \"sum\", \"column\": \"Region\"}]}"), table))
+            .isInstanceOf(QueryPlanException.class)
+            .hasMessageContaining("not numeric");
+        config.setMaxGroups(2);
+        assertThatThrownBy(() -> engine.execute(engine.parsePlan("{\"groupBy\": [\"Date\"]}"), table))
+            .isInstanceOf(QueryPlanException.class);
+    }
+
+    /**
+     * Test: the mode should follow the request, then the configured default, with auto picking aggregation questions
+     */
+    @Test
+    void shouldChooseMode() {
+        assertThat(engine.useQuery(null, "Total revenue by region")).isFalse();
+        assertThat(engine.useQuery("query", "Tell me about Acme")).isTrue();
+        assertThat(engine.useQuery("auto", "Total revenue by region")).isTrue();
+        assertThat(engine.useQuery("auto", "Tell me about Acme")).isFalse();
+        assertThatThrownBy(() -> engine.useQuery("fast", "x")).isInstanceOf(QueryPlanException.class);
+    }
+
+    /**
+     * Test: the schema sent for planning should be far smaller than the table, and the table estimate exact
+     */
+    @Test
+    void shouldDescribeSchemaAndEstimateTableTokens() throws IOException {
+        // Arrange
+        StringBuilder csv = new StringBuilder("Region,Revenue\n");
+        for (int i = 0; i < 5000; i++) {
+            csv.append(i % 2 == 0 ? "EU" : "US").append(',').append(i).append(".25\n");
+        }
+        QueryTable large = table(csv.toString());
+
+        // Act
+        String schema = engine.describe(large);
+
+        // Assert
+        assertThat(schema).startsWith("Rows: 5000").contains("| Revenue | number | 5000 | 0.25 to 4999.25 | ");
+        assertThat(large.estimateMarkdownTokens()).isEqualTo(TokenEstimator.estimate(large.renderMarkdown()));
+        assertThat(TokenEstimator.estimate(schema)).isLessThan((int) (large.estimateMarkdownTokens() / 100));
+    }
+
+    private static QueryTable table(String csv) throws IOException {
+        QueryTableBuilder builder = new QueryTableBuilder();
+        new CsvTokenizer(new StringReader(csv)).tokenize(builder);
+        return builder.build();
+    }
+}
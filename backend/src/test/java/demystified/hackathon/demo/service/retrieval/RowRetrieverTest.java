@@ -0,0 +1,152 @@
+package demystified.hackathon.demo.service.retrieval;
+
+import demystified.hackathon.demo.config.RetrievalConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RowRetrieverTest {
+
+    private static final String HEADER = "| Date | Customer | Product | Note | \n| --- | --- | --- | --- | \n";
+
+    private RetrievalConfig config;
+    private RowRetriever retriever;
+
+    @BeforeEach
+    void setUp() {
+        config = new RetrievalConfig();
+        config.setMinRows(10);
+        config.setTopK(5);
+        retriever = new RowRetriever(config);
+    }
+
+    /**
+     * Test: only the rows of the customer asked about should be sent, under the header and in file order
+     */
+    @Test
+    void shouldKeepOnlyRelevantRows() {
+        // Arrange
+        String table = table(100);
+
+        // Act
+        RowRetriever.RowSelection selection = retriever.select("What happened with customer Acme?", table);
+
+        // Assert
+        assertThat(selection.reduced()).isTrue();
+        assertThat(selection.totalRows()).isEqualTo(100);
+        assertThat(selection.selectedRows()).isEqualTo(4);
+        assertThat(selection.table())
+            .startsWith(HEADER + "| 2024-03-09 | Acme | Product I | ok | \n| 2024-09-06 | Acme |")
+            .contains("| 2024-03-03 | Acme |", "| 2024-09-28 | Acme |")
+            .endsWith("_Showing the 4 of 100 rows most relevant to the question._\n");
+        assertThat(selection.table()).doesNotContain("Globex");
+    }
+
+    /**
+     * Test: a month name in the question should match ISO dates, ranking rows that match every term first
+     */
+    @Test
+    void shouldMatchMonthNamesAndRankByScore() {
+        // Arrange
+        String table = table(100);
+
+        // Act
+        RowRetriever.RowSelection selection = retriever.select("Acme orders in March", table);
+
+        // Assert
+        assertThat(selection.selectedRows()).isEqualTo(5);
+        assertThat(selection.table()).contains("| 2024-03-09 | Acme |", "| 2024-03-10 | Initech |");
+    }
+
+    /**
+     * Test: plural words in the question should match singular cell values
+     */
+    @Test
+    void shouldMatchPlurals() {
+        // Arrange
+        String table = table(100);
+
+        // Act
+        RowRetriever.RowSelection selection = retriever.select("list the refunds", table);
+
+        // Assert
+        assertThat(selection.selectedRows()).isEqualTo(2);
+        assertThat(selection.table()).contains("| refund requested |");
+    }
+
+    /**
+     * Test: questions that match no row, and small tables, should keep the full table
+     */
+    @Test
+    void shouldKeepFullTableWhenNothingMatchesOrTableIsSmall() {
+        // Arrange
+        String large = table(100);
+        String small = table(8);
+
+        // Act
+        RowRetriever.RowSelection noMatch = retriever.select("What is the total?", large);
+        RowRetriever.RowSelection tooSmall = retriever.select("Acme", small);
+
+        // Assert
+        assertThat(noMatch.table()).isSameAs(large);
+        assertThat(noMatch.reduced()).isFalse();
+        assertThat(tooSmall.table()).isSameAs(small);
+        assertThat(retriever.getStats().noMatch()).isEqualTo(1);
+        assertThat(retriever.getStats().belowMinRows()).isEqualTo(1);
+    }
+
+    /**
+     * Test: an aggregate question should keep every row even when some rows match it
+     */
+    @Test
+    void shouldKeepFullTableForAggregateQuestion() {
+        // Arrange
+        String table = table(100);
+
+        // Act
+        RowRetriever.RowSelection selection = retriever.select("total of the refunds", table, true);
+
+        // Assert
+        assertThat(selection.table()).isSameAs(table);
+        assertThat(selection.reduced()).isFalse();
+        assertThat(retriever.getStats().aggregations()).isEqualTo(1);
+        assertThat(retriever.getStats().retrieved()).isZero();
+    }
+
+    /**
+     * Test: a parallel build across several chunks should rank exactly like a sequential one
+     */
+    @Test
+    void shouldBuildSameIndexInParallel() {
+        // Arrange
+        String table = table(RowIndex.CHUNK_ROWS * 3 + 17);
+
+        // Act
+        RowIndex sequential = RowIndex.build(table, false);
+        RowIndex parallel = RowIndex.build(table, true);
+
+        // Assert
+        assertThat(parallel.rowCount()).isEqualTo(sequential.rowCount()).isEqualTo(RowIndex.CHUNK_ROWS * 3 + 17);
+        assertThat(parallel.search("Acme refund May", 50, 1.2, 0.75))
+            .containsExactly(sequential.search("Acme refund May", 50, 1.2, 0.75));
+    }
+
+    /**
+     * Builds rows where every 25th row is for Acme, every 50th a refund, and the rest
+     * alternate between two other customers.
+     */
+    private static String table(int rows) {
+        StringBuilder table = new StringBuilder(HEADER);
+        for (int i = 0; i < rows; i++) {
+            String customer = i % 25 == 8 ? "Acme" : (i % 2 == 0 ? "Globex" : "Initech");
+            table.append("| 2024-").append(String.format("%02d", i / 4 % 12 + 1))
+                .append('-').append(String.format("%02d", i % 28 + 1))
+                .append(" | ").append(customer)
+                .append(" | Product ").append((char) ('A' + i % 26))
+                .append(" | ").append(i % 50 == 7 ? "refund requested" : "ok")
+                .append(" | \n");
+        }
+        return table.toString();
+    }
+}
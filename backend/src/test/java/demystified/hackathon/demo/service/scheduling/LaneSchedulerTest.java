@@ -0,0 +1,238 @@
+package demystified.hackathon.demo.service.scheduling;
+
+import demystified.hackathon.demo.config.LaneConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LaneSchedulerTest {
+
+    private LaneConfig config;
+    private LaneScheduler scheduler;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<String> upstreamOrder = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        config = new LaneConfig();
+        config.setUpstreamMaxConcurrent(1);
+        config.setStarvationThresholdMs(60_000);
+        scheduler = new LaneScheduler(config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        scheduler.shutdown();
+    }
+
+    /**
+     * Test: submitted work should run on a worker of its lane with the lane bound
+     */
+    @Test
+    void shouldRunWorkOnItsLane() throws InterruptedException {
+        // Arrange
+        CountDownLatch ran = new CountDownLatch(1);
+        AtomicReference<String> thread = new AtomicReference<>();
+        AtomicReference<Lane> lane = new AtomicReference<>();
+
+        // Act
+        scheduler.submit(Lane.CSV, () -> {
+            thread.set(Thread.currentThread().getName());
+            lane.set(LaneScheduler.currentLane());
+            ran.countDown();
+        });
+
+        // Assert
+        assertThat(ran.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(thread.get()).startsWith("lane-csv-");
+        assertThat(lane.get()).isEqualTo(Lane.CSV);
+        assertThat(LaneScheduler.currentLane()).isEqualTo(Lane.INTERACTIVE);
+    }
+
+    /**
+     * Test: a full lane should reject new work without affecting other lanes
+     */
+    @Test
+    void shouldRejectWorkWhenLaneQueueIsFull() throws InterruptedException {
+        // Arrange
+        scheduler.shutdown();
+        config.getBatch().setThreads(1);
+        config.getBatch().setQueueCapacity(1);
+        scheduler = new LaneScheduler(config);
+        CountDownLatch started = new CountDownLatch(1);
+        scheduler.submit(Lane.BATCH, () -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        scheduler.submit(Lane.BATCH, () -> { });
+
+        // Act & Assert
+        assertThatThrownBy(() -> scheduler.submit(Lane.BATCH, () -> { }))
+            .isInstanceOf(LaneFullException.class);
+        CountDownLatch interactiveRan = new CountDownLatch(1);
+        scheduler.submit(Lane.INTERACTIVE, interactiveRan::countDown);
+        assertThat(interactiveRan.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(laneStats(Lane.BATCH).rejected()).isEqualTo(1);
+    }
+
+    /**
+     * Test: a free upstream slot should go to the interactive call even if batch waited longer
+     */
+    @Test
+    void shouldGiveFreeSlotToHigherPriorityLane() throws InterruptedException {
+        // Arrange
+        Thread holder = upstreamCall(Lane.INTERACTIVE, "holder", release);
+        awaitUpstream(Lane.INTERACTIVE, 1, 0);
+        Thread batch = upstreamCall(Lane.BATCH, "batch", null);
+        awaitUpstream(Lane.BATCH, 0, 1);
+        Thread interactive = upstreamCall(Lane.INTERACTIVE, "interactive", null);
+        awaitUpstream(Lane.INTERACTIVE, 1, 1);
+
+        // Act
+        release.countDown();
+        join(holder, batch, interactive);
+
+        // Assert
+        assertThat(upstreamOrder).containsExactly("holder", "interactive", "batch");
+        assertThat(laneStats(Lane.BATCH).starvationGrants()).isZero();
+    }
+
+    /**
+     * Test: a lane waiting past the starvation threshold should get the next slot
+     */
+    @Test
+    void shouldServeStarvedLaneFirst() throws InterruptedException {
+        // Arrange
+        scheduler.shutdown();
+        config.setStarvationThresholdMs(0);
+        scheduler = new LaneScheduler(config);
+        Thread holder = upstreamCall(Lane.INTERACTIVE, "holder", release);
+        awaitUpstream(Lane.INTERACTIVE, 1, 0);
+        Thread batch = upstreamCall(Lane.BATCH, "batch", null);
+        awaitUpstream(Lane.BATCH, 0, 1);
+        Thread interactive = upstreamCall(Lane.INTERACTIVE, "interactive", null);
+        awaitUpstream(Lane.INTERACTIVE, 1, 1);
+
+        // Act
+        release.countDown();
+        join(holder, batch, interactive);
+
+        // Assert
+        assertThat(upstreamOrder).containsExactly("holder", "batch", "interactive");
+        assertThat(laneStats(Lane.BATCH).starvationGrants()).isEqualTo(1);
+    }
+
+    /**
+     * Test: a lane should not hold more upstream slots than its share
+     */
+    @Test
+    void shouldCapUpstreamCallsAtLaneShare() throws InterruptedException {
+        // Arrange
+        scheduler.shutdown();
+        config.setUpstreamMaxConcurrent(4);
+        scheduler = new LaneScheduler(config);
+        Thread first = upstreamCall(Lane.BATCH, "first", release);
+        awaitUpstream(Lane.BATCH, 1, 0);
+
+        // Act
+        Thread second = upstreamCall(Lane.BATCH, "second", null);
+        awaitUpstream(Lane.BATCH, 1, 1);
+        Thread interactive = upstreamCall(Lane.INTERACTIVE, "interactive", null);
+        interactive.join(5000);
+
+        // Assert
+        assertThat(upstreamOrder).containsExactly("first", "interactive");
+        release.countDown();
+        join(first, second);
+        assertThat(upstreamOrder).containsExactly("first", "interactive", "second");
+        assertThat(laneStats(Lane.BATCH).upstreamCap()).isEqualTo(1);
+    }
+
+    /**
+     * Test: an interrupted wait for an upstream slot should give up its place in line
+     */
+    @Test
+    void shouldStopWaitingWhenInterrupted() throws InterruptedException {
+        // Arrange
+        Thread holder = upstreamCall(Lane.INTERACTIVE, "holder", release);
+        awaitUpstream(Lane.INTERACTIVE, 1, 0);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread waiter = new Thread(() -> {
+            try {
+                scheduler.callInLane(Lane.CSV, () -> scheduler.callUpstream(() -> "never"));
+            } catch (IllegalStateException e) {
+                failure.set(e);
+            }
+        });
+        waiter.start();
+        awaitUpstream(Lane.CSV, 0, 1);
+
+        // Act
+        waiter.interrupt();
+        waiter.join(5000);
+
+        // Assert
+        assertThat(failure.get()).isInstanceOf(IllegalStateException.class);
+        assertThat(laneStats(Lane.CSV).upstreamWaiting()).isZero();
+        release.countDown();
+        holder.join(5000);
+        assertThat(scheduler.getStats().upstreamInUse()).isZero();
+    }
+
+    private Thread upstreamCall(Lane lane, String name, CountDownLatch hold) {
+        Thread thread = new Thread(() -> scheduler.callInLane(lane, () -> scheduler.callUpstream(() -> {
+            upstreamOrder.add(name);
+            if (hold != null) {
+                awaitQuietly(hold);
+            }
+            return name;
+        })));
+        thread.start();
+        return thread;
+    }
+
+    private void awaitUpstream(Lane lane, int inUse, int waiting) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            LaneScheduler.LaneStats stats = laneStats(lane);
+            if (stats.upstreamInUse() == inUse && stats.upstreamWaiting() == waiting) {
+                return;
+            }
+            Thread.sleep(5);
+        }
+        throw new AssertionError("Lane " + lane + " did not reach " + inUse + " in use and " + waiting + " waiting");
+    }
+
+    private LaneScheduler.LaneStats laneStats(Lane lane) {
+        return scheduler.getStats().lanes().stream()
+            .filter(stats -> stats.lane().equals(lane.key()))
+            .findFirst()
+            .orElseThrow();
+    }
+
+    private static void join(Thread... threads) throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
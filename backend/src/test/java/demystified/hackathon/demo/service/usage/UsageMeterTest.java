@@ -0,0 +1,166 @@
+package demystified.hackathon.demo.service.usage;
+
+import demystified.hackathon.demo.config.UsageConfig;
+import demystified.hackathon.demo.service.chat.TokenUsage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UsageMeterTest {
+    private static final long DAY_MS = 86_400_000L;
+
+    @TempDir
+    Path directory;
+
+    private UsageConfig config;
+    private UsageMeter meter;
+
+    @BeforeEach
+    void setUp() {
+        config = new UsageConfig();
+        config.setDirectory(directory.toString());
+        config.setFlushIntervalMs(3_600_000);
+        meter = new UsageMeter(config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        meter.shutdown();
+    }
+
+    /**
+     * Test: usage should be summed per user, ignoring email case
+     */
+    @Test
+    void shouldAggregateUsagePerUser() {
+        // Arrange
+        meter.record("User@Example.com", "model-a", null, new TokenUsage(100, 20, 120), 40);
+        meter.record("user@example.com", "model-b", "sales.csv", new TokenUsage(300, 30, 330), 60);
+        meter.record(null, "model-a", null, new TokenUsage(10, 5, 15), 10);
+
+        // Act
+        List<UsageRollup> rollups = meter.rollup(EnumSet.of(UsageDimension.USER), DAY_MS, null, null, null);
+
+        // Assert
+        assertThat(rollups).hasSize(2);
+        UsageRollup user = rollups.get(0);
+        assertThat(user.email()).isEqualTo("user@example.com");
+        assertThat(user.modelId()).isNull();
+        assertThat(user.requests()).isEqualTo(2);
+        assertThat(user.promptTokens()).isEqualTo(400);
+        assertThat(user.completionTokens()).isEqualTo(50);
+        assertThat(user.averageLatencyMs()).isEqualTo(50.0);
+        assertThat(rollups.get(1).email()).isEqualTo(UsageMeter.ANONYMOUS);
+    }
+
+    /**
+     * Test: rollups should split usage by model and CSV and price it per model
+     */
+    @Test
+    void shouldGroupByModelAndCsvWithCost() {
+        // Arrange
+        config.getCostPerThousandTokens().put("model-a", 2.0);
+        meter.record("user@example.com", "model-a", "sales.csv", new TokenUsage(400, 100, 500), 10);
+        meter.record("user@example.com", "model-a", null, new TokenUsage(200, 50, 250), 10);
+        meter.record("user@example.com", "model-b", null, new TokenUsage(200, 50, 250), 10);
+
+        // Act
+        List<UsageRollup> rollups = meter.rollup(EnumSet.of(UsageDimension.MODEL, UsageDimension.CSV), DAY_MS,
+            null, null, "user@example.com");
+
+        // Assert
+        assertThat(rollups).hasSize(3);
+        assertThat(rollups.get(0).csvName()).isEqualTo("sales.csv");
+        assertThat(rollups.get(0).estimatedCost()).isEqualTo(1.0);
+        assertThat(rollups).filteredOn(rollup -> "model-b".equals(rollup.modelId()))
+            .singleElement()
+            .satisfies(rollup -> assertThat(rollup.estimatedCost()).isZero());
+    }
+
+    /**
+     * Test: flushed usage should survive a restart and a torn last line should be dropped
+     */
+    @Test
+    void shouldReloadFlushedUsageAfterRestart() throws IOException {
+        // Arrange
+        meter.record("user@example.com", "model-a", null, new TokenUsage(100, 20, 120), 40);
+        meter.flush();
+        meter.record("user@example.com", "model-a", null, new TokenUsage(50, 10, 60), 20);
+        meter.shutdown();
+        Files.writeString(directory.resolve(UsageMeter.LOG_FILE_NAME), "1700000000000\tuser@exa",
+            StandardOpenOption.APPEND);
+
+        // Act
+        meter = new UsageMeter(config);
+        List<UsageRollup> rollups = meter.rollup(EnumSet.noneOf(UsageDimension.class), DAY_MS, null, null, null);
+
+        // Assert
+        assertThat(rollups).hasSize(1);
+        assertThat(rollups.get(0).requests()).isEqualTo(2);
+        assertThat(rollups.get(0).totalTokens()).isEqualTo(180);
+        assertThat(Files.readString(directory.resolve(UsageMeter.LOG_FILE_NAME))).endsWith("\n");
+    }
+
+    /**
+     * Test: concurrent recording racing with flushes should neither lose nor double count usage
+     */
+    @Test
+    void shouldNotLoseUsageRecordedDuringFlush() throws InterruptedException {
+        // Arrange
+        int threads = 4;
+        int perThread = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // Act
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    meter.record("user@example.com", "model-a", null, new TokenUsage(1, 1, 2), 1);
+                }
+            });
+        }
+        for (int i = 0; i < 20; i++) {
+            meter.flush();
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        // Assert
+        List<UsageRollup> rollups = meter.rollup(EnumSet.noneOf(UsageDimension.class), DAY_MS, null, null, null);
+        assertThat(rollups).hasSize(1);
+        assertThat(rollups.get(0).requests()).isEqualTo((long) threads * perThread);
+    }
+
+    /**
+     * Test: keys beyond the configured maximum should be folded into one overflow key
+     */
+    @Test
+    void shouldFoldKeysBeyondMaximum() {
+        // Arrange
+        config.setMaxKeys(2);
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            meter.record("user" + i + "@example.com", "model-a", null, new TokenUsage(1, 1, 2), 1);
+        }
+
+        // Assert
+        assertThat(meter.getStats().trackedKeys()).isEqualTo(3);
+        assertThat(meter.rollup(EnumSet.of(UsageDimension.USER), DAY_MS, null, null, UsageMeter.OTHER))
+            .singleElement()
+            .satisfies(rollup -> assertThat(rollup.requests()).isEqualTo(3));
+    }
+}
@@ -0,0 +1,159 @@
+package demystified.hackathon.demo.tracing;
+
+import demystified.hackathon.demo.config.TracingConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TracerTest {
+    private static final String SAMPLED_PARENT = "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01";
+    private static final String UNSAMPLED_PARENT = "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-00";
+
+    @TempDir
+    Path directory;
+
+    private TracingConfig config;
+    private SpanExporter exporter;
+    private Tracer tracer;
+
+    @BeforeEach
+    void setUp() {
+        config = new TracingConfig();
+        config.setDirectory(directory.toString());
+        config.setSampleRatio(1.0);
+        exporter = new SpanExporter(config);
+        tracer = new Tracer(config, exporter);
+    }
+
+    @AfterEach
+    void tearDown() {
+        exporter.shutdown();
+    }
+
+    /**
+     * Test: spans started inside a server span, also on other threads, should join its trace
+     */
+    @Test
+    void shouldNestSpansAcrossThreads() throws InterruptedException {
+        // Arrange
+        String[] childTraceparent = new String[1];
+
+        // Act
+        try (Span server = tracer.startServerSpan("POST /api/send-prompt", SAMPLED_PARENT)) {
+            Thread worker = new Thread(Tracer.propagate(() -> {
+                try (Span child = tracer.startSpan("watsonx.attempt", SpanKind.CLIENT)) {
+                    childTraceparent[0] = child.traceparent();
+                }
+            }));
+            worker.start();
+            worker.join();
+
+            // Assert
+            assertThat(server.traceId()).isEqualTo("0af7651916cd43dd8448eb211c80319c");
+            assertThat(childTraceparent[0]).startsWith("00-0af7651916cd43dd8448eb211c80319c-");
+            assertThat(Tracer.current()).isSameAs(server);
+        }
+        assertThat(Tracer.current().isRecording()).isFalse();
+    }
+
+    /**
+     * Test: a caller's unsampled decision should apply to every span of the request
+     */
+    @Test
+    void shouldNotRecordUnsampledTrace() {
+        // Act
+        try (Span server = tracer.startServerSpan("POST /api/send-prompt", UNSAMPLED_PARENT);
+             Span child = tracer.startSpan("watsonx.chat")) {
+
+            // Assert
+            assertThat(server.isRecording()).isFalse();
+            assertThat(child.isRecording()).isFalse();
+        }
+        assertThat(tracer.getStats().tracesNotSampled()).isEqualTo(1);
+    }
+
+    /**
+     * Test: a caller's sampled flag should only force sampling when remote sampling is trusted
+     */
+    @Test
+    void shouldFollowRemoteSampledFlagOnlyWhenTrusted() {
+        // Arrange
+        config.setSampleRatio(0);
+
+        // Act
+        boolean untrusted;
+        try (Span server = tracer.startServerSpan("POST /api/send-prompt", SAMPLED_PARENT)) {
+            untrusted = server.isRecording();
+        }
+        config.setTrustRemoteSampled(true);
+        boolean trusted;
+        try (Span server = tracer.startServerSpan("POST /api/send-prompt", SAMPLED_PARENT)) {
+            trusted = server.isRecording();
+        }
+
+        // Assert
+        assertThat(untrusted).isFalse();
+        assertThat(trusted).isTrue();
+    }
+
+    /**
+     * Test: finished spans should be written as OTLP JSON with attributes and error status
+     */
+    @Test
+    void shouldExportSpansAsOtlpJson() throws IOException, InterruptedException {
+        // Arrange
+        try (Span server = tracer.startServerSpan("POST /api/send-prompt", null)) {
+            server.setAttribute("http.response.status_code", 200);
+            try {
+                tracer.trace("smtp.send", SpanKind.CLIENT, span -> {
+                    throw new IllegalStateException("Invalid address ana@example.com");
+                });
+            } catch (IllegalStateException expected) {
+                // recorded on the span
+            }
+        }
+
+        // Act
+        awaitExported(2);
+        List<String> lines = Files.readAllLines(directory.resolve(SpanExporter.FILE_NAME));
+        String json = String.join("\n", lines);
+
+        // Assert
+        assertThat(json).contains("\"name\":\"smtp.send\"", "\"kind\":3",
+            "{\"key\":\"http.response.status_code\",\"value\":{\"intValue\":\"200\"}}",
+            "\"status\":{\"code\":2,\"message\":\"IllegalStateException: Invalid address a***@example.com\"}");
+    }
+
+    /**
+     * Test: a disabled tracer should never record nor mark the thread
+     */
+    @Test
+    void shouldDoNothingWhenDisabled() {
+        // Arrange
+        Tracer disabled = Tracer.noop();
+
+        // Act
+        Span span = disabled.startServerSpan("POST /api/send-prompt", SAMPLED_PARENT);
+
+        // Assert
+        assertThat(span.isRecording()).isFalse();
+        assertThat(Tracer.current()).isSameAs(span);
+        span.close();
+    }
+
+    private void awaitExported(long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (exporter.getStats().spansExported() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(exporter.getStats().spansExported()).isEqualTo(count);
+    }
+}
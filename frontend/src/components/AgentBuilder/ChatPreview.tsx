@@ -1,4 +1,4 @@
-import { useState } from "react";
+import { useEffect, useRef, useState } from "react";
 import { Bot, Send, Link2, Loader2 } from "lucide-react";
 import { Button } from "@/components/ui/button";
 import { Input } from "@/components/ui/input";
@@ -40,6 +40,10 @@ export const ChatPreview = () => {
   const [emailInput, setEmailInput] = useState("");
   const [isLoading, setIsLoading] = useState(false);
   const { toast } = useToast();
+  const pendingRequest = useRef<AbortController | null>(null);
+
+  // Cancela a requisição pendente ao desmontar o componente
+  useEffect(() => () => pendingRequest.current?.abort(), []);
 
   const handleSend = async () => {
     // Validação
@@ -91,9 +95,12 @@ export const ChatPreview = () => {
     setInputValue("");
     setIsLoading(true);
 
+    const controller = new AbortController();
+    pendingRequest.current = controller;
+
     try {
       // Chamada ao backend
-      const response = await sendPrompt(inputValue, emailInput);
+      const response = await sendPrompt(inputValue, emailInput, controller.signal);
 
       // Adiciona resposta do agente
       const agentResponse: Message = {
@@ -109,6 +116,9 @@ export const ChatPreview = () => {
         description: "Mensagem processada com sucesso",
       });
     } catch (error) {
+      if (controller.signal.aborted) {
+        return;
+      }
       const errorMessage = error instanceof Error ? error.message : "Erro desconhecido";
       toast({
         title: "Erro",
@@ -119,6 +129,9 @@ export const ChatPreview = () => {
       // Remove a mensagem do usuário em caso de erro
       setMessages((prev) => prev.slice(0, -1));
     } finally {
+      if (pendingRequest.current === controller) {
+        pendingRequest.current = null;
+      }
       setIsLoading(false);
     }
   };
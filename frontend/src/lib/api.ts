@@ -15,17 +15,66 @@ interface PromptRequest {
   email: string;
 }
 
+/**
+ * Generates a random RFC 4122 version 4 id.
+ * crypto.randomUUID only exists in secure contexts (HTTPS or localhost), and the UI is
+ * also served over plain HTTP, so fall back to building the id from getRandomValues.
+ * @returns A new random id
+ */
+function randomId(): string {
+  if (typeof crypto.randomUUID === "function") {
+    return crypto.randomUUID();
+  }
+  const bytes = crypto.getRandomValues(new Uint8Array(16));
+  bytes[6] = (bytes[6] & 0x0f) | 0x40;
+  bytes[8] = (bytes[8] & 0x3f) | 0x80;
+  const hex = Array.from(bytes, (b) => b.toString(16).padStart(2, "0")).join("");
+  return `${hex.slice(0, 8)}-${hex.slice(8, 12)}-${hex.slice(12, 16)}-${hex.slice(16, 20)}-${hex.slice(20)}`;
+}
+
+/**
+ * Asks the backend to stop working on a prompt, e.g. because the user left the page.
+ * Uses a keepalive request so it is still sent while the page unloads.
+ * @param requestId - The X-Request-Id the prompt was sent with
+ * @param email - The email the prompt was sent with; the backend only cancels a match
+ */
+export function cancelPrompt(requestId: string, email: string): void {
+  const query = new URLSearchParams({ email });
+  fetch(`/api/requests/${encodeURIComponent(requestId)}?${query}`, {
+    method: "DELETE",
+    keepalive: true,
+  }).catch(() => {
+    // Nothing to do: the prompt may already be finished
+  });
+}
+
 /**
  * Sends a prompt to the backend to be processed by Watsonx AI
  * @param content - The text/prompt to be sent
  * @param email - User's email for notification
+ * @param signal - Optional signal to abort the request; the backend is told to cancel it
+ * @param idempotencyKey - Pass the same key when retrying the same prompt, so the backend
+ *   answers the retry from the first attempt instead of calling Watsonx and emailing again
  * @returns Response from Watsonx AI
  * @throws Error with user-friendly message in case of failure
  */
 export async function sendPrompt(
   content: string,
-  email: string
+  email: string,
+  signal?: AbortSignal,
+  idempotencyKey: string = randomId()
 ): Promise<PromptResponse> {
+  // Lets the backend find the prompt when we cancel it
+  const requestId = randomId();
+  let finished = false;
+  const cancel = () => {
+    if (!finished) {
+      cancelPrompt(requestId, email);
+    }
+  };
+  signal?.addEventListener("abort", cancel);
+  window.addEventListener("pagehide", cancel);
+
   try {
     const payload: PromptRequest = { content, email };
 
@@ -33,8 +82,11 @@ export async function sendPrompt(
       method: "POST",
       headers: {
         "Content-Type": "application/json",
+        "X-Request-Id": requestId,
+        "Idempotency-Key": idempotencyKey,
       },
       body: JSON.stringify(payload),
+      signal,
     });
 
     // HTTP error handling
@@ -59,6 +111,10 @@ export async function sendPrompt(
       throw error;
     }
     throw new Error("Unknown error connecting to server");
+  } finally {
+    finished = true;
+    signal?.removeEventListener("abort", cancel);
+    window.removeEventListener("pagehide", cancel);
   }
 }
 